@@ -0,0 +1,81 @@
+package com.automation.benchmark;
+
+import com.automation.config.ConfigFactory;
+import com.automation.driver.DriverManager;
+import com.automation.utils.WaitContext;
+import org.openjdk.jmh.annotations.*;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Microbenchmark for WaitContext, no browser needed (the driver is a no-op proxy).
+ *
+ * 1. Overhead per wait call when the condition is already true — the common case for
+ *    waitForElement on a loaded page: a new WebDriverWait + two WaitConfig reads per call (before)
+ *    vs the thread's cached wait (after). Add -prof gc to the JMH arguments for bytes per call.
+ * 2. Latency until a condition that becomes true after 120ms is noticed: fixed 500ms polling
+ *    vs adaptive polling (50, 100, 200... ms).
+ *
+ * Run: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=WaitContext
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WaitContextBenchmark {
+
+    private static final long READY_AFTER_MILLIS = 120;
+    private static final Function<WebDriver, Boolean> READY = d -> Boolean.TRUE;
+
+    private WebDriver driver;
+
+    /** DriverManager keeps the driver per thread; thread-scoped state is set up on the benchmark thread */
+    @Setup(Level.Trial)
+    public void bindNoOpDriver() {
+        driver = (WebDriver) Proxy.newProxyInstance(WebDriver.class.getClassLoader(),
+                new Class<?>[]{WebDriver.class}, (proxy, method, methodArgs) -> switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == methodArgs[0];
+                    case "toString" -> "NoOpDriver";
+                    default -> null;
+                });
+        DriverManager.setDriver(driver);
+    }
+
+    @Benchmark
+    public Boolean newWebDriverWaitPerCall() {
+        return new WebDriverWait(DriverManager.getDriver(),
+                Duration.ofSeconds(ConfigFactory.getWaitConfig().explicitWait()),
+                Duration.ofMillis(ConfigFactory.getWaitConfig().pollingInterval())).until(READY);
+    }
+
+    @Benchmark
+    public Boolean cachedWaitContext() {
+        WaitContext context = DriverManager.getWaitContext();
+        return context.waitFor(context.explicitWait()).until(READY);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Boolean fixedPollingLatency() {
+        return untilReady(new WebDriverWait(driver, Duration.ofSeconds(5), Duration.ofMillis(500)));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Boolean adaptivePollingLatency() {
+        return untilReady(DriverManager.getWaitContext().waitFor(Duration.ofSeconds(5)));
+    }
+
+    private static Boolean untilReady(org.openqa.selenium.support.ui.Wait<WebDriver> wait) {
+        long readyAt = System.currentTimeMillis() + READY_AFTER_MILLIS;
+        return wait.until(d -> System.currentTimeMillis() >= readyAt);
+    }
+}
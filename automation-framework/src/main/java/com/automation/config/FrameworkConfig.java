@@ -50,10 +50,89 @@ public interface FrameworkConfig extends Config {
     @Key("maximize")
     boolean maximize();
 
+    /** standard | lean (no images / trackers, eager page load, capped renderer; see BrowserProfile) */
+    @DefaultValue("standard")
+    @Key("browser.profile")
+    String browserProfile();
+
+    /** URL patterns (CDP Network.setBlockedURLs wildcards) blocked by the lean profile on Chromium browsers */
+    @DefaultValue("*.png,*.jpg,*.jpeg,*.gif,*.webp,*.ico,*.woff,*.woff2,*.ttf,*google-analytics.com*,"
+            + "*googletagmanager.com*,*doubleclick.net*,*facebook.net*,*connect.facebook.com*,*hotjar.com*,"
+            + "*fonts.googleapis.com*,*fonts.gstatic.com*")
+    @Key("browser.lean.blocked.urls")
+    String browserLeanBlockedUrls();
+
+    /** V8 heap cap per renderer process in the lean profile */
+    @DefaultValue("512")
+    @Key("browser.lean.renderer.heap.mb")
+    int browserLeanRendererHeapMb();
+
+    /** Per-test page load times of the standard profile, the baseline other profiles report savings against */
+    @DefaultValue("target/page-load-baseline.json")
+    @Key("page.load.baseline.file")
+    String pageLoadBaselineFile();
+
+    /** Reuse browser sessions across test methods of a thread; false = new browser per method. See DriverPool */
+    @DefaultValue("true")
+    @Key("driver.pool.enabled")
+    boolean driverPoolEnabled();
+
+    @DefaultValue("25")
+    @Key("driver.pool.max.uses")
+    int driverPoolMaxUses();
+
+    @DefaultValue("30")
+    @Key("driver.pool.max.age.minutes")
+    int driverPoolMaxAgeMinutes();
+
+    /** Idle sessions kept for the next test, shared by all threads; releases beyond it quit the browser */
+    @DefaultValue("4")
+    @Key("driver.pool.max.idle")
+    int driverPoolMaxIdle();
+
+    /** Launch pooled browsers in the background when a suite with UI tests starts; see DriverPrewarmListener */
+    @DefaultValue("true")
+    @Key("driver.prewarm.enabled")
+    boolean driverPrewarmEnabled();
+
+    /** Test classes extending this class need a browser; only they count towards pre-warmed sessions */
+    @DefaultValue("com.automation.base.BaseTest")
+    @Key("driver.prewarm.base.class")
+    String driverPrewarmBaseClass();
+
     @DefaultValue("1")
     @Key("retry.count")
     int retryCount();
 
+    /** RetryPolicy implementation deciding which failures are worth retrying; see DefaultRetryPolicy */
+    @DefaultValue("com.automation.listeners.DefaultRetryPolicy")
+    @Key("retry.policy")
+    String retryPolicy();
+
+    /** Max retries across the whole execution (0 = unlimited), so a broken environment cannot double the run */
+    @DefaultValue("10")
+    @Key("retry.budget")
+    int retryBudget();
+
+    /** Wait before the first retry; doubles for every further retry of the same test */
+    @DefaultValue("2000")
+    @Key("retry.backoff.millis")
+    long retryBackoffMillis();
+
+    @DefaultValue("10000")
+    @Key("retry.backoff.max.millis")
+    long retryBackoffMaxMillis();
+
+    /** Class#method per line (simple or fully qualified class name); see MethodInterceptor */
+    @DefaultValue("")
+    @Key("quarantine.file")
+    String quarantineFile();
+
+    /** Quarantined tests are skipped only in suites whose "category" parameter contains one of these */
+    @DefaultValue("SMOKE")
+    @Key("quarantine.categories")
+    String quarantineCategories();
+
     @DefaultValue("true")
     @Key("screenshot.on.failure")
     boolean screenshotOnFailure();
@@ -18,10 +18,6 @@ public interface WaitConfig extends Config {
     @Key("explicit.wait")
     int explicitWait();
 
-    @DefaultValue("10")
-    @Key("implicit.wait")
-    int implicitWait();
-
     @DefaultValue("60")
     @Key("page.load.timeout")
     int pageLoadTimeout();
@@ -33,4 +29,32 @@ public interface WaitConfig extends Config {
     @DefaultValue("30")
     @Key("fluent.wait.timeout")
     int fluentWaitTimeout();
+
+    /** Poll quickly first and back off to polling.interval; false = fixed polling.interval. See WaitContext */
+    @DefaultValue("true")
+    @Key("wait.polling.adaptive")
+    boolean adaptivePolling();
+
+    @DefaultValue("50")
+    @Key("wait.polling.initial.millis")
+    long initialPollingMillis();
+
+    @DefaultValue("2.0")
+    @Key("wait.polling.backoff.factor")
+    double pollingBackoffFactor();
+
+    /** Longest a fast negative check (WaitEngine.isDisplayed / findAll) waits for the DOM to settle */
+    @DefaultValue("2000")
+    @Key("wait.negative.budget.millis")
+    long negativeBudgetMillis();
+
+    /** Use the MutationObserver "DOM settled" signal; false = negative checks answer immediately */
+    @DefaultValue("true")
+    @Key("wait.settle.enabled")
+    boolean settleEnabled();
+
+    /** The DOM counts as settled after this long without a mutation */
+    @DefaultValue("300")
+    @Key("wait.settle.quiet.millis")
+    long settleQuietMillis();
 }
@@ -19,7 +19,6 @@ public final class FrameworkConstants {
     public static final String COOKIES_PATH = PROJECT_PATH + "/cookies";
 
     public static final int EXPLICIT_WAIT = ConfigFactory.getWaitConfig().explicitWait();
-    public static final int IMPLICIT_WAIT = ConfigFactory.getWaitConfig().implicitWait();
     public static final int PAGE_LOAD_TIMEOUT = ConfigFactory.getWaitConfig().pageLoadTimeout();
 
     public static final String IMAGES_PATH = RESOURCES_PATH + "/images";
@@ -0,0 +1,22 @@
+package com.automation.driver;
+
+import com.automation.exceptions.DriverInitializationException;
+
+import java.util.Arrays;
+
+/**
+ * Named browser performance profiles selected with browser.profile.
+ * STANDARD: browser as a user sees it. LEAN: for headless CI runs, see DriverFactory.applyLeanProfile().
+ */
+public enum BrowserProfile {
+    STANDARD,
+    LEAN;
+
+    public static BrowserProfile fromString(String profile) {
+        return Arrays.stream(values())
+                .filter(p -> p.name().equalsIgnoreCase(profile.trim()))
+                .findFirst()
+                .orElseThrow(() -> new DriverInitializationException(
+                        "Unsupported browser.profile: " + profile + ". Supported: " + Arrays.toString(values())));
+    }
+}
@@ -7,20 +7,35 @@ import io.github.bonigarcia.wdm.WebDriverManager;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.openqa.selenium.Dimension;
+import org.openqa.selenium.PageLoadStrategy;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.chromium.ChromiumOptions;
+import org.openqa.selenium.chromium.HasCdp;
 import org.openqa.selenium.edge.EdgeDriver;
 import org.openqa.selenium.edge.EdgeOptions;
 import org.openqa.selenium.firefox.FirefoxDriver;
 import org.openqa.selenium.firefox.FirefoxOptions;
+import org.openqa.selenium.remote.AbstractDriverOptions;
+import org.openqa.selenium.remote.LocalFileDetector;
+import org.openqa.selenium.remote.RemoteWebDriver;
 
+import java.net.MalformedURLException;
+import java.net.URI;
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public final class DriverFactory {
 
     private static final Logger log = LogManager.getLogger(DriverFactory.class);
 
+    /** Browsers whose driver binary WebDriverManager already resolved in this JVM */
+    private static final Map<BrowserType, Boolean> RESOLVED_BINARIES = new ConcurrentHashMap<>();
+
     private DriverFactory() {
     }
 
@@ -28,67 +43,191 @@ public final class DriverFactory {
         FrameworkConfig config = ConfigFactory.getFrameworkConfig();
         BrowserType browserType = BrowserType.fromString(config.browser());
         boolean headless = config.headless();
+        BrowserProfile profile = BrowserProfile.fromString(config.browserProfile());
 
-        log.info("Creating {} driver (headless: {})", browserType, headless);
-
-        WebDriver driver = switch (browserType) {
-            case CHROME -> createChromeDriver(headless);
-            case FIREFOX -> createFirefoxDriver(headless);
-            case EDGE -> createEdgeDriver(headless);
-        };
+        WebDriver driver;
+        if (config.isRemote()) {
+            log.info("Creating remote {} driver on {} (headless: {}, profile: {})",
+                    browserType, config.remoteUrl(), headless, profile);
+            driver = createRemoteDriver(browserType, headless, profile, config.remoteUrl());
+        } else {
+            log.info("Creating {} driver (headless: {}, profile: {})", browserType, headless, profile);
+            driver = switch (browserType) {
+                case CHROME -> createChromeDriver(headless, profile);
+                case FIREFOX -> createFirefoxDriver(headless, profile);
+                case EDGE -> createEdgeDriver(headless, profile);
+            };
+        }
+        if (profile == BrowserProfile.LEAN) {
+            blockLeanUrls(driver, config);
+        }
 
         configureDriver(driver, config);
         return driver;
     }
 
-    private static WebDriver createChromeDriver(boolean headless) {
+    private static WebDriver createChromeDriver(boolean headless, BrowserProfile profile) {
         try {
-            WebDriverManager.chromedriver().setup();
-            ChromeOptions options = new ChromeOptions();
-            if (headless) {
-                options.addArguments("--headless=new");
-                options.addArguments("--window-size=1920,1080");
-            }
-            options.addArguments("--no-sandbox");
-            options.addArguments("--disable-dev-shm-usage");
-            options.addArguments("--disable-gpu");
-            return new ChromeDriver(options);
+            resolveBinary(BrowserType.CHROME);
+            return new ChromeDriver(chromeOptions(headless, profile));
         } catch (Exception e) {
             throw new DriverInitializationException("Failed to create Chrome driver", e);
         }
     }
 
-    private static WebDriver createFirefoxDriver(boolean headless) {
+    private static WebDriver createFirefoxDriver(boolean headless, BrowserProfile profile) {
         try {
-            WebDriverManager.firefoxdriver().setup();
-            FirefoxOptions options = new FirefoxOptions();
-            if (headless) {
-                options.addArguments("--headless");
-            }
-            return new FirefoxDriver(options);
+            resolveBinary(BrowserType.FIREFOX);
+            return new FirefoxDriver(firefoxOptions(headless, profile));
         } catch (Exception e) {
             throw new DriverInitializationException("Failed to create Firefox driver", e);
         }
     }
 
-    private static WebDriver createEdgeDriver(boolean headless) {
+    private static WebDriver createEdgeDriver(boolean headless, BrowserProfile profile) {
         try {
-            WebDriverManager.edgedriver().setup();
-            EdgeOptions options = new EdgeOptions();
-            if (headless) {
-                options.addArguments("--headless=new");
-            }
-            options.addArguments("--no-sandbox");
-            options.addArguments("--disable-dev-shm-usage");
-            return new EdgeDriver(options);
+            resolveBinary(BrowserType.EDGE);
+            return new EdgeDriver(edgeOptions(headless, profile));
         } catch (Exception e) {
             throw new DriverInitializationException("Failed to create Edge driver", e);
         }
     }
 
+    /**
+     * Session on a Selenium Grid (or a standalone node) at remote.url. Same options as the local drivers;
+     * no binary resolution because the node owns the driver. Files for upload fields are sent to the
+     * node by LocalFileDetector, so sendKeys(localPath) keeps working.
+     */
+    private static WebDriver createRemoteDriver(BrowserType browserType, boolean headless, BrowserProfile profile,
+                                                String remoteUrl) {
+        AbstractDriverOptions<?> options = switch (browserType) {
+            case CHROME -> chromeOptions(headless, profile);
+            case FIREFOX -> firefoxOptions(headless, profile);
+            case EDGE -> edgeOptions(headless, profile);
+        };
+        try {
+            RemoteWebDriver driver = new RemoteWebDriver(URI.create(remoteUrl).toURL(), options);
+            driver.setFileDetector(new LocalFileDetector());
+            return driver;
+        } catch (MalformedURLException | IllegalArgumentException e) {
+            throw new DriverInitializationException("Invalid remote.url: " + remoteUrl, e);
+        } catch (Exception e) {
+            throw new DriverInitializationException("Failed to create remote " + browserType + " driver on " + remoteUrl, e);
+        }
+    }
+
+    private static ChromeOptions chromeOptions(boolean headless, BrowserProfile profile) {
+        ChromeOptions options = new ChromeOptions();
+        if (headless) {
+            options.addArguments("--headless=new");
+            options.addArguments("--window-size=1920,1080");
+        }
+        options.addArguments("--no-sandbox");
+        options.addArguments("--disable-dev-shm-usage");
+        options.addArguments("--disable-gpu");
+        if (profile == BrowserProfile.LEAN) {
+            applyLeanProfile(options);
+        }
+        return options;
+    }
+
+    private static FirefoxOptions firefoxOptions(boolean headless, BrowserProfile profile) {
+        FirefoxOptions options = new FirefoxOptions();
+        if (headless) {
+            options.addArguments("--headless");
+        }
+        if (profile == BrowserProfile.LEAN) {
+            // No CDP on Firefox: images are blocked by preference, third-party hosts are not blocked
+            options.setPageLoadStrategy(PageLoadStrategy.EAGER);
+            options.addPreference("permissions.default.image", 2);
+            options.addPreference("network.prefetch-next", false);
+            options.addPreference("extensions.update.enabled", false);
+            options.addPreference("app.update.enabled", false);
+            options.addPreference("browser.safebrowsing.malware.enabled", false);
+            options.addPreference("toolkit.telemetry.enabled", false);
+        }
+        return options;
+    }
+
+    private static EdgeOptions edgeOptions(boolean headless, BrowserProfile profile) {
+        EdgeOptions options = new EdgeOptions();
+        if (headless) {
+            options.addArguments("--headless=new");
+        }
+        options.addArguments("--no-sandbox");
+        options.addArguments("--disable-dev-shm-usage");
+        if (profile == BrowserProfile.LEAN) {
+            applyLeanProfile(options);
+        }
+        return options;
+    }
+
+    /**
+     * Lean profile for Chrome / Edge: DOMContentLoaded is enough for WaitUtils (eager), images are not
+     * decoded, and no extension, sync, update or safe-browsing traffic competes with the app under test.
+     * The V8 heap cap keeps several parallel headless browsers within CI memory.
+     */
+    private static void applyLeanProfile(ChromiumOptions<?> options) {
+        FrameworkConfig config = ConfigFactory.getFrameworkConfig();
+        options.setPageLoadStrategy(PageLoadStrategy.EAGER);
+        options.addArguments("--disable-extensions");
+        options.addArguments("--disable-background-networking");
+        options.addArguments("--disable-component-update");
+        options.addArguments("--disable-default-apps");
+        options.addArguments("--disable-sync");
+        options.addArguments("--disable-client-side-phishing-detection");
+        options.addArguments("--metrics-recording-only");
+        options.addArguments("--mute-audio");
+        options.addArguments("--blink-settings=imagesEnabled=false");
+        options.addArguments("--js-flags=--max-old-space-size=" + config.browserLeanRendererHeapMb());
+        options.setExperimentalOption("prefs", Map.of("profile.managed_default_content_settings.images", 2));
+    }
+
+    /**
+     * Blocks the lean profile's URL patterns (images, fonts, analytics and tracker hosts) at the network
+     * level through CDP, so they are not even downloaded. Only local Chromium drivers speak CDP here;
+     * other browsers keep the option-level savings.
+     */
+    private static void blockLeanUrls(WebDriver driver, FrameworkConfig config) {
+        if (!(driver instanceof HasCdp cdp)) {
+            log.debug("Lean profile: {} has no CDP, URL blocking skipped", driver.getClass().getSimpleName());
+            return;
+        }
+        List<String> patterns = Arrays.stream(config.browserLeanBlockedUrls().split(","))
+                .map(String::trim)
+                .filter(pattern -> !pattern.isEmpty())
+                .toList();
+        try {
+            cdp.executeCdpCommand("Network.enable", Map.of());
+            cdp.executeCdpCommand("Network.setBlockedURLs", Map.of("urls", patterns));
+            log.info("Lean profile: blocking {} URL patterns", patterns.size());
+        } catch (Exception e) {
+            log.warn("Lean profile: failed to block URLs via CDP: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Runs WebDriverManager once per browser per JVM. Its lookup (cache check, version detection,
+     * sometimes a download) used to run on every driver creation, concurrently on every parallel thread.
+     * computeIfAbsent makes the other threads wait for the first resolution instead of repeating it;
+     * a failed resolution is not cached, so the next driver tries again.
+     */
+    private static void resolveBinary(BrowserType browserType) {
+        RESOLVED_BINARIES.computeIfAbsent(browserType, type -> {
+            long start = System.currentTimeMillis();
+            switch (type) {
+                case CHROME -> WebDriverManager.chromedriver().setup();
+                case FIREFOX -> WebDriverManager.firefoxdriver().setup();
+                case EDGE -> WebDriverManager.edgedriver().setup();
+            }
+            log.info("Resolved {} driver binary in {}ms", type, System.currentTimeMillis() - start);
+            return Boolean.TRUE;
+        });
+    }
+
     private static void configureDriver(WebDriver driver, FrameworkConfig config) {
-        driver.manage().timeouts().implicitlyWait(
-                Duration.ofSeconds(ConfigFactory.getWaitConfig().implicitWait()));
+        // Explicit waits only (WaitEngine): an implicit wait turns every absence check into a full timeout
+        driver.manage().timeouts().implicitlyWait(Duration.ZERO);
         driver.manage().timeouts().pageLoadTimeout(
                 Duration.ofSeconds(ConfigFactory.getWaitConfig().pageLoadTimeout()));
 
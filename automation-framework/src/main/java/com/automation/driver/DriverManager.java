@@ -1,10 +1,13 @@
 package com.automation.driver;
 
+import com.automation.config.ConfigFactory;
+import com.automation.utils.WaitContext;
 import org.openqa.selenium.WebDriver;
 
 public final class DriverManager {
 
     private static final ThreadLocal<WebDriver> DRIVER = new ThreadLocal<>();
+    private static final ThreadLocal<WaitContext> WAIT_CONTEXT = new ThreadLocal<>();
 
     private DriverManager() {
     }
@@ -17,11 +20,40 @@ public final class DriverManager {
         DRIVER.set(driver);
     }
 
+    /**
+     * Wait context of the thread's current driver. Kept while the same driver is reused (DriverPool),
+     * rebuilt (re-reading WaitConfig) when the thread gets another driver.
+     */
+    public static WaitContext getWaitContext() {
+        WebDriver driver = DRIVER.get();
+        WaitContext context = WAIT_CONTEXT.get();
+        if (context == null || !context.isBoundTo(driver)) {
+            context = new WaitContext(driver, ConfigFactory.getWaitConfig());
+            WAIT_CONTEXT.set(context);
+        }
+        return context;
+    }
+
     public static void quitDriver() {
         WebDriver driver = DRIVER.get();
         if (driver != null) {
             driver.quit();
             DRIVER.remove();
+            WAIT_CONTEXT.remove();
+        }
+    }
+
+    /**
+     * Hands the thread's driver back to DriverPool instead of quitting it.
+     * @param reusable false if the test failed and the browser should not be reused
+     */
+    public static void releaseDriver(boolean reusable) {
+        WebDriver driver = DRIVER.get();
+        if (driver != null) {
+            DRIVER.remove();
+            // The cached wait holds the released driver; the thread must not keep it alive
+            WAIT_CONTEXT.remove();
+            DriverPool.release(driver, reusable);
         }
     }
 }
@@ -0,0 +1,242 @@
+package com.automation.driver;
+
+import com.automation.config.ConfigFactory;
+import com.automation.config.FrameworkConfig;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.ChromiumDriver;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Leases browser sessions to test threads and takes them back after each test, so a thread running
+ * many methods (e.g. CheckoutTest) pays browser startup once instead of per method.
+ *
+ * Idle sessions sit in one shared deque rather than per thread: TestNG runs each <test> on its own
+ * thread pool, and sessions parked on the threads of a finished pool would never be leased again.
+ * At most driver.pool.max.idle sessions are kept; a release beyond that quits the browser. On release
+ * the session is reset (extra tabs closed, cookies and storage cleared, about:blank); on acquire it is
+ * health-checked and recycled once it reaches driver.pool.max.uses or driver.pool.max.age.minutes. Sessions of failed tests are quit, so
+ * a retry always starts on a fresh browser. With driver.pool.enabled=false every test gets a new
+ * driver from DriverFactory as before.
+ *
+ * With no idle session left, acquire() first takes one pre-launched by prewarm() (DriverPrewarmListener
+ * starts them when the suite starts), and only then launches a browser itself.
+ * Sessions are quit at the end of the execution by DriverPoolListener.
+ */
+public final class DriverPool {
+
+    private static final Logger log = LogManager.getLogger(DriverPool.class);
+
+    private static final Map<WebDriver, PooledSession> SESSIONS = new ConcurrentHashMap<>();
+    /** Most recently released first; guarded by its own monitor */
+    private static final Deque<PooledSession> IDLE = new ArrayDeque<>();
+    private static final Queue<CompletableFuture<WebDriver>> WARM = new ConcurrentLinkedQueue<>();
+
+    private DriverPool() {
+    }
+
+    public static WebDriver acquire() {
+        FrameworkConfig config = ConfigFactory.getFrameworkConfig();
+        if (!config.driverPoolEnabled()) {
+            return DriverFactory.createDriver();
+        }
+
+        PooledSession session;
+        while ((session = pollIdle()) != null) {
+            if (!SESSIONS.containsKey(session.driver)) {
+                continue;
+            }
+            String recycleReason = session.recycleReason(config);
+            if (recycleReason == null) {
+                session.uses++;
+                log.info("Reusing pooled driver (use {} of {})", session.uses, config.driverPoolMaxUses());
+                return session.driver;
+            }
+            log.info("Recycling pooled driver: {}", recycleReason);
+            discard(session);
+        }
+
+        WebDriver driver = takeWarm();
+        if (driver == null) {
+            driver = DriverFactory.createDriver();
+        }
+        SESSIONS.put(driver, new PooledSession(driver));
+        return driver;
+    }
+
+    /**
+     * Launches browsers in the background so the first tests of the suite find them ready.
+     * Launches run in parallel on daemon threads; a failed launch is simply skipped by acquire().
+     */
+    public static void prewarm(int sessions) {
+        if (sessions <= 0) {
+            return;
+        }
+        log.info("Pre-warming {} driver session(s)", sessions);
+        ExecutorService executor = Executors.newFixedThreadPool(sessions, runnable -> {
+            Thread thread = new Thread(runnable, "driver-prewarm");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < sessions; i++) {
+            WARM.add(CompletableFuture.supplyAsync(DriverFactory::createDriver, executor));
+        }
+        executor.shutdown();
+    }
+
+    /** @return a pre-launched driver (waiting for it if still starting), null if none is left */
+    private static WebDriver takeWarm() {
+        CompletableFuture<WebDriver> warm;
+        while ((warm = WARM.poll()) != null) {
+            try {
+                WebDriver driver = warm.join();
+                log.info("Using pre-warmed driver");
+                return driver;
+            } catch (CompletionException e) {
+                log.warn("Pre-warmed driver failed to start: {}", e.getCause().getMessage());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param reusable false after a failed test: the browser may be left in a broken state
+     */
+    public static void release(WebDriver driver, boolean reusable) {
+        PooledSession session = SESSIONS.get(driver);
+        if (session == null) {
+            driver.quit();
+            return;
+        }
+        FrameworkConfig config = ConfigFactory.getFrameworkConfig();
+        if (!reusable || !config.driverPoolEnabled() || !session.reset()) {
+            discard(session);
+            return;
+        }
+        boolean parked;
+        synchronized (IDLE) {
+            parked = IDLE.size() < config.driverPoolMaxIdle() && IDLE.offerFirst(session);
+        }
+        if (!parked) {
+            log.info("Idle pool full ({}), quitting released driver", config.driverPoolMaxIdle());
+            discard(session);
+        }
+    }
+
+    /** Quits every pooled session, idle or still leased */
+    public static void shutdown() {
+        List<PooledSession> sessions = new ArrayList<>(SESSIONS.values());
+        SESSIONS.clear();
+        synchronized (IDLE) {
+            IDLE.clear();
+        }
+        if (!sessions.isEmpty()) {
+            log.info("Quitting {} pooled driver(s)", sessions.size());
+        }
+        sessions.forEach(PooledSession::quit);
+
+        // Unused pre-warmed browsers, including ones still starting
+        CompletableFuture<WebDriver> warm;
+        while ((warm = WARM.poll()) != null) {
+            warm.thenAccept(driver -> new PooledSession(driver).quit());
+        }
+    }
+
+    private static PooledSession pollIdle() {
+        synchronized (IDLE) {
+            return IDLE.pollFirst();
+        }
+    }
+
+    private static void discard(PooledSession session) {
+        SESSIONS.remove(session.driver);
+        session.quit();
+    }
+
+    private static final class PooledSession {
+
+        private final WebDriver driver;
+        private final long createdAt = System.currentTimeMillis();
+        private int uses = 1;
+
+        private PooledSession(WebDriver driver) {
+            this.driver = driver;
+        }
+
+        /** @return why the session cannot be leased again, null if it can */
+        private String recycleReason(FrameworkConfig config) {
+            if (uses >= config.driverPoolMaxUses()) {
+                return "reached " + uses + " uses";
+            }
+            if (System.currentTimeMillis() - createdAt > Duration.ofMinutes(config.driverPoolMaxAgeMinutes()).toMillis()) {
+                return "older than " + config.driverPoolMaxAgeMinutes() + " minutes";
+            }
+            try {
+                if (driver.getWindowHandles().isEmpty()) {
+                    return "no open window";
+                }
+            } catch (Exception e) {
+                return "health check failed (" + e.getClass().getSimpleName() + ")";
+            }
+            return null;
+        }
+
+        /** Brings the browser back to a blank state; false if that failed and the session must be quit */
+        private boolean reset() {
+            try {
+                Set<String> handles = driver.getWindowHandles();
+                String main = handles.iterator().next();
+                for (String handle : handles) {
+                    if (!handle.equals(main)) {
+                        driver.switchTo().window(handle);
+                        driver.close();
+                    }
+                }
+                driver.switchTo().window(main);
+
+                // Storage can only be cleared for the origin currently loaded, so before leaving the page
+                try {
+                    ((JavascriptExecutor) driver).executeScript(
+                            "window.localStorage.clear(); window.sessionStorage.clear();");
+                } catch (Exception e) {
+                    log.debug("Could not clear storage of {}: {}", driver.getCurrentUrl(), e.getMessage());
+                }
+                if (driver instanceof ChromiumDriver chromium) {
+                    // deleteAllCookies() only covers the current domain; admin and buyer sites differ
+                    chromium.executeCdpCommand("Network.clearBrowserCookies", Map.of());
+                } else {
+                    driver.manage().deleteAllCookies();
+                }
+                driver.get("about:blank");
+                return true;
+            } catch (Exception e) {
+                log.warn("Failed to reset pooled driver, quitting it: {}", e.getMessage());
+                return false;
+            }
+        }
+
+        private void quit() {
+            try {
+                driver.quit();
+            } catch (Exception e) {
+                log.warn("Failed to quit pooled driver: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.automation.enums;
+
+/**
+ * How a RetryPolicy classifies a test failure.
+ */
+public enum FailureClass {
+    /** Environment / timing problem (timeouts, stale elements, lost sessions) — worth retrying */
+    TRANSIENT,
+    /** Assertion or code bug — fails the same way every time, never retried */
+    DETERMINISTIC
+}
@@ -0,0 +1,55 @@
+package com.automation.listeners;
+
+import com.automation.config.ConfigFactory;
+import com.automation.config.FrameworkConfig;
+import com.automation.enums.FailureClass;
+import org.openqa.selenium.InvalidArgumentException;
+import org.openqa.selenium.InvalidSelectorException;
+import org.openqa.selenium.JavascriptException;
+import org.openqa.selenium.UnsupportedCommandException;
+import org.openqa.selenium.WebDriverException;
+
+import java.util.List;
+
+/**
+ * Retries Selenium timing / infrastructure failures (TimeoutException, StaleElementReferenceException,
+ * lost sessions and other WebDriverExceptions) with exponential backoff. Assertions, broken selectors,
+ * script errors and plain code bugs fail the same way on every attempt, so they are not retried —
+ * each retry costs a fresh browser from BaseTest.setUp().
+ *
+ * The whole cause chain is inspected: an AssertionError anywhere wins, otherwise any WebDriverException
+ * (e.g. wrapped by a page object) makes the failure transient.
+ */
+public class DefaultRetryPolicy implements RetryPolicy {
+
+    /** WebDriverExceptions caused by the test itself, not by timing */
+    private static final List<Class<? extends WebDriverException>> DETERMINISTIC_WEBDRIVER = List.of(
+            InvalidSelectorException.class,
+            InvalidArgumentException.class,
+            JavascriptException.class,
+            UnsupportedCommandException.class);
+
+    @Override
+    public FailureClass classify(Throwable throwable) {
+        boolean webDriverFailure = false;
+        for (Throwable t = throwable; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof AssertionError) {
+                return FailureClass.DETERMINISTIC;
+            }
+            if (t instanceof WebDriverException webDriverException) {
+                if (DETERMINISTIC_WEBDRIVER.stream().anyMatch(type -> type.isInstance(webDriverException))) {
+                    return FailureClass.DETERMINISTIC;
+                }
+                webDriverFailure = true;
+            }
+        }
+        return webDriverFailure ? FailureClass.TRANSIENT : FailureClass.DETERMINISTIC;
+    }
+
+    @Override
+    public long backoffMillis(int retry) {
+        FrameworkConfig config = ConfigFactory.getFrameworkConfig();
+        long backoff = config.retryBackoffMillis() * (1L << Math.min(retry - 1, 10));
+        return Math.min(backoff, config.retryBackoffMaxMillis());
+    }
+}
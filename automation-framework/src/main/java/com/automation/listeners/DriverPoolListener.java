@@ -0,0 +1,17 @@
+package com.automation.listeners;
+
+import com.automation.driver.DriverPool;
+import org.testng.IExecutionListener;
+
+/**
+ * Quits the sessions DriverPool keeps between tests once the execution finishes. Without it the
+ * browsers would outlive the run in a warm worker, whose TestNG threads are gone by then.
+ * Registered through META-INF/services like ResultStreamListener.
+ */
+public class DriverPoolListener implements IExecutionListener {
+
+    @Override
+    public void onExecutionFinish() {
+        DriverPool.shutdown();
+    }
+}
@@ -0,0 +1,72 @@
+package com.automation.listeners;
+
+import com.automation.config.ConfigFactory;
+import com.automation.config.FrameworkConfig;
+import com.automation.driver.DriverPool;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestListener;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+import org.testng.xml.XmlSuite;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Starts DriverPool.prewarm() when a suite starts: one browser per thread the suite can run in parallel,
+ * but never more than it has UI tests, so browsers launch while TestNG is still building the test graph.
+ * API-only suites launch nothing.
+ *
+ * Also logs the time from suite start to the first test start ("Time to first test"), the number
+ * pre-warming is meant to bring down, so it can be compared between runs with and without it.
+ * Registered through META-INF/services like ResultStreamListener.
+ */
+public class DriverPrewarmListener implements ISuiteListener, ITestListener {
+
+    private static final Logger log = LogManager.getLogger(DriverPrewarmListener.class);
+
+    private final AtomicBoolean firstTestSeen = new AtomicBoolean();
+    private volatile long suiteStartMillis;
+
+    @Override
+    public void onStart(ISuite suite) {
+        suiteStartMillis = System.currentTimeMillis();
+        firstTestSeen.set(false);
+
+        FrameworkConfig config = ConfigFactory.getFrameworkConfig();
+        if (!config.driverPoolEnabled() || !config.driverPrewarmEnabled()) {
+            return;
+        }
+        XmlSuite xmlSuite = suite.getXmlSuite();
+        int threads = xmlSuite.getParallel() != null && xmlSuite.getParallel().isParallel()
+                ? Math.max(1, xmlSuite.getThreadCount()) : 1;
+        DriverPool.prewarm(Math.min(threads, countUiMethods(suite, config.driverPrewarmBaseClass())));
+    }
+
+    @Override
+    public void onTestStart(ITestResult result) {
+        if (suiteStartMillis > 0 && firstTestSeen.compareAndSet(false, true)) {
+            log.info("Time to first test: {}ms ({})", System.currentTimeMillis() - suiteStartMillis,
+                    result.getMethod().getMethodName());
+        }
+    }
+
+    private static int countUiMethods(ISuite suite, String baseClassName) {
+        int count = 0;
+        for (ITestNGMethod method : suite.getAllMethods()) {
+            Class<?> testClass = method.getRealClass();
+            try {
+                Class<?> baseClass = Class.forName(baseClassName.trim(), false, testClass.getClassLoader());
+                if (baseClass.isAssignableFrom(testClass)) {
+                    count++;
+                }
+            } catch (ClassNotFoundException e) {
+                log.debug("Pre-warm base class {} not found, no driver pre-warming", baseClassName);
+                return 0;
+            }
+        }
+        return count;
+    }
+}
@@ -1,19 +1,31 @@
 package com.automation.listeners;
 
 import com.automation.annotations.FrameworkAnnotation;
+import com.automation.config.ConfigFactory;
+import com.automation.config.FrameworkConfig;
 import com.automation.enums.CategoryType;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.testng.IMethodInstance;
 import org.testng.IMethodInterceptor;
 import org.testng.ITestContext;
+import org.testng.ITestNGMethod;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 public class MethodInterceptor implements IMethodInterceptor {
 
+    private static final Logger log = LogManager.getLogger(MethodInterceptor.class);
+
     @Override
     public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
         String categoryParam = context.getCurrentXmlTest().getParameter("category");
@@ -45,6 +57,59 @@ public class MethodInterceptor implements IMethodInterceptor {
             }
         }
 
-        return filteredMethods;
+        return withoutQuarantined(filteredMethods, requestedCategories);
+    }
+
+    /**
+     * Known-flaky tests listed in quarantine.file are dropped from suites of the quarantine categories
+     * (smoke by default), so a flaky test cannot block a smoke gate. Regression still runs them.
+     */
+    private List<IMethodInstance> withoutQuarantined(List<IMethodInstance> methods, Set<String> requestedCategories) {
+        FrameworkConfig config = ConfigFactory.getFrameworkConfig();
+        Set<String> quarantineCategories = Arrays.stream(config.quarantineCategories().split(","))
+                .map(String::trim)
+                .map(String::toUpperCase)
+                .collect(Collectors.toSet());
+        if (Collections.disjoint(quarantineCategories, requestedCategories)) {
+            return methods;
+        }
+
+        Set<String> quarantined = readQuarantine(config.quarantineFile());
+        if (quarantined.isEmpty()) {
+            return methods;
+        }
+
+        List<IMethodInstance> kept = new ArrayList<>();
+        for (IMethodInstance method : methods) {
+            ITestNGMethod testMethod = method.getMethod();
+            String className = testMethod.getRealClass().getName();
+            String methodName = testMethod.getMethodName();
+            if (quarantined.contains(className + "#" + methodName)
+                    || quarantined.contains(testMethod.getRealClass().getSimpleName() + "#" + methodName)) {
+                log.warn("--- Test QUARANTINED (not run): {}#{} ---", className, methodName);
+            } else {
+                kept.add(method);
+            }
+        }
+        return kept;
+    }
+
+    private static Set<String> readQuarantine(String file) {
+        if (file == null || file.isBlank()) {
+            return Set.of();
+        }
+        Path path = Paths.get(file.trim());
+        if (!Files.isRegularFile(path)) {
+            return Set.of();
+        }
+        try {
+            return Files.readAllLines(path).stream()
+                    .map(String::trim)
+                    .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                    .collect(Collectors.toSet());
+        } catch (IOException e) {
+            log.warn("Cannot read quarantine file {}: {}", path, e.getMessage());
+            return Set.of();
+        }
     }
 }
@@ -0,0 +1,157 @@
+package com.automation.listeners;
+
+import com.automation.config.ConfigFactory;
+import com.automation.config.FrameworkConfig;
+import com.automation.driver.BrowserProfile;
+import com.automation.driver.DriverManager;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.testng.IExecutionListener;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reports the page load time of every UI test and, for non-standard browser profiles, how much of it
+ * the profile saves.
+ *
+ * The time is the Navigation Timing of the document the test ends on (load event, or DOMContentLoaded
+ * while an eager load is still running), read before BaseTest releases the driver. Runs with the
+ * standard profile store their times in page.load.baseline.file; runs with another profile (lean)
+ * log the difference per test and the total at the end of the execution.
+ * Registered through META-INF/services like ResultStreamListener.
+ */
+public class PageLoadListener implements IExecutionListener, ITestListener {
+
+    private static final Logger log = LogManager.getLogger(PageLoadListener.class);
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final String NAVIGATION_TIMING_SCRIPT =
+            "var n = performance.getEntriesByType('navigation')[0];"
+            + " return n ? Math.round(n.loadEventEnd > 0 ? n.loadEventEnd : n.domContentLoadedEventEnd) : -1;";
+
+    /** Test (class#method) → page load millis measured in this execution */
+    private final Map<String, Long> measured = new ConcurrentHashMap<>();
+    private Map<String, Long> baseline = Map.of();
+    private BrowserProfile profile = BrowserProfile.STANDARD;
+
+    @Override
+    public void onExecutionStart() {
+        FrameworkConfig config = ConfigFactory.getFrameworkConfig();
+        measured.clear();
+        profile = BrowserProfile.fromString(config.browserProfile());
+        baseline = readBaseline(Paths.get(config.pageLoadBaselineFile()));
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        measure(result);
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        measure(result);
+    }
+
+    @Override
+    public void onTestFailedButWithinSuccessPercentage(ITestResult result) {
+        measure(result);
+    }
+
+    @Override
+    public void onExecutionFinish() {
+        if (measured.isEmpty()) {
+            return;
+        }
+        Path file = Paths.get(ConfigFactory.getFrameworkConfig().pageLoadBaselineFile());
+        if (profile == BrowserProfile.STANDARD) {
+            Map<String, Long> updated = new TreeMap<>(baseline);
+            updated.putAll(measured);
+            writeBaseline(file, updated);
+            return;
+        }
+
+        long total = 0;
+        long saved = 0;
+        int compared = 0;
+        for (Map.Entry<String, Long> entry : measured.entrySet()) {
+            Long standard = baseline.get(entry.getKey());
+            if (standard != null) {
+                total += standard;
+                saved += standard - entry.getValue();
+                compared++;
+            }
+        }
+        if (compared == 0) {
+            log.info("Page load: no standard-profile baseline in {} yet, run once with browser.profile=standard", file);
+            return;
+        }
+        log.info("Page load saved by profile {}: {}ms of {}ms ({}%) over {} tests", profile, saved, total,
+                total > 0 ? Math.round(saved * 100.0 / total) : 0, compared);
+    }
+
+    private void measure(ITestResult result) {
+        WebDriver driver = DriverManager.getDriver();
+        if (!(driver instanceof JavascriptExecutor js)) {
+            return;
+        }
+        long millis;
+        try {
+            Object value = js.executeScript(NAVIGATION_TIMING_SCRIPT);
+            millis = value instanceof Number number ? number.longValue() : -1;
+        } catch (Exception e) {
+            log.debug("Cannot read navigation timing: {}", e.getMessage());
+            return;
+        }
+        if (millis <= 0) {
+            return;
+        }
+
+        String test = result.getTestClass().getName() + "#" + result.getMethod().getMethodName();
+        measured.put(test, millis);
+        Long standard = baseline.get(test);
+        if (profile != BrowserProfile.STANDARD && standard != null) {
+            log.info("Page load: {}ms (profile {}, saved {}ms vs standard {}ms)", millis, profile,
+                    standard - millis, standard);
+        } else {
+            log.info("Page load: {}ms (profile {})", millis, profile);
+        }
+    }
+
+    private static Map<String, Long> readBaseline(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return Map.of();
+        }
+        try {
+            Map<String, Long> values = GSON.fromJson(Files.readString(file, StandardCharsets.UTF_8),
+                    new TypeToken<Map<String, Long>>() { }.getType());
+            return values != null ? values : Map.of();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Cannot read page load baseline {}: {}", file, e.getMessage());
+            return Map.of();
+        }
+    }
+
+    private static void writeBaseline(Path file, Map<String, Long> values) {
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Files.writeString(file, GSON.toJson(values), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            log.warn("Failed to write page load baseline {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.automation.listeners;
+
+import com.google.gson.Gson;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.IExecutionListener;
+import org.testng.ITestContext;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Pushes test start/finish events to the bot server while the run is in progress,
+ * so the bot can build results live instead of parsing surefire-reports after the JVM exits.
+ *
+ * Active only when -Dbot.results.socket is set ("tcp:127.0.0.1:PORT" or "unix:/path/to.sock");
+ * otherwise every callback is a no-op. Registered through META-INF/services, so it covers
+ * suite XML runs, -Dtest runs and the warm worker alike.
+ *
+ * Protocol: one connection per TestNG execution, one JSON object per line:
+ * runStart, expected (per &lt;test&gt;), testStart, testFinish, runFinish.
+ * A broken connection disables streaming for the rest of the run — tests never fail because of it.
+ */
+public class ResultStreamListener implements IExecutionListener, ITestListener {
+
+    public static final String SOCKET_PROPERTY = "bot.results.socket";
+    public static final String RUN_ID_PROPERTY = "bot.runId";
+
+    private static final Logger log = LogManager.getLogger(ResultStreamListener.class);
+    private static final Gson GSON = new Gson();
+    private static final int MAX_MESSAGE_CHARS = 500;
+
+    private final Object lock = new Object();
+    private SocketChannel channel;
+    private Writer writer;
+    private String runId;
+
+    @Override
+    public void onExecutionStart() {
+        String endpoint = System.getProperty(SOCKET_PROPERTY);
+        if (endpoint == null || endpoint.isBlank()) {
+            return;
+        }
+        synchronized (lock) {
+            try {
+                runId = System.getProperty(RUN_ID_PROPERTY, "");
+                channel = open(endpoint.trim());
+                writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8));
+                send(event("runStart"));
+                log.info("Streaming results to {}", endpoint);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Result stream disabled, cannot connect to {}: {}", endpoint, e.getMessage());
+                closeQuietly();
+            }
+        }
+    }
+
+    @Override
+    public void onExecutionFinish() {
+        synchronized (lock) {
+            send(event("runFinish"));
+            closeQuietly();
+        }
+    }
+
+    @Override
+    public void onStart(ITestContext context) {
+        Map<String, Object> event = event("expected");
+        event.put("count", context.getAllTestMethods().length);
+        send(event);
+    }
+
+    @Override
+    public void onTestStart(ITestResult result) {
+        send(testEvent("testStart", result));
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        send(finishEvent(result, "PASSED"));
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        // Same split as Surefire: assertion → failure, any other exception → error
+        send(finishEvent(result, result.getThrowable() instanceof AssertionError ? "FAILED" : "ERROR"));
+    }
+
+    @Override
+    public void onTestSkipped(ITestResult result) {
+        send(finishEvent(result, "SKIPPED"));
+    }
+
+    @Override
+    public void onTestFailedButWithinSuccessPercentage(ITestResult result) {
+        send(finishEvent(result, "PASSED"));
+    }
+
+    private Map<String, Object> finishEvent(ITestResult result, String status) {
+        Map<String, Object> event = testEvent("testFinish", result);
+        event.put("status", status);
+        event.put("durationMillis", Math.max(0, result.getEndMillis() - result.getStartMillis()));
+        Throwable throwable = result.getThrowable();
+        if (throwable != null) {
+            event.put("errorType", throwable.getClass().getName());
+            String message = throwable.getMessage();
+            if (message != null) {
+                event.put("message", message.length() > MAX_MESSAGE_CHARS
+                        ? message.substring(0, MAX_MESSAGE_CHARS) + "..." : message);
+            }
+        }
+        return event;
+    }
+
+    private Map<String, Object> testEvent(String type, ITestResult result) {
+        Map<String, Object> event = event(type);
+        event.put("className", result.getTestClass().getName());
+        event.put("method", result.getMethod().getMethodName());
+        // Data-provider invocations share a method name — parameters tell them apart
+        Object[] parameters = result.getParameters();
+        if (parameters != null && parameters.length > 0) {
+            event.put("parameters", Arrays.deepToString(parameters));
+        }
+        return event;
+    }
+
+    private Map<String, Object> event(String type) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("type", type);
+        event.put("runId", runId);
+        return event;
+    }
+
+    /** Parallel tests call listeners from several threads → one line at a time */
+    private void send(Map<String, Object> event) {
+        synchronized (lock) {
+            if (writer == null) {
+                return;
+            }
+            try {
+                writer.write(GSON.toJson(event));
+                writer.write('\n');
+                writer.flush();
+            } catch (IOException e) {
+                log.warn("Result stream disabled, write failed: {}", e.getMessage());
+                closeQuietly();
+            }
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            if (writer != null) {
+                writer.close();
+            } else if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            log.debug("Failed to close result stream: {}", e.getMessage());
+        }
+        writer = null;
+        channel = null;
+    }
+
+    private static SocketChannel open(String endpoint) throws IOException {
+        if (endpoint.startsWith("unix:")) {
+            return SocketChannel.open(UnixDomainSocketAddress.of(endpoint.substring("unix:".length())));
+        }
+        String hostPort = endpoint.startsWith("tcp:") ? endpoint.substring("tcp:".length()) : endpoint;
+        int colon = hostPort.lastIndexOf(':');
+        return SocketChannel.open(new InetSocketAddress(hostPort.substring(0, colon),
+                Integer.parseInt(hostPort.substring(colon + 1))));
+    }
+}
@@ -1,20 +1,74 @@
 package com.automation.listeners;
 
 import com.automation.config.ConfigFactory;
+import com.automation.enums.FailureClass;
+import com.automation.exceptions.ConfigurationException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.testng.IRetryAnalyzer;
 import org.testng.ITestResult;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Retries a failed test at most retry.count times, but only when the configured RetryPolicy classifies
+ * the failure as transient and the execution's RetryBudget is not spent. Waits the policy's backoff
+ * before each retry so a struggling page or grid gets time to recover.
+ *
+ * The decision is stored on the result (CLASSIFICATION_ATTRIBUTE) and written to retry-outcomes.json
+ * by RetryOutcomeListener.
+ */
 public class RetryAnalyzer implements IRetryAnalyzer {
 
+    public static final String CLASSIFICATION_ATTRIBUTE = "retry.classification";
+    public static final String BUDGET_EXHAUSTED = "BUDGET_EXHAUSTED";
+
+    private static final Logger log = LogManager.getLogger(RetryAnalyzer.class);
+    private static final Map<String, RetryPolicy> POLICIES = new ConcurrentHashMap<>();
+
     private int retryCount = 0;
 
     @Override
     public boolean retry(ITestResult result) {
         int maxRetry = ConfigFactory.getFrameworkConfig().retryCount();
-        if (retryCount < maxRetry) {
-            retryCount++;
-            return true;
+        if (retryCount >= maxRetry || result.getThrowable() == null) {
+            return false;
+        }
+
+        RetryPolicy policy = policy(ConfigFactory.getFrameworkConfig().retryPolicy());
+        FailureClass failureClass = policy.classify(result.getThrowable());
+        result.setAttribute(CLASSIFICATION_ATTRIBUTE, failureClass.name());
+        if (failureClass != FailureClass.TRANSIENT) {
+            return false;
         }
-        return false;
+        if (!RetryBudget.tryAcquire()) {
+            result.setAttribute(CLASSIFICATION_ATTRIBUTE, BUDGET_EXHAUSTED);
+            return false;
+        }
+
+        retryCount++;
+        long backoff = policy.backoffMillis(retryCount);
+        log.info("Retrying {} in {}ms ({} of {}): {}", result.getMethod().getMethodName(), backoff,
+                retryCount, maxRetry, result.getThrowable().getClass().getSimpleName());
+        if (backoff > 0) {
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static RetryPolicy policy(String className) {
+        return POLICIES.computeIfAbsent(className.trim(), name -> {
+            try {
+                return Class.forName(name).asSubclass(RetryPolicy.class).getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | ClassCastException e) {
+                throw new ConfigurationException("Invalid retry.policy: " + name, e);
+            }
+        });
     }
 }
@@ -0,0 +1,50 @@
+package com.automation.listeners;
+
+import com.automation.config.ConfigFactory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.IExecutionListener;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caps the number of retries in one execution (retry.budget). When many tests fail for the same
+ * environmental reason, retrying all of them only delays the red result; once the budget is spent
+ * RetryAnalyzer lets failures through immediately.
+ *
+ * The budget is shared by parallel test threads and refilled on every execution start, so a warm
+ * worker running several executions in one JVM gets a fresh budget each time.
+ * Registered through META-INF/services like ResultStreamListener.
+ */
+public class RetryBudget implements IExecutionListener {
+
+    private static final Logger log = LogManager.getLogger(RetryBudget.class);
+
+    /** Remaining retries; negative = unlimited */
+    private static final AtomicInteger REMAINING = new AtomicInteger(-1);
+
+    @Override
+    public void onExecutionStart() {
+        int budget = ConfigFactory.getFrameworkConfig().retryBudget();
+        REMAINING.set(budget > 0 ? budget : -1);
+    }
+
+    /** @return true if a retry may be spent, consuming it */
+    static boolean tryAcquire() {
+        while (true) {
+            int remaining = REMAINING.get();
+            if (remaining < 0) {
+                return true;
+            }
+            if (remaining == 0) {
+                return false;
+            }
+            if (REMAINING.compareAndSet(remaining, remaining - 1)) {
+                if (remaining == 1) {
+                    log.warn("Retry budget exhausted: remaining failures will not be retried");
+                }
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.automation.listeners;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.IExecutionListener;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records every attempt of tests that RetryAnalyzer retried, so retried-then-passed tests and the
+ * time their failed attempts cost stay visible after TestNG collapses them into a single result.
+ *
+ * At the end of the execution the attempts are written as a JSON sidecar next to the Allure results
+ * ({allure.results.directory}/retry-outcomes.json). Allure ignores the file; the bot server reads it
+ * into run history to rank flaky tests. Tests that ran once are left out to keep the file small.
+ * Registered through META-INF/services like ResultStreamListener.
+ */
+public class RetryOutcomeListener implements IExecutionListener, ITestListener {
+
+    public static final String SIDECAR_FILE = "retry-outcomes.json";
+
+    private static final Logger log = LogManager.getLogger(RetryOutcomeListener.class);
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final int MAX_MESSAGE_CHARS = 300;
+
+    /** One test invocation (class + method + parameters) → its attempts in order */
+    private final Map<String, List<Attempt>> attempts = new LinkedHashMap<>();
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        record(result, "PASSED");
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        record(result, "FAILED");
+    }
+
+    @Override
+    public void onTestSkipped(ITestResult result) {
+        // A retried attempt is reported as skipped with wasRetried() = true
+        record(result, result.wasRetried() ? "RETRIED" : "SKIPPED");
+    }
+
+    @Override
+    public void onTestFailedButWithinSuccessPercentage(ITestResult result) {
+        record(result, "PASSED");
+    }
+
+    @Override
+    public void onExecutionFinish() {
+        List<Attempt> retried = new ArrayList<>();
+        synchronized (attempts) {
+            for (List<Attempt> invocation : attempts.values()) {
+                if (invocation.size() > 1) {
+                    retried.addAll(invocation);
+                }
+            }
+            attempts.clear();
+        }
+        if (retried.isEmpty()) {
+            return;
+        }
+
+        Path dir = Paths.get(System.getProperty("allure.results.directory", "target/allure-results"));
+        Map<String, Object> sidecar = new LinkedHashMap<>();
+        sidecar.put("runId", System.getProperty(ResultStreamListener.RUN_ID_PROPERTY, ""));
+        sidecar.put("attempts", retried);
+        try {
+            Files.createDirectories(dir);
+            Files.writeString(dir.resolve(SIDECAR_FILE), GSON.toJson(sidecar), StandardCharsets.UTF_8);
+            log.info("Recorded {} attempts of retried tests in {}", retried.size(), dir.resolve(SIDECAR_FILE));
+        } catch (IOException e) {
+            log.warn("Failed to write {}: {}", SIDECAR_FILE, e.getMessage());
+        }
+    }
+
+    private void record(ITestResult result, String status) {
+        String className = result.getTestClass().getName();
+        String method = result.getMethod().getMethodName();
+        Object[] parameters = result.getParameters();
+        String params = parameters != null && parameters.length > 0 ? Arrays.deepToString(parameters) : null;
+
+        Attempt attempt = new Attempt();
+        attempt.className = className;
+        attempt.method = method;
+        attempt.parameters = params;
+        attempt.status = status;
+        attempt.durationMillis = Math.max(0, result.getEndMillis() - result.getStartMillis());
+        Object classification = result.getAttribute(RetryAnalyzer.CLASSIFICATION_ATTRIBUTE);
+        attempt.classification = classification != null ? classification.toString() : null;
+        Throwable throwable = result.getThrowable();
+        if (throwable != null) {
+            attempt.errorType = throwable.getClass().getName();
+            String message = throwable.getMessage();
+            if (message != null) {
+                attempt.message = message.length() > MAX_MESSAGE_CHARS
+                        ? message.substring(0, MAX_MESSAGE_CHARS) + "..." : message;
+            }
+        }
+
+        synchronized (attempts) {
+            List<Attempt> invocation = attempts.computeIfAbsent(className + "#" + method + "(" + params + ")",
+                    key -> new ArrayList<>());
+            attempt.attempt = invocation.size() + 1;
+            invocation.add(attempt);
+        }
+        if ("RETRIED".equals(status)) {
+            log.warn("--- Test RETRIED: {} (attempt {}, {} {}) ---", method, attempt.attempt,
+                    attempt.classification, attempt.errorType);
+        }
+    }
+
+    /** One attempt as serialized into the sidecar */
+    static final class Attempt {
+        String className;
+        String method;
+        String parameters;
+        int attempt;
+        String status;
+        long durationMillis;
+        String errorType;
+        String message;
+        /** RetryAnalyzer's decision for a failed attempt: TRANSIENT, DETERMINISTIC or BUDGET_EXHAUSTED */
+        String classification;
+    }
+}
@@ -0,0 +1,17 @@
+package com.automation.listeners;
+
+import com.automation.enums.FailureClass;
+
+/**
+ * Decides which failures RetryAnalyzer retries and how long it waits before each retry.
+ * Selected with retry.policy (fully qualified class name with a public no-arg constructor).
+ */
+public interface RetryPolicy {
+
+    FailureClass classify(Throwable throwable);
+
+    /**
+     * @param retry 1 for the first retry of a test, 2 for the second...
+     */
+    long backoffMillis(int retry);
+}
@@ -23,7 +23,9 @@ public class TestListener implements ITestListener, IConfigurationListener {
 
     @Override
     public void onStart(ITestContext context) {
-        log.info("========== Suite started: {} ==========", context.getName());
+        // Test count lets the bot server estimate progress/ETA while streaming console output
+        log.info("========== Suite started: {} ({} tests) ==========",
+                context.getName(), context.getAllTestMethods().length);
     }
 
     @Override
@@ -108,7 +110,9 @@ public class TestListener implements ITestListener, IConfigurationListener {
 
             // Ghi file PNG vào allure-results
             String source = java.util.UUID.randomUUID() + "-screenshot.png";
-            java.nio.file.Path allureDir = java.nio.file.Paths.get("target", "allure-results");
+            // Bot server chạy nhiều run song song, mỗi run có allure-results riêng (-Dallure.results.directory)
+            java.nio.file.Path allureDir = java.nio.file.Paths.get(
+                    System.getProperty("allure.results.directory", "target/allure-results"));
             java.nio.file.Files.createDirectories(allureDir);
             java.nio.file.Files.write(allureDir.resolve(source), screenshot);
 
@@ -0,0 +1,69 @@
+package com.automation.listeners;
+
+import com.automation.utils.WaitEngine;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.IExecutionListener;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Makes slow selectors visible: at the end of the execution logs the locators WaitEngine spent the
+ * most time waiting for and writes all of them to {allure.results.directory}/wait-times.json
+ * (waits, total / max millis, timeouts per locator), next to retry-outcomes.json.
+ * Registered through META-INF/services like ResultStreamListener.
+ */
+public class WaitStatsListener implements IExecutionListener {
+
+    public static final String SIDECAR_FILE = "wait-times.json";
+
+    private static final Logger log = LogManager.getLogger(WaitStatsListener.class);
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final int TOP = 10;
+
+    @Override
+    public void onExecutionStart() {
+        WaitEngine.resetStats();
+    }
+
+    @Override
+    public void onExecutionFinish() {
+        List<WaitEngine.LocatorStats> stats = WaitEngine.slowest(Integer.MAX_VALUE);
+        if (stats.isEmpty()) {
+            return;
+        }
+
+        log.info("========== Slowest waits ==========");
+        for (WaitEngine.LocatorStats s : stats.subList(0, Math.min(TOP, stats.size()))) {
+            log.info("{}ms total, {} waits, max {}ms, {} timeouts: {}",
+                    s.totalMillis(), s.waits(), s.maxMillis(), s.timeouts(), s.locator());
+        }
+
+        List<Map<String, Object>> rows = stats.stream().map(s -> {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("locator", s.locator());
+            row.put("waits", s.waits());
+            row.put("totalMillis", s.totalMillis());
+            row.put("maxMillis", s.maxMillis());
+            row.put("timeouts", s.timeouts());
+            return row;
+        }).toList();
+        Path dir = Paths.get(System.getProperty("allure.results.directory", "target/allure-results"));
+        try {
+            Files.createDirectories(dir);
+            Files.writeString(dir.resolve(SIDECAR_FILE), GSON.toJson(rows), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            log.warn("Failed to write {}: {}", SIDECAR_FILE, e.getMessage());
+        }
+        WaitEngine.resetStats();
+    }
+}
@@ -2,6 +2,7 @@ package com.automation.pages;
 
 import com.automation.driver.DriverManager;
 import com.automation.enums.WaitStrategy;
+import com.automation.utils.WaitEngine;
 import com.automation.utils.WaitUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -12,7 +13,6 @@ import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.ui.Select;
 
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -62,11 +62,7 @@ public abstract class BasePage {
     }
 
     protected boolean isDisplayed(By locator) {
-        try {
-            return getDriver().findElement(locator).isDisplayed();
-        } catch (Exception e) {
-            return false;
-        }
+        return WaitEngine.isDisplayed(locator);
     }
 
     protected String getPageTitle() {
@@ -95,7 +91,7 @@ public abstract class BasePage {
 
     protected void uploadFile(By fileInput, String absolutePath) {
         log.info("Uploading file: {}", absolutePath);
-        getDriver().findElement(fileInput).sendKeys(absolutePath);
+        waitAndFind(fileInput, WaitStrategy.PRESENCE).sendKeys(absolutePath);
     }
 
     // === Helper methods for buyer pages ===
@@ -115,11 +111,7 @@ public abstract class BasePage {
     }
 
     protected List<WebElement> getElements(By locator) {
-        try {
-            return getDriver().findElements(locator);
-        } catch (Exception e) {
-            return Collections.emptyList();
-        }
+        return WaitEngine.findAll(locator);
     }
 
     protected boolean isElementDisplayed(By locator, int timeoutSeconds) {
@@ -101,7 +101,7 @@ public class DesignEditorPage extends BasePage {
 
     @Step("Close color panel")
     public DesignEditorPage closeColorPanel() {
-        List<WebElement> colorList = getDriver().findElements(colorItems);
+        List<WebElement> colorList = getElements(colorItems);
         if (colorList.size() > 1) {
             click(closeColorButton, WaitStrategy.CLICKABLE);
         }
@@ -0,0 +1,195 @@
+package com.automation.runner;
+
+import com.google.gson.Gson;
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.FileSystemResultsWriter;
+import org.aeonbits.owner.ConfigCache;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.TestNG;
+import org.testng.reporters.JUnitReportReporter;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlInclude;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+/**
+ * Long-lived worker JVM used by the bot server's "warm" executor.
+ * The JVM is started once with the test classpath loaded, then runs one TestNG run per line read from stdin.
+ *
+ * Protocol (line based, stdout is shared with test logs):
+ * - worker prints {@link #READY} once it can accept requests
+ * - bot writes one JSON {@link WorkerRequest} per line to stdin
+ * - worker prints test output, then {@link #DONE} followed by the exit status (0 = no failures)
+ *
+ * One run at a time per worker: env/browser are JVM-wide system properties.
+ */
+public final class WarmTestWorker {
+
+    public static final String READY = "##WARM-WORKER READY";
+    public static final String DONE = "##WARM-WORKER DONE ";
+
+    private static final Logger log = LogManager.getLogger(WarmTestWorker.class);
+    private static final Gson GSON = new Gson();
+    private static final Path TEST_CLASSES_DIR = Paths.get("target", "test-classes");
+
+    private WarmTestWorker() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        PrintStream out = System.out;
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+
+        out.println(READY);
+        out.flush();
+
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            int status;
+            try {
+                status = runOnce(GSON.fromJson(line, WorkerRequest.class));
+            } catch (Exception e) {
+                log.error("Warm worker run failed: {}", e.getMessage(), e);
+                status = -1;
+            }
+            out.println(DONE + status);
+            out.flush();
+        }
+    }
+
+    static int runOnce(WorkerRequest request) throws IOException {
+        Properties baseline = (Properties) System.getProperties().clone();
+        try {
+            request.systemProperties.forEach(System::setProperty);
+            System.setProperty("allure.results.directory", request.allureResultsDirectory);
+
+            // Owner caches config per JVM → clear so env/browser of this run are picked up
+            ConfigCache.clear();
+            // Default lifecycle keeps the results dir of the first run → bind a fresh one per run
+            Path allureDir = Paths.get(request.allureResultsDirectory);
+            Files.createDirectories(allureDir);
+            Allure.setLifecycle(new AllureLifecycle(new FileSystemResultsWriter(allureDir)));
+
+            TestNG testng = new TestNG(false);
+            testng.setOutputDirectory(request.reportsDirectory);
+            testng.addListener(new JUnitReportReporter());
+
+            if (!request.suiteFiles.isEmpty()) {
+                testng.setTestSuites(request.suiteFiles);
+            } else if (request.testClasses.stream().anyMatch(name -> name.contains("#"))) {
+                testng.setXmlSuites(List.of(methodSuite(request)));
+            } else {
+                testng.setTestClasses(resolveTestClasses(request.testClasses));
+            }
+
+            log.info("Warm worker starting run {}", request.runId);
+            testng.run();
+            flattenJUnitReports(Paths.get(request.reportsDirectory));
+            return testng.hasFailure() ? 1 : 0;
+        } finally {
+            System.setProperties(baseline);
+            ConfigCache.clear();
+        }
+    }
+
+    /**
+     * In-memory suite for method-level selection ("CheckoutTest#testA+testB", same syntax as Surefire -Dtest).
+     * Entries without '#' run the whole class.
+     */
+    private static XmlSuite methodSuite(WorkerRequest request) throws IOException {
+        XmlSuite suite = new XmlSuite();
+        suite.setName("warm-" + request.runId);
+        XmlTest test = new XmlTest(suite);
+        test.setName(request.runId);
+
+        List<XmlClass> classes = new ArrayList<>();
+        for (String entry : request.testClasses) {
+            String[] parts = entry.split("#", 2);
+            XmlClass xmlClass = new XmlClass(resolveTestClasses(List.of(parts[0]))[0]);
+            if (parts.length > 1 && !parts[1].isBlank()) {
+                List<XmlInclude> includes = new ArrayList<>();
+                for (String method : parts[1].split("\\+")) {
+                    includes.add(new XmlInclude(method.trim()));
+                }
+                xmlClass.setIncludedMethods(includes);
+            }
+            classes.add(xmlClass);
+        }
+        test.setXmlClasses(classes);
+        return suite;
+    }
+
+    /**
+     * Resolve simple names (LoginTest) or FQCNs to classes, same matching as Surefire -Dtest.
+     */
+    private static Class<?>[] resolveTestClasses(List<String> names) throws IOException {
+        List<Class<?>> classes = new ArrayList<>();
+        for (String name : names) {
+            String fqcn = name.contains(".") ? name : findFqcn(name);
+            try {
+                classes.add(Class.forName(fqcn, true, Thread.currentThread().getContextClassLoader()));
+            } catch (ClassNotFoundException e) {
+                throw new IOException("Test class not found: " + name, e);
+            }
+        }
+        return classes.toArray(new Class<?>[0]);
+    }
+
+    private static String findFqcn(String simpleName) throws IOException {
+        try (Stream<Path> paths = Files.walk(TEST_CLASSES_DIR)) {
+            return paths.filter(p -> p.getFileName().toString().equals(simpleName + ".class"))
+                    .map(p -> TEST_CLASSES_DIR.relativize(p).toString()
+                            .replace(".class", "")
+                            .replace('\\', '.')
+                            .replace('/', '.'))
+                    .findFirst()
+                    .orElseThrow(() -> new IOException("Test class not found: " + simpleName));
+        }
+    }
+
+    /**
+     * JUnitReportReporter writes into {outputDir}/junitreports — move up so the layout matches Surefire.
+     */
+    private static void flattenJUnitReports(Path reportsDir) throws IOException {
+        Path junitDir = reportsDir.resolve("junitreports");
+        if (!Files.isDirectory(junitDir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(junitDir)) {
+            for (Path file : files.toList()) {
+                Files.move(file, reportsDir.resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.deleteIfExists(junitDir);
+    }
+
+    /** One run request, serialized by the bot server as a single JSON line. */
+    static final class WorkerRequest {
+        String runId;
+        List<String> suiteFiles = Collections.emptyList();
+        List<String> testClasses = Collections.emptyList();
+        String reportsDirectory;
+        String allureResultsDirectory;
+        Map<String, String> systemProperties = Collections.emptyMap();
+    }
+}
@@ -51,11 +51,7 @@ public final class ElementActions {
     }
 
     public static boolean isDisplayed(By locator) {
-        try {
-            return DriverManager.getDriver().findElement(locator).isDisplayed();
-        } catch (Exception e) {
-            return false;
-        }
+        return WaitEngine.isDisplayed(locator);
     }
 
     public static boolean isEnabled(By locator) {
@@ -0,0 +1,150 @@
+package com.automation.utils;
+
+import com.automation.config.WaitConfig;
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.FluentWait;
+import org.openqa.selenium.support.ui.Sleeper;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Wait state of one test thread, bound to the thread's driver in DriverManager.
+ *
+ * WaitUtils runs thousands of times per suite; each call used to read WaitConfig through ConfigCache
+ * and allocate a new WebDriverWait. The context reads the config once when it is bound to a driver and
+ * reuses one wait per (timeout, polling) pair. Only the owning thread uses it, so nothing is synchronized.
+ *
+ * Adaptive polling (wait.polling.adaptive): the first poll comes after wait.polling.initial.millis and
+ * the interval grows by wait.polling.backoff.factor up to polling.interval, so elements that show up
+ * quickly are seen quickly without polling slow ones more often than before.
+ */
+public final class WaitContext {
+
+    private final WebDriver driver;
+    private final int explicitWaitSeconds;
+    private final int fluentWaitSeconds;
+    private final long pollingMillis;
+    private final long negativeBudgetMillis;
+    private final boolean settleEnabled;
+    private final long settleQuietMillis;
+    private final boolean adaptive;
+    private final long initialPollingMillis;
+    private final double backoffFactor;
+
+    private final Map<WaitKey, AdaptiveWait> waits = new HashMap<>();
+
+    private record WaitKey(long timeoutMillis, long pollingMillis) {
+    }
+
+    public WaitContext(WebDriver driver, WaitConfig config) {
+        this.driver = driver;
+        this.explicitWaitSeconds = config.explicitWait();
+        this.fluentWaitSeconds = config.fluentWaitTimeout();
+        this.pollingMillis = Math.max(1, config.pollingInterval());
+        this.negativeBudgetMillis = config.negativeBudgetMillis();
+        this.settleEnabled = config.settleEnabled();
+        this.settleQuietMillis = config.settleQuietMillis();
+        this.adaptive = config.adaptivePolling();
+        this.initialPollingMillis = Math.max(1, Math.min(config.initialPollingMillis(), pollingMillis));
+        this.backoffFactor = Math.max(1.0, config.pollingBackoffFactor());
+    }
+
+    public boolean isBoundTo(WebDriver driver) {
+        return this.driver == driver;
+    }
+
+    /** Wait with the configured polling interval */
+    public FluentWait<WebDriver> waitFor(Duration timeout) {
+        return waitFor(timeout, Duration.ofMillis(pollingMillis));
+    }
+
+    public FluentWait<WebDriver> waitFor(Duration timeout, Duration polling) {
+        return waits.computeIfAbsent(new WaitKey(timeout.toMillis(), polling.toMillis()),
+                key -> new AdaptiveWait(driver, timeout, polling, adaptive ? initialPollingMillis : polling.toMillis(),
+                        backoffFactor));
+    }
+
+    public Duration explicitWait() {
+        return Duration.ofSeconds(explicitWaitSeconds);
+    }
+
+    public int explicitWaitSeconds() {
+        return explicitWaitSeconds;
+    }
+
+    public Duration fluentWait() {
+        return Duration.ofSeconds(fluentWaitSeconds);
+    }
+
+    public Duration negativeBudget() {
+        return Duration.ofMillis(negativeBudgetMillis);
+    }
+
+    public boolean settleEnabled() {
+        return settleEnabled;
+    }
+
+    public long settleQuietMillis() {
+        return settleQuietMillis;
+    }
+
+    /**
+     * FluentWait whose sleeper starts at the initial interval and backs off to the polling interval.
+     * The schedule restarts on every until(), so a cached instance behaves like a fresh one.
+     * Ignores NotFoundException like WebDriverWait.
+     */
+    private static final class AdaptiveWait extends FluentWait<WebDriver> {
+
+        private final BackoffSleeper sleeper;
+
+        private AdaptiveWait(WebDriver driver, Duration timeout, Duration polling, long initialMillis, double factor) {
+            this(driver, timeout, polling, new BackoffSleeper(initialMillis, polling.toMillis(), factor));
+        }
+
+        private AdaptiveWait(WebDriver driver, Duration timeout, Duration polling, BackoffSleeper sleeper) {
+            super(driver, Clock.systemDefaultZone(), sleeper);
+            this.sleeper = sleeper;
+            withTimeout(timeout);
+            pollingEvery(polling);
+            ignoring(NotFoundException.class);
+        }
+
+        @Override
+        public <V> V until(Function<? super WebDriver, V> isTrue) {
+            sleeper.reset();
+            return super.until(isTrue);
+        }
+    }
+
+    private static final class BackoffSleeper implements Sleeper {
+
+        private final long initialMillis;
+        private final long maxMillis;
+        private final double factor;
+        private long nextMillis;
+
+        private BackoffSleeper(long initialMillis, long maxMillis, double factor) {
+            this.initialMillis = initialMillis;
+            this.maxMillis = maxMillis;
+            this.factor = factor;
+            this.nextMillis = initialMillis;
+        }
+
+        private void reset() {
+            nextMillis = initialMillis;
+        }
+
+        /** FluentWait passes its fixed interval; the backoff schedule is used instead */
+        @Override
+        public void sleep(Duration duration) throws InterruptedException {
+            long millis = nextMillis;
+            nextMillis = Math.min(maxMillis, Math.max(millis + 1, (long) (millis * factor)));
+            Thread.sleep(millis);
+        }
+    }
+}
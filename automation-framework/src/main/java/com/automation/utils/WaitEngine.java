@@ -0,0 +1,224 @@
+package com.automation.utils;
+
+import com.automation.driver.DriverManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * The single place the framework waits. Drivers run with zero implicit wait (DriverFactory), so every
+ * wait is an explicit call here with its own budget:
+ *
+ * - until(): explicit condition with a per-call budget, timed and recorded per locator;
+ * - isDisplayed() / findAll(): fast negative checks — answer immediately when the element is there,
+ *   otherwise wait only until the DOM stops changing (capped by wait.negative.budget.millis) and look
+ *   once more, instead of paying a full implicit wait for every "is it absent?" question;
+ * - waitForSettled(): MutationObserver-based signal that the page stopped re-rendering
+ *   (wait.settle.enabled, quiet period wait.settle.quiet.millis).
+ *
+ * Waits and wait settings come from the thread's WaitContext (DriverManager.getWaitContext()).
+ * Wait time per locator is collected for the whole execution; WaitStatsListener reports the slowest.
+ * WaitUtils keeps the page-object facing API and delegates here.
+ */
+public final class WaitEngine {
+
+    private static final Logger log = LogManager.getLogger(WaitEngine.class);
+
+    /** Resolves true once no DOM mutation happened for arguments[0] ms, false after arguments[1] ms */
+    private static final String SETTLED_SCRIPT = """
+            var quiet = arguments[0], budget = arguments[1], done = arguments[arguments.length - 1];
+            var timer, cap, observer;
+            var finish = function (settled) {
+                if (observer) { observer.disconnect(); }
+                clearTimeout(timer); clearTimeout(cap); done(settled);
+            };
+            if (!document.documentElement) { done(true); return; }
+            observer = new MutationObserver(function () {
+                clearTimeout(timer);
+                timer = setTimeout(function () { finish(true); }, quiet);
+            });
+            observer.observe(document.documentElement,
+                    {childList: true, subtree: true, attributes: true, characterData: true});
+            timer = setTimeout(function () { finish(true); }, quiet);
+            cap = setTimeout(function () { finish(false); }, budget);
+            """;
+
+    private static final Map<String, LocatorStats> STATS = new ConcurrentHashMap<>();
+
+    private WaitEngine() {
+    }
+
+    /**
+     * Waits until the condition returns a non-null / true value within the budget.
+     * @param label what is waited for (usually the locator), used for the per-locator report
+     * @throws TimeoutException if the budget runs out
+     */
+    public static <T> T until(String label, Duration budget, Function<WebDriver, T> condition) {
+        long start = System.nanoTime();
+        boolean timedOut = false;
+        try {
+            return DriverManager.getWaitContext().waitFor(budget).until(condition);
+        } catch (TimeoutException e) {
+            timedOut = true;
+            throw e;
+        } finally {
+            record(label, System.nanoTime() - start, timedOut);
+        }
+    }
+
+    /** Same as until(), false instead of TimeoutException */
+    public static boolean within(String label, Duration budget, Function<WebDriver, ?> condition) {
+        try {
+            until(label, budget, condition);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        }
+    }
+
+    /** Fast negative check for a displayed element; see class comment */
+    public static boolean isDisplayed(By locator) {
+        if (anyDisplayed(locator)) {
+            return true;
+        }
+        long start = System.nanoTime();
+        waitForSettled(negativeBudget());
+        boolean displayed = anyDisplayed(locator);
+        record(locator.toString(), System.nanoTime() - start, !displayed);
+        return displayed;
+    }
+
+    /** Fast negative lookup of all matches: immediate when present, else once more after the DOM settles */
+    public static List<WebElement> findAll(By locator) {
+        List<WebElement> elements = findNow(locator);
+        if (!elements.isEmpty()) {
+            return elements;
+        }
+        long start = System.nanoTime();
+        waitForSettled(negativeBudget());
+        elements = findNow(locator);
+        record(locator.toString(), System.nanoTime() - start, elements.isEmpty());
+        return elements;
+    }
+
+    /**
+     * Waits until no DOM mutation happened for wait.settle.quiet.millis.
+     * @return false if the page kept changing for the whole budget, or settling is disabled / unsupported
+     */
+    public static boolean waitForSettled(Duration budget) {
+        WaitContext context = DriverManager.getWaitContext();
+        WebDriver driver = DriverManager.getDriver();
+        if (!context.settleEnabled() || !(driver instanceof JavascriptExecutor js)) {
+            return false;
+        }
+        long start = System.nanoTime();
+        try {
+            Object settled = js.executeAsyncScript(SETTLED_SCRIPT, context.settleQuietMillis(), budget.toMillis());
+            return Boolean.TRUE.equals(settled);
+        } catch (Exception e) {
+            log.debug("DOM settle check failed: {}", e.getMessage());
+            return false;
+        } finally {
+            record("DOM settled", System.nanoTime() - start, false);
+        }
+    }
+
+    /** Slowest locators of this execution by total wait time */
+    public static List<LocatorStats> slowest(int limit) {
+        List<LocatorStats> stats = new ArrayList<>(STATS.values());
+        stats.sort(Comparator.comparingLong(LocatorStats::totalMillis).reversed());
+        return stats.subList(0, Math.min(limit, stats.size()));
+    }
+
+    public static void resetStats() {
+        STATS.clear();
+    }
+
+    private static boolean anyDisplayed(By locator) {
+        for (WebElement element : findNow(locator)) {
+            try {
+                if (element.isDisplayed()) {
+                    return true;
+                }
+            } catch (Exception e) {
+                // Stale between lookup and check → treat as not displayed
+            }
+        }
+        return false;
+    }
+
+    /** findElements with zero implicit wait never blocks: empty list when absent */
+    private static List<WebElement> findNow(By locator) {
+        try {
+            return DriverManager.getDriver().findElements(locator);
+        } catch (Exception e) {
+            return List.of();
+        }
+    }
+
+    private static Duration negativeBudget() {
+        return DriverManager.getWaitContext().negativeBudget();
+    }
+
+    private static void record(String label, long nanos, boolean timedOut) {
+        STATS.computeIfAbsent(label, LocatorStats::new).add(nanos / 1_000_000, timedOut);
+    }
+
+    /** Wait time spent on one locator (or other wait label) during the execution */
+    public static final class LocatorStats {
+
+        private final String locator;
+        private final LongAdder waits = new LongAdder();
+        private final LongAdder totalMillis = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private volatile long maxMillis;
+
+        private LocatorStats(String locator) {
+            this.locator = locator;
+        }
+
+        private void add(long millis, boolean timedOut) {
+            waits.increment();
+            totalMillis.add(millis);
+            if (timedOut) {
+                timeouts.increment();
+            }
+            if (millis > maxMillis) {
+                maxMillis = millis;
+            }
+        }
+
+        public String locator() {
+            return locator;
+        }
+
+        public long waits() {
+            return waits.sum();
+        }
+
+        public long totalMillis() {
+            return totalMillis.sum();
+        }
+
+        public long timeouts() {
+            return timeouts.sum();
+        }
+
+        public long maxMillis() {
+            return maxMillis;
+        }
+    }
+}
@@ -1,19 +1,20 @@
 package com.automation.utils;
 
-import com.automation.config.ConfigFactory;
 import com.automation.driver.DriverManager;
 import com.automation.enums.WaitStrategy;
 import org.openqa.selenium.By;
-import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.FluentWait;
-import org.openqa.selenium.support.ui.WebDriverWait;
 
 import java.time.Duration;
 import java.util.List;
-import java.util.NoSuchElementException;
 
+/**
+ * Page-object facing waits. Every method is a WaitEngine call with an explicit budget; there is no
+ * implicit wait behind findElement any more. Default budgets come from the thread's WaitContext,
+ * not from a WaitConfig lookup per call.
+ */
 public final class WaitUtils {
 
     private WaitUtils() {
@@ -21,57 +22,50 @@ public final class WaitUtils {
 
     public static WebElement waitForElement(By locator, WaitStrategy strategy) {
         return waitForElement(locator, strategy,
-                ConfigFactory.getWaitConfig().explicitWait());
+                DriverManager.getWaitContext().explicitWaitSeconds());
     }
 
     public static WebElement waitForElement(By locator, WaitStrategy strategy, int timeoutSeconds) {
-        WebDriver driver = DriverManager.getDriver();
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(timeoutSeconds));
+        Duration budget = Duration.ofSeconds(timeoutSeconds);
+        String label = locator.toString();
 
         return switch (strategy) {
-            case CLICKABLE -> wait.until(ExpectedConditions.elementToBeClickable(locator));
-            case VISIBLE -> wait.until(ExpectedConditions.visibilityOfElementLocated(locator));
-            case PRESENCE -> wait.until(ExpectedConditions.presenceOfElementLocated(locator));
-            case NONE -> driver.findElement(locator);
+            case CLICKABLE -> WaitEngine.until(label, budget, ExpectedConditions.elementToBeClickable(locator));
+            case VISIBLE -> WaitEngine.until(label, budget, ExpectedConditions.visibilityOfElementLocated(locator));
+            case PRESENCE -> WaitEngine.until(label, budget, ExpectedConditions.presenceOfElementLocated(locator));
+            case NONE -> DriverManager.getDriver().findElement(locator);
         };
     }
 
     public static List<WebElement> waitForElements(By locator, WaitStrategy strategy) {
-        WebDriver driver = DriverManager.getDriver();
-        WebDriverWait wait = new WebDriverWait(driver,
-                Duration.ofSeconds(ConfigFactory.getWaitConfig().explicitWait()));
+        Duration budget = DriverManager.getWaitContext().explicitWait();
+        String label = locator.toString();
 
         return switch (strategy) {
-            case VISIBLE -> wait.until(ExpectedConditions.visibilityOfAllElementsLocatedBy(locator));
-            case PRESENCE -> wait.until(ExpectedConditions.presenceOfAllElementsLocatedBy(locator));
-            default -> driver.findElements(locator);
+            case VISIBLE -> WaitEngine.until(label, budget, ExpectedConditions.visibilityOfAllElementsLocatedBy(locator));
+            case PRESENCE -> WaitEngine.until(label, budget, ExpectedConditions.presenceOfAllElementsLocatedBy(locator));
+            default -> DriverManager.getDriver().findElements(locator);
         };
     }
 
     public static WebElement fluentWait(By locator) {
-        WebDriver driver = DriverManager.getDriver();
-        FluentWait<WebDriver> wait = new FluentWait<>(driver)
-                .withTimeout(Duration.ofSeconds(ConfigFactory.getWaitConfig().fluentWaitTimeout()))
-                .pollingEvery(Duration.ofMillis(ConfigFactory.getWaitConfig().pollingInterval()))
-                .ignoring(NoSuchElementException.class);
-
-        return wait.until(d -> d.findElement(locator));
+        // The context's waits ignore Selenium's NotFoundException while polling
+        return WaitEngine.until(locator.toString(), DriverManager.getWaitContext().fluentWait(),
+                d -> d.findElement(locator));
     }
 
     public static boolean waitForUrlContains(String urlPart, int timeoutSeconds) {
-        WebDriver driver = DriverManager.getDriver();
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(timeoutSeconds));
-        return wait.until(ExpectedConditions.urlContains(urlPart));
+        return WaitEngine.until("url contains " + urlPart, Duration.ofSeconds(timeoutSeconds),
+                ExpectedConditions.urlContains(urlPart));
     }
 
     public static boolean waitForTitleContains(String titlePart, int timeoutSeconds) {
-        WebDriver driver = DriverManager.getDriver();
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(timeoutSeconds));
-        return wait.until(ExpectedConditions.titleContains(titlePart));
+        return WaitEngine.until("title contains " + titlePart, Duration.ofSeconds(timeoutSeconds),
+                ExpectedConditions.titleContains(titlePart));
     }
 
     public static void waitForSpinnerToDisappear() {
-        waitForSpinnerToDisappear(ConfigFactory.getWaitConfig().explicitWait());
+        waitForSpinnerToDisappear(DriverManager.getWaitContext().explicitWaitSeconds());
     }
 
     public static void waitForSpinnerToDisappear(int timeoutSeconds) {
@@ -80,23 +74,27 @@ public final class WaitUtils {
     }
 
     public static void waitForElementToDisappear(By locator, int timeoutSeconds) {
-        WebDriver driver = DriverManager.getDriver();
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(timeoutSeconds));
+        // Element was already not present / still visible after the budget / driver error → carry on, as before
         try {
-            wait.until(ExpectedConditions.invisibilityOfElementLocated(locator));
-        } catch (Exception ignored) {
-            // Element was already not present
+            WaitEngine.within("gone: " + locator, Duration.ofSeconds(timeoutSeconds),
+                    ExpectedConditions.invisibilityOfElementLocated(locator));
+        } catch (WebDriverException ignored) {
+            // Callers (PaymentSection, CartPage) treat this as best effort
         }
     }
 
+    /** Best effort like before: any driver error (stale element, closed window...) counts as not displayed */
     public static boolean isElementDisplayed(By locator, int timeoutSeconds) {
-        WebDriver driver = DriverManager.getDriver();
         try {
-            WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(timeoutSeconds));
-            wait.until(ExpectedConditions.visibilityOfElementLocated(locator));
-            return true;
-        } catch (Exception e) {
+            return WaitEngine.within(locator.toString(), Duration.ofSeconds(timeoutSeconds),
+                    ExpectedConditions.visibilityOfElementLocated(locator));
+        } catch (WebDriverException e) {
             return false;
         }
     }
+
+    /** Waits until the page stops re-rendering; see WaitEngine.waitForSettled() */
+    public static boolean waitForPageSettled(int timeoutSeconds) {
+        return WaitEngine.waitForSettled(Duration.ofSeconds(timeoutSeconds));
+    }
 }
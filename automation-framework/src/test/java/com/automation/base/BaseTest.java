@@ -2,8 +2,8 @@ package com.automation.base;
 
 import com.automation.config.ConfigFactory;
 import com.automation.config.FrameworkConfig;
-import com.automation.driver.DriverFactory;
 import com.automation.driver.DriverManager;
+import com.automation.driver.DriverPool;
 import com.automation.pages.HomePage;
 import com.automation.pages.LoginPage;
 import com.automation.utils.CookieManager;
@@ -12,6 +12,7 @@ import org.apache.logging.log4j.Logger;
 import org.openqa.selenium.By;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
+import org.testng.ITestResult;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 
@@ -27,13 +28,14 @@ public abstract class BaseTest {
     public void setUp() {
         config = ConfigFactory.getFrameworkConfig();
         log.info("Setting up WebDriver for thread: {}", Thread.currentThread().threadId());
-        DriverManager.setDriver(DriverFactory.createDriver());
+        DriverManager.setDriver(DriverPool.acquire());
     }
 
     @AfterMethod(alwaysRun = true)
-    public void tearDown() {
+    public void tearDown(ITestResult result) {
         log.info("Tearing down WebDriver for thread: {}", Thread.currentThread().threadId());
-        DriverManager.quitDriver();
+        // Failed / retried test → browser may be in a broken state, quit it instead of returning it to the pool
+        DriverManager.releaseDriver(result.isSuccess());
     }
 
     protected String getBaseUrl() {
@@ -0,0 +1,107 @@
+package com.automation.bot.parser;
+
+import com.automation.bot.parser.model.TestSuite;
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * So sánh parse 1 thư mục surefire-reports 1000 suites: Jackson XmlMapper (cách cũ) vs StAX
+ * tuần tự vs StAX song song (SurefireReportParser.parseReports).
+ *
+ * Fixture sinh giả lập: mỗi suite 10 test case, 1 failure có stacktrace, system-out verbose
+ * kiểu Selenium log (~systemOutKb KB / suite).
+ *
+ * Chạy: mvn -Pbenchmark test-compile exec:exec
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SurefireReportParserBenchmark {
+
+    @Param({"1000"})
+    int suites;
+
+    @Param({"4", "64"})
+    int systemOutKb;
+
+    private Path reportsDir;
+    private List<File> files;
+    private XmlMapper xmlMapper;
+    private SurefireReportParser parser;
+
+    @Setup(Level.Trial)
+    public void createFixtures() throws IOException {
+        reportsDir = Files.createTempDirectory("surefire-bench");
+        String logLine = "12:00:00.000 [main] DEBUG org.openqa.selenium.remote.http -- >> GET /session/abc/element\n";
+        String systemOut = logLine.repeat(Math.max(1, systemOutKb * 1024 / logLine.length()));
+        String stackTrace = "\tat com.automation.tests.GeneratedTest.test(GeneratedTest.java:42)\n".repeat(60);
+
+        for (int s = 0; s < suites; s++) {
+            String className = "com.automation.tests.Generated" + s + "Test";
+            StringBuilder xml = new StringBuilder()
+                    .append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+                    .append("<testsuite name=\"").append(className)
+                    .append("\" tests=\"10\" failures=\"1\" errors=\"0\" skipped=\"0\" time=\"12.3\">\n")
+                    .append("<properties><property name=\"browser\" value=\"chrome\"/></properties>\n");
+            for (int t = 0; t < 10; t++) {
+                xml.append("<testcase name=\"test").append(t).append("\" classname=\"").append(className)
+                        .append("\" time=\"1.23\">");
+                if (t == 0) {
+                    xml.append("<failure message=\"expected [200] but found [401]\" type=\"java.lang.AssertionError\">")
+                            .append(stackTrace).append("</failure>");
+                }
+                xml.append("</testcase>\n");
+            }
+            xml.append("<system-out><![CDATA[").append(systemOut).append("]]></system-out>\n</testsuite>\n");
+            Files.writeString(reportsDir.resolve("TEST-" + className + ".xml"), xml);
+        }
+
+        try (Stream<Path> paths = Files.list(reportsDir)) {
+            files = paths.map(Path::toFile).sorted(Comparator.comparing(File::getName)).toList();
+        }
+        xmlMapper = new XmlMapper();
+        parser = new SurefireReportParser();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFixtures() throws IOException {
+        parser.shutdown();
+        try (Stream<Path> paths = Files.walk(reportsDir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public void jacksonObjectGraph(Blackhole blackhole) throws IOException {
+        for (File file : files) {
+            blackhole.consume(xmlMapper.readValue(file, TestSuite.class));
+        }
+    }
+
+    @Benchmark
+    public void staxSequential(Blackhole blackhole) throws Exception {
+        for (File file : files) {
+            blackhole.consume(SurefireReportParser.parseFile(file.toPath()));
+        }
+    }
+
+    @Benchmark
+    public List<TestSuite> staxParallel() {
+        return parser.parseReports(reportsDir);
+    }
+}
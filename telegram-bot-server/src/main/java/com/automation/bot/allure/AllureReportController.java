@@ -1,9 +1,18 @@
 package com.automation.bot.allure;
 
 import com.automation.bot.config.AllureProperties;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.PathResourceResolver;
+
+import java.io.IOException;
 
 /**
  * Serve Allure HTML report qua Spring MVC tại /allure/**
@@ -14,16 +23,18 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
  * → Performance tốt hơn vì delegate cho Servlet container (Tomcat).
  * → An toàn: chỉ serve files trong directory chỉ định, không bị path traversal.
  *
- * Ví dụ: http://localhost:8080/allure/index.html
- *       → maps to D:/JavaProjects/automation-framework/allure-report/index.html
+ * Ví dụ: http://localhost:8080/allure/            → index các run (AllureReportStore)
+ *       http://localhost:8080/allure/a1b2c3d4/   → maps to {report-dir}/a1b2c3d4/index.html
  */
 @Configuration
 public class AllureReportController implements WebMvcConfigurer {
 
     private final AllureProperties allureProperties;
+    private final AllureReportStore reportStore;
 
-    public AllureReportController(AllureProperties allureProperties) {
+    public AllureReportController(AllureProperties allureProperties, AllureReportStore reportStore) {
         this.allureProperties = allureProperties;
+        this.reportStore = reportStore;
     }
 
     @Override
@@ -36,6 +47,49 @@ public class AllureReportController implements WebMvcConfigurer {
 
         registry.addResourceHandler("/allure/**")
                 .addResourceLocations("file:" + reportDir)
-                .setCachePeriod(0); // Không cache — luôn serve version mới nhất
+                .setCachePeriod(0) // Không cache — luôn serve version mới nhất
+                .resourceChain(false)
+                .addResolver(new DirectoryIndexResourceResolver());
+    }
+
+    /**
+     * ResourceHandler bỏ qua path rỗng → /allure/ phải forward tay sang trang index.
+     */
+    @Override
+    public void addViewControllers(ViewControllerRegistry registry) {
+        registry.addRedirectViewController("/allure", "/allure/");
+        registry.addViewController("/allure/").setViewName("forward:/allure/index.html");
+    }
+
+    /**
+     * Mỗi lần mở report của 1 run → cập nhật last access cho LRU eviction.
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                String path = request.getRequestURI().substring(request.getContextPath().length());
+                String rest = path.substring("/allure/".length());
+                int slash = rest.indexOf('/');
+                if (slash > 0) {
+                    reportStore.touch(rest.substring(0, slash));
+                }
+                return true;
+            }
+        }).addPathPatterns("/allure/*/**");
+    }
+
+    /**
+     * /allure/{runId}/ → index.html trong thư mục đó (ResourceHandler mặc định trả 404 cho thư mục).
+     */
+    private static class DirectoryIndexResourceResolver extends PathResourceResolver {
+        @Override
+        protected Resource getResource(String resourcePath, Resource location) throws IOException {
+            if (resourcePath.isEmpty() || resourcePath.endsWith("/")) {
+                return super.getResource(resourcePath + "index.html", location);
+            }
+            return super.getResource(resourcePath, location);
+        }
     }
 }
@@ -1,13 +1,23 @@
 package com.automation.bot.allure;
 
 import com.automation.bot.config.AllureProperties;
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
 
 /**
  * Chạy allure generate để tạo HTML report từ allure-results.
@@ -16,32 +26,88 @@ import java.util.concurrent.TimeUnit;
  * → Allure Java API chỉ SINH results (XML/JSON), không SINH report (HTML).
  * → Allure CLI (allure generate) mới tạo HTML report hoàn chỉnh.
  * → Dùng ProcessBuilder giống cách chạy mvn — nhất quán về approach.
+ *
+ * Tại sao generate bất đồng bộ?
+ * → allure generate + publish mất hàng chục giây CPU. Kết quả test (counts, failed tests)
+ *   đã có từ Surefire XML → gửi ngay cho user, link report gửi follow-up khi xong.
+ *
+ * Incremental thế nào khi Allure CLI không hỗ trợ generate từng phần?
+ * → Input chỉ là allure-results của run vừa xong (RunWorkspace), không tích lũy results cũ
+ *   → thời gian generate tỉ lệ với 1 run, không tăng dần theo số lần chạy.
+ * → History/trend được carry forward: copy history/ của report mới nhất vào results trước khi generate,
+ *   thay vì mất sạch mỗi lần --clean.
+ * → Generate vào thư mục staging rồi move vào {report-dir}/{runId}/ (AllureReportStore)
+ *   → không ai thấy report viết dở.
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class AllureReportGenerator {
 
     private final AllureProperties allureProperties;
     private final GitHubPagesPublisher gitHubPagesPublisher;
+    private final AllureReportStore reportStore;
+
+    /**
+     * Single thread: history của run sau lấy từ report của run trước → generate phải tuần tự.
+     */
+    private final ExecutorService reportExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "allure-report");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public AllureReportGenerator(AllureProperties allureProperties, GitHubPagesPublisher gitHubPagesPublisher,
+                                 AllureReportStore reportStore) {
+        this.allureProperties = allureProperties;
+        this.gitHubPagesPublisher = gitHubPagesPublisher;
+        this.reportStore = reportStore;
+    }
+
+    /**
+     * Generate report trên thread nền, rồi publish (nền, có gộp) lên GitHub Pages.
+     * @return future hoàn tất với URL report, hoặc null nếu generate fail
+     */
+    public CompletableFuture<String> generateReportAsync(String runId, String label, Path resultsDir) {
+        return generateReportAsync(runId, label, List.of(resultsDir));
+    }
 
     /**
-     * Chạy: allure generate allure-results -o allure-report --clean
-     * @return URL đến report, hoặc null nếu generate fail
+     * Như trên, nhưng gộp allure-results của nhiều shard thành 1 report.
      */
-    public String generateReport() {
-        String allureExecutable = allureProperties.getAllureHome() + "/bin/allure.bat";
-        String resultsDir = allureProperties.getResultsDir();
-        String reportDir = allureProperties.getReportDir();
+    public CompletableFuture<String> generateReportAsync(String runId, String label, List<Path> resultsDirs) {
+        return CompletableFuture.supplyAsync(() -> generateReport(runId, label, resultsDirs), reportExecutor)
+                .thenCompose(generated -> generated
+                        ? gitHubPagesPublisher.requestPublish().thenApply(published -> reportUrl(published, runId))
+                        : CompletableFuture.completedFuture(null));
+    }
+
+    /**
+     * Chạy: allure generate {resultsDir} -o {report-dir}.staging/{runId} --clean,
+     * rồi move vào {report-dir}/{runId}/.
+     *
+     * @param resultsDirs allure-results của run vừa xong (RunWorkspace.getAllureResultsDir()),
+     *                    nhiều thư mục nếu run được chia shard
+     * @return true nếu report của run đã sẵn sàng
+     */
+    public synchronized boolean generateReport(String runId, String label, List<Path> resultsDirs) {
+        Path root = reportStore.root();
+        // Staging nằm ngoài report-dir → publisher không sync nhầm report đang generate dở
+        Path stagingDir = root.resolveSibling(root.getFileName() + ".staging").resolve(runId);
 
         try {
-            ProcessBuilder pb = new ProcessBuilder(
-                    allureExecutable,
-                    "generate",
-                    resultsDir,
-                    "-o", reportDir,
-                    "--clean"
-            );
+            Optional<Path> previousReport = reportStore.latestReportDir();
+            if (previousReport.isPresent()) {
+                carryHistoryForward(previousReport.get(), resultsDirs.get(0));
+            }
+            Files.createDirectories(stagingDir.getParent());
+
+            // allure generate nhận nhiều thư mục results → gộp shard không cần copy
+            List<String> command = new ArrayList<>();
+            command.add(allureExecutable());
+            command.add("generate");
+            resultsDirs.forEach(dir -> command.add(dir.toString()));
+            command.addAll(List.of("-o", stagingDir.toString(), "--clean"));
+            ProcessBuilder pb = new ProcessBuilder(command);
             pb.redirectErrorStream(true);
 
             Process process = pb.start();
@@ -58,33 +124,102 @@ public class AllureReportGenerator {
             if (!finished) {
                 process.destroyForcibly();
                 log.error("Allure generate timed out");
-                return null;
+                return false;
             }
 
             if (process.exitValue() != 0) {
                 log.error("Allure generate failed with exit code: {}", process.exitValue());
-                return null;
+                return false;
             }
 
-            // Publish lên GitHub Pages (nếu enabled)
-            boolean published = gitHubPagesPublisher.publish();
-
-            String reportUrl;
-            if (published && allureProperties.getGithubPages().isEnabled()) {
-                reportUrl = allureProperties.getGithubPages().getBaseUrl();
-            } else {
-                reportUrl = allureProperties.getReportBaseUrl();
+            // Publisher có thể đang sync report-dir → chờ xong rồi mới move + evict
+            Path runDir = reportStore.runDir(runId);
+            Lock reportDirLock = gitHubPagesPublisher.reportDirLock();
+            reportDirLock.lock();
+            try {
+                deleteDirectory(runDir);
+                Files.createDirectories(root);
+                Files.move(stagingDir, runDir);
+                reportStore.register(runId, label);
+            } finally {
+                reportDirLock.unlock();
             }
 
-            // Thêm timestamp để bypass browser cache
-            reportUrl += "?t=" + System.currentTimeMillis();
-
-            log.info("Allure report generated: {}", reportUrl);
-            return reportUrl;
+            log.info("[{}] Allure report generated: {}", runId, runDir);
+            return true;
 
         } catch (Exception e) {
             log.error("Failed to generate Allure report: {}", e.getMessage(), e);
-            return null;
+            return false;
+        }
+    }
+
+    private String reportUrl(boolean published, String runId) {
+        String reportUrl;
+        if (published && allureProperties.getGithubPages().isEnabled()) {
+            reportUrl = allureProperties.getGithubPages().getBaseUrl();
+        } else {
+            reportUrl = allureProperties.getReportBaseUrl();
+        }
+
+        // Mỗi run có URL riêng → không cần timestamp bypass cache nữa
+        return (reportUrl.endsWith("/") ? reportUrl : reportUrl + "/") + runId + "/";
+    }
+
+    /** allure.bat trên Windows, allure trên Linux/macOS */
+    private String allureExecutable() {
+        boolean windows = System.getProperty("os.name").toLowerCase().contains("win");
+        return allureProperties.getAllureHome() + (windows ? "/bin/allure.bat" : "/bin/allure");
+    }
+
+    /**
+     * Copy {report trước}/history/*.json → {results}/history/ — Allure đọc thư mục này
+     * để vẽ trend (pass rate, duration) qua các lần chạy.
+     */
+    private void carryHistoryForward(Path previousReportDir, Path resultsDir) throws IOException {
+        Path historySource = previousReportDir.resolve("history");
+        if (!Files.isDirectory(historySource)) {
+            return;
+        }
+        Path historyTarget = resultsDir.resolve("history");
+        Files.createDirectories(historyTarget);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(historySource)) {
+            for (Path file : files) {
+                Files.copy(file, historyTarget.resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        log.debug("Carried Allure history forward from {}", historySource);
+    }
+
+    private void deleteDirectory(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        Files.walkFileTree(dir, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.deleteIfExists(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path d, IOException exc) throws IOException {
+                Files.deleteIfExists(d);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reportExecutor.shutdown();
+        try {
+            if (!reportExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+                reportExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            reportExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
         }
     }
 }
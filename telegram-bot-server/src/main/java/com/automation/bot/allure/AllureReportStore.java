@@ -0,0 +1,227 @@
+package com.automation.bot.allure;
+
+import com.automation.bot.config.AllureProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Quản lý các report theo run: {report-dir}/{runId}/ + trang index {report-dir}/index.html.
+ *
+ * Tại sao mỗi run 1 thư mục?
+ * → Trước đây mọi run ghi đè cùng 1 report-dir → link gửi cho run A vài phút sau hiện kết quả run B.
+ * → Mỗi run có URL riêng /allure/{runId}/, không bao giờ bị ghi đè.
+ *
+ * Tại sao cần retention?
+ * → Mỗi report vài MB → không giới hạn thì đầy đĩa build box.
+ * → Giới hạn theo số run, tuổi và tổng dung lượng. Khi vượt → xóa run ít được xem gần đây nhất (LRU):
+ *   report vừa được mở trên Telegram còn giữ, report không ai xem bị xóa trước.
+ *
+ * Nhận diện run dir bằng file run-info.json → file/thư mục khác trong report-dir (report cũ dạng phẳng) bị bỏ qua.
+ */
+@Slf4j
+@Component
+public class AllureReportStore {
+
+    static final String RUN_INFO_FILE = "run-info.json";
+    private static final DateTimeFormatter INDEX_TIME_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    private final AllureProperties allureProperties;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /** runId → report, chỉ sửa trong các method synchronized */
+    private final Map<String, RunReport> reports = new LinkedHashMap<>();
+    /** runId → lần cuối report được mở (epoch millis). Ghi từ request thread → concurrent map */
+    private final Map<String, Long> lastAccess = new ConcurrentHashMap<>();
+
+    public AllureReportStore(AllureProperties allureProperties) {
+        this.allureProperties = allureProperties;
+    }
+
+    /**
+     * Load các report còn trên đĩa từ lần chạy bot trước.
+     */
+    @PostConstruct
+    public synchronized void load() {
+        Path root = root();
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(root, Files::isDirectory)) {
+            for (Path dir : dirs) {
+                Path info = dir.resolve(RUN_INFO_FILE);
+                if (!Files.exists(info)) {
+                    continue;
+                }
+                try {
+                    RunReport report = objectMapper.readValue(info.toFile(), RunReport.class);
+                    reports.put(report.runId(), report);
+                    lastAccess.put(report.runId(), report.generatedAt());
+                } catch (IOException e) {
+                    log.warn("Skipping unreadable report info {}: {}", info, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to load Allure reports from {}: {}", root, e.getMessage());
+        }
+        log.info("Loaded {} Allure reports from {}", reports.size(), root);
+    }
+
+    public Path root() {
+        return Path.of(allureProperties.getReportDir());
+    }
+
+    public Path runDir(String runId) {
+        return root().resolve(runId);
+    }
+
+    /** Report mới nhất — dùng để carry forward history/trend sang lần generate tiếp theo */
+    public synchronized Optional<Path> latestReportDir() {
+        return reports.values().stream()
+                .max(Comparator.comparingLong(RunReport::generatedAt))
+                .map(report -> runDir(report.runId()));
+    }
+
+    /**
+     * Ghi nhận report vừa được move vào {report-dir}/{runId}/: ghi run-info.json,
+     * áp retention (không bao giờ xóa chính run này) và cập nhật index.html.
+     */
+    public synchronized void register(String runId, String label) throws IOException {
+        Path dir = runDir(runId);
+        long now = System.currentTimeMillis();
+        RunReport report = new RunReport(runId, label, now, directorySize(dir));
+
+        objectMapper.writeValue(dir.resolve(RUN_INFO_FILE).toFile(), report);
+        reports.put(runId, report);
+        lastAccess.put(runId, now);
+
+        enforceRetention(runId);
+        writeIndex();
+    }
+
+    /** Gọi mỗi khi report được mở qua /allure/{runId}/ */
+    public void touch(String runId) {
+        lastAccess.computeIfPresent(runId, (id, previous) -> System.currentTimeMillis());
+    }
+
+    /** Report còn lưu, mới nhất trước */
+    public synchronized List<RunReport> listRuns() {
+        return reports.values().stream()
+                .sorted(Comparator.comparingLong(RunReport::generatedAt).reversed())
+                .toList();
+    }
+
+    private void enforceRetention(String keepRunId) {
+        AllureProperties.Retention retention = allureProperties.getRetention();
+
+        // 1. Quá tuổi
+        long cutoff = System.currentTimeMillis() - Duration.ofDays(retention.getMaxAgeDays()).toMillis();
+        for (RunReport report : new ArrayList<>(reports.values())) {
+            if (!report.runId().equals(keepRunId) && report.generatedAt() < cutoff) {
+                evict(report, "older than " + retention.getMaxAgeDays() + " days");
+            }
+        }
+
+        // 2. Quá số lượng hoặc quá dung lượng → xóa run ít được xem gần đây nhất
+        long budgetBytes = retention.getMaxTotalSizeMb() * 1024 * 1024;
+        while (reports.size() > retention.getMaxRuns() || totalSizeBytes() > budgetBytes) {
+            Optional<RunReport> leastRecentlyUsed = reports.values().stream()
+                    .filter(report -> !report.runId().equals(keepRunId))
+                    .min(Comparator.comparingLong(report -> lastAccess.getOrDefault(report.runId(), 0L)));
+            if (leastRecentlyUsed.isEmpty()) {
+                break;
+            }
+            evict(leastRecentlyUsed.get(), "retention limit");
+        }
+    }
+
+    private void evict(RunReport report, String reason) {
+        reports.remove(report.runId());
+        lastAccess.remove(report.runId());
+        try {
+            deleteDirectory(runDir(report.runId()));
+            log.info("Evicted Allure report {} ({})", report.runId(), reason);
+        } catch (IOException e) {
+            log.warn("Failed to delete Allure report {}: {}", report.runId(), e.getMessage());
+        }
+    }
+
+    private long totalSizeBytes() {
+        return reports.values().stream().mapToLong(RunReport::sizeBytes).sum();
+    }
+
+    private void writeIndex() throws IOException {
+        StringBuilder html = new StringBuilder();
+        html.append("<!DOCTYPE html>\n<html><head><meta charset=\"utf-8\"><title>Allure Reports</title>")
+                .append("<style>body{font-family:sans-serif;margin:2em}td,th{padding:4px 12px;text-align:left}</style>")
+                .append("</head><body>\n<h1>Allure Reports</h1>\n<table>\n")
+                .append("<tr><th>Run</th><th>Label</th><th>Generated</th><th>Size</th></tr>\n");
+
+        for (RunReport report : listRuns()) {
+            html.append("<tr><td><a href=\"").append(report.runId()).append("/index.html\">")
+                    .append(report.runId()).append("</a></td><td>").append(escapeHtml(report.label()))
+                    .append("</td><td>").append(INDEX_TIME_FORMAT.format(Instant.ofEpochMilli(report.generatedAt())))
+                    .append("</td><td>").append(report.sizeBytes() / 1024).append(" KB</td></tr>\n");
+        }
+
+        html.append("</table>\n</body></html>\n");
+        Files.createDirectories(root());
+        Files.writeString(root().resolve("index.html"), html.toString());
+    }
+
+    private static String escapeHtml(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    private static long directorySize(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(Files::isRegularFile).mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+
+    private static void deleteDirectory(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        Files.walkFileTree(dir, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.deleteIfExists(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path d, IOException exc) throws IOException {
+                Files.deleteIfExists(d);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Nội dung run-info.json của mỗi report.
+     * @param generatedAt epoch millis
+     */
+    public record RunReport(String runId, String label, long generatedAt, long sizeBytes) {}
+}
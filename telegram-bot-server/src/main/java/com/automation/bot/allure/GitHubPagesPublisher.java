@@ -1,16 +1,32 @@
 package com.automation.bot.allure;
 
 import com.automation.bot.config.AllureProperties;
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
 
 /**
  * Push Allure HTML report lên branch gh-pages → GitHub Pages serve tại URL public.
@@ -19,60 +35,145 @@ import java.util.concurrent.TimeUnit;
  * không ảnh hưởng đến branch chính (master) đang work.
  *
  * Flow:
- * 1. Tạo (hoặc reuse) git worktree cho gh-pages
- * 2. Xóa nội dung cũ trong worktree
- * 3. Copy allure-report vào worktree
- * 4. git add + commit + push
- * 5. Cleanup worktree
+ * 1. Tạo git worktree cho gh-pages (lần đầu) — sau đó giữ lại, dùng tiếp cho các lần publish sau
+ * 2. Sync report-dir vào worktree: chỉ copy file có hash thay đổi, xóa file không còn trong report
+ * 3. git add + commit + push
+ *
+ * Tại sao publish chạy nền và gộp (coalesce)?
+ * → Mỗi lần publish là git I/O nặng (add/commit/push). Nhiều run xong sát nhau → không cần push
+ *   từng bản trung gian, chỉ cần bản mới nhất của report-dir.
+ * → Request đến khi đã có 1 publish đang chờ → dùng chung future đó, không xếp thêm.
+ *
+ * Tại sao so hash thay vì copy toàn bộ?
+ * → Allure report có hàng nghìn file, phần lớn (JS/CSS/plugin) không đổi giữa các lần generate.
+ *   Copy hết → git phải stat/hash lại mọi file và mtime đổi liên tục. Chỉ ghi file đổi nội dung.
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class GitHubPagesPublisher {
 
+    private static final String WORKTREE_DIR_NAME = ".gh-pages-worktree";
+
     private final AllureProperties allureProperties;
 
+    /** Single thread: worktree và hash index chỉ được đụng tới từ thread này */
+    private final ExecutorService publishExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "gh-pages-publish");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     /**
-     * Publish allure report lên gh-pages branch.
-     * @return true nếu thành công
+     * AllureReportGenerator giữ lock khi swap report-dir, publisher giữ khi sync
+     * → không bao giờ copy lẫn file của 2 lần generate.
      */
-    public boolean publish() {
-        AllureProperties.GithubPages config = allureProperties.getGithubPages();
-        if (!config.isEnabled()) {
+    private final Lock reportDirLock = new ReentrantLock();
+
+    private final Object pendingLock = new Object();
+    private CompletableFuture<Boolean> pending;
+
+    /** Relative path (dùng '/') → SHA-256 của file đã có trong worktree */
+    private final Map<String, String> publishedHashes = new HashMap<>();
+    private boolean worktreeReady;
+
+    private volatile long publishCount;
+    private volatile long coalescedCount;
+    private volatile long lastLatencyMillis;
+    private volatile long lastBytesWritten;
+    private volatile long totalBytesWritten;
+    private volatile int lastFilesChanged;
+
+    public GitHubPagesPublisher(AllureProperties allureProperties) {
+        this.allureProperties = allureProperties;
+    }
+
+    /**
+     * Yêu cầu publish report-dir hiện tại lên gh-pages (chạy nền).
+     * Nếu đã có 1 publish đang chờ chưa bắt đầu → trả về future của publish đó.
+     *
+     * @return future hoàn tất với true nếu push thành công, false nếu disabled hoặc lỗi
+     */
+    public CompletableFuture<Boolean> requestPublish() {
+        if (!allureProperties.getGithubPages().isEnabled()) {
             log.info("GitHub Pages publishing is disabled");
-            return false;
+            return CompletableFuture.completedFuture(false);
         }
 
+        synchronized (pendingLock) {
+            if (pending != null) {
+                coalescedCount++;
+                log.debug("GitHub Pages publish already pending, coalescing request");
+                return pending;
+            }
+            CompletableFuture<Boolean> future = new CompletableFuture<>();
+            pending = future;
+            publishExecutor.execute(this::publishPending);
+            return future;
+        }
+    }
+
+    public PublishMetrics getMetrics() {
+        return new PublishMetrics(publishCount, coalescedCount, lastLatencyMillis,
+                lastBytesWritten, totalBytesWritten, lastFilesChanged);
+    }
+
+    Lock reportDirLock() {
+        return reportDirLock;
+    }
+
+    private void publishPending() {
+        CompletableFuture<Boolean> future;
+        synchronized (pendingLock) {
+            future = pending;
+            pending = null;
+        }
+        future.complete(publish());
+    }
+
+    /**
+     * Publish allure report lên gh-pages branch. Chỉ chạy trên publishExecutor.
+     * @return true nếu thành công
+     */
+    private boolean publish() {
+        AllureProperties.GithubPages config = allureProperties.getGithubPages();
         String repoPath = config.getRepoPath();
-        String reportDir = allureProperties.getReportDir();
-        Path worktreePath = Paths.get(repoPath, ".gh-pages-worktree");
+        Path worktreePath = Paths.get(repoPath, WORKTREE_DIR_NAME);
+        long start = System.nanoTime();
 
         try {
             // Đảm bảo branch gh-pages tồn tại
             ensureGhPagesBranch(repoPath);
 
-            // Setup worktree
-            setupWorktree(repoPath, worktreePath.toString());
-
-            // Xóa nội dung cũ trong worktree (giữ .git)
-            cleanWorktreeContent(worktreePath);
+            // Setup worktree (chỉ lần đầu hoặc sau lỗi)
+            ensureWorktree(repoPath, worktreePath);
 
-            // Copy allure report vào worktree
-            copyDirectory(Paths.get(reportDir), worktreePath);
+            SyncStats stats;
+            reportDirLock.lock();
+            try {
+                stats = syncReport(Paths.get(allureProperties.getReportDir()), worktreePath);
+            } finally {
+                reportDirLock.unlock();
+            }
 
             // Commit và push
             commitAndPush(worktreePath.toString());
 
-            log.info("Allure report published to GitHub Pages successfully");
+            lastLatencyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            lastBytesWritten = stats.bytesWritten;
+            totalBytesWritten += stats.bytesWritten;
+            lastFilesChanged = stats.filesCopied + stats.filesDeleted;
+            publishCount++;
+
+            log.info("Allure report published to GitHub Pages in {} ms ({} copied, {} deleted, {} bytes written)",
+                    lastLatencyMillis, stats.filesCopied, stats.filesDeleted, stats.bytesWritten);
             return true;
 
         } catch (Exception e) {
             log.error("Failed to publish Allure report to GitHub Pages: {}", e.getMessage(), e);
+            // Worktree có thể ở trạng thái dở → lần sau reset lại và dựng lại hash index
+            worktreeReady = false;
+            publishedHashes.clear();
             return false;
-
-        } finally {
-            // Cleanup worktree
-            removeWorktree(repoPath, worktreePath.toString());
         }
     }
 
@@ -118,59 +219,113 @@ public class GitHubPagesPublisher {
         }
     }
 
-    private void setupWorktree(String repoPath, String worktreePath) throws Exception {
-        // Xóa worktree cũ nếu còn sót
-        Path wp = Paths.get(worktreePath);
-        if (Files.exists(wp)) {
-            runGit(repoPath, "git", "worktree", "remove", "--force", worktreePath);
-            deleteDirectoryQuietly(wp);
+    /**
+     * Worktree được giữ lại giữa các lần publish. Lần đầu (hoặc sau lỗi):
+     * - worktree còn dùng được → reset về HEAD của gh-pages, bỏ file rác
+     * - không → tạo lại từ đầu
+     * rồi dựng hash index từ nội dung thật trên đĩa.
+     */
+    private void ensureWorktree(String repoPath, Path worktreePath) throws Exception {
+        if (worktreeReady) {
+            return;
+        }
+
+        String wp = worktreePath.toString();
+        if (Files.exists(worktreePath) && runGit(wp, "git", "rev-parse", "--is-inside-work-tree") == 0) {
+            runGitOrFail(wp, "git", "reset", "--hard", "--quiet");
+            runGitOrFail(wp, "git", "clean", "-fdq");
+            log.debug("Reusing worktree at {}", worktreePath);
+        } else {
+            deleteDirectoryQuietly(worktreePath);
+            // Worktree bị xóa tay → git vẫn còn metadata → prune trước khi add lại
+            runGit(repoPath, "git", "worktree", "prune");
+            runGitOrFail(repoPath, "git", "worktree", "add", wp, "gh-pages");
+            excludeFromMainRepo(repoPath);
+            log.debug("Worktree created at {}", worktreePath);
         }
 
-        runGitOrFail(repoPath, "git", "worktree", "add", worktreePath, "gh-pages");
-        log.debug("Worktree created at {}", worktreePath);
+        publishedHashes.clear();
+        try (Stream<Path> files = Files.walk(worktreePath)) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                String relative = relativePath(worktreePath, file);
+                if (!relative.equals(".git") && !relative.startsWith(".git/")) {
+                    publishedHashes.put(relative, sha256(file));
+                }
+            }
+        }
+        worktreeReady = true;
     }
 
-    private void cleanWorktreeContent(Path worktreePath) throws Exception {
-        if (!Files.exists(worktreePath)) return;
+    /** Worktree nằm trong repo chính → thêm vào info/exclude để không hiện trong git status */
+    private void excludeFromMainRepo(String repoPath) throws Exception {
+        ProcessBuilder pb = new ProcessBuilder("git", "rev-parse", "--git-path", "info/exclude")
+                .directory(new File(repoPath));
+        Process process = pb.start();
+        String excludePath;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            excludePath = reader.readLine();
+        }
+        if (!process.waitFor(30, TimeUnit.SECONDS) || process.exitValue() != 0 || excludePath == null) {
+            return;
+        }
 
-        try (DirectoryStream<Path> stream = Files.newDirectoryStream(worktreePath)) {
-            for (Path entry : stream) {
-                // Giữ .git (worktree link)
-                if (entry.getFileName().toString().equals(".git")) continue;
-                if (Files.isDirectory(entry)) {
-                    deleteDirectoryQuietly(entry);
-                } else {
-                    Files.deleteIfExists(entry);
-                }
-            }
+        Path excludeFile = Paths.get(repoPath).resolve(excludePath.trim());
+        String entry = "/" + WORKTREE_DIR_NAME + "/";
+        if (Files.exists(excludeFile) && Files.readAllLines(excludeFile).contains(entry)) {
+            return;
         }
+        Files.createDirectories(excludeFile.getParent());
+        Files.writeString(excludeFile, System.lineSeparator() + entry + System.lineSeparator(),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
     }
 
-    private void copyDirectory(Path source, Path target) throws Exception {
+    /**
+     * Đưa worktree về đúng nội dung report-dir: copy file mới/đổi hash, xóa file không còn.
+     */
+    private SyncStats syncReport(Path source, Path target) throws IOException {
         if (!Files.exists(source)) {
             throw new IllegalStateException("Report directory does not exist: " + source);
         }
 
-        Files.walkFileTree(source, new SimpleFileVisitor<>() {
-            @Override
-            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws java.io.IOException {
-                Path targetDir = target.resolve(source.relativize(dir));
-                Files.createDirectories(targetDir);
-                return FileVisitResult.CONTINUE;
+        SyncStats stats = new SyncStats();
+        Set<String> seen = new HashSet<>();
+
+        try (Stream<Path> files = Files.walk(source)) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                String relative = relativePath(source, file);
+                seen.add(relative);
+
+                String hash = sha256(file);
+                if (hash.equals(publishedHashes.get(relative))) {
+                    continue;
+                }
+
+                Path targetFile = target.resolve(relative);
+                Files.createDirectories(targetFile.getParent());
+                Files.copy(file, targetFile, StandardCopyOption.REPLACE_EXISTING);
+                publishedHashes.put(relative, hash);
+                stats.filesCopied++;
+                stats.bytesWritten += Files.size(file);
             }
+        }
 
-            @Override
-            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws java.io.IOException {
-                Files.copy(file, target.resolve(source.relativize(file)), StandardCopyOption.REPLACE_EXISTING);
-                return FileVisitResult.CONTINUE;
+        Iterator<String> published = publishedHashes.keySet().iterator();
+        while (published.hasNext()) {
+            String relative = published.next();
+            if (!seen.contains(relative)) {
+                Files.deleteIfExists(target.resolve(relative));
+                published.remove();
+                stats.filesDeleted++;
             }
-        });
+        }
 
-        log.debug("Copied report from {} to {}", source, target);
+        log.debug("Synced report from {} to {}: {} copied, {} deleted",
+                source, target, stats.filesCopied, stats.filesDeleted);
+        return stats;
     }
 
     private void commitAndPush(String worktreePath) throws Exception {
-        runGitOrFail(worktreePath, "git", "add", ".");
+        runGitOrFail(worktreePath, "git", "add", "-A");
 
         // Kiểm tra có thay đổi không
         int diffExitCode = runGit(worktreePath, "git", "diff", "--cached", "--quiet");
@@ -187,12 +342,25 @@ public class GitHubPagesPublisher {
         log.info("Report committed and pushed to gh-pages");
     }
 
-    private void removeWorktree(String repoPath, String worktreePath) {
+    private static String relativePath(Path base, Path file) {
+        return base.relativize(file).toString().replace('\\', '/');
+    }
+
+    private static String sha256(Path file) throws IOException {
+        MessageDigest digest;
         try {
-            runGit(repoPath, "git", "worktree", "remove", "--force", worktreePath);
-        } catch (Exception e) {
-            log.warn("Failed to remove worktree: {}", e.getMessage());
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] buffer = new byte[8192];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
         }
+        return HexFormat.of().formatHex(digest.digest());
     }
 
     private int runGit(String workDir, String... command) throws Exception {
@@ -245,4 +413,31 @@ public class GitHubPagesPublisher {
             log.warn("Failed to delete directory {}: {}", dir, e.getMessage());
         }
     }
+
+    @PreDestroy
+    public void shutdown() {
+        publishExecutor.shutdown();
+        try {
+            if (!publishExecutor.awaitTermination(2, TimeUnit.MINUTES)) {
+                publishExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            publishExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Snapshot metrics cho /status.
+     * @param lastLatencyMillis thời gian publish gần nhất (sync + commit + push)
+     * @param lastFilesChanged  số file copy + xóa ở lần publish gần nhất
+     */
+    public record PublishMetrics(long publishCount, long coalescedCount, long lastLatencyMillis,
+                                 long lastBytesWritten, long totalBytesWritten, int lastFilesChanged) {}
+
+    private static class SyncStats {
+        int filesCopied;
+        int filesDeleted;
+        long bytesWritten;
+    }
 }
@@ -3,6 +3,7 @@ package com.automation.bot.bot;
 import com.automation.bot.command.BotCommand;
 import com.automation.bot.command.CommandParser;
 import com.automation.bot.command.CommandRegistry;
+import com.automation.bot.command.RerunFailedHandler;
 import com.automation.bot.config.BotProperties;
 import com.automation.bot.security.ChatIdFilter;
 import lombok.RequiredArgsConstructor;
@@ -12,6 +13,7 @@ import org.telegram.telegrambots.longpolling.interfaces.LongPollingUpdateConsume
 import org.telegram.telegrambots.longpolling.starter.AfterBotRegistration;
 import org.telegram.telegrambots.longpolling.starter.SpringLongPollingBot;
 import org.telegram.telegrambots.longpolling.util.LongPollingSingleThreadUpdateConsumer;
+import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
 import org.telegram.telegrambots.meta.api.objects.Update;
 import org.telegram.telegrambots.meta.api.objects.message.Message;
 
@@ -27,6 +29,7 @@ import java.util.List;
  *   code sạch hơn và tránh race condition khi xử lý command.
  *
  * Flow: Telegram API → Long Polling → consume(List<Update>) → consume(Update) → processMessage()
+ * Bấm nút inline (CallbackQuery) → consumeCallback() → handler theo prefix của callback data.
  */
 @Slf4j
 @Component
@@ -37,6 +40,7 @@ public class AutomationBot implements SpringLongPollingBot, LongPollingSingleThr
     private final BotMessageSender messageSender;
     private final ChatIdFilter chatIdFilter;
     private final CommandRegistry commandRegistry;
+    private final RerunFailedHandler rerunFailedHandler;
 
     @Override
     public String getBotToken() {
@@ -51,6 +55,10 @@ public class AutomationBot implements SpringLongPollingBot, LongPollingSingleThr
 
     @Override
     public void consume(Update update) {
+        if (update.hasCallbackQuery()) {
+            consumeCallback(update.getCallbackQuery());
+            return;
+        }
         if (!update.hasMessage()) {
             return;
         }
@@ -81,10 +89,28 @@ public class AutomationBot implements SpringLongPollingBot, LongPollingSingleThr
         command.execute(message, parsed.args());
     }
 
+    private void consumeCallback(CallbackQuery callback) {
+        // Không kèm message (nút của inline mode) → không biết chat nào, không kiểm tra whitelist được → bỏ qua
+        if (callback.getMessage() == null || !chatIdFilter.isAllowed(callback.getMessage().getChatId())) {
+            messageSender.answerCallback(callback.getId(), null);
+            return;
+        }
+
+        log.info("Received callback from chatId={}: {}", callback.getMessage().getChatId(), callback.getData());
+
+        if (rerunFailedHandler.supports(callback.getData())) {
+            rerunFailedHandler.handle(callback);
+        } else {
+            messageSender.answerCallback(callback.getId(), "Unknown action");
+        }
+    }
+
     @AfterBotRegistration
     public void afterRegistration() {
         log.info("Telegram Bot '{}' registered and running!", botProperties.getUsername());
         registerCommandMenu();
+        // Test class mới / bị xóa → group commands đổi → cập nhật menu gợi ý
+        commandRegistry.addChangeListener(this::registerCommandMenu);
     }
 
     /**
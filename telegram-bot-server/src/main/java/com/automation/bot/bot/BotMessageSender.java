@@ -3,9 +3,13 @@ package com.automation.bot.bot;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.telegram.telegrambots.client.okhttp.OkHttpTelegramClient;
+import org.telegram.telegrambots.meta.api.methods.AnswerCallbackQuery;
 import org.telegram.telegrambots.meta.api.methods.commands.SetMyCommands;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageReplyMarkup;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
 import org.telegram.telegrambots.meta.api.objects.commands.BotCommand;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
 import org.telegram.telegrambots.meta.generics.TelegramClient;
 
@@ -29,16 +33,79 @@ public class BotMessageSender {
         this.telegramClient = new OkHttpTelegramClient(botProperties.getToken());
     }
 
-    public void send(long chatId, String text) {
+    /**
+     * Gửi message Markdown.
+     * @return messageId (dùng cho editMessage sau này), hoặc null nếu gửi fail
+     */
+    public Integer send(long chatId, String text) {
+        return send(chatId, text, null);
+    }
+
+    /**
+     * Gửi message Markdown kèm inline keyboard (nút bấm dưới message, gửi CallbackQuery về bot).
+     * @param keyboard null = message thường
+     */
+    public Integer send(long chatId, String text, InlineKeyboardMarkup keyboard) {
         SendMessage message = SendMessage.builder()
                 .chatId(chatId)
                 .text(text)
                 .parseMode("Markdown")
+                .replyMarkup(keyboard)
                 .build();
         try {
-            telegramClient.execute(message);
+            return telegramClient.execute(message).getMessageId();
         } catch (TelegramApiException e) {
             log.error("Failed to send message to chatId={}: {}", chatId, e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Sửa nội dung message đã gửi (edit-in-place) — dùng cho progress update,
+     * tránh spam chat bằng nhiều message mới.
+     */
+    public void editMessage(long chatId, int messageId, String text) {
+        EditMessageText edit = EditMessageText.builder()
+                .chatId(chatId)
+                .messageId(messageId)
+                .text(text)
+                .parseMode("Markdown")
+                .build();
+        try {
+            telegramClient.execute(edit);
+        } catch (TelegramApiException e) {
+            log.warn("Failed to edit message {} in chatId={}: {}", messageId, chatId, e.getMessage());
+        }
+    }
+
+    /**
+     * Bỏ inline keyboard khỏi message đã gửi — nút đã bấm không bấm lại được.
+     */
+    public void removeKeyboard(long chatId, int messageId) {
+        EditMessageReplyMarkup edit = EditMessageReplyMarkup.builder()
+                .chatId(chatId)
+                .messageId(messageId)
+                .build();
+        try {
+            telegramClient.execute(edit);
+        } catch (TelegramApiException e) {
+            log.warn("Failed to remove keyboard of message {} in chatId={}: {}", messageId, chatId, e.getMessage());
+        }
+    }
+
+    /**
+     * Trả lời CallbackQuery — bắt buộc, nếu không Telegram client hiện spinner trên nút tới khi timeout.
+     * @param text toast ngắn hiện trên đầu chat, null = không hiện gì
+     */
+    public void answerCallback(String callbackQueryId, String text) {
+        AnswerCallbackQuery answer = AnswerCallbackQuery.builder()
+                .callbackQueryId(callbackQueryId)
+                .text(text)
+                .build();
+        try {
+            telegramClient.execute(answer);
+        } catch (TelegramApiException e) {
+            log.warn("Failed to answer callback {}: {}", callbackQueryId, e.getMessage());
         }
     }
 
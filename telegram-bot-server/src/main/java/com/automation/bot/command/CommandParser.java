@@ -1,5 +1,9 @@
 package com.automation.bot.command;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * Parse raw text từ Telegram thành command name + arguments.
  *
@@ -10,9 +14,27 @@ package com.automation.bot.command;
  */
 public class CommandParser {
 
+    /** Option dạng cờ (không cần "=value") */
+    private static final Set<String> OPTION_FLAGS = Set.of("failfast", "force");
+
     /** Kết quả parse: command name + arguments */
     public record ParsedCommand(String name, String args) {}
 
+    /**
+     * Arguments của lệnh chạy test tách thành phần positional (env, sub-command) và options key=value.
+     * Option không có "=" (vd: "failfast") → value rỗng.
+     */
+    public record RunArgs(String positional, Map<String, String> options) {
+
+        public String option(String key) {
+            return options.get(key);
+        }
+
+        public boolean hasOption(String key) {
+            return options.containsKey(key);
+        }
+    }
+
     /**
      * Parse "/smoke dev" → ParsedCommand("smoke", "dev")
      * Parse "/smoke@MyBot dev" → ParsedCommand("smoke", "dev")
@@ -36,4 +58,32 @@ public class CommandParser {
 
         return new ParsedCommand(commandPart.toLowerCase(), args);
     }
+
+    /**
+     * Parse "stage failfast=5" → RunArgs("stage", {failfast=5})
+     * Parse "login failfast" → RunArgs("login", {failfast=""})
+     */
+    public static RunArgs parseRunArgs(String args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        StringBuilder positional = new StringBuilder();
+        if (args != null) {
+            for (String token : args.trim().split("\\s+")) {
+                if (token.isEmpty()) {
+                    continue;
+                }
+                int eq = token.indexOf('=');
+                if (eq > 0) {
+                    options.put(token.substring(0, eq).toLowerCase(), token.substring(eq + 1));
+                } else if (OPTION_FLAGS.contains(token.toLowerCase())) {
+                    options.put(token.toLowerCase(), "");
+                } else {
+                    if (!positional.isEmpty()) {
+                        positional.append(' ');
+                    }
+                    positional.append(token);
+                }
+            }
+        }
+        return new RunArgs(positional.toString(), options);
+    }
 }
@@ -3,10 +3,14 @@ package com.automation.bot.command;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Auto-discover tất cả BotCommand beans và dispatch theo tên.
@@ -17,6 +21,9 @@ import java.util.Map;
  * → Tránh "shotgun surgery": không phải sửa nhiều file khi thêm/xóa command.
  *
  * LinkedHashMap giữ thứ tự insert → /help hiển thị commands theo đúng thứ tự được register.
+ *
+ * Dynamic commands (group theo package test) được thay cả bộ khi TestSuiteWatcher thấy index đổi →
+ * map được đọc từ thread bot và ghi từ thread watcher, mọi truy cập đi qua lock của registry.
  */
 @Slf4j
 @Component
@@ -24,6 +31,9 @@ public class CommandRegistry {
 
     private final Map<String, BotCommand> commands = new LinkedHashMap<>();
     private final CommandParser parser = new CommandParser();
+    /** Tên các command do registerCommand / replaceDynamicCommands thêm vào */
+    private final Set<String> dynamicNames = new LinkedHashSet<>();
+    private final List<Runnable> changeListeners = new CopyOnWriteArrayList<>();
 
     /**
      * Spring inject tất cả beans implement BotCommand vào đây.
@@ -36,7 +46,7 @@ public class CommandRegistry {
         }
     }
 
-    public BotCommand findCommand(String text) {
+    public synchronized BotCommand findCommand(String text) {
         CommandParser.ParsedCommand parsed = parser.parse(text);
         if (parsed == null) {
             return null;
@@ -52,16 +62,43 @@ public class CommandRegistry {
      * Đăng ký command sau khi bean đã tạo (dùng cho dynamic commands).
      * Guard: không ghi đè command đã tồn tại (static commands ưu tiên).
      */
-    public void registerCommand(BotCommand command) {
+    public synchronized void registerCommand(BotCommand command) {
         if (commands.containsKey(command.name())) {
             log.debug("Command /{} already registered, skipping", command.name());
             return;
         }
         commands.put(command.name(), command);
+        dynamicNames.add(command.name());
         log.info("Registered dynamic command: /{} - {}", command.name(), command.description());
     }
 
-    public Map<String, BotCommand> getAllCommands() {
-        return Collections.unmodifiableMap(commands);
+    /**
+     * Thay toàn bộ dynamic commands bằng bộ mới (static commands giữ nguyên, vẫn ưu tiên nếu trùng tên),
+     * rồi báo change listeners (ví dụ: cập nhật command menu Telegram).
+     */
+    public void replaceDynamicCommands(Collection<? extends BotCommand> replacement) {
+        synchronized (this) {
+            dynamicNames.forEach(commands::remove);
+            dynamicNames.clear();
+            for (BotCommand command : replacement) {
+                if (commands.containsKey(command.name())) {
+                    log.debug("Command /{} already registered, skipping", command.name());
+                    continue;
+                }
+                commands.put(command.name(), command);
+                dynamicNames.add(command.name());
+            }
+            log.info("Dynamic commands refreshed: {}", dynamicNames);
+        }
+        changeListeners.forEach(Runnable::run);
+    }
+
+    /** Gọi sau mỗi lần replaceDynamicCommands (trên thread đã gọi replace) */
+    public void addChangeListener(Runnable listener) {
+        changeListeners.add(listener);
+    }
+
+    public synchronized Map<String, BotCommand> getAllCommands() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(commands));
     }
 }
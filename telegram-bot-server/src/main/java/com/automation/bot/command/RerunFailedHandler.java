@@ -0,0 +1,88 @@
+package com.automation.bot.command;
+
+import com.automation.bot.bot.BotMessageSender;
+import com.automation.bot.notification.TelegramNotifier;
+import com.automation.bot.runner.RerunStore;
+import com.automation.bot.runner.TestRunQueue;
+import com.automation.bot.runner.TestRunRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Xử lý nút "Rerun failed" dưới message kết quả: submit run mới chỉ gồm các Class#method đã fail.
+ *
+ * Tại sao chạy lại theo Class#method thay vì cả profile?
+ * → Ngày test flaky, 2-3 test fail trong /regression 15 phút: chạy lại cả profile tốn 15 phút nữa,
+ *   chạy đúng 3 test chỉ vài chục giây. TestRunPipeline gộp kết quả mới với phần đã pass của run gốc
+ *   → vẫn nhận 1 summary đầy đủ như chạy lại cả profile.
+ *
+ * Không đọc cache (RunResultCache): bấm rerun nghĩa là muốn chạy thật.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RerunFailedHandler {
+
+    private final BotMessageSender messageSender;
+    private final TestRunQueue testRunQueue;
+    private final TelegramNotifier notifier;
+    private final TestRunPipeline pipeline;
+    private final RerunStore rerunStore;
+
+    public boolean supports(String callbackData) {
+        return callbackData != null && callbackData.startsWith(RerunStore.CALLBACK_PREFIX);
+    }
+
+    public void handle(CallbackQuery callback) {
+        String originalRunId = callback.getData().substring(RerunStore.CALLBACK_PREFIX.length());
+        long chatId = callback.getMessage().getChatId();
+
+        Optional<RerunStore.Entry> original = rerunStore.find(originalRunId);
+        if (original.isEmpty()) {
+            messageSender.answerCallback(callback.getId(), "Run " + originalRunId + " expired, run the command again.");
+            messageSender.removeKeyboard(chatId, callback.getMessage().getMessageId());
+            return;
+        }
+
+        RerunStore.Entry entry = original.get();
+        TestRunRequest base = entry.getRequest();
+        String runId = UUID.randomUUID().toString().substring(0, 8);
+        String label = entry.getLabel() + " (rerun failed)";
+        int failedCount = entry.failedTests().size();
+
+        TestRunRequest request = TestRunRequest.builder()
+                .runId(runId)
+                .chatId(chatId)
+                .userId(callback.getFrom().getId())
+                .env(base.getEnv())
+                .testClasses(entry.selection())
+                .browser(base.getBrowser())
+                .headless(base.isHeadless())
+                .rerunOf(originalRunId)
+                .build();
+
+        TestRunQueue.Submission submission = testRunQueue.submit(request, info -> pipeline.execute(info, label));
+        if (submission.isRejected()) {
+            messageSender.answerCallback(callback.getId(), "Queue is full");
+            notifier.notifyQueueFull(chatId);
+            return;
+        }
+        if (submission.isDuplicate()) {
+            // Bấm 2 lần liên tiếp → cùng selection đã có trong queue
+            messageSender.answerCallback(callback.getId(),
+                    "Already queued as " + submission.info().getRequest().getRunId());
+            return;
+        }
+
+        log.info("[{}] Rerunning {} failed tests of run {}: {}", runId, failedCount, originalRunId,
+                request.getTestClasses());
+        messageSender.answerCallback(callback.getId(), "Rerunning " + failedCount + " failed tests");
+        messageSender.removeKeyboard(chatId, callback.getMessage().getMessageId());
+        notifier.notifyQueued(chatId, runId, label, base.getEnv(), submission.position(), submission.eta());
+    }
+}
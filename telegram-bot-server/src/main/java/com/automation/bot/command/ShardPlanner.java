@@ -0,0 +1,91 @@
+package com.automation.bot.command;
+
+import com.automation.bot.config.TestRunnerProperties;
+import com.automation.bot.history.RunHistoryStore;
+import com.automation.bot.runner.TestRunQueue;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Chia test classes của 1 group run thành K shard có tổng duration gần bằng nhau.
+ *
+ * Tại sao cân theo duration thay vì chia đều số class?
+ * → Wall-clock của group run = shard chậm nhất. 1 class 10 phút + 5 class 1 phút chia đều số lượng
+ *   → 1 shard vẫn 10+ phút. Cân theo duration (p50 từ RunHistoryStore, tức Surefire XML các run trước)
+ *   → các shard xong gần cùng lúc.
+ *
+ * Thuật toán: LPT (Longest Processing Time first) — sort class giảm dần theo duration,
+ * mỗi class gán vào shard đang có tổng nhỏ nhất. Đơn giản, sai lệch tối đa 4/3 so với tối ưu.
+ *
+ * K = min(số class, max-shards, số slot trống) → không bao giờ tự xếp hàng chờ chính mình.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ShardPlanner {
+
+    private final TestRunnerProperties runnerProperties;
+    private final TestRunQueue testRunQueue;
+    private final RunHistoryStore runHistory;
+
+    /**
+     * @return danh sách shard (mỗi shard là list test class); 1 phần tử nếu không nên shard
+     */
+    public List<List<String>> plan(List<String> testClasses) {
+        TestRunnerProperties.Sharding sharding = runnerProperties.getSharding();
+        if (!sharding.isEnabled() || testClasses.size() < 2) {
+            return List.of(testClasses);
+        }
+
+        int maxShards = sharding.getMaxShards() > 0 ? sharding.getMaxShards() : runnerProperties.getMaxConcurrentRuns();
+        int shardCount = Math.min(testClasses.size(), Math.min(maxShards, testRunQueue.getFreeSlots()));
+        if (shardCount < 2) {
+            return List.of(testClasses);
+        }
+
+        Map<String, Long> durations = new LinkedHashMap<>();
+        for (String testClass : testClasses) {
+            long millis = runHistory.durationStats(testClass, sharding.getHistoryRuns())
+                    .map(RunHistoryStore.DurationStats::p50Millis)
+                    .orElse(sharding.getDefaultClassSeconds() * 1000L);
+            durations.put(testClass, millis);
+        }
+
+        List<List<String>> shards = balance(durations, shardCount);
+        log.info("Sharded {} classes into {} shards: {}", testClasses.size(), shards.size(), shards);
+        return shards;
+    }
+
+    /** LPT: class dài nhất trước, gán vào shard đang nhẹ nhất */
+    static List<List<String>> balance(Map<String, Long> durations, int shardCount) {
+        List<List<String>> shards = new ArrayList<>();
+        long[] totals = new long[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(new ArrayList<>());
+        }
+
+        List<Map.Entry<String, Long>> longestFirst = durations.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                .toList();
+        for (Map.Entry<String, Long> entry : longestFirst) {
+            int lightest = 0;
+            for (int i = 1; i < shardCount; i++) {
+                if (totals[i] < totals[lightest]) {
+                    lightest = i;
+                }
+            }
+            shards.get(lightest).add(entry.getKey());
+            totals[lightest] += entry.getValue();
+        }
+
+        shards.removeIf(List::isEmpty);
+        return shards;
+    }
+}
@@ -0,0 +1,83 @@
+package com.automation.bot.command;
+
+import com.automation.bot.parser.model.TestSuite;
+import com.automation.bot.runner.RunWorkspace;
+import com.automation.bot.runner.TestRunRequest;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Trạng thái chung của 1 group run đã chia shard: gom kết quả từng shard,
+ * shard xong cuối cùng merge thành 1 kết quả / 1 message.
+ *
+ * Các shard chạy trên các worker thread khác nhau của TestRunQueue → mọi state ở đây thread-safe.
+ */
+@Getter
+public class ShardedRun {
+
+    /** Request "cha": runId dùng cho history/Allure, testClasses = tất cả class của group */
+    private final TestRunRequest parentRequest;
+    private final String label;
+    private final int shardCount;
+
+    private final AtomicInteger remaining;
+    private final AtomicReference<Instant> startedAt = new AtomicReference<>();
+    private final List<ShardOutcome> outcomes = Collections.synchronizedList(new ArrayList<>());
+    /** Group bị rollback lúc submit (queue đầy / trùng) → không merge, không notify, chỉ dọn workspace */
+    private volatile boolean discarded;
+
+    public ShardedRun(TestRunRequest parentRequest, String label, int shardCount) {
+        this.parentRequest = parentRequest;
+        this.label = label;
+        this.shardCount = shardCount;
+        this.remaining = new AtomicInteger(shardCount);
+    }
+
+    /** Gọi khi 1 shard bắt đầu chạy — wall-clock tính từ shard đầu tiên */
+    public void markStarted() {
+        startedAt.compareAndSet(null, Instant.now());
+    }
+
+    /**
+     * Ghi nhận 1 shard xong (kể cả lỗi).
+     * @return true nếu đây là shard cuối cùng → caller merge kết quả
+     */
+    public boolean complete(ShardOutcome outcome) {
+        outcomes.add(outcome);
+        return remaining.decrementAndGet() == 0;
+    }
+
+    /**
+     * Rollback lúc submit: các shard chưa submit coi như đã xong, shard đã submit (bị cancel) vẫn complete như thường.
+     * @param submittedShards số shard đã vào queue
+     * @return true nếu mọi shard đã submit cũng đã xong → caller dọn workspace luôn
+     */
+    public boolean discard(int submittedShards) {
+        discarded = true;
+        return remaining.addAndGet(-(shardCount - submittedShards)) == 0;
+    }
+
+    public String shardLabel(int index) {
+        return label + " [" + (index + 1) + "/" + shardCount + "]";
+    }
+
+    /**
+     * @param suites Surefire suites của shard (rỗng nếu shard lỗi)
+     * @param error       message lỗi nếu shard không chạy được, null nếu bình thường
+     * @param abortReason lý do shard bị dừng giữa chừng (fail-fast, timeout, cancel), null nếu chạy hết
+     */
+    public record ShardOutcome(TestRunRequest request, RunWorkspace workspace, List<TestSuite> suites,
+                               String error, String abortReason) {
+
+        /** Shard không chạy hết → suites chỉ là phần đã chạy tới lúc đó */
+        public boolean aborted() {
+            return abortReason != null;
+        }
+    }
+}
@@ -0,0 +1,417 @@
+package com.automation.bot.command;
+
+import com.automation.bot.allure.AllureReportGenerator;
+import com.automation.bot.config.TestRunnerProperties;
+import com.automation.bot.history.RetryOutcomeReader;
+import com.automation.bot.history.RunHistoryStore;
+import com.automation.bot.history.RunRecord;
+import com.automation.bot.notification.RunProgressReporter;
+import com.automation.bot.notification.TelegramNotifier;
+import com.automation.bot.parser.LiveRunResult;
+import com.automation.bot.parser.ResultStreamReceiver;
+import com.automation.bot.parser.SurefireReportParser;
+import com.automation.bot.parser.model.TestCase;
+import com.automation.bot.parser.model.TestSuite;
+import com.automation.bot.runner.*;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Flow thực thi 1 test run trên worker thread của TestRunQueue — dùng chung cho
+ * AbstractTestCommand và GroupCommand.
+ *
+ * Tại sao tách ra component riêng?
+ * → Trước đây 2 command copy-paste cùng 1 flow, mỗi thay đổi (progress, Allure nền, history...)
+ *   phải sửa 2 chỗ. Command chỉ còn lo build TestRunRequest + label, flow nằm 1 chỗ.
+ *
+ * Flow: set RUNNING → chạy test (kết quả từng test về qua ResultStreamReceiver) → notify kết quả
+ *       → ghi history → Allure report (nền) → cleanup
+ * Kết quả lấy từ LiveRunResult nếu stream nhận đủ; thiếu (process bị kill, framework cũ) → parse Surefire XML.
+ * Kết quả đầy đủ được lưu vào RunResultCache → lần chạy lại cùng code + env trả ngay (replyFromCache).
+ * failfast=N: FailFastMonitor nghe LiveRunResult, vượt ngưỡng → kill process, báo kết quả đã có tới lúc đó.
+ * Group run đã chia shard (ShardPlanner): mỗi shard chạy + parse riêng, shard cuối merge rồi mới notify.
+ * Run có test fail được lưu vào RerunStore → nút "Rerun failed"; run rerun (rerunOf) gộp kết quả với run gốc,
+ * không cache, không ghi history (chỉ vài method → lệch ước lượng duration của class).
+ * Test chỉ pass nhờ RetryAnalyzer đọc từ retry-outcomes.json → hiện trong kết quả + ghi history cho /flaky.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TestRunPipeline {
+
+    private final TestRunnerProperties runnerProperties;
+    private final TestRunner testRunner;
+    private final TestRunQueue testRunQueue;
+    private final TelegramNotifier notifier;
+    private final SurefireReportParser reportParser;
+    private final AllureReportGenerator allureGenerator;
+    private final RunHistoryStore runHistory;
+    private final ResultStreamReceiver resultStream;
+    private final RunResultCache resultCache;
+    private final RerunStore rerunStore;
+    private final RetryOutcomeReader retryOutcomes;
+
+    /**
+     * Gọi trước khi submit: có kết quả còn hạn cho cùng code + env + tập test → gửi luôn, không chạy lại.
+     * @return true nếu đã trả kết quả từ cache
+     */
+    public boolean replyFromCache(TestRunRequest request, boolean force) {
+        return resultCache.lookup(request, force)
+                .map(entry -> {
+                    notifier.notifyCachedResult(request, entry);
+                    return true;
+                })
+                .orElse(false);
+    }
+
+    public void execute(TestRunQueue.TestRunInfo info, String label) {
+        TestRunRequest request = info.getRequest();
+        String runId = request.getRunId();
+        boolean reportScheduled = false;
+        LiveRunResult live = resultStream.register(runId);
+
+        try {
+            info.setStatus(RunStatus.RUNNING);
+            Integer runningMessageId = notifier.notifyRunning(request.getChatId(), label, request.getEnv());
+            RunProgressReporter progress = new RunProgressReporter(notifier, request.getChatId(),
+                    runningMessageId, label, request.getEnv(),
+                    Duration.ofSeconds(runnerProperties.getProgressIntervalSeconds()));
+
+            FailFastMonitor failFast = watchFailFast(info, live, label);
+            // Revision lấy lúc bắt đầu chạy — code sửa trong lúc chạy thuộc về lần chạy sau.
+            // Rerun chỉ chứa vài method, kết quả gộp không ứng với spec của request → không cache
+            boolean rerun = request.getRerunOf() != null;
+            RunResultCache.Key cacheKey = rerun ? null : resultCache.keyFor(request);
+
+            // Chạy Maven test
+            TestRunResult rawResult = testRunner.run(request, withConsoleFailFast(progress, failFast),
+                    info::setProcess);
+            progress.finish();
+            boolean cancelled = info.getStatus() == RunStatus.CANCELLED;
+            if (!cancelled) {
+                info.setStatus(rawResult.getStatus());
+            }
+            RunWorkspace workspace = testRunner.workspaceFor(request);
+
+            CollectedSuites collected = collectSuites(live, workspace);
+            List<TestSuite> rerunSuites = collected.suites();
+            RerunStore.Entry original = rerun ? rerunStore.find(request.getRerunOf()).orElse(null) : null;
+            if (rerun && original == null) {
+                log.info("[{}] Original run {} expired, reporting rerun results alone", runId, request.getRerunOf());
+            }
+            List<TestSuite> suites = original != null
+                    ? RerunStore.merge(original.getSuites(), rerunSuites) : rerunSuites;
+            List<TestCase> failedTests = reportParser.getFailedTests(suites);
+            List<RunRecord.RetryRecord> retries = retryOutcomes.read(workspace.getAllureResultsDir());
+
+            TestRunResult enrichedResult = withInterruption(withRetries(reportParser.buildResult(
+                    runId, suites, rawResult.getDuration(), null), retries),
+                    interruptionReason(rawResult, cancelled, failFast, collected.partial()));
+            boolean incomplete = enrichedResult.isIncomplete();
+
+            // Gửi kết quả đẹp về Telegram. Run bị dừng giữa chừng (fail-fast, timeout, cancel) không có nút
+            // rerun: phần chưa chạy không nằm trong kết quả gộp
+            if (original != null) {
+                TestRunResult rerunResult = reportParser.buildResult(runId, rerunSuites, rawResult.getDuration(), null);
+                boolean offerRerun = !incomplete
+                        && rerunStore.remember(runId, original.getRequest(), original.getLabel(), suites);
+                notifier.notifyRerunResult(original, runId, rerunResult, enrichedResult, failedTests, offerRerun);
+            } else {
+                boolean offerRerun = !incomplete && rerunStore.remember(runId, request, label, suites);
+                notifier.notifyResult(request, enrichedResult, failedTests, offerRerun);
+            }
+            resultCache.put(cacheKey, request, label, enrichedResult, failedTests);
+
+            // Ghi history — lỗi ghi file không được làm hỏng run.
+            // Run không chạy hết (fail-fast, timeout, cancel, kill) không ghi: duration ngắn bất thường
+            // làm lệch ước lượng của scheduler và ShardPlanner
+            if (!incomplete && !rerun) {
+                try {
+                    runHistory.record(request, label, enrichedResult, suites, retries);
+                } catch (Exception e) {
+                    log.warn("[{}] Failed to record run history: {}", runId, e.getMessage());
+                }
+            }
+
+            // Allure report generate nền → kết quả không phải chờ; link gửi follow-up khi xong.
+            // Workspace chỉ được xóa sau khi generate xong (allure đọc allure-results trong đó).
+            allureGenerator.generateReportAsync(runId, label, workspace.getAllureResultsDir())
+                    .whenComplete((allureUrl, error) -> {
+                        resultCache.attachReport(cacheKey, allureUrl);
+                        notifier.notifyReportReady(request.getChatId(), label, allureUrl);
+                        testRunner.cleanupWorkspace(request);
+                    });
+            reportScheduled = true;
+
+        } catch (Exception e) {
+            log.error("[{}] Error executing test run: {}", runId, e.getMessage(), e);
+            info.setStatus(RunStatus.FAILED);
+            notifier.notifyError(request.getChatId(), label, e.getMessage());
+
+        } finally {
+            resultStream.unregister(runId);
+            testRunQueue.removeRun(runId);
+            if (!reportScheduled) {
+                testRunner.cleanupWorkspace(request);
+            }
+        }
+    }
+
+    /**
+     * Chạy 1 shard của group run. Không gửi kết quả riêng — shard xong cuối cùng
+     * merge tất cả thành 1 TestRunResult, 1 message, 1 Allure report.
+     */
+    public void executeShard(TestRunQueue.TestRunInfo info, ShardedRun shardedRun, int shardIndex) {
+        TestRunRequest request = info.getRequest();
+        String runId = request.getRunId();
+        String shardLabel = shardedRun.shardLabel(shardIndex);
+        ShardedRun.ShardOutcome outcome;
+        LiveRunResult live = resultStream.register(runId);
+
+        try {
+            info.setStatus(RunStatus.RUNNING);
+            shardedRun.markStarted();
+            Integer runningMessageId = notifier.notifyRunning(request.getChatId(), shardLabel, request.getEnv());
+            RunProgressReporter progress = new RunProgressReporter(notifier, request.getChatId(),
+                    runningMessageId, shardLabel, request.getEnv(),
+                    Duration.ofSeconds(runnerProperties.getProgressIntervalSeconds()));
+
+            FailFastMonitor failFast = watchFailFast(info, live, shardLabel);
+
+            TestRunResult rawResult = testRunner.run(request, withConsoleFailFast(progress, failFast),
+                    info::setProcess);
+            progress.finish();
+            boolean cancelled = info.getStatus() == RunStatus.CANCELLED;
+            if (!cancelled) {
+                info.setStatus(rawResult.getStatus());
+            }
+            RunWorkspace workspace = testRunner.workspaceFor(request);
+
+            CollectedSuites collected = collectSuites(live, workspace);
+            List<TestSuite> suites = collected.suites();
+            String abortReason = interruptionReason(rawResult, cancelled, failFast, collected.partial());
+            outcome = new ShardedRun.ShardOutcome(request, workspace, suites, null, abortReason);
+
+        } catch (Exception e) {
+            log.error("[{}] Error executing shard: {}", runId, e.getMessage(), e);
+            info.setStatus(RunStatus.FAILED);
+            notifier.notifyError(request.getChatId(), shardLabel, e.getMessage());
+            outcome = new ShardedRun.ShardOutcome(request, testRunner.workspaceFor(request), List.of(), e.getMessage(), null);
+
+        } finally {
+            resultStream.unregister(runId);
+            testRunQueue.removeRun(runId);
+        }
+
+        if (shardedRun.complete(outcome)) {
+            finishShardedRun(shardedRun);
+        }
+    }
+
+    /**
+     * Shard bị cancel khi còn trong queue — executeShard không bao giờ chạy → ghi outcome lỗi
+     * để group vẫn merge phần đã chạy và dọn workspace của các shard khác.
+     */
+    public void cancelShard(TestRunQueue.TestRunInfo info, ShardedRun shardedRun) {
+        TestRunRequest request = info.getRequest();
+        log.info("[{}] Shard cancelled before start", request.getRunId());
+        ShardedRun.ShardOutcome outcome = new ShardedRun.ShardOutcome(request, testRunner.workspaceFor(request),
+                List.of(), "Cancelled", null);
+        if (shardedRun.complete(outcome)) {
+            finishShardedRun(shardedRun);
+        }
+    }
+
+    /**
+     * Submit group thất bại giữa chừng: đánh dấu bỏ kết quả, shard đã submit (caller cancel sau đó)
+     * xong thì chỉ dọn workspace.
+     */
+    public void discardShardedRun(ShardedRun shardedRun, int submittedShards) {
+        if (shardedRun.discard(submittedShards)) {
+            finishShardedRun(shardedRun);
+        }
+    }
+
+    /**
+     * Gắn FailFastMonitor vào live result nếu request bật failfast; null nếu không bật.
+     * Shard run: ngưỡng tính riêng cho từng shard.
+     * Result stream tắt / bind lỗi → live result không bao giờ có event, monitor được nuôi bằng
+     * console (withConsoleFailFast) và chỉ đếm số test fail (console không có root cause).
+     */
+    private FailFastMonitor watchFailFast(TestRunQueue.TestRunInfo info, LiveRunResult live, String label) {
+        TestRunRequest request = info.getRequest();
+        if (request.getFailFast() <= 0) {
+            return null;
+        }
+        boolean streamed = resultStream.endpoint() != null;
+        FailFastMonitor monitor = new FailFastMonitor(request.getFailFast(),
+                streamed ? runnerProperties.getFailFast().getSameCauseThreshold() : 0, reason -> {
+                    // Kill trước để slot trống sớm nhất, message gửi sau
+                    boolean killed = info.killProcess();
+                    log.info("[{}] Fail-fast: {} (process killed={})", request.getRunId(), reason, killed);
+                    notifier.notifyFailFast(request.getChatId(), label, reason);
+                });
+        if (streamed) {
+            live.onEvent(monitor);
+        } else {
+            log.info("[{}] Result stream off — fail-fast counts console FAILED markers, same-cause check disabled",
+                    request.getRunId());
+        }
+        return monitor;
+    }
+
+    /** Stream tắt → chuyển cả output console cho fail-fast monitor, ngoài progress */
+    private Consumer<String> withConsoleFailFast(Consumer<String> progress, FailFastMonitor failFast) {
+        if (failFast == null || resultStream.endpoint() != null) {
+            return progress;
+        }
+        return progress.andThen(failFast.consoleFailures());
+    }
+
+    /**
+     * Stream đã nhận runFinish → dùng luôn kết quả live, không đọc disk. Ngược lại parse Surefire XML.
+     * Process bị kill (fail-fast, timeout) thường chưa kịp ghi XML → dùng phần kết quả live đã nhận,
+     * đánh dấu partial: chỉ để hiển thị, run bị coi là không chạy hết.
+     */
+    private CollectedSuites collectSuites(LiveRunResult live, RunWorkspace workspace) throws InterruptedException {
+        if (live.awaitFinished(resultStream.grace())) {
+            List<TestSuite> suites = live.toSuites();
+            log.info("[{}] Using streamed results ({} suites)", live.getRunId(), suites.size());
+            return new CollectedSuites(suites, false);
+        }
+        List<TestSuite> suites = reportParser.parseReports(workspace.getSurefireReportsDir());
+        if (suites.isEmpty()) {
+            List<TestSuite> partial = live.toSuites();
+            if (!partial.isEmpty()) {
+                log.info("[{}] No Surefire reports, using partial streamed results ({} suites)",
+                        live.getRunId(), partial.size());
+                return new CollectedSuites(partial, true);
+            }
+        }
+        return new CollectedSuites(suites, false);
+    }
+
+    /**
+     * @param partial true nếu suites chỉ là phần stream nhận được trước khi run bị ngắt (không có runFinish,
+     *                không có Surefire XML) → chỉ để hiển thị, không phải kết quả của 1 run chạy hết
+     */
+    private record CollectedSuites(List<TestSuite> suites, boolean partial) {
+    }
+
+    /**
+     * Lý do run không chạy hết, null nếu chạy hết: fail-fast kill, /cancel, timeout / worker chết / lỗi start,
+     * hoặc chỉ còn kết quả stream dở dang (process chết không ghi report). Exit code khác 0 vì có test fail
+     * là kết thúc bình thường.
+     */
+    static String interruptionReason(TestRunResult rawResult, boolean cancelled, FailFastMonitor failFast,
+                                     boolean partialResults) {
+        if (failFast != null && failFast.isTriggered()) {
+            return "Aborted by fail-fast: " + failFast.getReason();
+        }
+        if (cancelled) {
+            return "Cancelled";
+        }
+        if (rawResult.isIncomplete()) {
+            return rawResult.getErrorMessage();
+        }
+        return partialResults ? "Incomplete results: run ended without writing test reports" : null;
+    }
+
+    /**
+     * buildResult() tính status từ suites → phần đã chạy toàn pass vẫn ra COMPLETED.
+     * Run không chạy hết → FAILED + lý do, đánh dấu incomplete (không cache, không ghi history).
+     */
+    static TestRunResult withInterruption(TestRunResult result, String reason) {
+        if (reason == null) {
+            return result;
+        }
+        return result.toBuilder()
+                .status(RunStatus.FAILED)
+                .errorMessage(reason)
+                .incomplete(true)
+                .build();
+    }
+
+    /** Số test pass nhờ retry + thời gian mất cho retry — Surefire/stream chỉ thấy lần chạy cuối */
+    private static TestRunResult withRetries(TestRunResult result, List<RunRecord.RetryRecord> retries) {
+        if (retries.isEmpty()) {
+            return result;
+        }
+        int passedOnRetry = (int) retries.stream().filter(r -> "PASSED".equals(r.finalStatus())).count();
+        long retryMillis = retries.stream().mapToLong(RunRecord.RetryRecord::retryMillis).sum();
+        return result.toBuilder()
+                .passedOnRetry(passedOnRetry)
+                .retryTime(Duration.ofMillis(retryMillis))
+                .build();
+    }
+
+    private void finishShardedRun(ShardedRun shardedRun) {
+        TestRunRequest parent = shardedRun.getParentRequest();
+        String label = shardedRun.getLabel();
+        List<ShardedRun.ShardOutcome> outcomes = List.copyOf(shardedRun.getOutcomes());
+        if (shardedRun.isDiscarded()) {
+            log.info("[{}] Sharded run discarded, cleaning {} shard workspace(s)", parent.getRunId(), outcomes.size());
+            outcomes.forEach(o -> testRunner.cleanupWorkspace(o.request()));
+            return;
+        }
+
+        try {
+            List<TestSuite> suites = outcomes.stream().flatMap(o -> o.suites().stream()).toList();
+            if (suites.isEmpty() && outcomes.stream().allMatch(o -> o.error() != null)) {
+                // Mọi shard đều lỗi → đã notifyError từng shard, không có gì để merge
+                outcomes.forEach(o -> testRunner.cleanupWorkspace(o.request()));
+                return;
+            }
+            List<TestCase> failedTests = reportParser.getFailedTests(suites);
+            Instant startedAt = shardedRun.getStartedAt().get();
+            Duration wallClock = startedAt != null ? Duration.between(startedAt, Instant.now()) : Duration.ZERO;
+
+            List<RunRecord.RetryRecord> retries = outcomes.stream()
+                    .flatMap(o -> retryOutcomes.read(o.workspace().getAllureResultsDir()).stream())
+                    .toList();
+            TestRunResult mergedResult = withRetries(
+                    reportParser.buildResult(parent.getRunId(), suites, wallClock, null), retries);
+            // Shard bị dừng giữa chừng → xử lý như run thường bị abort: FAILED, không rerun/cache/history
+            mergedResult = withInterruption(mergedResult, outcomes.stream()
+                    .map(ShardedRun.ShardOutcome::abortReason)
+                    .filter(Objects::nonNull)
+                    .findFirst().orElse(null));
+            boolean incomplete = mergedResult.isIncomplete();
+            boolean offerRerun = !incomplete && rerunStore.remember(parent.getRunId(), parent, label, suites);
+            notifier.notifyResult(parent, mergedResult, failedTests, offerRerun);
+            // Shard lỗi hoặc bị abort → kết quả merge thiếu test, không cache
+            RunResultCache.Key cacheKey = incomplete || outcomes.stream().anyMatch(o -> o.error() != null)
+                    ? null : resultCache.keyFor(parent);
+            resultCache.put(cacheKey, parent, label, mergedResult, failedTests);
+
+            if (!incomplete) {
+                try {
+                    runHistory.record(parent, label, mergedResult, suites, retries);
+                } catch (Exception e) {
+                    log.warn("[{}] Failed to record run history: {}", parent.getRunId(), e.getMessage());
+                }
+            }
+
+            List<Path> resultsDirs = outcomes.stream().map(o -> o.workspace().getAllureResultsDir()).toList();
+            allureGenerator.generateReportAsync(parent.getRunId(), label, resultsDirs)
+                    .whenComplete((allureUrl, error) -> {
+                        resultCache.attachReport(cacheKey, allureUrl);
+                        notifier.notifyReportReady(parent.getChatId(), label, allureUrl);
+                        outcomes.forEach(o -> testRunner.cleanupWorkspace(o.request()));
+                    });
+
+        } catch (Exception e) {
+            log.error("[{}] Error merging shard results: {}", parent.getRunId(), e.getMessage(), e);
+            notifier.notifyError(parent.getChatId(), label, e.getMessage());
+            outcomes.forEach(o -> testRunner.cleanupWorkspace(o.request()));
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.automation.bot.command.impl;
+
+import com.automation.bot.bot.BotMessageSender;
+import com.automation.bot.command.BotCommand;
+import com.automation.bot.history.RunHistoryStore;
+import com.automation.bot.runner.QuarantineList;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.objects.message.Message;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * /flaky [n] — test flaky trong n run gần nhất (mặc định 50), xếp theo thời gian mất cho retry.
+ * /flaky quarantine [Class#method] — xem / thêm test vào danh sách cách ly (bị bỏ khỏi smoke).
+ * /flaky release Class#method — bỏ khỏi danh sách cách ly.
+ *
+ * Số liệu từ RunHistoryStore.flakyTests(): retry đọc từ retry-outcomes.json của framework,
+ * đổi trạng thái pass ↔ fail giữa các run đọc từ kết quả từng test.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FlakyCommand implements BotCommand {
+
+    private static final int DEFAULT_RUNS = 50;
+    private static final int TOP = 10;
+
+    private final BotMessageSender messageSender;
+    private final RunHistoryStore runHistory;
+    private final QuarantineList quarantine;
+
+    @Override
+    public String name() {
+        return "flaky";
+    }
+
+    @Override
+    public String description() {
+        return "Flaky tests by wasted retry time (/flaky [n] | quarantine | release)";
+    }
+
+    @Override
+    public void execute(Message message, String args) {
+        long chatId = message.getChatId();
+        String[] parts = args == null || args.isBlank() ? new String[0] : args.trim().split("\\s+");
+
+        if (parts.length > 0 && parts[0].equalsIgnoreCase("quarantine")) {
+            if (parts.length == 1) {
+                sendQuarantine(chatId);
+            } else {
+                updateQuarantine(chatId, parts[1], true);
+            }
+            return;
+        }
+        if (parts.length > 0 && parts[0].equalsIgnoreCase("release")) {
+            if (parts.length == 1) {
+                messageSender.send(chatId, "Usage: /flaky release Class#method");
+            } else {
+                updateQuarantine(chatId, parts[1], false);
+            }
+            return;
+        }
+
+        int lastRuns = DEFAULT_RUNS;
+        if (parts.length > 0) {
+            try {
+                lastRuns = Math.max(1, Integer.parseInt(parts[0]));
+            } catch (NumberFormatException e) {
+                messageSender.send(chatId, "Usage: /flaky [n] | /flaky quarantine [Class#method] | /flaky release Class#method");
+                return;
+            }
+        }
+        sendRanking(chatId, lastRuns);
+    }
+
+    private void sendRanking(long chatId, int lastRuns) {
+        List<RunHistoryStore.FlakyStats> flaky = runHistory.flakyTests(lastRuns);
+        if (flaky.isEmpty()) {
+            messageSender.send(chatId, "No flaky tests in the last " + lastRuns + " runs \u2705");
+            return;
+        }
+
+        List<String> quarantined = quarantine.entries();
+        long totalWasted = flaky.stream().mapToLong(RunHistoryStore.FlakyStats::wastedMillis).sum();
+        StringBuilder sb = new StringBuilder();
+        sb.append("*Flaky tests* (last ").append(lastRuns).append(" runs)\n");
+        sb.append("Time spent on retries: ").append(formatDuration(Duration.ofMillis(totalWasted))).append("\n\n");
+
+        for (int i = 0; i < Math.min(TOP, flaky.size()); i++) {
+            RunHistoryStore.FlakyStats s = flaky.get(i);
+            sb.append(i + 1).append(". `").append(s.test()).append("`");
+            if (quarantined.contains(s.test())) {
+                sb.append(" \ud83d\udd12");
+            }
+            sb.append("\n    score ").append(Math.round(s.score() * 100)).append("%")
+              .append(" | ").append(s.flakyRuns()).append("/").append(s.samples()).append(" runs passed on retry")
+              .append(" | ").append(s.flips()).append(" flips")
+              .append(" | ").append(s.retries()).append(" retries, ")
+              .append(formatDuration(Duration.ofMillis(s.wastedMillis()))).append("\n");
+        }
+        if (flaky.size() > TOP) {
+            sb.append("... and ").append(flaky.size() - TOP).append(" more\n");
+        }
+        sb.append("\nQuarantine (skip in smoke): /flaky quarantine Class#method");
+        messageSender.send(chatId, sb.toString());
+    }
+
+    private void sendQuarantine(long chatId) {
+        List<String> entries = quarantine.entries();
+        if (entries.isEmpty()) {
+            messageSender.send(chatId, "Quarantine list is empty.\nAdd: /flaky quarantine Class#method");
+            return;
+        }
+        StringBuilder sb = new StringBuilder("\ud83d\udd12 *Quarantined tests* (skipped in smoke runs)\n\n");
+        entries.forEach(entry -> sb.append("  \u2022 `").append(entry).append("`\n"));
+        sb.append("\nRelease: /flaky release Class#method");
+        messageSender.send(chatId, sb.toString());
+    }
+
+    private void updateQuarantine(long chatId, String test, boolean add) {
+        if (!test.matches("[\\w.$]+#\\w+")) {
+            messageSender.send(chatId, "Expected Class#method, e.g. `LoginTest#testLoginSuccess`");
+            return;
+        }
+        try {
+            boolean changed = add ? quarantine.add(test) : quarantine.remove(test);
+            String text = add
+                    ? (changed ? "\ud83d\udd12 `" + test + "` quarantined: skipped in smoke runs from the next run."
+                               : "`" + test + "` is already quarantined.")
+                    : (changed ? "\ud83d\udd13 `" + test + "` released: runs in smoke again."
+                               : "`" + test + "` is not quarantined.");
+            messageSender.send(chatId, text);
+        } catch (IOException e) {
+            log.error("Failed to update quarantine list: {}", e.getMessage(), e);
+            messageSender.send(chatId, "\u274c Failed to update quarantine list: " + e.getMessage());
+        }
+    }
+
+    private String formatDuration(Duration duration) {
+        long minutes = duration.toMinutes();
+        long seconds = duration.toSecondsPart();
+        if (minutes == 0 && seconds == 0) {
+            return duration.toMillis() + "ms";
+        }
+        return minutes > 0 ? minutes + "m " + seconds + "s" : seconds + "s";
+    }
+}
@@ -0,0 +1,82 @@
+package com.automation.bot.command.impl;
+
+import com.automation.bot.bot.BotMessageSender;
+import com.automation.bot.command.BotCommand;
+import com.automation.bot.history.RunHistoryStore;
+import com.automation.bot.history.RunRecord;
+import com.automation.bot.runner.RunStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.objects.message.Message;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * /history [n] — n run gần nhất của chat này (mặc định 10), đọc từ RunHistoryStore.
+ */
+@Component
+@RequiredArgsConstructor
+public class HistoryCommand implements BotCommand {
+
+    private static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_LIMIT = 50;
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("MM-dd HH:mm").withZone(ZoneId.systemDefault());
+
+    private final BotMessageSender messageSender;
+    private final RunHistoryStore runHistory;
+
+    @Override
+    public String name() {
+        return "history";
+    }
+
+    @Override
+    public String description() {
+        return "Show recent test runs (/history [n])";
+    }
+
+    @Override
+    public void execute(Message message, String args) {
+        long chatId = message.getChatId();
+
+        int limit = DEFAULT_LIMIT;
+        if (args != null && !args.isBlank()) {
+            try {
+                limit = Math.min(MAX_LIMIT, Math.max(1, Integer.parseInt(args.trim())));
+            } catch (NumberFormatException e) {
+                messageSender.send(chatId, "Usage: /history [n]");
+                return;
+            }
+        }
+
+        List<RunRecord> runs = runHistory.recentRuns(chatId, limit);
+        if (runs.isEmpty()) {
+            messageSender.send(chatId, "No test runs recorded yet.");
+            return;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("*Last ").append(runs.size()).append(" runs*\n\n");
+        for (RunRecord run : runs) {
+            String icon = RunStatus.COMPLETED.name().equals(run.status()) ? "\u2705" : "\u274c";
+            sb.append(icon).append(" `").append(run.runId()).append("` ")
+                    .append(run.label()).append(" (env=").append(run.env()).append(") ")
+                    .append(run.passed()).append("/").append(run.totalTests()).append(" passed, ")
+                    .append(formatDuration(Duration.ofMillis(run.durationMillis()))).append(", ")
+                    .append(TIME_FORMAT.format(Instant.ofEpochMilli(run.finishedAt()))).append("\n");
+        }
+
+        messageSender.send(chatId, sb.toString());
+    }
+
+    private String formatDuration(Duration duration) {
+        long minutes = duration.toMinutes();
+        long seconds = duration.toSecondsPart();
+        return minutes > 0 ? minutes + "m " + seconds + "s" : seconds + "s";
+    }
+}
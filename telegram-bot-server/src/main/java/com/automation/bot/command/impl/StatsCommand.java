@@ -0,0 +1,82 @@
+package com.automation.bot.command.impl;
+
+import com.automation.bot.bot.BotMessageSender;
+import com.automation.bot.command.BotCommand;
+import com.automation.bot.history.RunHistoryStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.objects.message.Message;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * /stats <target> [n] — p50/p95 duration và pass rate của target trong n run gần nhất (mặc định 30).
+ *
+ * target: label (smoke, ui/login), test class (LoginTest) hoặc test method (LoginTest#testLoginSuccess).
+ * Ví dụ: /stats LoginTest 30
+ *
+ * Tính trên RunHistoryStore (đã nằm trong memory) → không phải đọc lại Surefire XML.
+ */
+@Component
+@RequiredArgsConstructor
+public class StatsCommand implements BotCommand {
+
+    private static final int DEFAULT_RUNS = 30;
+
+    private final BotMessageSender messageSender;
+    private final RunHistoryStore runHistory;
+
+    @Override
+    public String name() {
+        return "stats";
+    }
+
+    @Override
+    public String description() {
+        return "Duration stats (/stats <label|TestClass|TestClass#method> [n])";
+    }
+
+    @Override
+    public void execute(Message message, String args) {
+        long chatId = message.getChatId();
+
+        if (args == null || args.isBlank()) {
+            messageSender.send(chatId, "Usage: /stats <label|TestClass|TestClass#method> [n]\nExample: /stats LoginTest 30");
+            return;
+        }
+
+        // Label có thể chứa khoảng trắng ("ui (all)") → số ở cuối (nếu có) là n
+        String target = args.trim();
+        int lastRuns = DEFAULT_RUNS;
+        int space = target.lastIndexOf(' ');
+        if (space > 0 && target.substring(space + 1).matches("\\d+")) {
+            lastRuns = Math.max(1, Integer.parseInt(target.substring(space + 1)));
+            target = target.substring(0, space).trim();
+        }
+
+        Optional<RunHistoryStore.DurationStats> stats = runHistory.durationStats(target, lastRuns);
+        if (stats.isEmpty()) {
+            messageSender.send(chatId, "No history for *" + target + "*");
+            return;
+        }
+
+        RunHistoryStore.DurationStats s = stats.get();
+        String sb = "*Stats: " + target + "*\n" +
+                "Last " + s.samples() + " runs\n\n" +
+                "p50: " + formatDuration(Duration.ofMillis(s.p50Millis())) + "\n" +
+                "p95: " + formatDuration(Duration.ofMillis(s.p95Millis())) + "\n" +
+                "max: " + formatDuration(Duration.ofMillis(s.maxMillis())) + "\n" +
+                "Pass rate: " + Math.round(s.passRate() * 100) + "%";
+        messageSender.send(chatId, sb);
+    }
+
+    private String formatDuration(Duration duration) {
+        long minutes = duration.toMinutes();
+        long seconds = duration.toSecondsPart();
+        if (minutes == 0 && seconds == 0) {
+            return duration.toMillis() + "ms";
+        }
+        return minutes > 0 ? minutes + "m " + seconds + "s" : seconds + "s";
+    }
+}
@@ -1,7 +1,10 @@
 package com.automation.bot.command.impl;
 
+import com.automation.bot.allure.GitHubPagesPublisher;
 import com.automation.bot.bot.BotMessageSender;
 import com.automation.bot.command.BotCommand;
+import com.automation.bot.runner.AdmissionController;
+import com.automation.bot.runner.RunResultCache;
 import com.automation.bot.runner.TestRunQueue;
 import com.automation.bot.session.UserSessionManager;
 import lombok.RequiredArgsConstructor;
@@ -17,7 +20,9 @@ import java.util.List;
  * 1. Environment hiện tại của user
  * 2. Danh sách test đang RUNNING
  * 3. Danh sách test đang QUEUED
- * 4. Số slot trống
+ * 4. Số slot trống + quyết định gần nhất của AdmissionController (RAM/CPU)
+ * 5. Hit/miss của RunResultCache
+ * 6. Metrics publish report lên GitHub Pages (nếu đã publish)
  */
 @Component
 @RequiredArgsConstructor
@@ -26,6 +31,9 @@ public class StatusCommand implements BotCommand {
     private final BotMessageSender messageSender;
     private final TestRunQueue testRunQueue;
     private final UserSessionManager sessionManager;
+    private final GitHubPagesPublisher gitHubPagesPublisher;
+    private final AdmissionController admissionController;
+    private final RunResultCache resultCache;
 
     @Override
     public String name() {
@@ -73,6 +81,51 @@ public class StatusCommand implements BotCommand {
             }
         }
 
+        appendAdmission(sb);
+
+        if (resultCache.isEnabled()) {
+            RunResultCache.Stats cache = resultCache.getStats();
+            sb.append("\nResult cache: ").append(cache.hits()).append(" hits / ")
+                    .append(cache.misses()).append(" misses, ").append(cache.bypassed()).append(" forced")
+                    .append(" (").append(cache.entries()).append(" cached)\n");
+        }
+
+        GitHubPagesPublisher.PublishMetrics publish = gitHubPagesPublisher.getMetrics();
+        if (publish.publishCount() > 0) {
+            sb.append("\nReport publish: last ").append(publish.lastLatencyMillis()).append(" ms, ")
+                    .append(publish.lastFilesChanged()).append(" files / ")
+                    .append(publish.lastBytesWritten() / 1024).append(" KB written")
+                    .append(" (").append(publish.publishCount()).append(" publishes, ")
+                    .append(publish.coalescedCount()).append(" coalesced)\n");
+        }
+
         messageSender.send(chatId, sb.toString());
     }
+
+    private void appendAdmission(StringBuilder sb) {
+        sb.append("\nFree slots: ").append(testRunQueue.getFreeSlots());
+        if (!admissionController.isEnabled()) {
+            sb.append(" (static limit ").append(admissionController.ceiling()).append(")\n");
+            return;
+        }
+        sb.append(" (adaptive ").append(admissionController.floor()).append("..")
+                .append(admissionController.ceiling()).append(")\n");
+
+        AdmissionController.Decision last = admissionController.getLastDecision();
+        if (last != null) {
+            sb.append("Admission: ").append(last.admitted() ? "admitted" : "deferred")
+                    .append(" \u2014 ").append(last.reason()).append("\n");
+        }
+        AdmissionController.Decision deferral = admissionController.getLastDeferral();
+        if (deferral != null && deferral != last) {
+            sb.append("Last deferral: ").append(deferral.reason()).append("\n");
+        }
+        AdmissionController.Sample sample = last != null && last.sample() != null ? last.sample()
+                : deferral != null ? deferral.sample() : null;
+        if (sample != null) {
+            sb.append("Host: ").append(sample.freeMemoryMb()).append("/").append(sample.totalMemoryMb())
+                    .append(" MB free, ").append(sample.browserProcesses()).append(" Chrome, ")
+                    .append(sample.driverProcesses()).append(" chromedriver\n");
+        }
+    }
 }
@@ -13,10 +13,10 @@ public class AllureProperties {
 
     private String allureHome;
     private String reportDir;
-    private String resultsDir;
     private String reportBaseUrl;
 
     private GithubPages githubPages = new GithubPages();
+    private Retention retention = new Retention();
 
     @Getter
     @Setter
@@ -25,4 +25,15 @@ public class AllureProperties {
         private String repoPath;
         private String baseUrl;
     }
+
+    /**
+     * Giới hạn report lưu trong report-dir — vượt bất kỳ giới hạn nào → xóa run ít được xem nhất.
+     */
+    @Getter
+    @Setter
+    public static class Retention {
+        private int maxRuns = 30;
+        private int maxAgeDays = 14;
+        private long maxTotalSizeMb = 1024;
+    }
 }
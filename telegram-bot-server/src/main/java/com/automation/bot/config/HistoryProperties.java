@@ -0,0 +1,19 @@
+package com.automation.bot.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "bot.history")
+public class HistoryProperties {
+
+    /** File JSON Lines chứa history, mỗi dòng 1 run */
+    private String file = "data/run-history.jsonl";
+
+    /** Số run giữ lại — file được compact khi vượt gấp đôi */
+    private int maxRuns = 5000;
+}
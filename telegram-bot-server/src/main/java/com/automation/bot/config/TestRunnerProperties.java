@@ -5,6 +5,11 @@ import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 @Getter
 @Setter
 @Component
@@ -19,4 +24,201 @@ public class TestRunnerProperties {
     private int timeoutMinutes = 30;
     private int maxConcurrentRuns = 3;
     private int maxQueueSize = 5;
+
+    /** Edit message progress trên Telegram tối đa 1 lần mỗi N giây (0 = tắt) */
+    private int progressIntervalSeconds = 15;
+
+    /** Thư mục gốc chứa output riêng của từng run ({workspace-dir}/{runId}/). Null → {framework-path}/target/bot-runs */
+    private String workspaceDir;
+
+    /**
+     * Cách chạy test: "process" = mvn test mỗi run (mặc định),
+     * "warm" = worker JVM giữ sẵn classpath, chạy TestNG trực tiếp (bỏ qua Maven startup ~20-40s).
+     */
+    private String executor = "process";
+
+    private Warm warm = new Warm();
+
+    private Sharding sharding = new Sharding();
+
+    private Scheduler scheduler = new Scheduler();
+
+    private Admission admission = new Admission();
+
+    private Grid grid = new Grid();
+
+    private ResultStream resultStream = new ResultStream();
+
+    private FailFast failFast = new FailFast();
+
+    private ResultCache resultCache = new ResultCache();
+
+    private Rerun rerun = new Rerun();
+
+    private Quarantine quarantine = new Quarantine();
+
+    private Discovery discovery = new Discovery();
+
+    public String getWorkspaceDir() {
+        if (workspaceDir == null || workspaceDir.isBlank()) {
+            return frameworkPath + "/target/bot-runs";
+        }
+        return workspaceDir;
+    }
+
+    /** mvn.cmd trên Windows (ProcessBuilder không tự tìm .cmd), mvn trên Linux/macOS */
+    public String getMavenExecutable() {
+        boolean windows = System.getProperty("os.name").toLowerCase().contains("win");
+        return mavenHome + (windows ? "/bin/mvn.cmd" : "/bin/mvn");
+    }
+
+    @Getter
+    @Setter
+    public static class Warm {
+        /** Recycle worker sau N runs → giải phóng memory leak của test và load lại classes mới compile */
+        private int maxRunsPerWorker = 20;
+        /** Thời gian tối đa chờ worker khởi động (bao gồm mvn test-compile + resolve classpath) */
+        private int startupTimeoutSeconds = 300;
+        /** JVM args cho worker, ví dụ: -Xmx2g */
+        private List<String> jvmArgs = new ArrayList<>();
+    }
+
+    @Getter
+    @Setter
+    public static class Sharding {
+        /** Chia group run (/ui, /api...) thành nhiều shard chạy song song trên các slot trống */
+        private boolean enabled = false;
+        /** Số shard tối đa cho 1 group run (0 = max-concurrent-runs) */
+        private int maxShards = 0;
+        /** Duration giả định cho test class chưa có history */
+        private int defaultClassSeconds = 60;
+        /** Số run gần nhất dùng để ước lượng duration mỗi class (lấy p50) */
+        private int historyRuns = 10;
+    }
+
+    @Getter
+    @Setter
+    public static class Scheduler {
+        /** Priority theo Maven profile — số nhỏ chạy trước. Profile không có trong map → default-priority */
+        private Map<String, Integer> priorities = new HashMap<>(Map.of("smoke", 0, "regression", 2));
+        private int defaultPriority = 1;
+        /** Run chờ quá N phút được đẩy lên đầu (chống starvation cho priority thấp / job dài) */
+        private int maxWaitMinutes = 30;
+        /** Duration giả định khi chưa có history — dùng cho short-job-first và ETA */
+        private int defaultEstimateSeconds = 300;
+    }
+
+    @Getter
+    @Setter
+    public static class Admission {
+        /** Bật: số run song song do RAM/CPU quyết định (trong khoảng min-runs..max-runs) thay cho max-concurrent-runs */
+        private boolean enabled = false;
+        /** Hard floor — luôn cho chạy ít nhất N run dù máy đang bận */
+        private int minRuns = 1;
+        /** Hard ceiling — không bao giờ chạy quá N run dù còn nhiều RAM */
+        private int maxRuns = 8;
+        /** RAM ước tính cho 1 run (Chrome + chromedriver + Maven/TestNG JVM) */
+        private int memoryPerRunMb = 1024;
+        /** RAM để dành cho OS và bot, không tính vào headroom */
+        private int reserveMemoryMb = 1024;
+        /** CPU load hệ thống (0..1) vượt ngưỡng này → chưa start run mới */
+        private double maxCpuLoad = 0.85;
+        /** Số Chrome browser (process chính) tối đa trên máy, 0 = không giới hạn */
+        private int maxBrowsers = 0;
+        /** Run vừa start trong N giây chưa kịp mở Chrome → vẫn tính memory-per-run cho nó */
+        private int rampUpSeconds = 60;
+        /** Chu kỳ đo lại RAM/CPU khi có run đang chờ headroom */
+        private int sampleIntervalSeconds = 5;
+    }
+
+    @Getter
+    @Setter
+    public static class Grid {
+        /** Chạy browser trên Selenium Grid (framework nhận -Dremote=true -Dremote.url) thay vì trên máy bot */
+        private boolean enabled = false;
+        /** URL Grid hub/router — truyền nguyên cho framework, /status đọc ở gốc URL */
+        private String url = "http://localhost:4444";
+        /** Số browser 1 run mở cùng lúc (thread-count của suite) = số slot Grid 1 run chiếm */
+        private int sessionsPerRun = 1;
+        /** Hard ceiling số run song song khi dùng Grid (thay cho admission.max-runs) */
+        private int maxRuns = 10;
+        private int statusTimeoutSeconds = 5;
+    }
+
+    @Getter
+    @Setter
+    public static class ResultStream {
+        /** Nhận kết quả từng test qua socket (ResultStreamListener của framework) thay vì chỉ parse XML cuối run */
+        private boolean enabled = true;
+        /** tcp = loopback 127.0.0.1 | unix = Unix domain socket (chỉ user chạy bot mới connect được) */
+        private String transport = "tcp";
+        /** Port TCP, 0 = OS chọn port trống */
+        private int port = 0;
+        /** Đường dẫn socket khi transport = unix. Null → {workspace-dir}/.results.sock */
+        private String socketPath;
+        /** Sau khi process kết thúc, chờ tối đa N giây cho event runFinish trước khi fallback parse XML */
+        private int graceSeconds = 3;
+    }
+
+    @Getter
+    @Setter
+    public static class FailFast {
+        /** Ngưỡng khi user gõ "failfast" không kèm số */
+        private int defaultThreshold = 5;
+        /** Cùng 1 root cause (exception type + message đã chuẩn hóa) lặp lại N lần → dừng sớm, 0 = tắt */
+        private int sameCauseThreshold = 3;
+
+        /**
+         * Giá trị option failfast → số test fail tối đa: null = tắt, "" = default, số âm/sai = default.
+         */
+        public int resolve(String option) {
+            if (option == null) {
+                return 0;
+            }
+            try {
+                int value = Integer.parseInt(option.trim());
+                return value > 0 ? value : defaultThreshold;
+            } catch (NumberFormatException e) {
+                return defaultThreshold;
+            }
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class ResultCache {
+        /** Trả lại kết quả cũ khi cùng commit + working tree + env + tập test chạy lại trong TTL */
+        private boolean enabled = true;
+        private int ttlMinutes = 30;
+        private int maxEntries = 100;
+        /** Cache cả run có test fail — mặc định tắt vì chạy lại run fail thường là để kiểm tra flaky */
+        private boolean cacheFailed = false;
+    }
+
+    @Getter
+    @Setter
+    public static class Rerun {
+        /** Nút "Rerun failed" trên message kết quả: chạy lại đúng Class#method fail, gộp với phần đã pass */
+        private boolean enabled = true;
+        /** Số run gần nhất còn bấm rerun được (giữ cả kết quả trong memory) */
+        private int maxRuns = 50;
+        /** Quá N phút sau khi có kết quả → nút báo hết hạn */
+        private int ttlMinutes = 240;
+    }
+
+    @Getter
+    @Setter
+    public static class Quarantine {
+        /** Test flaky đã cách ly (Class#method mỗi dòng), quản lý bằng /flaky quarantine — truyền cho framework qua -Dquarantine.file */
+        private String file = "data/quarantine.txt";
+    }
+
+    @Getter
+    @Setter
+    public static class Discovery {
+        /** Watch src/test/java + pom.xml, cập nhật group commands khi thêm/xóa test class (không cần restart) */
+        private boolean watch = true;
+        /** Gom event file trong N ms rồi mới đăng ký lại commands + menu Telegram */
+        private long debounceMillis = 1500;
+    }
 }
@@ -1,14 +1,20 @@
 package com.automation.bot.discovery;
 
 import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 
+import java.util.List;
+
 /**
  * DTO chứa thông tin command được phát hiện tự động.
  * profile != null → chạy bằng Maven profile (mvn test -P{profile})
  * testClass != null → chạy bằng test class (mvn test -Dtest={testClass})
+ * methods: các method @Test của testClass (rỗng với profile command).
+ * equals theo giá trị → TestSuiteScanner so sánh snapshot để biết index có đổi không.
  */
 @Getter
+@EqualsAndHashCode
 @AllArgsConstructor
 public class DiscoveredCommand {
 
@@ -16,4 +22,9 @@ public class DiscoveredCommand {
     private final String description;
     private final String profile;
     private final String testClass;
+    private final List<TestMethodInfo> methods;
+
+    public DiscoveredCommand(String commandName, String description, String profile, String testClass) {
+        this(commandName, description, profile, testClass, List.of());
+    }
 }
@@ -1,13 +1,12 @@
 package com.automation.bot.discovery;
 
-import com.automation.bot.allure.AllureReportGenerator;
 import com.automation.bot.bot.BotMessageSender;
 import com.automation.bot.command.CommandRegistry;
+import com.automation.bot.command.ShardPlanner;
+import com.automation.bot.command.TestRunPipeline;
 import com.automation.bot.config.TestRunnerProperties;
 import com.automation.bot.notification.TelegramNotifier;
-import com.automation.bot.parser.SurefireReportParser;
 import com.automation.bot.runner.TestRunQueue;
-import com.automation.bot.runner.TestRunner;
 import com.automation.bot.session.UserSessionManager;
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
@@ -18,51 +17,55 @@ import java.util.List;
 import java.util.Map;
 
 /**
- * Đăng ký dynamic commands lúc startup.
+ * Đăng ký dynamic commands lúc startup và mỗi khi test index thay đổi.
  *
  * Flow:
- * 1. @PostConstruct → gọi TestSuiteScanner.scanGrouped()
+ * 1. @PostConstruct → TestSuiteScanner.index() (walk framework 1 lần)
  * 2. Với mỗi group (package) → tạo GroupCommand chứa sub-commands
- * 3. Đăng ký GroupCommand vào CommandRegistry
+ * 3. Thay bộ GroupCommand trong CommandRegistry
  * 4. Static commands (SmokeCommand, RegressionCommand) vẫn ưu tiên nếu trùng tên
+ * 5. TestSuiteWatcher báo index đổi (đã debounce) → lặp lại 2-3 nếu groups khác lần trước
  */
 @Slf4j
 @Component
 public class DynamicCommandRegistrar {
 
     private final TestSuiteScanner scanner;
+    private final TestSuiteWatcher watcher;
     private final CommandRegistry commandRegistry;
     private final TestRunnerProperties runnerProperties;
 
     // Dependencies cần truyền cho GroupCommand
     private final BotMessageSender messageSender;
     private final UserSessionManager sessionManager;
-    private final TestRunner testRunner;
     private final TestRunQueue testRunQueue;
     private final TelegramNotifier notifier;
-    private final SurefireReportParser reportParser;
-    private final AllureReportGenerator allureGenerator;
+    private final TestRunPipeline pipeline;
+    private final ShardPlanner shardPlanner;
+
+    /** Groups đang đăng ký — so với snapshot mới để bỏ qua thay đổi không ảnh hưởng command */
+    private Map<String, List<DiscoveredCommand>> registeredGroups = Map.of();
 
     public DynamicCommandRegistrar(TestSuiteScanner scanner,
+                                   TestSuiteWatcher watcher,
                                    CommandRegistry commandRegistry,
                                    TestRunnerProperties runnerProperties,
                                    BotMessageSender messageSender,
                                    UserSessionManager sessionManager,
-                                   TestRunner testRunner,
                                    TestRunQueue testRunQueue,
                                    TelegramNotifier notifier,
-                                   SurefireReportParser reportParser,
-                                   AllureReportGenerator allureGenerator) {
+                                   TestRunPipeline pipeline,
+                                   ShardPlanner shardPlanner) {
         this.scanner = scanner;
+        this.watcher = watcher;
         this.commandRegistry = commandRegistry;
         this.runnerProperties = runnerProperties;
         this.messageSender = messageSender;
         this.sessionManager = sessionManager;
-        this.testRunner = testRunner;
         this.testRunQueue = testRunQueue;
         this.notifier = notifier;
-        this.reportParser = reportParser;
-        this.allureGenerator = allureGenerator;
+        this.pipeline = pipeline;
+        this.shardPlanner = shardPlanner;
     }
 
     @PostConstruct
@@ -73,10 +76,22 @@ public class DynamicCommandRegistrar {
             return;
         }
 
-        // Scan grouped: package → list of test classes
-        Map<String, List<DiscoveredCommand>> groups = scanner.scanGrouped(frameworkPath);
+        // Scan 1 lần: profiles + test classes + groups (package → list of test classes)
+        TestSuiteScanner.Snapshot snapshot = scanner.index(frameworkPath);
+        registerGroups(snapshot.groups());
+        watcher.start(snapshot, this::onIndexChanged);
+    }
 
-        int registered = 0;
+    private synchronized void onIndexChanged(TestSuiteScanner.Snapshot snapshot) {
+        if (snapshot.groups().equals(registeredGroups)) {
+            // Chỉ profiles / class ngoài group đổi → command không đổi, không gọi Telegram
+            return;
+        }
+        registerGroups(snapshot.groups());
+    }
+
+    private synchronized void registerGroups(Map<String, List<DiscoveredCommand>> groups) {
+        List<GroupCommand> groupCommands = new ArrayList<>();
         for (Map.Entry<String, List<DiscoveredCommand>> entry : groups.entrySet()) {
             String groupName = entry.getKey();
             List<DiscoveredCommand> commands = entry.getValue();
@@ -87,28 +102,27 @@ public class DynamicCommandRegistrar {
                 subCommands.add(new GroupCommand.SubCommandInfo(
                         cmd.getCommandName(),
                         cmd.getTestClass(),
-                        cmd.getDescription()
+                        cmd.getDescription(),
+                        cmd.getMethods()
                 ));
             }
 
-            GroupCommand groupCommand = new GroupCommand(
+            groupCommands.add(new GroupCommand(
                     groupName,
                     subCommands,
                     messageSender,
                     sessionManager,
                     runnerProperties,
-                    testRunner,
                     testRunQueue,
                     notifier,
-                    reportParser,
-                    allureGenerator
-            );
-
-            // CommandRegistry.registerCommand() sẽ skip nếu command đã tồn tại (static commands)
-            commandRegistry.registerCommand(groupCommand);
-            registered++;
+                    pipeline,
+                    shardPlanner
+            ));
         }
 
-        log.info("Dynamic command registration complete: {} group commands registered", registered);
+        // CommandRegistry bỏ qua group trùng tên static command
+        commandRegistry.replaceDynamicCommands(groupCommands);
+        registeredGroups = groups;
+        log.info("Dynamic command registration complete: {} group commands registered", groupCommands.size());
     }
 }
@@ -1,13 +1,11 @@
 package com.automation.bot.discovery;
 
-import com.automation.bot.allure.AllureReportGenerator;
 import com.automation.bot.bot.BotMessageSender;
 import com.automation.bot.command.AbstractTestCommand;
+import com.automation.bot.command.TestRunPipeline;
 import com.automation.bot.config.TestRunnerProperties;
 import com.automation.bot.notification.TelegramNotifier;
-import com.automation.bot.parser.SurefireReportParser;
 import com.automation.bot.runner.TestRunQueue;
-import com.automation.bot.runner.TestRunner;
 import com.automation.bot.session.UserSessionManager;
 
 /**
@@ -31,13 +29,10 @@ public class DynamicTestCommand extends AbstractTestCommand {
                               BotMessageSender messageSender,
                               UserSessionManager sessionManager,
                               TestRunnerProperties runnerProperties,
-                              TestRunner testRunner,
                               TestRunQueue testRunQueue,
                               TelegramNotifier notifier,
-                              SurefireReportParser reportParser,
-                              AllureReportGenerator allureGenerator) {
-        super(messageSender, sessionManager, runnerProperties, testRunner, testRunQueue,
-                notifier, reportParser, allureGenerator);
+                              TestRunPipeline pipeline) {
+        super(messageSender, sessionManager, runnerProperties, testRunQueue, notifier, pipeline);
         this.commandName = commandName;
         this.commandDescription = commandDescription;
         this.commandProfile = commandProfile;
@@ -1,18 +1,20 @@
 package com.automation.bot.discovery;
 
-import com.automation.bot.allure.AllureReportGenerator;
 import com.automation.bot.bot.BotMessageSender;
 import com.automation.bot.command.BotCommand;
+import com.automation.bot.command.CommandParser;
+import com.automation.bot.command.ShardPlanner;
+import com.automation.bot.command.ShardedRun;
+import com.automation.bot.command.TestRunPipeline;
 import com.automation.bot.config.TestRunnerProperties;
 import com.automation.bot.notification.TelegramNotifier;
-import com.automation.bot.parser.SurefireReportParser;
-import com.automation.bot.parser.model.TestCase;
-import com.automation.bot.parser.model.TestSuite;
-import com.automation.bot.runner.*;
+import com.automation.bot.runner.TestRunQueue;
+import com.automation.bot.runner.TestRunRequest;
 import com.automation.bot.session.UserSessionManager;
 import lombok.extern.slf4j.Slf4j;
 import org.telegram.telegrambots.meta.api.objects.message.Message;
 
+import java.time.Duration;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -23,17 +25,21 @@ import java.util.stream.Collectors;
  *
  * Behavior:
  * - /ui           → hiển thị danh sách sub-commands + chạy TẤT CẢ test classes trong group
+ *                   (chia shard theo duration nếu bot.runner.sharding.enabled và có slot trống)
  * - /ui login     → chạy LoginTest
  * - /ui login dev → chạy LoginTest trên env dev
+ * - /ui checkout#testCheckoutWithCashOnDelivery → chỉ chạy 1 method (-Dtest=CheckoutTest#method),
+ *                   nhiều method nối bằng "+", tên có thể viết tắt nếu không trùng method khác
+ * - /ui checkout# → liệt kê method @Test + category của CheckoutTest
  *
  * KHÔNG extend AbstractTestCommand vì logic execute khác (phân tích args thành sub-command + env).
- * Thay vào đó, compose với cùng dependencies và tái sử dụng TestRunQueue.submit().
+ * Thay vào đó, compose với cùng dependencies và tái sử dụng TestRunQueue.submit() + TestRunPipeline.
  */
 @Slf4j
 public class GroupCommand implements BotCommand {
 
-    /** Thông tin 1 sub-command trong group */
-    public record SubCommandInfo(String name, String testClass, String description) {}
+    /** Thông tin 1 sub-command trong group. methods = method @Test đọc từ source (có thể rỗng) */
+    public record SubCommandInfo(String name, String testClass, String description, List<TestMethodInfo> methods) {}
 
     private final String groupName;
     private final List<SubCommandInfo> subCommands;
@@ -43,22 +49,20 @@ public class GroupCommand implements BotCommand {
     private final BotMessageSender messageSender;
     private final UserSessionManager sessionManager;
     private final TestRunnerProperties runnerProperties;
-    private final TestRunner testRunner;
     private final TestRunQueue testRunQueue;
     private final TelegramNotifier notifier;
-    private final SurefireReportParser reportParser;
-    private final AllureReportGenerator allureGenerator;
+    private final TestRunPipeline pipeline;
+    private final ShardPlanner shardPlanner;
 
     public GroupCommand(String groupName,
                         List<SubCommandInfo> subCommands,
                         BotMessageSender messageSender,
                         UserSessionManager sessionManager,
                         TestRunnerProperties runnerProperties,
-                        TestRunner testRunner,
                         TestRunQueue testRunQueue,
                         TelegramNotifier notifier,
-                        SurefireReportParser reportParser,
-                        AllureReportGenerator allureGenerator) {
+                        TestRunPipeline pipeline,
+                        ShardPlanner shardPlanner) {
         this.groupName = groupName;
         this.subCommands = subCommands;
         this.subCommandMap = new LinkedHashMap<>();
@@ -68,11 +72,10 @@ public class GroupCommand implements BotCommand {
         this.messageSender = messageSender;
         this.sessionManager = sessionManager;
         this.runnerProperties = runnerProperties;
-        this.testRunner = testRunner;
         this.testRunQueue = testRunQueue;
         this.notifier = notifier;
-        this.reportParser = reportParser;
-        this.allureGenerator = allureGenerator;
+        this.pipeline = pipeline;
+        this.shardPlanner = shardPlanner;
     }
 
     @Override
@@ -104,29 +107,45 @@ public class GroupCommand implements BotCommand {
         long chatId = message.getChatId();
         long userId = message.getFrom().getId();
 
-        if (args == null || args.isBlank()) {
+        // Options (failfast=N, force) tách riêng, phần còn lại là [subCommandName] [env]
+        CommandParser.RunArgs runArgs = CommandParser.parseRunArgs(args);
+        int failFast = runnerProperties.getFailFast().resolve(runArgs.option("failfast"));
+        boolean force = runArgs.hasOption("force");
+
+        if (runArgs.positional().isBlank()) {
             // Không có args → hiển thị gợi ý + chạy tất cả
             sendGroupHelp(chatId);
-            runAllTests(chatId, userId, null);
+            runAllTests(chatId, userId, null, failFast, force);
             return;
         }
 
-        // Parse args: tách thành [subCommandName] [env]
-        String[] parts = args.trim().split("\\s+", 2);
-        String firstArg = parts[0].toLowerCase();
+        // Parse args: tách thành [subCommandName[#method]] [env]
+        String[] parts = runArgs.positional().split("\\s+", 2);
+        int hash = parts[0].indexOf('#');
+        String firstArg = (hash < 0 ? parts[0] : parts[0].substring(0, hash)).toLowerCase();
+        String methodSelector = hash < 0 ? null : parts[0].substring(hash + 1);
         String remainingArgs = parts.length > 1 ? parts[1].trim() : null;
 
         // Kiểm tra firstArg có match sub-command không
         SubCommandInfo sub = subCommandMap.get(firstArg);
         if (sub != null) {
-            // Match sub-command → chạy test class cụ thể
+            List<String> methods = null;
+            if (methodSelector != null) {
+                methods = resolveMethods(sub, methodSelector);
+                if (methods == null || methods.isEmpty()) {
+                    // "/ui checkout#" hoặc method không tồn tại → liệt kê method để chọn
+                    sendMethodList(chatId, sub, methodSelector);
+                    return;
+                }
+            }
+            // Match sub-command → chạy test class (hoặc vài method) cụ thể
             String env = resolveEnv(userId, remainingArgs);
-            runSingleTest(chatId, userId, sub, env);
+            runSingleTest(chatId, userId, sub, methods, env, failFast, force);
             return;
         }
 
         // firstArg không match sub-command → coi là env, chạy tất cả
-        runAllTests(chatId, userId, firstArg);
+        runAllTests(chatId, userId, firstArg, failFast, force);
     }
 
     /**
@@ -138,16 +157,83 @@ public class GroupCommand implements BotCommand {
         sb.append("Available sub-commands:\n");
         for (SubCommandInfo sub : subCommands) {
             sb.append("  \u2022 /").append(groupName).append(" ").append(sub.name())
-              .append(" — ").append(sub.description()).append("\n");
+              .append(" — ").append(sub.description());
+            if (!sub.methods().isEmpty()) {
+                sb.append(" (").append(sub.methods().size()).append(" tests)");
+            }
+            sb.append("\n");
+        }
+        sb.append("\nTip: /").append(groupName).append(" <name>[#method] [env] [failfast=N] [force]");
+        messageSender.send(chatId, sb.toString());
+    }
+
+    /**
+     * Danh sách method @Test của 1 sub-command — trả lời "/ui checkout#" hoặc method không tìm thấy.
+     */
+    private void sendMethodList(long chatId, SubCommandInfo sub, String selector) {
+        StringBuilder sb = new StringBuilder();
+        if (!selector.isBlank()) {
+            sb.append("\u26a0\ufe0f No single test method matches `").append(selector).append("` in ")
+              .append(sub.testClass()).append("\n\n");
+        }
+        if (sub.methods().isEmpty()) {
+            sb.append("No @Test methods indexed for ").append(sub.testClass()).append(".");
+            messageSender.send(chatId, sb.toString());
+            return;
+        }
+        sb.append("\uD83E\uDDEA *").append(sub.testClass()).append("* tests:\n");
+        for (TestMethodInfo method : sub.methods()) {
+            sb.append("  \u2022 `").append(method.name()).append("`");
+            if (!method.categories().isEmpty()) {
+                sb.append(" [").append(String.join(", ", method.categories())).append("]");
+            }
+            if (method.description() != null) {
+                sb.append(" — ").append(method.description());
+            }
+            sb.append("\n");
         }
-        sb.append("\nTip: /").append(groupName).append(" <name> [env]");
+        sb.append("\nRun one: /").append(groupName).append(" ").append(sub.name()).append("#<method> [env]");
         messageSender.send(chatId, sb.toString());
     }
 
+    /**
+     * "m1+m2" → tên method thật. Mỗi phần: trùng tên (không phân biệt hoa thường), không thì
+     * method duy nhất chứa chuỗi đó. Null nếu có phần không xác định được.
+     * Class chưa index được method (source lạ) → giữ nguyên selector cho Surefire tự lọc.
+     */
+    static List<String> resolveMethods(SubCommandInfo sub, String selector) {
+        List<String> resolved = new ArrayList<>();
+        for (String part : selector.split("\\+")) {
+            String wanted = part.trim();
+            if (wanted.isEmpty()) {
+                continue;
+            }
+            if (sub.methods().isEmpty()) {
+                resolved.add(wanted);
+                continue;
+            }
+            String lower = wanted.toLowerCase();
+            Optional<String> exact = sub.methods().stream().map(TestMethodInfo::name)
+                    .filter(name -> name.equalsIgnoreCase(wanted))
+                    .findFirst();
+            List<String> partial = sub.methods().stream().map(TestMethodInfo::name)
+                    .filter(name -> name.toLowerCase().contains(lower))
+                    .toList();
+            if (exact.isPresent()) {
+                resolved.add(exact.get());
+            } else if (partial.size() == 1) {
+                resolved.add(partial.get(0));
+            } else {
+                return null;
+            }
+        }
+        return resolved;
+    }
+
     /**
      * Chạy TẤT CẢ test classes trong group (dùng testClasses comma-separated).
      */
-    private void runAllTests(long chatId, long userId, String envOverride) {
+    private void runAllTests(long chatId, long userId, String envOverride, int failFast, boolean force) {
         String env = resolveEnv(userId, envOverride);
         String runId = UUID.randomUUID().toString().substring(0, 8);
 
@@ -166,28 +252,106 @@ public class GroupCommand implements BotCommand {
                 .testClasses(allClasses)
                 .browser(runnerProperties.getDefaultBrowser())
                 .headless(runnerProperties.isHeadless())
+                .failFast(failFast)
                 .build();
 
+        if (pipeline.replyFromCache(request, force)) {
+            return;
+        }
+
+        // Nhiều slot trống → chia shard chạy song song, không thì 1 run như cũ
+        List<List<String>> shards = shardPlanner.plan(
+                subCommands.stream().map(SubCommandInfo::testClass).toList());
+        if (shards.size() > 1) {
+            submitSharded(request, label, env, shards);
+            return;
+        }
+
         submitAndNotify(request, label, env);
     }
 
     /**
-     * Chạy 1 test class cụ thể (sub-command).
+     * Submit mỗi shard thành 1 run riêng ({runId}-1, {runId}-2...) — chạy trên các slot khác nhau.
+     * Kết quả được merge lại bởi TestRunPipeline khi shard cuối xong.
      */
-    private void runSingleTest(long chatId, long userId, SubCommandInfo sub, String env) {
+    private void submitSharded(TestRunRequest parent, String label, String env, List<List<String>> shards) {
+        ShardedRun shardedRun = new ShardedRun(parent, label, shards.size());
+        List<String> submitted = new ArrayList<>();
+        int lastPosition = 0;
+        Duration maxEta = Duration.ZERO;
+
+        for (int i = 0; i < shards.size(); i++) {
+            int shardIndex = i;
+            TestRunRequest shardRequest = TestRunRequest.builder()
+                    .runId(parent.getRunId() + "-" + (i + 1))
+                    .chatId(parent.getChatId())
+                    .userId(parent.getUserId())
+                    .env(parent.getEnv())
+                    .testClasses(String.join(",", shards.get(i)))
+                    .browser(parent.getBrowser())
+                    .headless(parent.isHeadless())
+                    .failFast(parent.getFailFast())
+                    .shardOf(parent.getRunId())
+                    .build();
+
+            TestRunQueue.Submission submission = testRunQueue.submit(shardRequest,
+                    info -> pipeline.executeShard(info, shardedRun, shardIndex),
+                    info -> pipeline.cancelShard(info, shardedRun));
+
+            if (submission.isRejected() || submission.isDuplicate()) {
+                // Queue đầy / shard trùng run đang chờ → hủy các shard đã submit, không chạy group thiếu.
+                // Shard đã bắt đầu chạy vẫn complete → shard cuối dọn workspace của cả group
+                pipeline.discardShardedRun(shardedRun, submitted.size());
+                submitted.forEach(testRunQueue::cancel);
+                if (submission.isDuplicate()) {
+                    notifier.notifyDuplicate(parent.getChatId(), submission.info().getRequest().getRunId(),
+                            submission.position());
+                } else {
+                    notifier.notifyQueueFull(parent.getChatId());
+                }
+                return;
+            }
+            submitted.add(shardRequest.getRunId());
+            // Group bắt đầu khi shard cuối cùng có slot
+            lastPosition = Math.max(lastPosition, submission.position());
+            if (submission.eta().compareTo(maxEta) > 0) {
+                maxEta = submission.eta();
+            }
+        }
+
+        notifier.notifyQueued(parent.getChatId(), parent.getRunId(),
+                label + " in " + shards.size() + " shards", env, lastPosition, maxEta);
+    }
+
+    /**
+     * Chạy 1 test class cụ thể (sub-command), hoặc chỉ vài method của nó (methods != null).
+     */
+    private void runSingleTest(long chatId, long userId, SubCommandInfo sub, List<String> methods, String env,
+                               int failFast, boolean force) {
         String runId = UUID.randomUUID().toString().substring(0, 8);
         String label = groupName + "/" + sub.name();
+        String testClass = sub.testClass();
+        if (methods != null) {
+            // Cú pháp Surefire -Dtest=Class#m1+m2 (warm worker hiểu cùng cú pháp)
+            testClass += "#" + String.join("+", methods);
+            label += "#" + String.join("+", methods);
+        }
 
         TestRunRequest request = TestRunRequest.builder()
                 .runId(runId)
                 .chatId(chatId)
                 .userId(userId)
                 .env(env)
-                .testClass(sub.testClass())
+                .testClass(testClass)
                 .browser(runnerProperties.getDefaultBrowser())
                 .headless(runnerProperties.isHeadless())
+                .failFast(failFast)
                 .build();
 
+        if (pipeline.replyFromCache(request, force)) {
+            return;
+        }
+
         submitAndNotify(request, label, env);
     }
 
@@ -195,50 +359,22 @@ public class GroupCommand implements BotCommand {
      * Submit request vào queue và xử lý callback (giống AbstractTestCommand.execute).
      */
     private void submitAndNotify(TestRunRequest request, String label, String env) {
-        TestRunQueue.TestRunInfo runInfo = testRunQueue.submit(request, info -> {
-            executeTestRun(info, label);
+        TestRunQueue.Submission submission = testRunQueue.submit(request, info -> {
+            pipeline.execute(info, label);
         });
 
-        if (runInfo == null) {
+        if (submission.isRejected()) {
             notifier.notifyQueueFull(request.getChatId());
             return;
         }
-
-        notifier.notifyQueued(request.getChatId(), request.getRunId(), label, env);
-    }
-
-    /**
-     * Thực thi test run — chạy trên worker thread (giống AbstractTestCommand.executeTestRun).
-     */
-    private void executeTestRun(TestRunQueue.TestRunInfo info, String label) {
-        TestRunRequest request = info.getRequest();
-        String runId = request.getRunId();
-
-        try {
-            info.setStatus(RunStatus.RUNNING);
-            notifier.notifyRunning(request.getChatId(), label, request.getEnv());
-
-            TestRunResult rawResult = testRunner.run(request);
-            info.setStatus(rawResult.getStatus());
-
-            String allureUrl = allureGenerator.generateReport();
-
-            List<TestSuite> suites = reportParser.parseReports(runnerProperties.getFrameworkPath());
-            List<TestCase> failedTests = reportParser.getFailedTests(suites);
-
-            TestRunResult enrichedResult = reportParser.buildResult(
-                    runId, suites, rawResult.getDuration(), allureUrl);
-
-            notifier.notifyResult(request, enrichedResult, failedTests);
-
-        } catch (Exception e) {
-            log.error("[{}] Error executing test run: {}", runId, e.getMessage(), e);
-            info.setStatus(RunStatus.FAILED);
-            notifier.notifyError(request.getChatId(), label, e.getMessage());
-
-        } finally {
-            testRunQueue.removeRun(runId);
+        if (submission.isDuplicate()) {
+            notifier.notifyDuplicate(request.getChatId(), submission.info().getRequest().getRunId(),
+                    submission.position());
+            return;
         }
+
+        notifier.notifyQueued(request.getChatId(), request.getRunId(), label, env,
+                submission.position(), submission.eta());
     }
 
     private String resolveEnv(long userId, String envOverride) {
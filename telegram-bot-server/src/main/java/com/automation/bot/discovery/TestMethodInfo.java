@@ -0,0 +1,11 @@
+package com.automation.bot.discovery;
+
+import java.util.List;
+
+/**
+ * 1 method @Test trong test class, đọc từ source bởi TestSourceParser.
+ * @param description description của @FrameworkAnnotation, không có thì của @Test (null nếu cả 2 trống)
+ * @param categories  CategoryType trong @FrameworkAnnotation (SMOKE, REGRESSION...)
+ */
+public record TestMethodInfo(String name, String description, List<String> categories) {
+}
@@ -0,0 +1,79 @@
+package com.automation.bot.discovery;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Đọc method @Test + @FrameworkAnnotation từ source *.java bằng regex.
+ *
+ * Tại sao parse source thay vì load class / đọc bytecode?
+ * → Bot không có classpath của framework; test-classes chỉ có sau khi compile, còn source thì
+ *   TestSuiteWatcher thấy ngay khi save → method mới chạy được bằng /group class#method luôn.
+ * → Chỉ cần tên method, description, category — annotation trong repo đều viết literal,
+ *   regex đủ chính xác, không cần thêm dependency parser Java.
+ *
+ * Giới hạn: annotation dùng constant (description = Constants.X) → bỏ qua description;
+ * method @Test(enabled = false) bị loại.
+ */
+final class TestSourceParser {
+
+    /** Chuỗi annotation liền trước 1 method void: "@A(...) @B ... public void name(" */
+    private static final Pattern ANNOTATED_METHOD = Pattern.compile(
+            "((?:@\\w+(?:\\s*\\((?:[^()\"]|\"(?:[^\"\\\\]|\\\\.)*\"|\\([^()]*\\))*\\))?\\s*)+)"
+                    + "(?:public\\s+|protected\\s+)?(?:final\\s+)?void\\s+(\\w+)\\s*\\(");
+    private static final Pattern TEST = Pattern.compile("@Test\\b(\\s*\\((?:[^()\"]|\"(?:[^\"\\\\]|\\\\.)*\")*\\))?");
+    private static final Pattern FRAMEWORK_ANNOTATION = Pattern.compile(
+            "@FrameworkAnnotation\\s*\\(((?:[^()\"]|\"(?:[^\"\\\\]|\\\\.)*\")*)\\)");
+    private static final Pattern DESCRIPTION = Pattern.compile("description\\s*=\\s*\"((?:[^\"\\\\]|\\\\.)*)\"");
+    private static final Pattern DISABLED = Pattern.compile("enabled\\s*=\\s*false");
+    private static final Pattern CATEGORY = Pattern.compile("CategoryType\\.(\\w+)");
+
+    private TestSourceParser() {
+    }
+
+    static List<TestMethodInfo> parse(String source) {
+        List<TestMethodInfo> methods = new ArrayList<>();
+        Matcher method = ANNOTATED_METHOD.matcher(stripComments(source));
+        while (method.find()) {
+            String annotations = method.group(1);
+            Matcher test = TEST.matcher(annotations);
+            if (!test.find()) {
+                continue;
+            }
+            String testArgs = test.group(1) != null ? test.group(1) : "";
+            if (DISABLED.matcher(testArgs).find()) {
+                continue;
+            }
+
+            String description = find(DESCRIPTION, testArgs);
+            List<String> categories = new ArrayList<>();
+            Matcher framework = FRAMEWORK_ANNOTATION.matcher(annotations);
+            if (framework.find()) {
+                String frameworkDescription = find(DESCRIPTION, framework.group(1));
+                if (frameworkDescription != null && !frameworkDescription.isBlank()) {
+                    description = frameworkDescription;
+                }
+                Matcher category = CATEGORY.matcher(framework.group(1));
+                while (category.find()) {
+                    categories.add(category.group(1));
+                }
+            }
+            methods.add(new TestMethodInfo(method.group(2),
+                    description != null && !description.isBlank() ? description : null, List.copyOf(categories)));
+        }
+        return List.copyOf(methods);
+    }
+
+    private static String find(Pattern pattern, String text) {
+        Matcher matcher = pattern.matcher(text);
+        return matcher.find() ? matcher.group(1).replace("\\\"", "\"") : null;
+    }
+
+    /** Bỏ comment để method bị comment-out không được index ("/*" trong string literal hiếm, bỏ qua) */
+    private static String stripComments(String source) {
+        return source.replaceAll("(?s)/\\*.*?\\*/", " ")
+                .replaceAll("(?m)^\\s*//.*$", "");
+    }
+}
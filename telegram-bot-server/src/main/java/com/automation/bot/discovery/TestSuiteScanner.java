@@ -11,20 +11,33 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Stream;
 
 /**
- * Scan automation-framework để phát hiện Maven profiles và test classes.
+ * Scan automation-framework để phát hiện Maven profiles và test classes — giữ index trong memory,
+ * cập nhật từng file khi TestSuiteWatcher báo thay đổi.
  *
  * Quy tắc:
  * - Parse pom.xml → lấy tất cả profile IDs → tạo command chạy theo profile
  * - Walk src/test/java → tìm *Test.java → tạo command chạy theo test class
  * - Loại trừ: BaseTest, BaseApiTest, package base/, dataproviders/
  * - Tên command = tên class bỏ "Test" suffix, lowercase. VD: CreateProductTest → /createproduct
+ * - Group = package chứa test class. VD: com/automation/ui/LoginTest.java → group "ui"
+ * - Method @Test + category/description của @FrameworkAnnotation đọc từ source (TestSourceParser)
+ *   → /ui checkout#testCheckoutWithCashOnDelivery chạy đúng 1 method
+ *
+ * Tại sao index thay vì walk mỗi lần scan?
+ * → Trước đây scan() và scanGrouped() mỗi hàm walk cả cây; giờ walk 1 lần lúc startup, sau đó
+ *   chỉ cập nhật đúng file/thư mục vừa đổi (onChanged/onDeleted) — không cần restart bot khi thêm test.
+ * → snapshot() trả bản bất biến, so sánh equals để biết index có thực sự đổi (sửa thân method
+ *   không đổi class / method @Test → không phải đăng ký lại command).
  */
 @Slf4j
 @Component
@@ -33,32 +46,188 @@ public class TestSuiteScanner {
     private static final Set<String> EXCLUDED_CLASSES = Set.of("BaseTest", "BaseApiTest");
     private static final Set<String> EXCLUDED_PACKAGES = Set.of("base", "dataproviders");
 
-    public List<DiscoveredCommand> scan(String frameworkPath) {
-        List<DiscoveredCommand> commands = new ArrayList<>();
+    /**
+     * Index tại 1 thời điểm. groups sort theo tên group rồi tên class → thứ tự ổn định cho equals và /help.
+     * @param testClasses mọi test class (kể cả class ở root package, không thuộc group nào)
+     */
+    public record Snapshot(List<DiscoveredCommand> profiles,
+                           List<DiscoveredCommand> testClasses,
+                           Map<String, List<DiscoveredCommand>> groups) {
+    }
+
+    /** 1 file test đã index. group = null nếu class không group được */
+    private record IndexedClass(String group, DiscoveredCommand command) {
+    }
+
+    private Path root;
+    private Path testDir;
+    private List<DiscoveredCommand> profiles = List.of();
+    private final Map<Path, IndexedClass> testClasses = new HashMap<>();
+
+    /**
+     * Walk toàn bộ framework 1 lần (pom.xml + src/test/java) và dựng lại index.
+     */
+    public synchronized Snapshot index(String frameworkPath) {
+        root = Path.of(frameworkPath).toAbsolutePath().normalize();
+        testDir = root.resolve("src/test/java");
+        testClasses.clear();
+        profiles = List.of();
 
-        Path root = Path.of(frameworkPath);
         if (!Files.isDirectory(root)) {
             log.warn("Framework path does not exist: {}", frameworkPath);
-            return commands;
+            return snapshot();
         }
 
-        commands.addAll(scanProfiles(root));
-        commands.addAll(scanTestClasses(root));
+        profiles = scanProfiles(root.resolve("pom.xml"));
+        if (Files.isDirectory(testDir)) {
+            indexTree(testDir);
+        } else {
+            log.warn("Test directory not found: {}", testDir);
+        }
 
-        log.info("Discovered {} commands ({} profiles, {} test classes)",
-                commands.size(),
-                commands.stream().filter(c -> c.getProfile() != null).count(),
-                commands.stream().filter(c -> c.getTestClass() != null).count());
+        Snapshot snapshot = snapshot();
+        log.info("Discovered {} profiles, {} test classes in {} groups",
+                snapshot.profiles().size(), snapshot.testClasses().size(), snapshot.groups().size());
+        return snapshot;
+    }
 
+    /** Profiles + test classes (walk lại toàn bộ) */
+    public List<DiscoveredCommand> scan(String frameworkPath) {
+        Snapshot snapshot = index(frameworkPath);
+        List<DiscoveredCommand> commands = new ArrayList<>(snapshot.profiles());
+        commands.addAll(snapshot.testClasses());
         return commands;
     }
 
+    /**
+     * Test classes group theo package name (walk lại toàn bộ).
+     * Ví dụ: com.automation.ui.LoginTest → group "ui", sub "login"
+     *
+     * @return Map: groupName → List<DiscoveredCommand> (mỗi command = 1 test class trong group)
+     */
+    public Map<String, List<DiscoveredCommand>> scanGrouped(String frameworkPath) {
+        return index(frameworkPath).groups();
+    }
+
+    /** Thư mục test đang index (TestSuiteWatcher watch cây này), null nếu chưa index */
+    public synchronized Path getTestDir() {
+        return testDir;
+    }
+
+    public synchronized Path getRoot() {
+        return root;
+    }
+
+    /**
+     * File/thư mục vừa được tạo hoặc sửa. Thư mục mới (copy/move cả package vào) → index cả cây con.
+     * pom.xml → parse lại profiles.
+     */
+    public synchronized void onChanged(Path path) {
+        if (root == null) {
+            return;
+        }
+        Path normalized = path.toAbsolutePath().normalize();
+        if (normalized.equals(root.resolve("pom.xml"))) {
+            profiles = scanProfiles(normalized);
+        } else if (Files.isDirectory(normalized) && normalized.startsWith(testDir)) {
+            indexTree(normalized);
+        } else if (normalized.startsWith(testDir)) {
+            indexFile(normalized);
+        }
+    }
+
+    /** File/thư mục vừa bị xóa (hoặc move đi) → bỏ mọi class nằm dưới path */
+    public synchronized void onDeleted(Path path) {
+        if (root == null) {
+            return;
+        }
+        Path normalized = path.toAbsolutePath().normalize();
+        if (normalized.equals(root.resolve("pom.xml"))) {
+            profiles = List.of();
+            return;
+        }
+        testClasses.keySet().removeIf(file -> file.startsWith(normalized));
+    }
+
+    public synchronized Snapshot snapshot() {
+        Comparator<DiscoveredCommand> byName = Comparator.comparing(DiscoveredCommand::getCommandName)
+                .thenComparing(DiscoveredCommand::getTestClass);
+        List<DiscoveredCommand> classes = new ArrayList<>();
+        Map<String, List<DiscoveredCommand>> groups = new TreeMap<>();
+        for (IndexedClass indexed : testClasses.values()) {
+            classes.add(indexed.command());
+            if (indexed.group() != null) {
+                groups.computeIfAbsent(indexed.group(), k -> new ArrayList<>()).add(indexed.command());
+            }
+        }
+        classes.sort(byName);
+        groups.replaceAll((group, commands) -> {
+            commands.sort(byName);
+            return List.copyOf(commands);
+        });
+        return new Snapshot(profiles, List.copyOf(classes), Collections.unmodifiableMap(groups));
+    }
+
+    private void indexTree(Path dir) {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.filter(Files::isRegularFile).forEach(this::indexFile);
+        } catch (IOException e) {
+            log.error("Failed to scan test classes in {}: {}", dir, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Thêm / cập nhật / bỏ 1 file trong index theo quy tắc loại trừ.
+     */
+    private void indexFile(Path file) {
+        String fileName = file.getFileName().toString();
+        if (!fileName.endsWith("Test.java") || !Files.isRegularFile(file)) {
+            testClasses.remove(file);
+            return;
+        }
+        String className = fileName.substring(0, fileName.length() - ".java".length());
+        if (EXCLUDED_CLASSES.contains(className)) {
+            return;
+        }
+
+        // Kiểm tra package path có chứa excluded package không
+        String relativePath = testDir.relativize(file).toString().replace(File.separatorChar, '/');
+        for (String excluded : EXCLUDED_PACKAGES) {
+            if (relativePath.contains("/" + excluded + "/")) {
+                return;
+            }
+        }
+
+        // Group = thư mục cha gần nhất của test class
+        // Ví dụ: "com/automation/tests/ui/LoginTest.java" → group = "ui"
+        // Test class ở root package → không group được
+        String[] pathParts = relativePath.split("/");
+        String group = pathParts.length < 2 ? null : pathParts[pathParts.length - 2];
+        if (group != null && EXCLUDED_PACKAGES.contains(group)) {
+            return;
+        }
+
+        List<TestMethodInfo> methods;
+        try {
+            methods = TestSourceParser.parse(Files.readString(file));
+        } catch (IOException e) {
+            // File đang được ghi dở / vừa bị xóa → event tiếp theo sẽ index lại
+            log.debug("Cannot read {}: {}", file, e.getMessage());
+            methods = List.of();
+        }
+
+        String commandName = deriveCommandName(className);
+        testClasses.put(file, new IndexedClass(group,
+                new DiscoveredCommand(commandName, "Run " + className, null, className, methods)));
+        log.debug("Indexed test class: {} ({} methods) → group '{}', sub '{}'",
+                className, methods.size(), group, commandName);
+    }
+
     /**
      * Parse pom.xml → lấy tất cả <profile><id> elements.
      */
-    private List<DiscoveredCommand> scanProfiles(Path root) {
+    private List<DiscoveredCommand> scanProfiles(Path pomFile) {
         List<DiscoveredCommand> commands = new ArrayList<>();
-        Path pomFile = root.resolve("pom.xml");
 
         if (!Files.isRegularFile(pomFile)) {
             log.warn("pom.xml not found at: {}", pomFile);
@@ -87,58 +256,12 @@ public class TestSuiteScanner {
                 }
             }
         } catch (Exception e) {
-            log.error("Failed to parse pom.xml: {}", e.getMessage(), e);
+            // pom.xml đang được ghi dở (editor save) → giữ profiles cũ tốt hơn là mất hết
+            log.error("Failed to parse pom.xml: {}", e.getMessage());
+            return profiles;
         }
 
-        return commands;
-    }
-
-    /**
-     * Walk src/test/java → tìm *Test.java files.
-     * Loại trừ base classes và dataproviders.
-     */
-    private List<DiscoveredCommand> scanTestClasses(Path root) {
-        List<DiscoveredCommand> commands = new ArrayList<>();
-        Path testDir = root.resolve("src/test/java");
-
-        if (!Files.isDirectory(testDir)) {
-            log.warn("Test directory not found: {}", testDir);
-            return commands;
-        }
-
-        try (Stream<Path> paths = Files.walk(testDir)) {
-            paths.filter(Files::isRegularFile)
-                    .filter(p -> p.getFileName().toString().endsWith("Test.java"))
-                    .forEach(p -> {
-                        String fileName = p.getFileName().toString();
-                        String className = fileName.replace(".java", "");
-
-                        if (EXCLUDED_CLASSES.contains(className)) {
-                            return;
-                        }
-
-                        // Kiểm tra package path có chứa excluded package không
-                        String relativePath = testDir.relativize(p).toString().replace(File.separatorChar, '/');
-                        for (String excluded : EXCLUDED_PACKAGES) {
-                            if (relativePath.contains("/" + excluded + "/")) {
-                                return;
-                            }
-                        }
-
-                        String commandName = deriveCommandName(className);
-                        commands.add(new DiscoveredCommand(
-                                commandName,
-                                "Run " + className,
-                                null,
-                                className
-                        ));
-                        log.debug("Discovered test class: {} → /{}", className, commandName);
-                    });
-        } catch (IOException e) {
-            log.error("Failed to scan test classes: {}", e.getMessage(), e);
-        }
-
-        return commands;
+        return List.copyOf(commands);
     }
 
     /**
@@ -154,79 +277,4 @@ public class TestSuiteScanner {
         }
         return name.toLowerCase();
     }
-
-    /**
-     * Scan test classes và group theo package name.
-     * Ví dụ: com.automation.ui.LoginTest → group "ui", sub "login"
-     *         com.automation.product.CreateProductTest → group "product", sub "createproduct"
-     *
-     * @return Map: groupName → List<DiscoveredCommand> (mỗi command = 1 test class trong group)
-     */
-    public Map<String, List<DiscoveredCommand>> scanGrouped(String frameworkPath) {
-        Map<String, List<DiscoveredCommand>> groups = new HashMap<>();
-
-        Path root = Path.of(frameworkPath);
-        Path testDir = root.resolve("src/test/java");
-
-        if (!Files.isDirectory(testDir)) {
-            log.warn("Test directory not found: {}", testDir);
-            return groups;
-        }
-
-        try (Stream<Path> paths = Files.walk(testDir)) {
-            paths.filter(Files::isRegularFile)
-                    .filter(p -> p.getFileName().toString().endsWith("Test.java"))
-                    .forEach(p -> {
-                        String fileName = p.getFileName().toString();
-                        String className = fileName.replace(".java", "");
-
-                        if (EXCLUDED_CLASSES.contains(className)) {
-                            return;
-                        }
-
-                        String relativePath = testDir.relativize(p).toString().replace(File.separatorChar, '/');
-                        for (String excluded : EXCLUDED_PACKAGES) {
-                            if (relativePath.contains("/" + excluded + "/")) {
-                                return;
-                            }
-                        }
-
-                        // Extract group name: lấy package ngay trước test class
-                        // Ví dụ: "com/automation/tests/ui/LoginTest.java" → group = "ui"
-                        //         "com/automation/tests/product/CreateProductTest.java" → group = "product"
-                        String[] pathParts = relativePath.split("/");
-                        if (pathParts.length < 2) {
-                            // Test class ở root package → skip, không group được
-                            return;
-                        }
-
-                        // Group = thư mục cha gần nhất của test class
-                        String groupName = pathParts[pathParts.length - 2];
-
-                        // Skip nếu group trùng với excluded packages
-                        if (EXCLUDED_PACKAGES.contains(groupName)) {
-                            return;
-                        }
-
-                        String subCommandName = deriveCommandName(className);
-                        DiscoveredCommand cmd = new DiscoveredCommand(
-                                subCommandName,
-                                "Run " + className,
-                                null,
-                                className
-                        );
-
-                        groups.computeIfAbsent(groupName, k -> new ArrayList<>()).add(cmd);
-                        log.debug("Discovered grouped test: {} → group '{}', sub '{}'",
-                                className, groupName, subCommandName);
-                    });
-        } catch (IOException e) {
-            log.error("Failed to scan test classes for grouping: {}", e.getMessage(), e);
-        }
-
-        log.info("Discovered {} groups with {} total test classes",
-                groups.size(), groups.values().stream().mapToInt(List::size).sum());
-
-        return groups;
-    }
 }
@@ -0,0 +1,198 @@
+package com.automation.bot.discovery;
+
+import com.automation.bot.config.TestRunnerProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * Watch src/test/java + pom.xml của framework, cập nhật index của TestSuiteScanner theo từng event
+ * và báo listener khi index thực sự đổi.
+ *
+ * Tại sao debounce?
+ * → Git checkout / IDE refactor tạo hàng trăm event trong vài trăm ms. Mỗi lần đổi lại phải
+ *   đăng ký lại command + gọi setMyCommands (Telegram rate-limit) → gom lại, chỉ publish khi
+ *   yên lặng debounce-millis.
+ * → Publish chỉ khi snapshot khác lần trước: sửa thân method (không đổi class / method @Test) → không làm gì.
+ *
+ * WatchService không recursive → đăng ký từng thư mục con, thư mục mới tạo được đăng ký khi có event.
+ * OVERFLOW (mất event) → walk lại toàn bộ.
+ */
+@Slf4j
+@Component
+public class TestSuiteWatcher {
+
+    private final TestSuiteScanner scanner;
+    private final TestRunnerProperties properties;
+    private final Map<WatchKey, Path> watchedDirs = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService debouncer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "suite-watch-debounce");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private WatchService watchService;
+    private Consumer<TestSuiteScanner.Snapshot> listener;
+    private TestSuiteScanner.Snapshot published;
+    private ScheduledFuture<?> pendingPublish;
+
+    public TestSuiteWatcher(TestSuiteScanner scanner, TestRunnerProperties properties) {
+        this.scanner = scanner;
+        this.properties = properties;
+    }
+
+    /**
+     * Bắt đầu watch framework đã được scanner.index(). initial = snapshot listener đã áp dụng.
+     */
+    public synchronized void start(TestSuiteScanner.Snapshot initial, Consumer<TestSuiteScanner.Snapshot> listener) {
+        Path root = scanner.getRoot();
+        if (!properties.getDiscovery().isWatch() || root == null || !Files.isDirectory(root)) {
+            return;
+        }
+        this.listener = listener;
+        this.published = initial;
+        try {
+            watchService = root.getFileSystem().newWatchService();
+            // Root chỉ để bắt thay đổi pom.xml (không recursive → không nhận event của target/)
+            register(root);
+            registerTree(scanner.getTestDir());
+        } catch (IOException e) {
+            log.warn("Test suite watch disabled: {}", e.getMessage());
+            return;
+        }
+        Thread thread = new Thread(this::watchLoop, "suite-watcher");
+        thread.setDaemon(true);
+        thread.start();
+        log.info("Watching {} directories under {} for test changes", watchedDirs.size(), root);
+    }
+
+    private void watchLoop() {
+        while (true) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            Path dir = watchedDirs.get(key);
+            boolean relevant = false;
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == OVERFLOW) {
+                    rescan();
+                    relevant = true;
+                } else if (dir != null) {
+                    relevant |= handle(dir, event);
+                }
+            }
+            if (!key.reset()) {
+                // Thư mục đã bị xóa
+                watchedDirs.remove(key);
+            }
+            if (relevant) {
+                schedulePublish();
+            }
+        }
+    }
+
+    private boolean handle(Path dir, WatchEvent<?> event) {
+        Path path = dir.resolve((Path) event.context());
+        if (dir.equals(scanner.getRoot()) && !"pom.xml".equals(path.getFileName().toString())) {
+            return false;
+        }
+        if (event.kind() == ENTRY_DELETE) {
+            scanner.onDeleted(path);
+        } else {
+            if (event.kind() == ENTRY_CREATE && Files.isDirectory(path)) {
+                registerTree(path);
+            }
+            scanner.onChanged(path);
+        }
+        return true;
+    }
+
+    private void rescan() {
+        log.info("Test suite watch overflowed, rescanning {}", scanner.getRoot());
+        scanner.index(scanner.getRoot().toString());
+        registerTree(scanner.getTestDir());
+    }
+
+    private synchronized void schedulePublish() {
+        if (pendingPublish != null) {
+            pendingPublish.cancel(false);
+        }
+        pendingPublish = debouncer.schedule(this::publish,
+                properties.getDiscovery().getDebounceMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void publish() {
+        TestSuiteScanner.Snapshot snapshot = scanner.snapshot();
+        synchronized (this) {
+            if (snapshot.equals(published)) {
+                log.debug("Test files changed but index is unchanged");
+                return;
+            }
+            published = snapshot;
+        }
+        log.info("Test index changed: {} test classes in {} groups",
+                snapshot.testClasses().size(), snapshot.groups().size());
+        try {
+            listener.accept(snapshot);
+        } catch (Exception e) {
+            log.error("Failed to apply test index change: {}", e.getMessage(), e);
+        }
+    }
+
+    private void registerTree(Path dir) {
+        if (dir == null || !Files.isDirectory(dir)) {
+            return;
+        }
+        try (Stream<Path> dirs = Files.walk(dir)) {
+            dirs.filter(Files::isDirectory).forEach(this::register);
+        } catch (IOException e) {
+            log.warn("Failed to watch {}: {}", dir, e.getMessage());
+        }
+    }
+
+    private void register(Path dir) {
+        try {
+            // Đăng ký lại thư mục đã watch trả về cùng WatchKey → an toàn khi rescan
+            watchedDirs.put(dir.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY), dir);
+        } catch (IOException e) {
+            log.warn("Failed to watch {}: {}", dir, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        debouncer.shutdownNow();
+        try {
+            if (watchService != null) {
+                watchService.close();
+            }
+        } catch (IOException e) {
+            log.debug("Failed to close watch service: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.automation.bot.history;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Đọc retry-outcomes.json do RetryOutcomeListener của framework ghi vào allure-results của run.
+ *
+ * Tại sao cần file riêng?
+ * → TestNG gộp các lần retry thành 1 kết quả: test fail lần đầu, pass lần 2 hiện trong Surefire XML /
+ *   result stream như test pass bình thường — thời gian của lần fail biến mất khỏi mọi con số.
+ * → Sidecar ghi từng attempt → history biết test nào chỉ pass nhờ retry và tốn bao lâu (/flaky).
+ *
+ * Không có file (không test nào retry, framework cũ) → list rỗng.
+ */
+@Slf4j
+@Component
+public class RetryOutcomeReader {
+
+    static final String SIDECAR_FILE = "retry-outcomes.json";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Sidecar(List<Attempt> attempts) {
+    }
+
+    /** 1 lần chạy của 1 test invocation, đúng format framework ghi */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Attempt(String className, String method, String parameters, int attempt, String status,
+                   long durationMillis, String errorType, String message, String classification) {
+    }
+
+    /**
+     * Gom attempt theo invocation (class + method + tham số data provider) → 1 RetryRecord mỗi invocation.
+     */
+    public List<RunRecord.RetryRecord> read(Path allureResultsDir) {
+        Path file = allureResultsDir.resolve(SIDECAR_FILE);
+        if (!Files.isRegularFile(file)) {
+            return List.of();
+        }
+        Sidecar sidecar;
+        try {
+            sidecar = objectMapper.readValue(file.toFile(), Sidecar.class);
+        } catch (IOException e) {
+            log.warn("Cannot read {}: {}", file, e.getMessage());
+            return List.of();
+        }
+        if (sidecar.attempts() == null) {
+            return List.of();
+        }
+
+        Map<String, List<Attempt>> byInvocation = new LinkedHashMap<>();
+        for (Attempt attempt : sidecar.attempts()) {
+            byInvocation.computeIfAbsent(attempt.className() + "#" + attempt.method() + "(" + attempt.parameters() + ")",
+                    key -> new ArrayList<>()).add(attempt);
+        }
+
+        List<RunRecord.RetryRecord> retries = new ArrayList<>();
+        for (List<Attempt> attempts : byInvocation.values()) {
+            attempts.sort((a, b) -> Integer.compare(a.attempt(), b.attempt()));
+            Attempt last = attempts.get(attempts.size() - 1);
+            long retryMillis = 0;
+            String errorType = null;
+            String classification = null;
+            for (Attempt attempt : attempts) {
+                if ("RETRIED".equals(attempt.status())) {
+                    retryMillis += attempt.durationMillis();
+                    errorType = attempt.errorType();
+                }
+                if (attempt.classification() != null) {
+                    classification = attempt.classification();
+                }
+            }
+            retries.add(new RunRecord.RetryRecord(last.className(), last.method(), last.parameters(),
+                    attempts.size(), retryMillis, last.status(), errorType, classification));
+        }
+        return retries;
+    }
+}
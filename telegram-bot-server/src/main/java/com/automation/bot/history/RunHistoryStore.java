@@ -0,0 +1,439 @@
+package com.automation.bot.history;
+
+import com.automation.bot.config.HistoryProperties;
+import com.automation.bot.parser.model.TestCase;
+import com.automation.bot.parser.model.TestSuite;
+import com.automation.bot.runner.RunDurationEstimator;
+import com.automation.bot.runner.RunStatus;
+import com.automation.bot.runner.TestRunRequest;
+import com.automation.bot.runner.TestRunResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+/**
+ * History các test run, lưu file JSON Lines append-only (mỗi run 1 dòng).
+ *
+ * Tại sao JSON Lines thay vì H2/SQLite?
+ * → Không thêm dependency/driver; Jackson đã có sẵn.
+ * → Append 1 dòng/run → crash giữa chừng chỉ mất dòng cuối (bị bỏ qua khi load), không hỏng cả file.
+ * → Vài nghìn run đọc hết vào memory lúc startup → query /history, /stats không phải đọc lại
+ *   file hay Surefire XML.
+ *
+ * File được compact (giữ maxRuns run mới nhất) khi số dòng vượt gấp đôi maxRuns.
+ */
+@Slf4j
+@Component
+public class RunHistoryStore implements RunDurationEstimator {
+
+    /** Số run gần nhất dùng để ước lượng duration cho scheduler */
+    private static final int ESTIMATE_RUNS = 10;
+
+    private final HistoryProperties properties;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /** Cũ → mới. Chỉ truy cập trong synchronized */
+    private final Deque<RunRecord> runs = new ArrayDeque<>();
+    private int linesInFile;
+
+    public RunHistoryStore(HistoryProperties properties) {
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public synchronized void load() {
+        Path file = file();
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                linesInFile++;
+                try {
+                    addInMemory(objectMapper.readValue(line, RunRecord.class));
+                } catch (IOException e) {
+                    log.warn("Skipping corrupt history line {}: {}", linesInFile, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            log.error("Failed to load run history from {}: {}", file, e.getMessage());
+        }
+        log.info("Loaded {} runs from history {}", runs.size(), file);
+    }
+
+    /**
+     * Ghi 1 run đã hoàn tất (gọi sau khi parse Surefire XML).
+     */
+    public RunRecord record(TestRunRequest request, String label,
+                            TestRunResult result, List<TestSuite> suites) throws IOException {
+        return record(request, label, result, suites, List.of());
+    }
+
+    /**
+     * Run không chạy hết (timeout, cancel, fail-fast, kill) không được ghi: duration ngắn bất thường và
+     * danh sách test thiếu làm lệch p50 mà scheduler (short-job-first) và ShardPlanner dùng để ước lượng.
+     *
+     * @param retries test đã được RetryAnalyzer chạy lại (RetryOutcomeReader) — dùng cho /flaky
+     * @return run đã ghi, null nếu run không chạy hết
+     */
+    public synchronized RunRecord record(TestRunRequest request, String label, TestRunResult result,
+                                         List<TestSuite> suites, List<RunRecord.RetryRecord> retries)
+            throws IOException {
+        if (result.isIncomplete()) {
+            log.info("[{}] Run did not finish ({}), not recorded in history", request.getRunId(),
+                    result.getErrorMessage());
+            return null;
+        }
+        RunRecord run = new RunRecord(
+                request.getRunId(), request.getChatId(), request.getUserId(), label, request.getEnv(),
+                request.getProfile(), request.getTestClass(), request.getTestClasses(),
+                request.getBrowser(), request.isHeadless(),
+                result.getStatus().name(), result.getTotalTests(), result.getPassed(), result.getFailed(),
+                result.getSkipped(), result.getErrors(),
+                result.getDuration() != null ? result.getDuration().toMillis() : 0,
+                System.currentTimeMillis(), toTestRecords(suites), List.copyOf(retries));
+
+        Path file = file();
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Files.writeString(file, objectMapper.writeValueAsString(run) + "\n", StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        linesInFile++;
+        addInMemory(run);
+
+        if (linesInFile > properties.getMaxRuns() * 2L) {
+            compact();
+        }
+        return run;
+    }
+
+    /**
+     * Các run gần nhất của 1 chat, mới nhất trước.
+     */
+    public synchronized List<RunRecord> recentRuns(long chatId, int limit) {
+        List<RunRecord> result = new ArrayList<>();
+        Iterator<RunRecord> newestFirst = runs.descendingIterator();
+        while (newestFirst.hasNext() && result.size() < limit) {
+            RunRecord run = newestFirst.next();
+            if (run.chatId() == chatId) {
+                result.add(run);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Thống kê duration của target trong lastRuns run gần nhất có chứa target.
+     *
+     * target có thể là:
+     * - label của run (smoke, ui (all), ui/login) → duration cả run
+     * - Class#method (LoginTest#testLoginSuccess) → duration test case đó
+     * - tên test class (LoginTest hoặc FQCN) → tổng duration các test case của class trong mỗi run.
+     *   Run chỉ chọn vài method của class (LoginTest#m1+m2) không tính: tổng đó không phải duration cả class
+     */
+    public synchronized Optional<DurationStats> durationStats(String target, int lastRuns) {
+        List<Long> durations = new ArrayList<>();
+        int passedSamples = 0;
+
+        Iterator<RunRecord> newestFirst = runs.descendingIterator();
+        while (newestFirst.hasNext() && durations.size() < lastRuns) {
+            RunRecord run = newestFirst.next();
+
+            if (target.equalsIgnoreCase(run.label())) {
+                durations.add(run.durationMillis());
+                if (RunStatus.COMPLETED.name().equals(run.status())) {
+                    passedSamples++;
+                }
+                continue;
+            }
+
+            if (target.indexOf('#') < 0 && selectsMethodsOf(run, target)) {
+                continue;
+            }
+
+            long classDuration = 0;
+            boolean matched = false;
+            boolean allPassed = true;
+            for (RunRecord.TestRecord test : run.tests()) {
+                if (matches(test, target)) {
+                    matched = true;
+                    classDuration += test.durationMillis();
+                    allPassed &= "PASSED".equals(test.status()) || "SKIPPED".equals(test.status());
+                }
+            }
+            if (matched) {
+                durations.add(classDuration);
+                if (allPassed) {
+                    passedSamples++;
+                }
+            }
+        }
+
+        if (durations.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(DurationStats.of(target, durations, passedSamples));
+    }
+
+    /**
+     * Test flaky trong lastRuns run gần nhất, xếp theo thời gian mất cho retry (nhiều nhất trước).
+     *
+     * Score = (số run pass nhờ retry + số lần đổi trạng thái pass ↔ fail giữa 2 run liên tiếp) / số run có test,
+     * tối đa 1.0. Test ổn định (luôn pass / luôn fail, không retry) có score 0 và không nằm trong kết quả.
+     */
+    public synchronized List<FlakyStats> flakyTests(int lastRuns) {
+        List<RunRecord> window = new ArrayList<>();
+        Iterator<RunRecord> newestFirst = runs.descendingIterator();
+        while (newestFirst.hasNext() && window.size() < lastRuns) {
+            window.add(newestFirst.next());
+        }
+        Collections.reverse(window);
+
+        Map<String, FlakyCounter> counters = new LinkedHashMap<>();
+        for (RunRecord run : window) {
+            // Data provider: nhiều test case cùng method → method fail nếu 1 bộ data fail
+            Map<String, Boolean> passedInRun = new LinkedHashMap<>();
+            for (RunRecord.TestRecord test : run.tests()) {
+                if ("SKIPPED".equals(test.status())) {
+                    continue;
+                }
+                passedInRun.merge(test.simpleClassName() + "#" + test.name(), "PASSED".equals(test.status()),
+                        Boolean::logicalAnd);
+            }
+            Map<String, Boolean> flakyInRun = new LinkedHashMap<>();
+            for (RunRecord.RetryRecord retry : run.retries()) {
+                FlakyCounter counter = counters.computeIfAbsent(retry.key(), FlakyCounter::new);
+                counter.retries += retry.attempts() - 1;
+                counter.wastedMillis += retry.retryMillis();
+                flakyInRun.merge(retry.key(), "PASSED".equals(retry.finalStatus()), Boolean::logicalOr);
+            }
+            passedInRun.forEach((key, passed) -> counters.computeIfAbsent(key, FlakyCounter::new).observe(passed));
+            flakyInRun.forEach((key, flaky) -> {
+                if (flaky) {
+                    counters.get(key).flakyRuns++;
+                }
+            });
+        }
+
+        return counters.values().stream()
+                .map(FlakyCounter::toStats)
+                .filter(stats -> stats.score() > 0 || stats.wastedMillis() > 0)
+                .sorted(Comparator.comparingLong(FlakyStats::wastedMillis).reversed()
+                        .thenComparing(Comparator.comparingDouble(FlakyStats::score).reversed()))
+                .toList();
+    }
+
+    /**
+     * p50 của profile / test class; nhiều class (group run) → cộng p50 từng class.
+     */
+    @Override
+    public OptionalLong estimateMillis(TestRunRequest request) {
+        if (request.getProfile() != null) {
+            return p50(request.getProfile());
+        }
+        if (request.getTestClass() != null) {
+            return estimateSelector(request.getTestClass());
+        }
+        if (request.getTestClasses() != null) {
+            long total = 0;
+            boolean known = false;
+            for (String testClass : request.getTestClasses().split(",")) {
+                OptionalLong estimate = estimateSelector(testClass.trim());
+                if (estimate.isPresent()) {
+                    total += estimate.getAsLong();
+                    known = true;
+                }
+            }
+            return known ? OptionalLong.of(total) : OptionalLong.empty();
+        }
+        return OptionalLong.empty();
+    }
+
+    /**
+     * Selector kiểu Surefire: Class → p50 của class; Class#m1+m2 → cộng p50 từng method đã biết,
+     * chưa method nào có sample → p50 của cả class (ước lượng trên).
+     */
+    private OptionalLong estimateSelector(String selector) {
+        int hash = selector.indexOf('#');
+        if (hash < 0) {
+            return p50(selector);
+        }
+        String cls = selector.substring(0, hash);
+        long total = 0;
+        boolean known = false;
+        for (String method : selector.substring(hash + 1).split("\\+")) {
+            OptionalLong estimate = p50(cls + "#" + method.trim());
+            if (estimate.isPresent()) {
+                total += estimate.getAsLong();
+                known = true;
+            }
+        }
+        return known ? OptionalLong.of(total) : p50(cls);
+    }
+
+    /** Run chạy class {@code target} với selector chọn method (Class#m1+m2) thay vì cả class */
+    private static boolean selectsMethodsOf(RunRecord run, String target) {
+        List<String> selectors = new ArrayList<>();
+        if (run.testClass() != null) {
+            selectors.add(run.testClass());
+        }
+        if (run.testClasses() != null) {
+            selectors.addAll(List.of(run.testClasses().split(",")));
+        }
+        String targetSimple = target.substring(target.lastIndexOf('.') + 1);
+        for (String selector : selectors) {
+            int hash = selector.indexOf('#');
+            if (hash < 0) {
+                continue;
+            }
+            String cls = selector.substring(0, hash).trim();
+            if (cls.substring(cls.lastIndexOf('.') + 1).equals(targetSimple)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private OptionalLong p50(String target) {
+        return durationStats(target, ESTIMATE_RUNS)
+                .map(stats -> OptionalLong.of(stats.p50Millis()))
+                .orElse(OptionalLong.empty());
+    }
+
+    private static boolean matches(RunRecord.TestRecord test, String target) {
+        int hash = target.indexOf('#');
+        if (hash >= 0) {
+            String cls = target.substring(0, hash);
+            String method = target.substring(hash + 1);
+            return method.equals(test.name())
+                    && (cls.equals(test.className()) || cls.equals(test.simpleClassName()));
+        }
+        return target.equals(test.className()) || target.equals(test.simpleClassName());
+    }
+
+    private static List<RunRecord.TestRecord> toTestRecords(List<TestSuite> suites) {
+        List<RunRecord.TestRecord> tests = new ArrayList<>();
+        for (TestSuite suite : suites) {
+            if (suite.getTestCases() == null) {
+                continue;
+            }
+            for (TestCase tc : suite.getTestCases()) {
+                String status = tc.isFailed() ? "FAILED"
+                        : tc.isError() ? "ERROR"
+                        : tc.isSkipped() ? "SKIPPED"
+                        : "PASSED";
+                tests.add(new RunRecord.TestRecord(tc.getClassname(), tc.getName(), status,
+                        Math.round(tc.getTime() * 1000)));
+            }
+        }
+        return tests;
+    }
+
+    private void addInMemory(RunRecord run) {
+        runs.addLast(run);
+        while (runs.size() > properties.getMaxRuns()) {
+            runs.removeFirst();
+        }
+    }
+
+    /** Ghi lại file chỉ với các run đang giữ trong memory (temp file + atomic move) */
+    private void compact() throws IOException {
+        Path file = file();
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        StringBuilder content = new StringBuilder();
+        for (RunRecord run : runs) {
+            content.append(objectMapper.writeValueAsString(run)).append('\n');
+        }
+        Files.writeString(temp, content, StandardCharsets.UTF_8);
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        linesInFile = runs.size();
+        log.info("Compacted run history to {} runs", runs.size());
+    }
+
+    private Path file() {
+        return Path.of(properties.getFile());
+    }
+
+    /**
+     * @param test         SimpleClass#method
+     * @param samples      số run có chạy test
+     * @param flakyRuns    số run test chỉ pass nhờ retry
+     * @param flips        số lần đổi pass ↔ fail giữa 2 run liên tiếp
+     * @param retries      tổng số lần retry
+     * @param wastedMillis tổng thời gian các lần chạy bị retry
+     */
+    public record FlakyStats(String test, int samples, int flakyRuns, int flips, int retries,
+                             long wastedMillis, double score) {
+    }
+
+    private static final class FlakyCounter {
+        private final String test;
+        private int samples;
+        private int flakyRuns;
+        private int flips;
+        private int retries;
+        private long wastedMillis;
+        private Boolean lastPassed;
+
+        private FlakyCounter(String test) {
+            this.test = test;
+        }
+
+        private void observe(boolean passed) {
+            samples++;
+            if (lastPassed != null && lastPassed != passed) {
+                flips++;
+            }
+            lastPassed = passed;
+        }
+
+        private FlakyStats toStats() {
+            double score = samples == 0 ? 0 : Math.min(1.0, (double) (flakyRuns + flips) / samples);
+            return new FlakyStats(test, samples, flakyRuns, flips, retries, wastedMillis, score);
+        }
+    }
+
+    /**
+     * @param passRate tỉ lệ mẫu pass (0..1)
+     */
+    public record DurationStats(String target, int samples, long p50Millis, long p95Millis,
+                                long maxMillis, double passRate) {
+
+        static DurationStats of(String target, List<Long> durations, int passedSamples) {
+            List<Long> sorted = durations.stream().sorted().toList();
+            return new DurationStats(target, sorted.size(), percentile(sorted, 50), percentile(sorted, 95),
+                    sorted.get(sorted.size() - 1), (double) passedSamples / sorted.size());
+        }
+
+        /** Nearest-rank percentile */
+        static long percentile(List<Long> sorted, int percentile) {
+            int rank = (int) Math.ceil(percentile / 100.0 * sorted.size());
+            return sorted.get(Math.max(0, rank - 1));
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.automation.bot.history;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+/**
+ * 1 dòng trong file history: request + kết quả + thời gian từng test case của 1 run.
+ *
+ * @param label         label hiển thị (smoke, ui/login, ui (all)...) — dùng làm key cho /stats
+ * @param status        RunStatus của kết quả
+ * @param durationMillis tổng thời gian run
+ * @param finishedAt    epoch millis
+ * @param retries       test đã bị RetryAnalyzer chạy lại (retry-outcomes.json của framework), rỗng nếu không có
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record RunRecord(String runId,
+                        long chatId,
+                        long userId,
+                        String label,
+                        String env,
+                        String profile,
+                        String testClass,
+                        String testClasses,
+                        String browser,
+                        boolean headless,
+                        String status,
+                        int totalTests,
+                        int passed,
+                        int failed,
+                        int skipped,
+                        int errors,
+                        long durationMillis,
+                        long finishedAt,
+                        List<TestRecord> tests,
+                        List<RetryRecord> retries) {
+
+    public RunRecord {
+        tests = tests != null ? tests : List.of();
+        // Dòng history ghi trước khi có retry tracking không có field này
+        retries = retries != null ? retries : List.of();
+    }
+
+    /**
+     * Thời gian 1 test case, lấy từ Surefire XML.
+     * @param className FQCN (classname attribute)
+     * @param status    PASSED, FAILED, ERROR, SKIPPED
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record TestRecord(String className, String name, String status, long durationMillis) {
+
+        public String simpleClassName() {
+            return className == null ? "" : className.substring(className.lastIndexOf('.') + 1);
+        }
+    }
+
+    /**
+     * 1 test invocation đã được retry trong run.
+     * @param attempts    tổng số lần chạy (lần đầu + retry)
+     * @param retryMillis thời gian của các lần chạy bị retry — thời gian mất thêm vì test flaky
+     * @param finalStatus kết quả lần cuối: PASSED = pass nhờ retry (flaky), FAILED = retry cũng không cứu được
+     * @param errorType   exception của lần bị retry gần nhất
+     * @param classification RetryPolicy phân loại lần fail cuối: TRANSIENT, DETERMINISTIC, BUDGET_EXHAUSTED
+     *                       (null với sidecar cũ hoặc khi test pass)
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record RetryRecord(String className, String method, String parameters, int attempts,
+                              long retryMillis, String finalStatus, String errorType,
+                              String classification) {
+
+        public String key() {
+            String simpleName = className == null ? "" : className.substring(className.lastIndexOf('.') + 1);
+            return simpleName + "#" + method;
+        }
+    }
+}
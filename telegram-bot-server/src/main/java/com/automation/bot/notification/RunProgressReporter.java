@@ -0,0 +1,83 @@
+package com.automation.bot.notification;
+
+import com.automation.bot.parser.ConsoleProgressParser;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Consumer;
+
+/**
+ * Stage trong pipeline đọc output của TestRunner: parse từng dòng console → edit message "Running"
+ * trên Telegram với counts + ETA.
+ *
+ * Tại sao throttle thay vì edit mỗi khi có test xong?
+ * → Telegram giới hạn ~20 message/phút mỗi group, edit cũng tính. Suite 100 tests mà edit
+ *   mỗi test → bị 429 Too Many Requests, và message kết quả cuối cùng có thể bị chặn.
+ * → Edit tối đa 1 lần mỗi interval, chỉ khi progress thực sự thay đổi.
+ *
+ * Mỗi run 1 instance, gọi trên thread đọc output của run đó.
+ */
+@Slf4j
+public class RunProgressReporter implements Consumer<String> {
+
+    private final TelegramNotifier notifier;
+    private final long chatId;
+    private final Integer messageId;
+    private final String label;
+    private final String env;
+    private final Duration interval;
+    private final Instant start = Instant.now();
+    private final ConsoleProgressParser parser = new ConsoleProgressParser();
+
+    private Instant lastPush = Instant.now();
+    private boolean dirty;
+
+    /**
+     * @param messageId message "Running" cần edit; null (gửi fail) hoặc interval <= 0 → tắt progress
+     */
+    public RunProgressReporter(TelegramNotifier notifier, long chatId, Integer messageId,
+                               String label, String env, Duration interval) {
+        this.notifier = notifier;
+        this.chatId = chatId;
+        this.messageId = messageId;
+        this.label = label;
+        this.env = env;
+        this.interval = interval;
+    }
+
+    @Override
+    public void accept(String line) {
+        if (!isEnabled()) {
+            return;
+        }
+        if (parser.accept(line)) {
+            dirty = true;
+        }
+        if (dirty && Duration.between(lastPush, Instant.now()).compareTo(interval) >= 0) {
+            push();
+        }
+    }
+
+    /** Push lần cuối khi run kết thúc (counts cuối cùng chưa kịp gửi do throttle) */
+    public void finish() {
+        if (isEnabled() && dirty) {
+            push();
+        }
+    }
+
+    private boolean isEnabled() {
+        return messageId != null && !interval.isZero() && !interval.isNegative();
+    }
+
+    private void push() {
+        try {
+            notifier.notifyProgress(chatId, messageId, label, env, parser, Duration.between(start, Instant.now()));
+        } catch (Exception e) {
+            // Progress chỉ là thông tin phụ — không được làm hỏng run
+            log.warn("Failed to push progress for {}: {}", label, e.getMessage());
+        }
+        lastPush = Instant.now();
+        dirty = false;
+    }
+}
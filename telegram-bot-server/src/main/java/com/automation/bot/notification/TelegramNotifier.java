@@ -1,12 +1,18 @@
 package com.automation.bot.notification;
 
 import com.automation.bot.bot.BotMessageSender;
+import com.automation.bot.parser.ConsoleProgressParser;
 import com.automation.bot.parser.model.TestCase;
+import com.automation.bot.runner.RerunStore;
+import com.automation.bot.runner.RunResultCache;
 import com.automation.bot.runner.RunStatus;
 import com.automation.bot.runner.TestRunRequest;
 import com.automation.bot.runner.TestRunResult;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKeyboardButton;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKeyboardRow;
 
 import java.util.List;
 
@@ -24,7 +30,55 @@ public class TelegramNotifier {
 
     private final BotMessageSender messageSender;
 
-    public void notifyResult(TestRunRequest request, TestRunResult result, List<TestCase> failedTests) {
+    /**
+     * @param offerRerun true → kèm nút "Rerun failed" (run đã được lưu vào RerunStore)
+     */
+    public void notifyResult(TestRunRequest request, TestRunResult result, List<TestCase> failedTests,
+                             boolean offerRerun) {
+        messageSender.send(request.getChatId(), formatResult(request, result, failedTests),
+                offerRerun ? rerunKeyboard(request.getRunId(), failedTests.size()) : null);
+    }
+
+    /**
+     * Kết quả sau khi bấm "Rerun failed": số test chạy lại / đã pass lại, rồi kết quả gộp với run gốc
+     * (format như notifyResult, header theo request gốc).
+     * @param runId        run rerun vừa xong — nút rerun tiếp theo trỏ vào run này
+     * @param rerunResult  chỉ các test đã chạy lại
+     * @param mergedResult run gốc với các test đó thay bằng kết quả mới
+     */
+    public void notifyRerunResult(RerunStore.Entry original, String runId, TestRunResult rerunResult,
+                                  TestRunResult mergedResult, List<TestCase> failedTests, boolean offerRerun) {
+        int fixed = rerunResult.getPassed();
+        int stillFailing = rerunResult.getFailed() + rerunResult.getErrors();
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("\ud83d\udd01 Reran ").append(rerunResult.getTotalTests()).append(" failed tests of run `")
+                .append(original.getRunId()).append("`: ")
+                .append(fixed).append(" passed, ").append(stillFailing).append(" still failing\n\n");
+        sb.append(formatResult(original.getRequest(), mergedResult, failedTests));
+        messageSender.send(original.getRequest().getChatId(), sb.toString(),
+                offerRerun ? rerunKeyboard(runId, failedTests.size()) : null);
+    }
+
+    /**
+     * Kết quả lấy từ RunResultCache — cùng format notifyResult, thêm dòng nguồn gốc + link Allure đã có.
+     */
+    public void notifyCachedResult(TestRunRequest request, RunResultCache.Entry entry) {
+        long minutesAgo = java.time.Duration.between(entry.getCachedAt(), java.time.Instant.now()).toMinutes();
+        TestRunResult result = entry.getResult().toBuilder().allureReportUrl(entry.getAllureUrl()).build();
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("\u267b\ufe0f Cached result of run `").append(entry.getRunId()).append("` (commit `")
+                .append(entry.getRevision().shortCommit()).append("`, ").append(minutesAgo).append(" min ago)\n")
+                .append("Add `force` to run again.\n\n");
+        sb.append(formatResult(request, result, entry.getFailedTests()));
+        if (entry.getAllureUrl() == null) {
+            sb.append("\n_Allure report is still being generated._");
+        }
+        messageSender.send(request.getChatId(), sb.toString());
+    }
+
+    private String formatResult(TestRunRequest request, TestRunResult result, List<TestCase> failedTests) {
         StringBuilder sb = new StringBuilder();
 
         // Header với status icon
@@ -49,6 +103,10 @@ public class TelegramNotifier {
         if (result.getSkipped() > 0) {
             sb.append("\u23ed Skipped: ").append(result.getSkipped()).append("\n");
         }
+        if (result.getPassedOnRetry() > 0) {
+            sb.append("\ud83d\udd01 Passed on retry: ").append(result.getPassedOnRetry())
+              .append(" (").append(formatDuration(result.getRetryTime())).append(" spent on retries, see /flaky)\n");
+        }
 
         // Failed test details (tối đa 5)
         if (failedTests != null && !failedTests.isEmpty()) {
@@ -72,28 +130,116 @@ public class TelegramNotifier {
             }
         }
 
+        if (result.getErrorMessage() != null) {
+            sb.append("\n\u23f9 ").append(result.getErrorMessage()).append("\n");
+        }
+
         // Allure report link
         if (result.getAllureReportUrl() != null) {
             sb.append("\n\ud83d\udcca [View Allure Report](").append(result.getAllureReportUrl()).append(")");
         }
+        return sb.toString();
+    }
 
-        messageSender.send(request.getChatId(), sb.toString());
+    /** 1 nút, callback data "rerun:{runId}" (giới hạn 64 byte của Telegram — runId 8 ký tự) */
+    private InlineKeyboardMarkup rerunKeyboard(String runId, int failedCount) {
+        InlineKeyboardButton button = InlineKeyboardButton.builder()
+                .text("\ud83d\udd01 Rerun " + failedCount + " failed")
+                .callbackData(RerunStore.CALLBACK_PREFIX + runId)
+                .build();
+        return InlineKeyboardMarkup.builder().keyboardRow(new InlineKeyboardRow(button)).build();
+    }
+
+    /**
+     * Follow-up sau notifyResult khi Allure report generate xong (chạy nền).
+     */
+    public void notifyReportReady(long chatId, String label, String allureUrl) {
+        if (allureUrl == null) {
+            messageSender.send(chatId, "\u26a0\ufe0f Allure report for *" + label + "* could not be generated.");
+            return;
+        }
+        messageSender.send(chatId,
+                "\ud83d\udcca *" + label + "* \u2014 [View Allure Report](" + allureUrl + ")");
     }
 
-    public void notifyQueued(long chatId, String runId, String label, String env) {
+    /**
+     * @param position vị trí trong hàng chờ, 0 = worker đã nhận ngay
+     * @param eta      thời gian chờ ước lượng (theo duration lịch sử)
+     */
+    public void notifyQueued(long chatId, String runId, String label, String env,
+                             int position, java.time.Duration eta) {
+        String queueLine = position == 0 || eta.isZero()
+                ? "Starting now\n"
+                : "Position: #" + position + " | ETA: ~" + formatDuration(eta) + "\n";
         messageSender.send(chatId,
                 "\u23f3 *Test Queued*\n" +
                 "Suite: " + label + "\n" +
                 "Environment: `" + env + "`\n" +
-                "Run ID: `" + runId + "`\n\n" +
+                "Run ID: `" + runId + "`\n" +
+                queueLine + "\n" +
                 "Use /status to check progress.");
     }
 
-    public void notifyRunning(long chatId, String label, String env) {
+    /**
+     * Request giống hệt 1 run đang chờ → không xếp thêm, báo run đang chờ.
+     */
+    public void notifyDuplicate(long chatId, String existingRunId, int position) {
         messageSender.send(chatId,
+                "\u267b\ufe0f Same run is already queued: `" + existingRunId + "`" +
+                (position > 0 ? " (position #" + position + ")" : "") + "\n" +
+                "Use /cancel " + existingRunId + " to cancel it.");
+    }
+
+    /**
+     * @return messageId của message "Running" — RunProgressReporter edit message này để hiện progress
+     */
+    public Integer notifyRunning(long chatId, String label, String env) {
+        return messageSender.send(chatId,
                 "\u25b6\ufe0f Running: *" + label + "* (env=" + env + ") ...");
     }
 
+    /**
+     * Edit message "Running" thành progress hiện tại: counts, test đang chạy, ETA.
+     */
+    public void notifyProgress(long chatId, int messageId, String label, String env,
+                               ConsoleProgressParser progress, java.time.Duration elapsed) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("\u25b6\ufe0f Running: *").append(label).append("* (env=").append(env).append(")\n\n");
+
+        sb.append("Done: ").append(progress.getCompleted());
+        if (progress.getExpectedTotal() > 0) {
+            sb.append("/").append(progress.getExpectedTotal());
+        }
+        sb.append("\n");
+        sb.append("\u2705 ").append(progress.getPassed())
+          .append("  \u274c ").append(progress.getFailed())
+          .append("  \u23ed ").append(progress.getSkipped()).append("\n");
+
+        if (progress.getCurrentTest() != null) {
+            sb.append("Current: `").append(progress.getCurrentTest()).append("`\n");
+        }
+
+        sb.append("Elapsed: ").append(formatDuration(elapsed));
+        // ETA = thời gian trung bình mỗi test × số test còn lại (ước lượng)
+        int remaining = progress.getExpectedTotal() - progress.getCompleted();
+        if (progress.getCompleted() > 0 && remaining > 0) {
+            java.time.Duration eta = elapsed.dividedBy(progress.getCompleted()).multipliedBy(remaining);
+            sb.append(" | ETA: ~").append(formatDuration(eta));
+        }
+
+        messageSender.editMessage(chatId, messageId, sb.toString());
+    }
+
+    /**
+     * Fail-fast dừng run giữa chừng — gửi ngay lúc kill, kết quả từng phần theo sau qua notifyResult.
+     */
+    public void notifyFailFast(long chatId, String label, String reason) {
+        messageSender.send(chatId,
+                "\u23f9 *" + label + "* stopped early (fail-fast)\n" +
+                "Reason: " + reason + "\n" +
+                "Reporting results collected so far...");
+    }
+
     public void notifyError(long chatId, String label, String errorMessage) {
         messageSender.send(chatId,
                 "\u274c *" + label + "* failed to start\n" +
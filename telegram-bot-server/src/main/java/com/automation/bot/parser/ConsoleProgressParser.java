@@ -0,0 +1,94 @@
+package com.automation.bot.parser;
+
+import lombok.Getter;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parse console output (Maven/Surefire + TestListener của framework) từng dòng một để biết tiến độ run.
+ *
+ * Tại sao parse console khi đã có SurefireReportParser?
+ * → Surefire XML chỉ được ghi khi run kết thúc. Console là nguồn duy nhất có dữ liệu
+ *   trong lúc run đang chạy (có thể tới 30 phút).
+ * → Chỉ dùng cho progress hiển thị — kết quả cuối cùng vẫn lấy từ XML (reliable hơn).
+ *
+ * Markers nhận diện:
+ * - TestListener: "Suite started: X (N tests)", "--- Test started|PASSED|FAILED|SKIPPED: name ---"
+ * - Surefire summary: "Tests run: 5, Failures: 1, Errors: 0, Skipped: 0" → ghi đè counts (chính xác hơn)
+ *
+ * Không thread-safe: mỗi run có 1 instance, chỉ thread đọc output gọi accept().
+ */
+@Getter
+public class ConsoleProgressParser {
+
+    private static final Pattern SUITE_STARTED = Pattern.compile("Suite started: .* \\((\\d+) tests\\)");
+    private static final Pattern TEST_EVENT = Pattern.compile("--- Test (started|PASSED|FAILED|SKIPPED): (\\S+) ---");
+    private static final Pattern SUREFIRE_SUMMARY = Pattern.compile(
+            "Tests run: (\\d+), Failures: (\\d+), Errors: (\\d+), Skipped: (\\d+)");
+
+    private int expectedTotal;
+    private int passed;
+    private int failed;
+    private int skipped;
+    private String currentTest;
+
+    /**
+     * Xử lý 1 dòng output.
+     * @return true nếu progress thay đổi (caller quyết định có push lên Telegram không)
+     */
+    public boolean accept(String line) {
+        if (line == null || line.isEmpty()) {
+            return false;
+        }
+
+        Matcher event = TEST_EVENT.matcher(line);
+        if (event.find()) {
+            String name = event.group(2);
+            switch (event.group(1)) {
+                case "started" -> currentTest = name;
+                case "PASSED" -> passed++;
+                case "FAILED" -> failed++;
+                case "SKIPPED" -> skipped++;
+                default -> { }
+            }
+            return true;
+        }
+
+        Matcher suite = SUITE_STARTED.matcher(line);
+        if (suite.find()) {
+            // Suite có nhiều <test> block, mỗi block log 1 lần → cộng dồn
+            expectedTotal += Integer.parseInt(suite.group(1));
+            return true;
+        }
+
+        Matcher summary = SUREFIRE_SUMMARY.matcher(line);
+        if (summary.find()) {
+            int total = Integer.parseInt(summary.group(1));
+            failed = Integer.parseInt(summary.group(2)) + Integer.parseInt(summary.group(3));
+            skipped = Integer.parseInt(summary.group(4));
+            passed = total - failed - skipped;
+            expectedTotal = Math.max(expectedTotal, total);
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Tên test nếu dòng là marker "--- Test FAILED: name ---", ngược lại null.
+     * Dùng khi không có result stream — console là nguồn duy nhất biết test nào fail trong lúc chạy.
+     */
+    public static String failedTest(String line) {
+        if (line == null) {
+            return null;
+        }
+        Matcher event = TEST_EVENT.matcher(line);
+        return event.find() && "FAILED".equals(event.group(1)) ? event.group(2) : null;
+    }
+
+    /** Số test đã có kết quả (passed + failed + skipped) */
+    public int getCompleted() {
+        return passed + failed + skipped;
+    }
+}
@@ -0,0 +1,180 @@
+package com.automation.bot.parser;
+
+import com.automation.bot.parser.model.TestCase;
+import com.automation.bot.parser.model.TestSuite;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Kết quả của 1 run dựng dần từ event ResultStreamListener gửi qua socket — có trong lúc run đang chạy.
+ *
+ * Tại sao cần khi đã có SurefireReportParser?
+ * → XML chỉ có sau khi process thoát; event đến ngay khi từng test xong → fail-fast, cancel,
+ *   progress có thể quyết định giữa run.
+ * → Run kết thúc bình thường (nhận runFinish) → dùng luôn toSuites(), không phải đọc XML từ disk.
+ *   Không nhận đủ (process bị kill, framework cũ chưa có listener) → caller fallback sang XML.
+ *
+ * Test retry (RetryAnalyzer) gửi lại finish cho cùng method + parameters → lần sau cùng thắng.
+ */
+@Slf4j
+public class LiveRunResult {
+
+    /**
+     * 1 event đã xử lý, đẩy cho các listener (fail-fast, progress...).
+     * @param type       testStart | testFinish
+     * @param parameters tham số data-provider (null nếu không có)
+     * @param status     PASSED | FAILED | ERROR | SKIPPED (chỉ với testFinish)
+     */
+    public record TestEvent(String type, String className, String method, String parameters, String status,
+                            long durationMillis, String message, String errorType) {
+
+        public boolean isFailure() {
+            return "FAILED".equals(status) || "ERROR".equals(status);
+        }
+    }
+
+    private final String runId;
+    private final List<Consumer<TestEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    /** key = class#method(parameters), theo thứ tự test xong */
+    private final Map<String, TestCase> finished = new LinkedHashMap<>();
+    private int expectedTotal;
+    private boolean connected;
+    private boolean runFinished;
+
+    public LiveRunResult(String runId) {
+        this.runId = runId;
+    }
+
+    public String getRunId() {
+        return runId;
+    }
+
+    /** Đăng ký callback cho mỗi event — gọi trên thread đọc socket, không được block lâu */
+    public void onEvent(Consumer<TestEvent> listener) {
+        listeners.add(listener);
+    }
+
+    synchronized void runStarted() {
+        connected = true;
+    }
+
+    synchronized void runFinished() {
+        runFinished = true;
+        notifyAll();
+    }
+
+    /** Mỗi &lt;test&gt; của TestNG báo số test method của nó → cộng dồn */
+    synchronized void expected(int count) {
+        expectedTotal += count;
+    }
+
+    void accept(TestEvent event) {
+        if ("testFinish".equals(event.type())) {
+            synchronized (this) {
+                finished.put(key(event), toTestCase(event));
+            }
+        }
+        for (Consumer<TestEvent> listener : listeners) {
+            try {
+                listener.accept(event);
+            } catch (Exception e) {
+                log.warn("[{}] Live result listener failed: {}", runId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Chờ event runFinish sau khi process đã thoát (socket có thể đọc chậm hơn stdout vài ms).
+     * @return true nếu kết quả đầy đủ, dùng được thay cho Surefire XML
+     */
+    public synchronized boolean awaitFinished(Duration grace) throws InterruptedException {
+        if (!connected) {
+            // Listener chưa từng connect → không có gì để chờ
+            return false;
+        }
+        long deadline = System.nanoTime() + grace.toNanos();
+        while (!runFinished) {
+            long remainingMillis = (deadline - System.nanoTime()) / 1_000_000;
+            if (remainingMillis <= 0) {
+                return false;
+            }
+            wait(remainingMillis);
+        }
+        return true;
+    }
+
+    public synchronized boolean isFinished() {
+        return runFinished;
+    }
+
+    public synchronized int getExpectedTotal() {
+        return expectedTotal;
+    }
+
+    public synchronized int countByStatus(String status) {
+        return (int) finished.values().stream().filter(tc -> status.equals(statusOf(tc))).count();
+    }
+
+    /**
+     * Gom test case theo class → TestSuite, cùng shape với SurefireReportParser.parseReports().
+     */
+    public synchronized List<TestSuite> toSuites() {
+        Map<String, TestSuite> suites = new LinkedHashMap<>();
+        for (TestCase tc : finished.values()) {
+            TestSuite suite = suites.computeIfAbsent(tc.getClassname(), name -> {
+                TestSuite created = new TestSuite();
+                created.setName(name);
+                return created;
+            });
+            suite.getTestCases().add(tc);
+            suite.setTests(suite.getTests() + 1);
+            suite.setTime(suite.getTime() + tc.getTime());
+            if (tc.isFailed()) {
+                suite.setFailures(suite.getFailures() + 1);
+            } else if (tc.isError()) {
+                suite.setErrors(suite.getErrors() + 1);
+            } else if (tc.isSkipped()) {
+                suite.setSkipped(suite.getSkipped() + 1);
+            }
+        }
+        return new ArrayList<>(suites.values());
+    }
+
+    private static String key(TestEvent event) {
+        String parameters = event.parameters() == null ? "" : event.parameters();
+        return event.className() + "#" + event.method() + "(" + parameters + ")";
+    }
+
+    private static TestCase toTestCase(TestEvent event) {
+        TestCase tc = new TestCase();
+        tc.setClassname(event.className());
+        tc.setName(event.method());
+        tc.setTime(event.durationMillis() / 1000.0);
+        switch (event.status()) {
+            case "FAILED" -> tc.setFailure(failure(event));
+            case "ERROR" -> tc.setError(failure(event));
+            case "SKIPPED" -> tc.setSkipped(event.message() != null ? event.message() : "");
+            default -> { }
+        }
+        return tc;
+    }
+
+    private static TestCase.Failure failure(TestEvent event) {
+        TestCase.Failure failure = new TestCase.Failure();
+        failure.setMessage(event.message());
+        failure.setType(event.errorType());
+        return failure;
+    }
+
+    private static String statusOf(TestCase tc) {
+        return tc.isFailed() ? "FAILED" : tc.isError() ? "ERROR" : tc.isSkipped() ? "SKIPPED" : "PASSED";
+    }
+}
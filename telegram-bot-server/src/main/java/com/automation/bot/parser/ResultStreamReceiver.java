@@ -0,0 +1,196 @@
+package com.automation.bot.parser;
+
+import com.automation.bot.config.TestRunnerProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Server socket nhận event từ ResultStreamListener (framework) → LiveRunResult của từng run.
+ *
+ * Tại sao 1 socket chung thay vì 1 socket / run?
+ * → Endpoint cố định suốt đời bot, truyền cho test JVM qua -Dbot.results.socket; event mang runId
+ *   để route. Event của runId chưa register (run đã xong / bị cancel) bị bỏ qua.
+ *
+ * Transport:
+ * - tcp: chỉ bind 127.0.0.1, port do OS chọn (mặc định)
+ * - unix: Unix domain socket trong workspace-dir → chỉ user chạy bot connect được
+ *
+ * Giao thức: JSON Lines, 1 connection / TestNG execution (xem ResultStreamListener).
+ */
+@Slf4j
+@Component
+public class ResultStreamReceiver {
+
+    private final TestRunnerProperties properties;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ConcurrentMap<String, LiveRunResult> runs = new ConcurrentHashMap<>();
+
+    private final ExecutorService connectionExecutor = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "result-stream");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ServerSocketChannel server;
+    private Path unixSocketPath;
+    private volatile String endpoint;
+
+    public ResultStreamReceiver(TestRunnerProperties properties) {
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void start() {
+        TestRunnerProperties.ResultStream config = properties.getResultStream();
+        if (!config.isEnabled()) {
+            return;
+        }
+        try {
+            if ("unix".equalsIgnoreCase(config.getTransport())) {
+                unixSocketPath = config.getSocketPath() != null
+                        ? Path.of(config.getSocketPath())
+                        : Path.of(properties.getWorkspaceDir(), ".results.sock");
+                Files.createDirectories(unixSocketPath.toAbsolutePath().getParent());
+                // Socket file còn sót từ lần chạy trước → bind fail
+                Files.deleteIfExists(unixSocketPath);
+                server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+                server.bind(UnixDomainSocketAddress.of(unixSocketPath));
+                endpoint = "unix:" + unixSocketPath.toAbsolutePath();
+            } else {
+                server = ServerSocketChannel.open();
+                server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), config.getPort()));
+                InetSocketAddress bound = (InetSocketAddress) server.getLocalAddress();
+                endpoint = "tcp:" + bound.getAddress().getHostAddress() + ":" + bound.getPort();
+            }
+        } catch (IOException e) {
+            log.warn("Result stream disabled, cannot bind socket: {}", e.getMessage());
+            return;
+        }
+        connectionExecutor.execute(this::acceptLoop);
+        log.info("Result stream listening on {}", endpoint);
+    }
+
+    /**
+     * Giá trị cho -Dbot.results.socket của test JVM; null nếu stream tắt / bind lỗi.
+     */
+    public String endpoint() {
+        return endpoint;
+    }
+
+    /** Gọi trước khi start run — event của run này bắt đầu được ghi nhận */
+    public LiveRunResult register(String runId) {
+        return runs.computeIfAbsent(runId, LiveRunResult::new);
+    }
+
+    public LiveRunResult get(String runId) {
+        return runs.get(runId);
+    }
+
+    public void unregister(String runId) {
+        runs.remove(runId);
+    }
+
+    /** Grace chờ runFinish sau khi process thoát */
+    public Duration grace() {
+        return Duration.ofSeconds(properties.getResultStream().getGraceSeconds());
+    }
+
+    private void acceptLoop() {
+        while (server.isOpen()) {
+            try {
+                SocketChannel channel = server.accept();
+                connectionExecutor.execute(() -> handle(channel));
+            } catch (IOException e) {
+                if (server.isOpen()) {
+                    log.warn("Result stream accept failed: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void handle(SocketChannel channel) {
+        LiveRunResult run = null;
+        try (channel; BufferedReader reader = new BufferedReader(
+                Channels.newReader(channel, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode event = objectMapper.readTree(line);
+                if (run == null) {
+                    run = runs.get(event.path("runId").asText(""));
+                    if (run == null) {
+                        log.debug("Ignoring result stream for unknown run {}", event.path("runId").asText());
+                        return;
+                    }
+                }
+                dispatch(run, event);
+            }
+        } catch (IOException e) {
+            log.warn("[{}] Result stream connection failed: {}",
+                    run != null ? run.getRunId() : "?", e.getMessage());
+        }
+    }
+
+    static void dispatch(LiveRunResult run, JsonNode event) {
+        String type = event.path("type").asText();
+        switch (type) {
+            case "runStart" -> run.runStarted();
+            case "runFinish" -> run.runFinished();
+            case "expected" -> run.expected(event.path("count").asInt());
+            case "testStart", "testFinish" -> run.accept(new LiveRunResult.TestEvent(
+                    type,
+                    event.path("className").asText(null),
+                    event.path("method").asText(null),
+                    textOrNull(event, "parameters"),
+                    textOrNull(event, "status"),
+                    event.path("durationMillis").asLong(),
+                    textOrNull(event, "message"),
+                    textOrNull(event, "errorType")));
+            default -> log.debug("[{}] Unknown result stream event: {}", run.getRunId(), type);
+        }
+    }
+
+    private static String textOrNull(JsonNode event, String field) {
+        JsonNode value = event.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        try {
+            if (server != null) {
+                server.close();
+            }
+            if (unixSocketPath != null) {
+                Files.deleteIfExists(unixSocketPath);
+            }
+        } catch (IOException e) {
+            log.debug("Failed to close result stream socket: {}", e.getMessage());
+        }
+        connectionExecutor.shutdownNow();
+    }
+}
@@ -4,14 +4,29 @@ import com.automation.bot.parser.model.TestCase;
 import com.automation.bot.parser.model.TestSuite;
 import com.automation.bot.runner.RunStatus;
 import com.automation.bot.runner.TestRunResult;
-import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Parse Surefire XML reports từ target/surefire-reports/ directory.
@@ -21,19 +36,44 @@ import java.util.List;
  * → XML là structured data, có schema chuẩn → reliable parsing.
  * → Có đầy đủ thông tin: tên test, thời gian, failure message, stacktrace.
  * → Allure cũng đọc từ XML/JSON, không từ console.
+ *
+ * Tại sao StAX streaming thay vì Jackson XmlMapper?
+ * → XmlMapper dựng cả object graph, kể cả <system-out> và stacktrace — với Selenium log verbose
+ *   mỗi file vài MB chỉ để lấy counts + tên test.
+ * → StAX chỉ giữ attribute cần dùng, failure message cắt còn MAX_MESSAGE_CHARS, bỏ qua body
+ *   system-out/system-err/stacktrace mà không tạo String.
+ * → Mỗi file parse độc lập → parse song song trên pool nhỏ (benchmark: src/jmh, profile benchmark).
  */
 @Slf4j
 @Component
 public class SurefireReportParser {
 
-    private final XmlMapper xmlMapper = new XmlMapper();
+    /** Failure message chỉ để hiện trên Telegram → không cần giữ cả trang assertion dump */
+    static final int MAX_MESSAGE_CHARS = 500;
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createInputFactory();
+
+    private final ExecutorService parseExecutor = Executors.newFixedThreadPool(
+            Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors())), r -> {
+                Thread thread = new Thread(r, "surefire-parse");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    /**
+     * Parse tất cả TEST-*.xml files trong {frameworkPath}/target/surefire-reports (chạy mvn test thủ công).
+     */
+    public List<TestSuite> parseReports(String frameworkPath) {
+        return parseReports(Path.of(frameworkPath, "target", "surefire-reports"));
+    }
 
     /**
      * Parse tất cả TEST-*.xml files trong surefire-reports directory.
      * Mỗi test class tạo ra 1 file XML riêng.
+     * Bot truyền vào RunWorkspace.getSurefireReportsDir() → chỉ đọc suites của đúng run đó.
      */
-    public List<TestSuite> parseReports(String frameworkPath) {
-        File reportsDir = new File(frameworkPath, "target/surefire-reports");
+    public List<TestSuite> parseReports(Path surefireReportsDir) {
+        File reportsDir = surefireReportsDir.toFile();
         List<TestSuite> suites = new ArrayList<>();
 
         if (!reportsDir.exists() || !reportsDir.isDirectory()) {
@@ -46,21 +86,179 @@ public class SurefireReportParser {
             log.warn("No Surefire XML reports found in: {}", reportsDir.getAbsolutePath());
             return suites;
         }
+        Arrays.sort(xmlFiles, Comparator.comparing(File::getName));
+
+        if (xmlFiles.length == 1) {
+            addIfParsed(suites, xmlFiles[0]);
+            return suites;
+        }
 
+        List<Future<TestSuite>> futures = new ArrayList<>(xmlFiles.length);
         for (File xmlFile : xmlFiles) {
+            futures.add(parseExecutor.submit(() -> parseFileLogged(xmlFile)));
+        }
+        for (Future<TestSuite> future : futures) {
             try {
-                TestSuite suite = xmlMapper.readValue(xmlFile, TestSuite.class);
-                suites.add(suite);
-                log.debug("Parsed {}: tests={}, failures={}, errors={}", xmlFile.getName(),
-                        suite.getTests(), suite.getFailures(), suite.getErrors());
-            } catch (Exception e) {
-                log.error("Failed to parse {}: {}", xmlFile.getName(), e.getMessage());
+                TestSuite suite = future.get();
+                if (suite != null) {
+                    suites.add(suite);
+                }
+            } catch (InterruptedException e) {
+                futures.forEach(f -> f.cancel(true));
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                log.error("Failed to parse Surefire report: {}", e.getCause().getMessage());
             }
         }
 
         return suites;
     }
 
+    private void addIfParsed(List<TestSuite> suites, File xmlFile) {
+        TestSuite suite = parseFileLogged(xmlFile);
+        if (suite != null) {
+            suites.add(suite);
+        }
+    }
+
+    private TestSuite parseFileLogged(File xmlFile) {
+        try {
+            TestSuite suite = parseFile(xmlFile.toPath());
+            log.debug("Parsed {}: tests={}, failures={}, errors={}", xmlFile.getName(),
+                    suite.getTests(), suite.getFailures(), suite.getErrors());
+            return suite;
+        } catch (Exception e) {
+            log.error("Failed to parse {}: {}", xmlFile.getName(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Parse 1 file TEST-*.xml bằng StAX. Chỉ đọc attribute của testsuite/testcase/failure/error/skipped,
+     * mọi element khác (system-out, properties, rerunFailure...) bị skip nguyên subtree.
+     */
+    static TestSuite parseFile(Path xmlFile) throws IOException, XMLStreamException {
+        try (InputStream in = Files.newInputStream(xmlFile)) {
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(in);
+            try {
+                return readSuite(reader);
+            } finally {
+                reader.close();
+            }
+        }
+    }
+
+    private static TestSuite readSuite(XMLStreamReader reader) throws XMLStreamException {
+        TestSuite suite = new TestSuite();
+        TestCase current = null;
+
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                switch (reader.getLocalName()) {
+                    case "testsuite" -> {
+                        suite.setName(reader.getAttributeValue(null, "name"));
+                        suite.setTests(intAttr(reader, "tests"));
+                        suite.setFailures(intAttr(reader, "failures"));
+                        suite.setErrors(intAttr(reader, "errors"));
+                        suite.setSkipped(intAttr(reader, "skipped"));
+                        suite.setTime(doubleAttr(reader, "time"));
+                    }
+                    case "testcase" -> {
+                        current = new TestCase();
+                        current.setName(reader.getAttributeValue(null, "name"));
+                        current.setClassname(reader.getAttributeValue(null, "classname"));
+                        current.setTime(doubleAttr(reader, "time"));
+                    }
+                    case "failure" -> {
+                        if (current != null) {
+                            current.setFailure(readFailure(reader));
+                        }
+                        skipElement(reader);
+                    }
+                    case "error" -> {
+                        if (current != null) {
+                            current.setError(readFailure(reader));
+                        }
+                        skipElement(reader);
+                    }
+                    case "skipped" -> {
+                        if (current != null) {
+                            String message = reader.getAttributeValue(null, "message");
+                            current.setSkipped(message != null ? truncate(message) : "");
+                        }
+                        skipElement(reader);
+                    }
+                    default -> skipElement(reader);
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT && "testcase".equals(reader.getLocalName())) {
+                suite.getTestCases().add(current);
+                current = null;
+            }
+        }
+        return suite;
+    }
+
+    private static TestCase.Failure readFailure(XMLStreamReader reader) {
+        TestCase.Failure failure = new TestCase.Failure();
+        String message = reader.getAttributeValue(null, "message");
+        failure.setMessage(message != null ? truncate(message) : null);
+        failure.setType(reader.getAttributeValue(null, "type"));
+        return failure;
+    }
+
+    /** Reader đang ở START_ELEMENT → đi tới END_ELEMENT tương ứng, không đọc text */
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private static int intAttr(XMLStreamReader reader, String name) {
+        String value = reader.getAttributeValue(null, name);
+        if (value == null || value.isBlank()) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /** Surefire cũ ghi time kiểu "1,234.5" → bỏ dấu phân cách hàng nghìn */
+    private static double doubleAttr(XMLStreamReader reader, String name) {
+        String value = reader.getAttributeValue(null, name);
+        if (value == null || value.isBlank()) {
+            return 0;
+        }
+        try {
+            return Double.parseDouble(value.replace(",", "").trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= MAX_MESSAGE_CHARS ? message : message.substring(0, MAX_MESSAGE_CHARS) + "...";
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        // Report do Surefire sinh ra nhưng vẫn tắt DTD/external entity (XXE)
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        return factory;
+    }
+
     /**
      * Aggregate kết quả từ nhiều TestSuite → 1 TestRunResult.
      */
@@ -106,4 +304,17 @@ public class SurefireReportParser {
         }
         return failedTests;
     }
+
+    @PreDestroy
+    public void shutdown() {
+        parseExecutor.shutdown();
+        try {
+            if (!parseExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+                parseExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            parseExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
 }
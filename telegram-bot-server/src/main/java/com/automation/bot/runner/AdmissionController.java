@@ -0,0 +1,362 @@
+package com.automation.bot.runner;
+
+import com.automation.bot.config.TestRunnerProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Quyết định có start run tiếp theo hay chưa dựa trên RAM trống, CPU load và số Chrome đang sống.
+ *
+ * Tại sao không dùng max-concurrent-runs cố định?
+ * → 3 là con số đoán cho máy 16GB: máy 64GB bị lãng phí, laptop đang chạy IDE + Docker thì vẫn swap.
+ * → Controller đo máy thật (OperatingSystemMXBean + ProcessHandle) trên thread nền mỗi sample-interval,
+ *   nằm trong khoảng hard floor..ceiling cấu hình.
+ *
+ * Tại sao tính thêm memory cho run vừa start (ramp-up)?
+ * → Run mới mất 20-40s (Maven startup) mới mở Chrome → RAM trống chưa giảm. Không trừ trước thì
+ *   3 worker rảnh cùng lúc đều thấy "còn RAM" và cùng start.
+ *
+ * RAM trống = free memory OS báo (Linux: không tính page cache) → ước lượng thiên về an toàn.
+ * enabled = false → chỉ giới hạn bởi max-concurrent-runs như trước.
+ *
+ * bot.runner.grid.enabled → browser chạy trên node Grid, RAM máy bot không còn là giới hạn:
+ * run start khi Grid còn đủ slot trống cho browser của run (sessions-per-run, trừ slot giữ cho run
+ * đang ramp-up cùng browser), ceiling = grid.max-runs.
+ */
+@Slf4j
+@Component
+public class AdmissionController {
+
+    private static final long MB = 1024 * 1024;
+
+    /**
+     * 1 lần đo máy.
+     * @param cpuLoad CPU load hệ thống 0..1, -1 nếu OS không hỗ trợ
+     */
+    public record Sample(long freeMemoryMb, long totalMemoryMb, double cpuLoad,
+                         int browserProcesses, int driverProcesses, Instant takenAt) {
+    }
+
+    /**
+     * @param running số run đang chạy lúc quyết định
+     * @param reason  lý do ngắn gọn — hiện trên /status
+     */
+    public record Decision(boolean admitted, int running, String reason, Sample sample, Instant decidedAt) {
+    }
+
+    private final TestRunnerProperties.Admission config;
+    private final TestRunnerProperties.Grid grid;
+    private final int staticLimit;
+    private final String defaultBrowser;
+    private final Supplier<Sample> sampler;
+    private final Supplier<Map<String, Integer>> gridFreeSlots;
+    private final Clock clock;
+
+    /** Admit các run gần đây — run trong cửa sổ ramp-up chưa chiếm RAM / slot Grid thật */
+    private final Deque<Admitted> recentAdmissions = new ArrayDeque<>();
+    private volatile Sample cachedSample;
+    private volatile Map<String, Integer> cachedGridFreeSlots;
+    private ScheduledExecutorService samplerThread;
+    private volatile Decision lastDecision;
+    private volatile Decision lastDeferral;
+
+    @Autowired
+    public AdmissionController(TestRunnerProperties properties, GridStatusClient gridStatus) {
+        this(properties, AdmissionController::systemSample, gridStatus::freeSlots, Clock.systemUTC());
+    }
+
+    AdmissionController(TestRunnerProperties properties, Supplier<Sample> sampler, Clock clock) {
+        this(properties, sampler, () -> null, clock);
+    }
+
+    AdmissionController(TestRunnerProperties properties, Supplier<Sample> sampler,
+                        Supplier<Map<String, Integer>> gridFreeSlots, Clock clock) {
+        this.config = properties.getAdmission();
+        this.grid = properties.getGrid();
+        this.staticLimit = properties.getMaxConcurrentRuns();
+        this.defaultBrowser = properties.getDefaultBrowser();
+        this.sampler = sampler;
+        this.gridFreeSlots = gridFreeSlots;
+        this.clock = clock;
+        if (grid.isEnabled()) {
+            log.info("Admission by Selenium Grid slots: {}..{} runs, {} sessions/run, grid {}",
+                    floor(), ceiling(), sessionsPerRun(), grid.getUrl());
+        } else if (config.isEnabled()) {
+            log.info("Admission control enabled: {}..{} runs, {} MB/run, reserve {} MB, max CPU {}",
+                    floor(), ceiling(), config.getMemoryPerRunMb(), config.getReserveMemoryMb(),
+                    config.getMaxCpuLoad());
+        }
+    }
+
+    /** Số worker tối đa cần tạo */
+    public int ceiling() {
+        if (grid.isEnabled()) {
+            return Math.max(floor(), grid.getMaxRuns());
+        }
+        return config.isEnabled() ? Math.max(floor(), config.getMaxRuns()) : staticLimit;
+    }
+
+    public int floor() {
+        if (grid.isEnabled()) {
+            return 1;
+        }
+        return config.isEnabled() ? Math.max(1, config.getMinRuns()) : staticLimit;
+    }
+
+    public Duration sampleInterval() {
+        return Duration.ofSeconds(Math.max(1, config.getSampleIntervalSeconds()));
+    }
+
+    /** {@link #admit(int, String)} cho run dùng default-browser */
+    public boolean admit(int running) {
+        return admit(running, defaultBrowser);
+    }
+
+    /**
+     * Có start thêm 1 run dùng {@code browser} khi đang có {@code running} run chạy không. Admit → giữ chỗ
+     * RAM / slot Grid cho run đó trong cửa sổ ramp-up.
+     */
+    public synchronized boolean admit(int running, String browser) {
+        browser = browser != null ? browser : defaultBrowser;
+        Decision decision = decide(running, browser);
+        if (decision.admitted()) {
+            recentAdmissions.addLast(new Admitted(decision.decidedAt(), GridStatusClient.browserKey(browser)));
+        } else {
+            Decision previous = lastDeferral;
+            if (previous == null || !previous.reason().equals(decision.reason())) {
+                log.info("Deferring next run: {}", decision.reason());
+            }
+            lastDeferral = decision;
+        }
+        lastDecision = decision;
+        return decision.admitted();
+    }
+
+    /** {@link #capacity(int, String)} cho run dùng default-browser */
+    public int capacity(int running) {
+        return capacity(running, defaultBrowser);
+    }
+
+    /**
+     * Ước lượng tổng số run dùng {@code browser} máy / Grid chịu được ngay lúc này — dùng cho free slots
+     * (sharding) và ETA.
+     */
+    public synchronized int capacity(int running, String browser) {
+        browser = browser != null ? browser : defaultBrowser;
+        if (grid.isEnabled()) {
+            int free = gridFreeSlots(browser);
+            int extra = free < 0 ? 0
+                    : Math.max(0, free - rampingUp(browser) * sessionsPerRun()) / sessionsPerRun();
+            return Math.max(floor(), Math.min(ceiling(), running + extra));
+        }
+        if (!config.isEnabled()) {
+            return staticLimit;
+        }
+        Sample sample = cachedSample;
+        if (sample == null) {
+            return floor();
+        }
+        long headroom = sample.freeMemoryMb() - config.getReserveMemoryMb()
+                - (long) rampingUp() * config.getMemoryPerRunMb();
+        int extra = cpuOverloaded(sample) ? 0 : (int) Math.max(0, headroom / Math.max(1, config.getMemoryPerRunMb()));
+        if (config.getMaxBrowsers() > 0) {
+            extra = Math.min(extra, Math.max(0, config.getMaxBrowsers() - sample.browserProcesses()));
+        }
+        return Math.max(floor(), Math.min(ceiling(), running + extra));
+    }
+
+    public Decision getLastDecision() {
+        return lastDecision;
+    }
+
+    public Decision getLastDeferral() {
+        return lastDeferral;
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled() || grid.isEnabled();
+    }
+
+    /** Bắt đầu đo nền — lần đo đầu chạy ngay, trước đó chỉ floor được admit */
+    @PostConstruct
+    public void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        samplerThread = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "admission-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        samplerThread.scheduleWithFixedDelay(this::refresh, 0, sampleInterval().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /** 1 lần đo: Grid /status khi bật grid, ngược lại RAM/CPU/process của máy */
+    void refresh() {
+        try {
+            if (grid.isEnabled()) {
+                cachedGridFreeSlots = gridFreeSlots.get();
+            } else if (config.isEnabled()) {
+                cachedSample = sampler.get();
+            }
+        } catch (Exception e) {
+            // Exception lọt ra làm scheduleWithFixedDelay dừng hẳn → giữ giá trị cũ, lần sau đo lại
+            log.warn("Admission sampling failed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (samplerThread != null) {
+            samplerThread.shutdownNow();
+        }
+    }
+
+    private Decision decide(int running, String browser) {
+        Instant now = clock.instant();
+        if (grid.isEnabled()) {
+            return decideByGrid(running, browser, now);
+        }
+        if (!config.isEnabled()) {
+            return new Decision(running < staticLimit, running, "static limit " + staticLimit, null, now);
+        }
+        if (running < floor()) {
+            return new Decision(true, running, "below floor (" + floor() + ")", null, now);
+        }
+        if (running >= ceiling()) {
+            return new Decision(false, running, "ceiling reached (" + ceiling() + ")", null, now);
+        }
+
+        Sample sample = cachedSample;
+        if (sample == null) {
+            return new Decision(false, running, "waiting for first sample", null, now);
+        }
+        long needed = (long) (rampingUp() + 1) * config.getMemoryPerRunMb() + config.getReserveMemoryMb();
+        if (sample.freeMemoryMb() < needed) {
+            return new Decision(false, running,
+                    "free memory " + sample.freeMemoryMb() + " MB < " + needed + " MB needed", sample, now);
+        }
+        if (cpuOverloaded(sample)) {
+            return new Decision(false, running,
+                    "CPU load " + percent(sample.cpuLoad()) + " > " + percent(config.getMaxCpuLoad()), sample, now);
+        }
+        if (config.getMaxBrowsers() > 0 && sample.browserProcesses() >= config.getMaxBrowsers()) {
+            return new Decision(false, running,
+                    sample.browserProcesses() + " browsers alive (max " + config.getMaxBrowsers() + ")", sample, now);
+        }
+        return new Decision(true, running, "headroom " + sample.freeMemoryMb() + " MB free, CPU "
+                + percent(sample.cpuLoad()), sample, now);
+    }
+
+    private Decision decideByGrid(int running, String browser, Instant now) {
+        if (running < floor()) {
+            return new Decision(true, running, "below floor (" + floor() + ")", null, now);
+        }
+        if (running >= ceiling()) {
+            return new Decision(false, running, "ceiling reached (" + ceiling() + ")", null, now);
+        }
+        int free = gridFreeSlots(browser);
+        if (free < 0) {
+            return new Decision(false, running, "grid status unavailable", null, now);
+        }
+        int needed = (rampingUp(browser) + 1) * sessionsPerRun();
+        if (free < needed) {
+            return new Decision(false, running,
+                    "grid: " + free + " free " + browser + " slots < " + needed + " needed", null, now);
+        }
+        return new Decision(true, running, "grid: " + free + " free " + browser + " slots", null, now);
+    }
+
+    private int sessionsPerRun() {
+        return Math.max(1, grid.getSessionsPerRun());
+    }
+
+    /** Slot trống cho {@code browser} theo lần đo nền gần nhất, -1 nếu Grid không trả lời / chưa đo */
+    private int gridFreeSlots(String browser) {
+        Map<String, Integer> free = cachedGridFreeSlots;
+        if (free == null) {
+            return -1;
+        }
+        return free.getOrDefault(GridStatusClient.browserKey(browser), 0);
+    }
+
+    private boolean cpuOverloaded(Sample sample) {
+        return sample.cpuLoad() >= 0 && sample.cpuLoad() > config.getMaxCpuLoad();
+    }
+
+    /** Số run admit trong cửa sổ ramp-up (chưa kịp mở Chrome) */
+    private int rampingUp() {
+        Instant cutoff = clock.instant().minusSeconds(config.getRampUpSeconds());
+        while (!recentAdmissions.isEmpty() && recentAdmissions.peekFirst().at().isBefore(cutoff)) {
+            recentAdmissions.removeFirst();
+        }
+        return recentAdmissions.size();
+    }
+
+    /** Như rampingUp() nhưng chỉ đếm run cùng browser — chỉ chúng giữ chỗ slot Grid của browser đó */
+    private int rampingUp(String browser) {
+        rampingUp();
+        String key = GridStatusClient.browserKey(browser);
+        return (int) recentAdmissions.stream().filter(admitted -> admitted.browser().equals(key)).count();
+    }
+
+    /** 1 lần admit: lúc nào, browser gì */
+    private record Admitted(Instant at, String browser) {
+    }
+
+    private static String percent(double load) {
+        return load < 0 ? "n/a" : String.format(Locale.ROOT, "%.0f%%", load * 100);
+    }
+
+    static Sample systemSample() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        long free = 0;
+        long total = 0;
+        double cpu = -1;
+        if (os instanceof com.sun.management.OperatingSystemMXBean hotspot) {
+            free = hotspot.getFreeMemorySize() / MB;
+            total = hotspot.getTotalMemorySize() / MB;
+            cpu = hotspot.getCpuLoad();
+        }
+        if (cpu < 0 && os.getSystemLoadAverage() >= 0) {
+            cpu = os.getSystemLoadAverage() / os.getAvailableProcessors();
+        }
+
+        int browsers = 0;
+        int drivers = 0;
+        for (ProcessHandle process : ProcessHandle.allProcesses().toList()) {
+            ProcessHandle.Info info = process.info();
+            String command = info.command().map(c -> Path.of(c).getFileName().toString().toLowerCase(Locale.ROOT))
+                    .orElse("");
+            if (command.startsWith("chromedriver")) {
+                drivers++;
+            } else if (command.contains("chrome") || command.contains("chromium")) {
+                // Renderer/GPU process con có --type=..., chỉ đếm process browser chính
+                List<String> args = info.arguments().map(List::of).orElse(List.of());
+                if (args.stream().noneMatch(arg -> arg.startsWith("--type="))) {
+                    browsers++;
+                }
+            }
+        }
+        return new Sample(free, total, cpu, browsers, drivers, Instant.now());
+    }
+}
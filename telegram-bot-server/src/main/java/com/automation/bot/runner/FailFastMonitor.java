@@ -0,0 +1,117 @@
+package com.automation.bot.runner;
+
+import com.automation.bot.parser.ConsoleProgressParser;
+import com.automation.bot.parser.LiveRunResult;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Đếm test fail từ LiveRunResult và dừng run sớm khi vượt ngưỡng (option failfast=N).
+ *
+ * Tại sao cần thêm heuristic "cùng root cause"?
+ * → Môi trường hỏng (DB down, login lỗi, base-url sai) làm mọi test fail với cùng 1 exception,
+ *   mỗi test lại chờ hết explicit wait. 3 lần cùng nguyên nhân đã đủ kết luận, không cần chờ đủ N.
+ * → Root cause = exception type + dòng đầu message, số bị chuẩn hóa (id, timeout, port khác nhau
+ *   giữa các test vẫn tính là cùng nguyên nhân).
+ *
+ * Result stream tắt → không có event nào, monitor đếm marker FAILED trên console qua consoleFailures().
+ * Console không có exception/message → chỉ ngưỡng N áp dụng, heuristic cùng root cause không dùng được.
+ *
+ * Trigger đúng 1 lần — test retry hoặc test fail tiếp trong lúc process đang bị kill không gọi abort lại.
+ * Callback chạy trên thread đọc socket → abort chỉ nên kill process + gửi message.
+ */
+@Slf4j
+public class FailFastMonitor implements Consumer<LiveRunResult.TestEvent> {
+
+    private static final int MAX_CAUSE_CHARS = 120;
+
+    private final int maxFailures;
+    private final int sameCauseThreshold;
+    private final Consumer<String> abort;
+
+    private final Map<String, Integer> causes = new HashMap<>();
+    private final AtomicBoolean triggered = new AtomicBoolean();
+    private int failures;
+    private volatile String reason;
+
+    /**
+     * @param maxFailures        số test fail tối đa, sau đó dừng run
+     * @param sameCauseThreshold cùng 1 root cause lặp lại N lần → dừng, 0 = tắt
+     * @param abort              nhận lý do dừng, kill process của run
+     */
+    public FailFastMonitor(int maxFailures, int sameCauseThreshold, Consumer<String> abort) {
+        this.maxFailures = maxFailures;
+        this.sameCauseThreshold = sameCauseThreshold;
+        this.abort = abort;
+    }
+
+    @Override
+    public void accept(LiveRunResult.TestEvent event) {
+        if (!"testFinish".equals(event.type()) || !event.isFailure() || triggered.get()) {
+            return;
+        }
+        String trigger = null;
+        synchronized (this) {
+            failures++;
+            String cause = rootCause(event);
+            int sameCause = causes.merge(cause, 1, Integer::sum);
+            if (failures >= maxFailures) {
+                trigger = failures + " failed tests (limit " + maxFailures + ")";
+            } else if (sameCauseThreshold > 0 && sameCause >= sameCauseThreshold) {
+                trigger = sameCause + " failures with the same cause: " + cause;
+            }
+        }
+        if (trigger != null && triggered.compareAndSet(false, true)) {
+            reason = trigger;
+            log.info("Fail-fast triggered: {}", trigger);
+            abort.accept(trigger);
+        }
+    }
+
+    /**
+     * Output listener đếm dòng "--- Test FAILED: name ---" như event testFinish FAILED.
+     * Chỉ dùng khi result stream tắt — bật cả 2 nguồn thì mỗi test fail bị đếm 2 lần.
+     */
+    public Consumer<String> consoleFailures() {
+        return line -> {
+            String test = ConsoleProgressParser.failedTest(line);
+            if (test != null) {
+                accept(new LiveRunResult.TestEvent("testFinish", null, test, null, "FAILED", 0, null, null));
+            }
+        };
+    }
+
+    public boolean isTriggered() {
+        return triggered.get();
+    }
+
+    /** Lý do dừng, null nếu chưa trigger */
+    public String getReason() {
+        return reason;
+    }
+
+    /**
+     * errorType + dòng đầu message, chữ số → "#": "Timed out after 10 seconds waiting for #login"
+     * và "... 15 seconds ..." là cùng nguyên nhân.
+     */
+    static String rootCause(LiveRunResult.TestEvent event) {
+        String type = event.errorType() != null ? event.errorType() : "unknown";
+        int dot = type.lastIndexOf('.');
+        String simpleType = dot >= 0 ? type.substring(dot + 1) : type;
+
+        String message = event.message() != null ? event.message().strip() : "";
+        int newline = message.indexOf('\n');
+        if (newline >= 0) {
+            message = message.substring(0, newline).strip();
+        }
+        message = message.replaceAll("\\d+", "#").toLowerCase(Locale.ROOT);
+
+        String cause = message.isEmpty() ? simpleType : simpleType + ": " + message;
+        return cause.length() > MAX_CAUSE_CHARS ? cause.substring(0, MAX_CAUSE_CHARS) + "..." : cause;
+    }
+}
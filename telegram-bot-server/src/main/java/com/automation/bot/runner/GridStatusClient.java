@@ -0,0 +1,97 @@
+package com.automation.bot.runner;
+
+import com.automation.bot.config.TestRunnerProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Đọc số browser slot còn trống của Selenium Grid (GET {grid.url}/status) cho AdmissionController.
+ *
+ * Tại sao hỏi Grid thay vì đo RAM máy bot?
+ * → Bật grid thì browser chạy trên node, không trên máy bot — RAM/Chrome local không còn nói lên gì.
+ * → Slot trống của node là giới hạn thật: run start khi Grid hết slot chỉ nằm chờ trong queue của Grid
+ *   rồi timeout, trong khi /status của bot vẫn báo "running".
+ *
+ * Chỉ đếm slot không có session trên node đang UP, tách theo stereotype.browserName — slot Firefox trống
+ * không giúp gì cho run Chrome. Không gọi được Grid → null (không biết).
+ */
+@Slf4j
+@Component
+public class GridStatusClient {
+
+    private final TestRunnerProperties.Grid config;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public GridStatusClient(TestRunnerProperties properties) {
+        this.config = properties.getGrid();
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(Math.max(1, config.getStatusTimeoutSeconds())))
+                .build();
+    }
+
+    /** @return số slot trống theo browser (key = {@link #browserKey}), null nếu Grid không trả lời */
+    public Map<String, Integer> freeSlots() {
+        HttpRequest request = HttpRequest.newBuilder(statusUri())
+                .timeout(Duration.ofSeconds(Math.max(1, config.getStatusTimeoutSeconds())))
+                .GET()
+                .build();
+        try {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                log.warn("Grid status {} returned HTTP {}", request.uri(), response.statusCode());
+                return null;
+            }
+            return freeSlots(objectMapper.readTree(response.body()));
+        } catch (IOException e) {
+            log.warn("Cannot reach Grid at {}: {}", request.uri(), e.getMessage());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /** Đếm slot trống theo browser từ response /status của Grid 4 */
+    static Map<String, Integer> freeSlots(JsonNode status) {
+        Map<String, Integer> free = new HashMap<>();
+        for (JsonNode node : status.path("value").path("nodes")) {
+            if (!"UP".equalsIgnoreCase(node.path("availability").asText())) {
+                continue;
+            }
+            for (JsonNode slot : node.path("slots")) {
+                String browser = browserKey(slot.path("stereotype").path("browserName").asText());
+                if (slot.path("session").isMissingNode() || slot.path("session").isNull()) {
+                    free.merge(browser, 1, Integer::sum);
+                } else {
+                    free.putIfAbsent(browser, 0);
+                }
+            }
+        }
+        return free;
+    }
+
+    /** Tên browser của bot/framework (chrome, firefox, edge) → browserName W3C mà node Grid khai báo */
+    static String browserKey(String browser) {
+        String key = browser == null ? "" : browser.trim().toLowerCase(Locale.ROOT);
+        return "edge".equals(key) ? "microsoftedge" : key;
+    }
+
+    private URI statusUri() {
+        // remote.url của framework thường có /wd/hub — /status nằm ở gốc Grid
+        String base = config.getUrl().replaceAll("/+$", "").replaceFirst("/wd/hub$", "");
+        return URI.create(base + "/status");
+    }
+}
@@ -0,0 +1,146 @@
+package com.automation.bot.runner;
+
+import com.automation.bot.config.TestRunnerProperties;
+import com.automation.bot.parser.ResultStreamReceiver;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executor mặc định: mỗi run = 1 process `mvn test` mới.
+ *
+ * Tại sao vẫn giữ làm default dù chậm hơn warm mode?
+ * → Isolation tuyệt đối: mỗi run có JVM, classpath, system properties riêng.
+ * → Luôn chạy code mới nhất (Maven tự compile lại nếu source thay đổi).
+ * → Giống CI/CD (mvn test) → kết quả nhất quán.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProcessTestExecutor implements TestExecutor {
+
+    private final TestRunnerProperties properties;
+    private final ResultStreamReceiver resultStream;
+    private final QuarantineList quarantine;
+
+    @Override
+    public String mode() {
+        return "process";
+    }
+
+    @Override
+    public TestExecution start(TestRunRequest request, RunWorkspace workspace) throws IOException {
+        List<String> command = buildCommand(request, workspace);
+        log.info("[{}] Executing: {}", request.getRunId(), String.join(" ", command));
+
+        ProcessBuilder processBuilder = new ProcessBuilder(command)
+                .directory(new File(properties.getFrameworkPath()))
+                .redirectErrorStream(true);
+
+        // Set JAVA_HOME, MAVEN_HOME nếu cần
+        processBuilder.environment().put("MAVEN_HOME", properties.getMavenHome());
+
+        Process process = processBuilder.start();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
+
+        return new TestExecution() {
+            @Override
+            public String readLine() throws IOException {
+                return reader.readLine();
+            }
+
+            @Override
+            public boolean waitFor(long timeout, TimeUnit unit) throws InterruptedException {
+                return process.waitFor(timeout, unit);
+            }
+
+            @Override
+            public int exitCode() {
+                return process.exitValue();
+            }
+
+            @Override
+            public Process process() {
+                return process;
+            }
+
+            @Override
+            public void destroy() {
+                process.destroyForcibly();
+            }
+
+            @Override
+            public void close() {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    log.debug("[{}] Failed to close process output: {}", request.getRunId(), e.getMessage());
+                }
+            }
+        };
+    }
+
+    /**
+     * Build Maven command: mvn.cmd test -Psmoke -Denv=dev -Dbrowser=chrome -Dheadless=true
+     *   -DreportsDirectory={workspace}/surefire-reports -Dallure.results.directory={workspace}/allure-results
+     */
+    private List<String> buildCommand(TestRunRequest request, RunWorkspace workspace) {
+        List<String> command = new ArrayList<>();
+
+        command.add(properties.getMavenExecutable());
+        command.add("test");
+
+        // Maven profile (smoke, regression, api)
+        if (request.getProfile() != null && !request.getProfile().isEmpty()) {
+            command.add("-P" + request.getProfile());
+        }
+
+        // Specific test class — phải bỏ suiteXmlFile để Surefire chạy đúng class,
+        // không bị testng.xml override chạy cả suite (LoginTest, HomePageTest...).
+        // Chọn method: "CheckoutTest#testA+testB" → Surefire chỉ chạy các method đó
+        if (request.getTestClass() != null && !request.getTestClass().isEmpty()) {
+            command.add("-Dtest=" + request.getTestClass());
+            command.add("-DfailIfNoTests=false");
+            command.add("-Dsurefire.suiteXmlFiles=");
+        } else if (request.getTestClasses() != null && !request.getTestClasses().isEmpty()) {
+            // Multiple test classes (grouped command): "LoginTest,DashboardTest"
+            command.add("-Dtest=" + request.getTestClasses());
+            command.add("-DfailIfNoTests=false");
+            command.add("-Dsurefire.suiteXmlFiles=");
+        }
+
+        // Environment, browser, headless
+        command.add("-Denv=" + request.getEnv());
+        command.add("-Dbrowser=" + request.getBrowser());
+        command.add("-Dheadless=" + request.isHeadless());
+        quarantine.activeFile().ifPresent(file -> command.add("-Dquarantine.file=" + file));
+        if (properties.getGrid().isEnabled()) {
+            // Browser chạy trên node Grid (DriverFactory tạo RemoteWebDriver)
+            command.add("-Dremote=true");
+            command.add("-Dremote.url=" + properties.getGrid().getUrl());
+        }
+
+        // Output riêng của run này (pom.xml của framework map 2 property này vào Surefire/Allure)
+        command.add("-DreportsDirectory=" + workspace.getSurefireReportsDir());
+        command.add("-Dallure.results.directory=" + workspace.getAllureResultsDir());
+
+        // ResultStreamListener của framework đẩy kết quả từng test về bot qua socket
+        if (resultStream.endpoint() != null) {
+            command.add("-Dbot.results.socket=" + resultStream.endpoint());
+            command.add("-Dbot.runId=" + request.getRunId());
+        }
+
+        // Không cần build lại, chỉ chạy test
+        command.add("-Dsurefire.useFile=false");
+
+        return command;
+    }
+}
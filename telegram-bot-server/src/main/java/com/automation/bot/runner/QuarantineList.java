@@ -0,0 +1,95 @@
+package com.automation.bot.runner;
+
+import com.automation.bot.config.TestRunnerProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+
+/**
+ * Danh sách test flaky bị cách ly: MethodInterceptor của framework bỏ các test này khỏi suite smoke
+ * (quarantine.categories), regression vẫn chạy để biết khi nào test ổn định lại.
+ *
+ * Tại sao file text thay vì truyền list qua -D?
+ * → Framework đọc cùng 1 format dù chạy bằng mvn test hay warm worker, và sửa tay được khi bot tắt.
+ * → Danh sách dài không làm command line Maven dài theo.
+ *
+ * Mỗi dòng 1 "SimpleClass#method" hoặc "com.pkg.Class#method"; dòng bắt đầu bằng # là comment.
+ */
+@Slf4j
+@Component
+public class QuarantineList {
+
+    private final Path file;
+
+    public QuarantineList(TestRunnerProperties properties) {
+        this.file = Path.of(properties.getQuarantine().getFile()).toAbsolutePath().normalize();
+    }
+
+    public synchronized List<String> entries() {
+        if (!Files.isRegularFile(file)) {
+            return List.of();
+        }
+        try {
+            List<String> entries = new ArrayList<>();
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                String entry = line.trim();
+                if (!entry.isEmpty() && !entry.startsWith("#")) {
+                    entries.add(entry);
+                }
+            }
+            return entries;
+        } catch (IOException e) {
+            log.warn("Cannot read quarantine list {}: {}", file, e.getMessage());
+            return List.of();
+        }
+    }
+
+    /** @return false nếu test đã có trong danh sách */
+    public synchronized boolean add(String test) throws IOException {
+        TreeSet<String> entries = new TreeSet<>(entries());
+        if (!entries.add(test)) {
+            return false;
+        }
+        write(entries);
+        return true;
+    }
+
+    /** @return false nếu test không có trong danh sách */
+    public synchronized boolean remove(String test) throws IOException {
+        TreeSet<String> entries = new TreeSet<>(entries());
+        if (!entries.remove(test)) {
+            return false;
+        }
+        write(entries);
+        return true;
+    }
+
+    /**
+     * File truyền cho framework (-Dquarantine.file) — empty nếu danh sách rỗng, không cần truyền.
+     */
+    public Optional<Path> activeFile() {
+        return entries().isEmpty() ? Optional.empty() : Optional.of(file);
+    }
+
+    /** Ghi temp rồi move: run đang start không bao giờ đọc phải file ghi dở */
+    private void write(TreeSet<String> entries) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        StringBuilder content = new StringBuilder("# Quarantined flaky tests (managed by /flaky quarantine)\n");
+        entries.forEach(entry -> content.append(entry).append('\n'));
+        Files.writeString(temp, content, StandardCharsets.UTF_8);
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.info("Quarantine list updated: {} tests", entries.size());
+    }
+}
@@ -0,0 +1,206 @@
+package com.automation.bot.runner;
+
+import com.automation.bot.config.TestRunnerProperties;
+import com.automation.bot.parser.model.TestCase;
+import com.automation.bot.parser.model.TestSuite;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Giữ kết quả các run có test fail để nút "Rerun failed" trên message kết quả chạy lại đúng các
+ * test đó rồi ghép với phần đã pass của run gốc.
+ *
+ * Tại sao giữ cả suites trong memory thay vì đọc lại history?
+ * → History chỉ có status + duration từng test, không có failure message; merge cần đủ TestCase
+ *   để message kết quả sau rerun giống hệt message thường (failed tests + lý do).
+ * → Nút bấm thường trong vài phút sau khi có kết quả → giữ max-runs run gần nhất trong ttl là đủ,
+ *   restart bot thì nút báo hết hạn.
+ *
+ * Rerun của rerun: entry mới vẫn trỏ tới request + label gốc, suites là kết quả đã merge
+ * → bấm tiếp chỉ chạy những test vẫn còn fail.
+ */
+@Component
+public class RerunStore {
+
+    /** callback_data của nút trên message kết quả: "rerun:{runId}" */
+    public static final String CALLBACK_PREFIX = "rerun:";
+
+    /**
+     * 1 run có thể chạy lại phần fail.
+     * @param request request gốc (env, browser, headless dùng lại cho rerun)
+     * @param suites  kết quả đầy đủ của run (đã merge nếu chính nó là rerun)
+     */
+    @Getter
+    public static class Entry {
+        private final String runId;
+        private final TestRunRequest request;
+        private final String label;
+        private final List<TestSuite> suites;
+        private final Instant storedAt;
+
+        Entry(String runId, TestRunRequest request, String label, List<TestSuite> suites, Instant storedAt) {
+            this.runId = runId;
+            this.request = request;
+            this.label = label;
+            this.suites = suites;
+            this.storedAt = storedAt;
+        }
+
+        /** Tập Class#method cần chạy lại, cùng cú pháp Surefire -Dtest */
+        public String selection() {
+            return RerunStore.selection(failedTests());
+        }
+
+        public List<TestCase> failedTests() {
+            List<TestCase> failed = new ArrayList<>();
+            for (TestSuite suite : suites) {
+                for (TestCase tc : suite.getTestCases()) {
+                    if (tc.isFailed() || tc.isError()) {
+                        failed.add(tc);
+                    }
+                }
+            }
+            return failed;
+        }
+    }
+
+    private final TestRunnerProperties.Rerun config;
+    private final Clock clock;
+
+    /** runId → entry, theo thứ tự insert để bỏ entry cũ nhất khi vượt max-runs */
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    @Autowired
+    public RerunStore(TestRunnerProperties properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    RerunStore(TestRunnerProperties properties, Clock clock) {
+        this.config = properties.getRerun();
+        this.clock = clock;
+    }
+
+    /**
+     * Lưu run vừa xong nếu còn test fail chạy lại được.
+     * @param runId   run vừa xong (nút bấm mang runId này)
+     * @param request request gốc — với rerun là request của run đầu tiên
+     * @return true nếu đã lưu → message kết quả hiện nút Rerun failed
+     */
+    public boolean remember(String runId, TestRunRequest request, String label, List<TestSuite> suites) {
+        if (!config.isEnabled() || runId == null) {
+            return false;
+        }
+        Entry entry = new Entry(runId, request, label, List.copyOf(suites), clock.instant());
+        if (entry.selection().isEmpty()) {
+            return false;
+        }
+        synchronized (this) {
+            entries.put(runId, entry);
+            while (entries.size() > Math.max(1, config.getMaxRuns())) {
+                entries.remove(entries.keySet().iterator().next());
+            }
+        }
+        return true;
+    }
+
+    public synchronized Optional<Entry> find(String runId) {
+        Instant cutoff = clock.instant().minus(Duration.ofMinutes(config.getTtlMinutes()));
+        entries.values().removeIf(entry -> entry.getStoredAt().isBefore(cutoff));
+        return Optional.ofNullable(entries.get(runId));
+    }
+
+    /**
+     * "com.automation.ui.LoginTest#testA+testB,com.automation.ui.CartTest#testC".
+     * Test có data provider fail ở 1 bộ data → chạy lại cả method (Surefire/TestNG không chọn được từng bộ).
+     */
+    static String selection(List<TestCase> failedTests) {
+        Map<String, Set<String>> methodsByClass = new LinkedHashMap<>();
+        for (TestCase tc : failedTests) {
+            if (tc.getClassname() == null || tc.getName() == null) {
+                continue;
+            }
+            methodsByClass.computeIfAbsent(tc.getClassname(), k -> new LinkedHashSet<>()).add(methodName(tc));
+        }
+        List<String> entries = new ArrayList<>();
+        methodsByClass.forEach((testClass, methods) -> entries.add(testClass + "#" + String.join("+", methods)));
+        return String.join(",", entries);
+    }
+
+    /**
+     * Kết quả gộp: test case của run gốc thuộc method đã chạy lại bị thay bằng kết quả rerun,
+     * phần còn lại (đã pass / skip) giữ nguyên. Counts của suite tính lại từ test case.
+     */
+    public static List<TestSuite> merge(List<TestSuite> original, List<TestSuite> rerun) {
+        Map<String, List<TestCase>> rerunByClass = new LinkedHashMap<>();
+        Set<String> rerunMethods = new LinkedHashSet<>();
+        for (TestSuite suite : rerun) {
+            for (TestCase tc : suite.getTestCases()) {
+                String testClass = tc.getClassname() != null ? tc.getClassname() : suite.getName();
+                rerunByClass.computeIfAbsent(testClass, k -> new ArrayList<>()).add(tc);
+                rerunMethods.add(testClass + "#" + methodName(tc));
+            }
+        }
+
+        List<TestSuite> merged = new ArrayList<>();
+        for (TestSuite suite : original) {
+            List<TestCase> cases = new ArrayList<>();
+            for (TestCase tc : suite.getTestCases()) {
+                String testClass = tc.getClassname() != null ? tc.getClassname() : suite.getName();
+                if (!rerunMethods.contains(testClass + "#" + methodName(tc))) {
+                    cases.add(tc);
+                }
+            }
+            List<TestCase> replaced = rerunByClass.remove(suite.getName());
+            if (replaced != null) {
+                cases.addAll(replaced);
+            }
+            merged.add(suiteOf(suite.getName(), cases));
+        }
+        // Class không có suite riêng trong run gốc (tên suite khác classname) → thêm suite mới
+        rerunByClass.forEach((testClass, cases) -> merged.add(suiteOf(testClass, cases)));
+        return merged;
+    }
+
+    private static TestSuite suiteOf(String name, List<TestCase> cases) {
+        TestSuite suite = new TestSuite();
+        suite.setName(name);
+        for (TestCase tc : cases) {
+            suite.getTestCases().add(tc);
+            suite.setTests(suite.getTests() + 1);
+            suite.setTime(suite.getTime() + tc.getTime());
+            if (tc.isFailed()) {
+                suite.setFailures(suite.getFailures() + 1);
+            } else if (tc.isError()) {
+                suite.setErrors(suite.getErrors() + 1);
+            } else if (tc.isSkipped()) {
+                suite.setSkipped(suite.getSkipped() + 1);
+            }
+        }
+        return suite;
+    }
+
+    /** TestNG report có thể ghi "testLogin[0](data)" cho data provider → bỏ phần tham số */
+    private static String methodName(TestCase tc) {
+        String name = tc.getName();
+        int end = name.length();
+        for (char c : new char[]{'[', '('}) {
+            int index = name.indexOf(c);
+            if (index > 0) {
+                end = Math.min(end, index);
+            }
+        }
+        return name.substring(0, end).trim();
+    }
+}
@@ -0,0 +1,15 @@
+package com.automation.bot.runner;
+
+import java.util.OptionalLong;
+
+/**
+ * Ước lượng thời gian chạy của 1 request từ các run trước — TestRunQueue dùng cho
+ * short-job-first và ETA.
+ *
+ * Interface nằm ở runner để TestRunQueue không phụ thuộc trực tiếp vào history (history đã phụ thuộc runner).
+ */
+public interface RunDurationEstimator {
+
+    /** @return duration ước lượng (ms), empty nếu chưa có dữ liệu */
+    OptionalLong estimateMillis(TestRunRequest request);
+}
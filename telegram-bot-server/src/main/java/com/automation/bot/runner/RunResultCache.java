@@ -0,0 +1,262 @@
+package com.automation.bot.runner;
+
+import com.automation.bot.config.TestRunnerProperties;
+import com.automation.bot.parser.model.TestCase;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache kết quả run theo (git HEAD + hash thay đổi chưa commit của framework-path, env, browser,
+ * profile / tập test class).
+ *
+ * Tại sao cache?
+ * → Mọi người hay gõ lại /smoke trên cùng commit + env chỉ để lấy lại link report — mỗi lần tốn
+ *   1 lần chạy browser đầy đủ và chiếm 1 slot. Cùng code + cùng env trong TTL → trả ngay kết quả cũ.
+ * → Thêm "force" vào lệnh để bỏ qua cache (ví dụ env vừa deploy lại, nghi test flaky).
+ *
+ * Tại sao key gồm hash working tree chứ không chỉ HEAD?
+ * → Framework-path thường là repo đang sửa dở: sửa test rồi chạy lại mà không commit phải ra run mới.
+ *   Hash = git diff HEAD + nội dung file untracked.
+ *
+ * Không đọc được git (không phải repo, git không có trong PATH) → không cache, chạy bình thường.
+ * Chỉ cache run có kết quả đầy đủ; run fail chỉ cache khi bật cache-failed. Cache nằm trong memory —
+ * restart bot là mất, không sao vì TTL ngắn.
+ */
+@Slf4j
+@Component
+public class RunResultCache {
+
+    /**
+     * @param commit    git HEAD của framework-path
+     * @param dirtyHash hash thay đổi chưa commit, rỗng nếu working tree sạch
+     */
+    public record Revision(String commit, String dirtyHash) {
+
+        public String shortCommit() {
+            return commit.substring(0, Math.min(7, commit.length())) + (dirtyHash.isEmpty() ? "" : "+dirty");
+        }
+    }
+
+    /** Key cache: revision framework + runSpec của request (env, browser, profile, tập class) */
+    public record Key(Revision revision, String spec) {
+    }
+
+    /** 1 kết quả đã cache. allureUrl gắn sau vì Allure report generate nền sau khi có kết quả */
+    @Getter
+    public static class Entry {
+        private final String runId;
+        private final String label;
+        private final Revision revision;
+        private final TestRunResult result;
+        private final List<TestCase> failedTests;
+        private final Instant cachedAt;
+        private volatile String allureUrl;
+
+        Entry(String runId, String label, Revision revision, TestRunResult result,
+              List<TestCase> failedTests, Instant cachedAt) {
+            this.runId = runId;
+            this.label = label;
+            this.revision = revision;
+            this.result = result;
+            this.failedTests = failedTests;
+            this.cachedAt = cachedAt;
+        }
+    }
+
+    public record Stats(long hits, long misses, long bypassed, int entries) {
+    }
+
+    private static final long GIT_TIMEOUT_SECONDS = 10;
+
+    private final TestRunnerProperties.ResultCache config;
+    private final Supplier<Revision> revisionSupplier;
+    private final Clock clock;
+
+    /** Key → entry, theo thứ tự insert để bỏ entry cũ nhất khi vượt max-entries */
+    private final Map<Key, Entry> entries = new LinkedHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong bypassed = new AtomicLong();
+
+    @Autowired
+    public RunResultCache(TestRunnerProperties properties) {
+        this(properties, () -> gitRevision(Path.of(properties.getFrameworkPath())), Clock.systemUTC());
+    }
+
+    RunResultCache(TestRunnerProperties properties, Supplier<Revision> revisionSupplier, Clock clock) {
+        this.config = properties.getResultCache();
+        this.revisionSupplier = revisionSupplier;
+        this.clock = clock;
+    }
+
+    /**
+     * Key cache cho request tại revision hiện tại của framework — null nếu cache tắt hoặc không đọc được git.
+     * Gọi lúc run bắt đầu: code sửa trong lúc run đang chờ queue không bị gán nhầm kết quả.
+     */
+    public Key keyFor(TestRunRequest request) {
+        if (!config.isEnabled()) {
+            return null;
+        }
+        Revision revision = revisionSupplier.get();
+        // Không theo chat như dedupKey của TestRunQueue: cùng code + env cho cùng kết quả
+        return revision == null ? null : new Key(revision, TestRunQueue.runSpec(request));
+    }
+
+    /**
+     * Tìm kết quả còn hạn cho request. force = true → bỏ qua cache (vẫn đếm để hiện trên /status).
+     */
+    public Optional<Entry> lookup(TestRunRequest request, boolean force) {
+        if (!config.isEnabled()) {
+            return Optional.empty();
+        }
+        if (force) {
+            bypassed.incrementAndGet();
+            return Optional.empty();
+        }
+        Key key = keyFor(request);
+        Entry entry = null;
+        if (key != null) {
+            synchronized (this) {
+                evictExpired();
+                entry = entries.get(key);
+            }
+        }
+        (entry != null ? hits : misses).incrementAndGet();
+        if (entry != null) {
+            log.info("[{}] Result cache hit: reusing run {} ({})", request.getRunId(), entry.getRunId(),
+                    entry.getRevision().shortCommit());
+        }
+        return Optional.ofNullable(entry);
+    }
+
+    /**
+     * Lưu kết quả run vừa xong. Bỏ qua run không có test nào, run không chạy hết (timeout, cancel,
+     * fail-fast — thiếu test, không được trả thay cho run đầy đủ) và run fail khi cache-failed tắt.
+     */
+    public void put(Key key, TestRunRequest request, String label, TestRunResult result, List<TestCase> failedTests) {
+        if (key == null || result.getTotalTests() == 0 || result.isIncomplete() || result.getErrorMessage() != null) {
+            return;
+        }
+        if (result.getStatus() != RunStatus.COMPLETED && !config.isCacheFailed()) {
+            return;
+        }
+        synchronized (this) {
+            entries.remove(key);
+            entries.put(key, new Entry(request.getRunId(), label, key.revision(), result,
+                    List.copyOf(failedTests), clock.instant()));
+            while (entries.size() > Math.max(1, config.getMaxEntries())) {
+                entries.remove(entries.keySet().iterator().next());
+            }
+        }
+    }
+
+    /** Gắn link Allure khi report generate xong — lần hit sau trả kèm link */
+    public synchronized void attachReport(Key key, String allureUrl) {
+        if (key == null || allureUrl == null) {
+            return;
+        }
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            entry.allureUrl = allureUrl;
+        }
+    }
+
+    public synchronized Stats getStats() {
+        evictExpired();
+        return new Stats(hits.get(), misses.get(), bypassed.get(), entries.size());
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    private void evictExpired() {
+        Instant cutoff = clock.instant().minus(Duration.ofMinutes(config.getTtlMinutes()));
+        entries.values().removeIf(entry -> entry.getCachedAt().isBefore(cutoff));
+    }
+
+    /**
+     * HEAD + SHA-256 của (git diff HEAD, nội dung file untracked) — chỉ trong framework-path
+     * (framework có thể là thư mục con của repo lớn hơn). Null nếu không đọc được git.
+     */
+    static Revision gitRevision(Path repo) {
+        byte[] head = git(repo, "rev-parse", "HEAD");
+        byte[] diff = git(repo, "diff", "HEAD", "--binary", "--", ".");
+        // ls-files in path tương đối với thư mục hiện tại, bỏ qua file trong .gitignore (target/...)
+        byte[] untracked = git(repo, "ls-files", "--others", "--exclude-standard");
+        if (head == null || diff == null || untracked == null) {
+            return null;
+        }
+        String commit = new String(head, StandardCharsets.UTF_8).trim();
+        if (diff.length == 0 && untracked.length == 0) {
+            return new Revision(commit, "");
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(diff);
+            for (String file : new String(untracked, StandardCharsets.UTF_8).split("\n")) {
+                if (file.isBlank()) {
+                    continue;
+                }
+                digest.update(file.getBytes(StandardCharsets.UTF_8));
+                Path path = repo.resolve(file);
+                if (Files.isRegularFile(path)) {
+                    digest.update(Files.readAllBytes(path));
+                }
+            }
+            return new Revision(commit, HexFormat.of().formatHex(digest.digest(), 0, 8));
+        } catch (IOException | NoSuchAlgorithmException e) {
+            log.debug("Cannot hash working tree of {}: {}", repo, e.getMessage());
+            return null;
+        }
+    }
+
+    private static byte[] git(Path repo, String... args) {
+        String[] command = new String[args.length + 1];
+        command[0] = "git";
+        System.arraycopy(args, 0, command, 1, args.length);
+        try {
+            Process process = new ProcessBuilder(command)
+                    .directory(repo.toFile())
+                    .redirectError(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            try (InputStream in = process.getInputStream()) {
+                in.transferTo(output);
+            }
+            if (!process.waitFor(GIT_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                return null;
+            }
+            return process.exitValue() == 0 ? output.toByteArray() : null;
+        } catch (IOException e) {
+            log.debug("git {} failed in {}: {}", args[0], repo, e.getMessage());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.automation.bot.runner;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiPredicate;
+
+/**
+ * Chọn run tiếp theo cho slot trống. Thứ tự được tính LÚC LẤY RA (không phải lúc xếp hàng)
+ * vì fair-share phụ thuộc số run mỗi user đang chạy tại thời điểm đó:
+ *
+ * 1. Run chờ quá maxWait → đi trước (chống starvation)
+ * 2. Priority class (smoke trước regression)
+ * 3. Fair share: user đang chiếm ít slot hơn đi trước → 5 lần /regression của 1 user
+ *    không chặn /login của user khác
+ * 4. Short-job-first theo duration ước lượng
+ * 5. FIFO
+ *
+ * Monitor của chính object bảo vệ mọi state; worker thread block trong take().
+ */
+class RunScheduler {
+
+    private final Duration maxWait;
+    private final List<TestRunQueue.TestRunInfo> pending = new ArrayList<>();
+    private final Map<Long, Integer> runningByUser = new HashMap<>();
+    private int running;
+    private long nextSequence;
+    private boolean closed;
+
+    RunScheduler(Duration maxWait) {
+        this.maxWait = maxWait;
+    }
+
+    synchronized void add(TestRunQueue.TestRunInfo info) {
+        info.setSequence(nextSequence++);
+        pending.add(info);
+        notifyAll();
+    }
+
+    synchronized boolean remove(TestRunQueue.TestRunInfo info) {
+        return pending.remove(info);
+    }
+
+    /**
+     * Block tới khi có run để chạy.
+     * @return run tiếp theo, null nếu scheduler đã đóng
+     */
+    synchronized TestRunQueue.TestRunInfo take() throws InterruptedException {
+        return take((running, browser) -> true, Duration.ZERO);
+    }
+
+    /**
+     * Như take() nhưng chỉ lấy run khi {@code canStart} (nhận số run đang chạy + browser của run) cho phép —
+     * AdmissionController chặn khi máy hết RAM/CPU hoặc Grid hết slot cho browser đó. Run đầu hàng bị chặn
+     * vì browser của nó → run kế tiếp dùng browser khác vẫn được xét (slot Grid mỗi browser độc lập).
+     * Bị chặn hết → kiểm tra lại mỗi {@code recheck} hoặc ngay khi có run xong.
+     */
+    synchronized TestRunQueue.TestRunInfo take(BiPredicate<Integer, String> canStart, Duration recheck)
+            throws InterruptedException {
+        while (!closed) {
+            if (pending.isEmpty()) {
+                wait();
+                continue;
+            }
+            TestRunQueue.TestRunInfo next = nextStartable(canStart);
+            if (next != null) {
+                pending.remove(next);
+                runningByUser.merge(next.getRequest().getUserId(), 1, Integer::sum);
+                running++;
+                return next;
+            }
+            wait(Math.max(1, recheck.toMillis()));
+        }
+        return null;
+    }
+
+    /** Run đầu tiên theo thứ tự mà canStart cho phép; mỗi browser chỉ hỏi 1 lần */
+    private TestRunQueue.TestRunInfo nextStartable(BiPredicate<Integer, String> canStart) {
+        Set<String> deferred = new HashSet<>();
+        for (TestRunQueue.TestRunInfo info : pending.stream().sorted(order(Instant.now())).toList()) {
+            String browser = info.getRequest().getBrowser();
+            if (deferred.contains(browser)) {
+                continue;
+            }
+            if (canStart.test(running, browser)) {
+                return info;
+            }
+            deferred.add(browser);
+        }
+        return null;
+    }
+
+    /** Gọi khi run rời slot (xong, lỗi hoặc bị cancel) */
+    synchronized void finished(TestRunQueue.TestRunInfo info) {
+        runningByUser.computeIfPresent(info.getRequest().getUserId(), (user, count) -> count > 1 ? count - 1 : null);
+        running--;
+        // Worker đang chờ admission kiểm tra lại ngay thay vì đợi hết recheck
+        notifyAll();
+    }
+
+    synchronized int runningCount() {
+        return running;
+    }
+
+    /** Pending theo đúng thứ tự sẽ được lấy ra nếu không có gì thay đổi */
+    synchronized List<TestRunQueue.TestRunInfo> pendingInOrder() {
+        return pending.stream().sorted(order(Instant.now())).toList();
+    }
+
+    synchronized Optional<TestRunQueue.TestRunInfo> findPending(String dedupKey) {
+        return pending.stream().filter(info -> dedupKey.equals(info.getDedupKey())).findFirst();
+    }
+
+    synchronized int pendingCount() {
+        return pending.size();
+    }
+
+    synchronized void close() {
+        closed = true;
+        notifyAll();
+    }
+
+    private Comparator<TestRunQueue.TestRunInfo> order(Instant now) {
+        Instant agedBefore = now.minus(maxWait);
+        return Comparator
+                .comparing((TestRunQueue.TestRunInfo info) -> !info.getEnqueuedAt().isBefore(agedBefore))
+                .thenComparingInt(TestRunQueue.TestRunInfo::getPriority)
+                .thenComparingInt(info -> runningByUser.getOrDefault(info.getRequest().getUserId(), 0))
+                .thenComparingLong(info -> info.getEstimatedDuration().toMillis())
+                .thenComparingLong(TestRunQueue.TestRunInfo::getSequence);
+    }
+}
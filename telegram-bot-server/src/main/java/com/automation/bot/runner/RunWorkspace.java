@@ -0,0 +1,34 @@
+package com.automation.bot.runner;
+
+import lombok.Getter;
+
+import java.nio.file.Path;
+
+/**
+ * Thư mục output riêng của một test run: {workspace-dir}/{runId}/
+ *
+ * Tại sao mỗi run cần workspace riêng?
+ * → TestRunQueue cho phép chạy song song (max-concurrent-runs), nhưng nếu tất cả ghi vào
+ *   cùng target/allure-results và target/surefire-reports thì run này xóa kết quả của run kia,
+ *   và parser đọc lẫn suites của run khác.
+ * → Key theo runId: mỗi slot ghi vào thư mục riêng → 3 slot = 3 lần throughput thay vì race.
+ *
+ * Layout:
+ * {root}/allure-results     ← Maven -Dallure.results.directory
+ * {root}/surefire-reports   ← Maven -DreportsDirectory
+ */
+@Getter
+public class RunWorkspace {
+
+    private final String runId;
+    private final Path root;
+    private final Path allureResultsDir;
+    private final Path surefireReportsDir;
+
+    public RunWorkspace(Path workspaceDir, String runId) {
+        this.runId = runId;
+        this.root = workspaceDir.resolve(runId).toAbsolutePath().normalize();
+        this.allureResultsDir = root.resolve("allure-results");
+        this.surefireReportsDir = root.resolve("surefire-reports");
+    }
+}
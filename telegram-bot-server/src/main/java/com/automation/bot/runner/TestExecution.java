@@ -0,0 +1,33 @@
+package com.automation.bot.runner;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Handle của một run đang chạy, do TestExecutor trả về.
+ */
+public interface TestExecution {
+
+    /** Dòng output tiếp theo (console Maven/TestNG), null khi run đã kết thúc */
+    String readLine() throws IOException;
+
+    /**
+     * Chờ run kết thúc sau khi đã đọc hết output, tối đa {@code timeout}.
+     * Process mode: chờ process thoát. Warm mode: worker sống tiếp → kết thúc = readLine() đã gặp DONE/EOF.
+     * @return true nếu run đã kết thúc trong thời gian chờ
+     */
+    boolean waitFor(long timeout, TimeUnit unit) throws InterruptedException;
+
+    /** Exit code: 0 = không có test fail */
+    int exitCode();
+
+    /** Process thực thi run (để cancel bằng destroyForcibly) */
+    Process process();
+
+    /** Kill run ngay (timeout/cancel) */
+    void destroy();
+
+    /** Giải phóng tài nguyên (warm mode: trả worker về pool) — luôn gọi trong finally */
+    default void close() {
+    }
+}
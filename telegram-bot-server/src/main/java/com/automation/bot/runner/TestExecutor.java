@@ -0,0 +1,21 @@
+package com.automation.bot.runner;
+
+/**
+ * Strategy chạy test cho một run — TestRunner chọn implementation theo bot.runner.executor.
+ *
+ * Tại sao tách strategy thay vì if/else trong TestRunner?
+ * → "process" (mvn test mỗi run) và "warm" (worker JVM giữ sẵn classpath) khác hẳn nhau về vòng đời:
+ *   một bên tạo process mới mỗi lần, một bên lease worker từ pool.
+ * → TestRunner chỉ lo phần chung: workspace, đọc output, timeout, build TestRunResult.
+ */
+public interface TestExecutor {
+
+    /** Tên mode trong config: bot.runner.executor */
+    String mode();
+
+    /**
+     * Bắt đầu chạy test cho request, output ghi vào workspace.
+     * Non-blocking: caller đọc output qua TestExecution.readLine() cho đến khi trả về null.
+     */
+    TestExecution start(TestRunRequest request, RunWorkspace workspace) throws Exception;
+}
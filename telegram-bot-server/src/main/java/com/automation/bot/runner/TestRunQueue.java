@@ -2,34 +2,52 @@ package com.automation.bot.runner;
 
 import com.automation.bot.config.TestRunnerProperties;
 import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 
 /**
- * Quản lý thread pool chạy test — tối đa N test song song, vượt quá thì xếp hàng.
+ * Quản lý worker chạy test — số test song song do AdmissionController quyết định, vượt quá thì xếp hàng.
  *
- * Tại sao dùng ThreadPoolExecutor thay vì @Async?
- * → Kiểm soát chặt: biết chính xác bao nhiêu test đang chạy, bao nhiêu đang queue.
- * → @Async dùng global thread pool (SimpleAsyncTaskExecutor) — không control được max threads,
- *   và khó track active/queued tasks.
- * → Cần attach metadata (runId, userId, Process reference) vào mỗi task để cancel được.
+ * Tại sao tự quản lý worker thay vì ThreadPoolExecutor + LinkedBlockingQueue?
+ * → Queue FIFO: 1 user bắn 5 lần /regression → /login của user khác phải chờ cả 5.
+ * → RunScheduler chọn run tiếp theo lúc có slot trống: priority class, fair share theo user,
+ *   short-job-first theo duration lịch sử (RunDurationEstimator), có aging chống starvation.
+ * → Vẫn giữ: biết chính xác bao nhiêu test đang chạy / đang queue, cancel được từng run.
  *
- * Tại sao max 3?
+ * Tại sao mặc định max 3?
  * → Mỗi Chrome browser ~500MB-1GB RAM. 3 browsers = ~2-3GB. An toàn cho máy 16GB.
- * → Vượt quá 3 → queue chờ. User nhận message "Queued, position #N".
+ * → Bật bot.runner.admission → worker tạo tới ceiling, run chỉ start khi RAM/CPU còn headroom.
+ * → Hết slot → queue chờ. User nhận message "Queued, position #N" kèm ETA.
+ *
+ * Request giống hệt 1 request đang chờ (cùng chat, env, browser, profile, tập class) → không xếp thêm,
+ * trả về run đang chờ (dedup).
+ *
+ * Run bị cancel trước khi callback kịp chạy → callback không bao giờ chạy, onCancelled chạy thay
+ * (shard của group run vẫn phải báo xong để ShardedRun merge + dọn workspace).
  */
 @Slf4j
 @Component
 public class TestRunQueue {
 
-    private final ExecutorService executor;
+    private final TestRunnerProperties properties;
+    private final RunDurationEstimator durationEstimator;
+    private final AdmissionController admission;
+    private final ExecutorService workers;
+    private final RunScheduler scheduler;
     private final int maxQueueSize;
+    private final int workerCount;
 
     /** Track active runs để cancel và xem status */
     private final ConcurrentMap<String, TestRunInfo> activeRuns = new ConcurrentHashMap<>();
@@ -40,11 +58,31 @@ public class TestRunQueue {
         private volatile Future<?> future;
         private volatile RunStatus status;
         private volatile Process process;
+        /** Callback hoặc onCancelled — ai giành được trước thì chạy, chỉ 1 trong 2 */
+        @Getter(AccessLevel.NONE)
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        @Getter(AccessLevel.NONE)
+        private Consumer<TestRunInfo> onCancelled = ignored -> {};
+
+        // Metadata cho scheduler
+        private final int priority;
+        private final Duration estimatedDuration;
+        private final String dedupKey;
+        private final Instant enqueuedAt = Instant.now();
+        private volatile Instant startedAt;
+        private long sequence;
 
         public TestRunInfo(TestRunRequest request, Future<?> future) {
+            this(request, future, 0, Duration.ZERO, null);
+        }
+
+        TestRunInfo(TestRunRequest request, Future<?> future, int priority, Duration estimatedDuration, String dedupKey) {
             this.request = request;
             this.future = future;
             this.status = RunStatus.QUEUED;
+            this.priority = priority;
+            this.estimatedDuration = estimatedDuration;
+            this.dedupKey = dedupKey;
         }
 
         public void setFuture(Future<?> future) {
@@ -58,21 +96,73 @@ public class TestRunQueue {
         public void setProcess(Process process) {
             this.process = process;
         }
+
+        /**
+         * Kill process của run (cancel, fail-fast). Kill process con trước — mvn fork surefire JVM,
+         * test mở Chrome/chromedriver; chỉ kill mvn thì các process đó mồ côi và vẫn giữ RAM.
+         * @return true nếu có process đang chạy bị kill
+         */
+        public boolean killProcess() {
+            Process current = process;
+            if (current == null || !current.isAlive()) {
+                return false;
+            }
+            current.descendants().forEach(ProcessHandle::destroyForcibly);
+            current.destroyForcibly();
+            return true;
+        }
+
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        void setSequence(long sequence) {
+            this.sequence = sequence;
+        }
+
+        void markStarted() {
+            this.startedAt = Instant.now();
+        }
     }
 
-    public TestRunQueue(TestRunnerProperties properties) {
+    /**
+     * Kết quả submit.
+     * @param position vị trí trong hàng chờ (1 = chạy tiếp theo), 0 nếu đã được worker nhận ngay
+     * @param eta      thời gian chờ ước lượng tới khi bắt đầu chạy
+     */
+    public record Submission(TestRunInfo info, Outcome outcome, int position, Duration eta) {
+
+        public enum Outcome { QUEUED, DUPLICATE, REJECTED }
+
+        public boolean isRejected() {
+            return outcome == Outcome.REJECTED;
+        }
+
+        public boolean isDuplicate() {
+            return outcome == Outcome.DUPLICATE;
+        }
+    }
+
+    public TestRunQueue(TestRunnerProperties properties, RunDurationEstimator durationEstimator,
+                        AdmissionController admission) {
+        this.properties = properties;
+        this.durationEstimator = durationEstimator;
+        this.admission = admission;
         this.maxQueueSize = properties.getMaxQueueSize();
-        int maxConcurrent = properties.getMaxConcurrentRuns();
+        this.workerCount = admission.ceiling();
+        this.scheduler = new RunScheduler(Duration.ofMinutes(properties.getScheduler().getMaxWaitMinutes()));
 
-        this.executor = new ThreadPoolExecutor(
-                maxConcurrent,
-                maxConcurrent,
-                60L, TimeUnit.SECONDS,
-                new LinkedBlockingQueue<>(maxQueueSize),
-                new ThreadPoolExecutor.AbortPolicy()
-        );
+        this.workers = Executors.newFixedThreadPool(workerCount, r -> {
+            Thread thread = new Thread(r, "test-run-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(this::workerLoop);
+        }
 
-        log.info("TestRunQueue initialized: maxConcurrent={}, maxQueue={}", maxConcurrent, maxQueueSize);
+        log.info("TestRunQueue initialized: workers={}, maxQueue={}, admission={}", workerCount, maxQueueSize,
+                admission.isEnabled() ? "adaptive" : "static");
     }
 
     /**
@@ -80,57 +170,91 @@ public class TestRunQueue {
      *
      * @param request  thông tin test run
      * @param callback callback khi test hoàn tất (gửi kết quả về Telegram)
-     * @return TestRunInfo để track, hoặc null nếu queue đầy
+     * @return Submission: QUEUED kèm position/ETA, DUPLICATE (info = run đang chờ), hoặc REJECTED nếu queue đầy
      */
-    public TestRunInfo submit(TestRunRequest request, Consumer<TestRunInfo> callback) {
-        try {
-            TestRunInfo info = new TestRunInfo(request, null);
-            activeRuns.put(request.getRunId(), info);
-
-            Future<?> future = executor.submit(() -> {
-                try {
-                    callback.accept(info);
-                } catch (Exception e) {
-                    log.error("[{}] Error in test run callback: {}", request.getRunId(), e.getMessage(), e);
-                }
-            });
-
-            info.setFuture(future);
-            log.info("[{}] Test run submitted to queue", request.getRunId());
-            return info;
-
-        } catch (RejectedExecutionException e) {
-            activeRuns.remove(request.getRunId());
+    public Submission submit(TestRunRequest request, Consumer<TestRunInfo> callback) {
+        return submit(request, callback, info -> {});
+    }
+
+    /**
+     * Như {@link #submit(TestRunRequest, Consumer)}, kèm callback khi run bị cancel lúc callback chưa bắt đầu.
+     * Gọi trên thread cancel; run đã chạy thì callback tự kết thúc như bình thường (process bị kill).
+     */
+    public synchronized Submission submit(TestRunRequest request, Consumer<TestRunInfo> callback,
+                                          Consumer<TestRunInfo> onCancelled) {
+        String dedupKey = dedupKey(request);
+        Optional<TestRunInfo> duplicate = scheduler.findPending(dedupKey);
+        if (duplicate.isPresent()) {
+            log.info("[{}] Duplicate of pending run {}, not queued", request.getRunId(),
+                    duplicate.get().getRequest().getRunId());
+            return withPosition(duplicate.get(), Submission.Outcome.DUPLICATE);
+        }
+
+        if (scheduler.pendingCount() >= maxQueueSize) {
             log.warn("[{}] Queue is full, rejecting request", request.getRunId());
-            return null;
+            return new Submission(null, Submission.Outcome.REJECTED, 0, Duration.ZERO);
         }
+
+        TestRunInfo info = new TestRunInfo(request, null, priorityOf(request), estimate(request), dedupKey);
+        info.onCancelled = onCancelled;
+        FutureTask<Void> task = new FutureTask<>(() -> {
+            if (!info.claim()) {
+                return;
+            }
+            try {
+                callback.accept(info);
+            } catch (Exception e) {
+                log.error("[{}] Error in test run callback: {}", request.getRunId(), e.getMessage(), e);
+            }
+        }, null);
+        info.setFuture(task);
+
+        activeRuns.put(request.getRunId(), info);
+        scheduler.add(info);
+        log.info("[{}] Test run submitted to queue (priority={}, estimate={}s)", request.getRunId(),
+                info.getPriority(), info.getEstimatedDuration().toSeconds());
+        return withPosition(info, Submission.Outcome.QUEUED);
     }
 
     /**
-     * Cancel test run theo runId.
+     * Cancel test run theo runId. runId của group run đã chia shard → cancel mọi shard còn active.
      * @return true nếu cancel thành công
      */
     public boolean cancel(String runId) {
         TestRunInfo info = activeRuns.get(runId);
-        if (info == null) {
-            return false;
+        if (info != null) {
+            cancel(info);
+            return true;
         }
+        List<TestRunInfo> shards = activeRuns.values().stream()
+                .filter(active -> runId.equals(active.getRequest().getShardOf()))
+                .toList();
+        shards.forEach(this::cancel);
+        return !shards.isEmpty();
+    }
 
+    private void cancel(TestRunInfo info) {
+        String runId = info.getRequest().getRunId();
         info.setStatus(RunStatus.CANCELLED);
+        scheduler.remove(info);
 
         // Kill process nếu đang chạy
-        Process process = info.getProcess();
-        if (process != null && process.isAlive()) {
-            process.destroyForcibly();
+        if (info.killProcess()) {
             log.info("[{}] Process killed", runId);
         }
 
         // Cancel future
         info.getFuture().cancel(true);
         activeRuns.remove(runId);
+        if (info.claim()) {
+            try {
+                info.onCancelled.accept(info);
+            } catch (Exception e) {
+                log.error("[{}] Error in cancel callback: {}", runId, e.getMessage(), e);
+            }
+        }
 
         log.info("[{}] Test run cancelled", runId);
-        return true;
     }
 
     /** Lấy tất cả active runs (đang chạy hoặc đang queue) */
@@ -145,22 +269,119 @@ public class TestRunQueue {
                 .toList();
     }
 
+    /** Số slot chưa có run nào chiếm (kể cả run đang xếp hàng chờ slot) */
+    public int getFreeSlots() {
+        int running = scheduler.runningCount();
+        return Math.max(0, admission.capacity(running) - running - scheduler.pendingCount());
+    }
+
     /** Xóa run khỏi tracking (gọi sau khi hoàn tất) */
     public void removeRun(String runId) {
         activeRuns.remove(runId);
     }
 
+    private void workerLoop() {
+        while (true) {
+            TestRunInfo info;
+            try {
+                info = scheduler.take(admission::admit, admission.sampleInterval());
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (info == null) {
+                return;
+            }
+            try {
+                info.markStarted();
+                ((FutureTask<?>) info.getFuture()).run();
+            } finally {
+                scheduler.finished(info);
+                // cancel(true) interrupt thread này → xóa cờ để worker chờ run tiếp theo bình thường
+                Thread.interrupted();
+            }
+        }
+    }
+
+    /**
+     * Position = thứ tự trong scheduler; ETA = (thời gian còn lại của các run đang chạy
+     * + duration các run đứng trước) chia cho số slot.
+     */
+    private Submission withPosition(TestRunInfo info, Submission.Outcome outcome) {
+        List<TestRunInfo> ordered = scheduler.pendingInOrder();
+        int index = ordered.indexOf(info);
+        if (index < 0) {
+            // Worker đã nhận ngay
+            return new Submission(info, outcome, 0, Duration.ZERO);
+        }
+
+        Instant now = Instant.now();
+        long runningRemaining = 0;
+        int running = scheduler.runningCount();
+        int slots = admission.capacity(running, info.getRequest().getBrowser());
+        for (TestRunInfo active : activeRuns.values()) {
+            if (active.getStartedAt() != null) {
+                long elapsed = Duration.between(active.getStartedAt(), now).toMillis();
+                runningRemaining += Math.max(0, active.getEstimatedDuration().toMillis() - elapsed);
+            }
+        }
+        long ahead = 0;
+        for (int i = 0; i < index; i++) {
+            ahead += ordered.get(i).getEstimatedDuration().toMillis();
+        }
+
+        // Còn slot trống và không ai đứng trước → sắp chạy ngay
+        Duration eta = index < slots - running
+                ? Duration.ZERO
+                : Duration.ofMillis((runningRemaining + ahead) / slots);
+        return new Submission(info, outcome, index + 1, eta);
+    }
+
+    private int priorityOf(TestRunRequest request) {
+        TestRunnerProperties.Scheduler config = properties.getScheduler();
+        if (request.getProfile() != null) {
+            return config.getPriorities().getOrDefault(request.getProfile(), config.getDefaultPriority());
+        }
+        return config.getDefaultPriority();
+    }
+
+    private Duration estimate(TestRunRequest request) {
+        long millis = durationEstimator.estimateMillis(request)
+                .orElse(properties.getScheduler().getDefaultEstimateSeconds() * 1000L);
+        return Duration.ofMillis(millis);
+    }
+
+    /** Cùng chat + env + browser + profile + tập class (không phân biệt thứ tự) = cùng 1 run */
+    static String dedupKey(TestRunRequest request) {
+        return request.getChatId() + "|" + runSpec(request);
+    }
+
+    /** env + browser + headless + profile + tập class đã sort — phần định danh "chạy cái gì" của request */
+    static String runSpec(TestRunRequest request) {
+        TreeSet<String> classes = new TreeSet<>();
+        if (request.getTestClass() != null) {
+            classes.add(request.getTestClass());
+        }
+        if (request.getTestClasses() != null) {
+            for (String testClass : request.getTestClasses().split(",")) {
+                classes.add(testClass.trim());
+            }
+        }
+        return request.getEnv() + "|" + request.getBrowser() + "|" + request.isHeadless() + "|"
+                + request.getProfile() + "|" + String.join(",", classes);
+    }
+
     /** Graceful shutdown khi app tắt */
     @PreDestroy
     public void shutdown() {
         log.info("Shutting down TestRunQueue...");
-        executor.shutdown();
+        scheduler.close();
+        workers.shutdown();
         try {
-            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
-                executor.shutdownNow();
+            if (!workers.awaitTermination(30, TimeUnit.SECONDS)) {
+                workers.shutdownNow();
             }
         } catch (InterruptedException e) {
-            executor.shutdownNow();
+            workers.shutdownNow();
             Thread.currentThread().interrupt();
         }
     }
@@ -24,4 +24,7 @@ public class TestRunRequest {
     private final String testClasses;   // Multiple test classes comma-separated: "LoginTest,DashboardTest"
     private final String browser;
     private final boolean headless;
+    private final int failFast;         // Dừng run sau N test fail (0 = tắt): /regression stage failfast=5
+    private final String rerunOf;       // runId của run gốc khi bấm "Rerun failed" → kết quả gộp với run gốc
+    private final String shardOf;       // runId của group run cha nếu request là 1 shard → /cancel <runId cha> hủy cả group
 }
@@ -9,7 +9,7 @@ import java.time.Duration;
  * DTO chứa kết quả sau khi test run hoàn tất.
  */
 @Getter
-@Builder
+@Builder(toBuilder = true)
 public class TestRunResult {
 
     private final String runId;
@@ -20,6 +20,9 @@ public class TestRunResult {
     private final int skipped;
     private final int errors;
     private final Duration duration;
-    private final String errorMessage;      // Nếu process bị crash hoặc timeout
+    private final String errorMessage;      // Nếu process bị crash, timeout hoặc bị fail-fast dừng
     private final String allureReportUrl;   // Link đến report
+    private final int passedOnRetry;        // Test chỉ pass nhờ RetryAnalyzer (flaky) — Surefire đếm như pass thường
+    private final Duration retryTime;       // Tổng thời gian các lần chạy bị retry
+    private final boolean incomplete;       // Run không chạy hết (timeout, cancel, kill, crash) → chỉ là phần kết quả đã có
 }
@@ -1,100 +1,139 @@
 package com.automation.bot.runner;
 
 import com.automation.bot.config.TestRunnerProperties;
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.InputStreamReader;
 import java.io.IOException;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.time.Duration;
 import java.time.Instant;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
- * Chạy Maven test bằng ProcessBuilder.
+ * Chạy test trong process riêng qua TestExecutor (bot.runner.executor: process | warm).
  *
- * Tại sao dùng ProcessBuilder thay vì gọi TestNG/JUnit programmatically?
+ * Tại sao dùng process riêng thay vì gọi TestNG/JUnit programmatically trong bot?
  * → Isolation hoàn toàn: test framework chạy trong process riêng, classpath riêng.
  *   Nếu test crash (OOM, segfault) → chỉ chết process con, bot server vẫn sống.
  * → Không conflict classpath: bot dùng Spring Boot 3.4, framework có thể dùng version khác.
- * → Giống cách CI/CD chạy (mvn test) → kết quả nhất quán.
+ * → "process" = mvn test mỗi run, giống CI/CD. "warm" = worker JVM giữ sẵn classpath,
+ *   vẫn là process riêng nhưng bỏ qua Maven startup.
  *
- * Tại sao dùng mvn.cmd trên Windows?
- * → Windows không có mvn executable, chỉ có mvn.cmd (batch file).
- * → ProcessBuilder trên Windows không tự tìm .cmd, phải chỉ đường dẫn đầy đủ.
+ * Tại sao cần watchdog cho timeout?
+ * → readLine() block cho đến khi process đóng stdout — test treo thì vòng đọc output không bao giờ thoát.
+ *   Watchdog kill execution sau timeout-minutes → readLine() trả null → run kết thúc với FAILED.
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class TestRunner {
 
     private final TestRunnerProperties properties;
+    private final Map<String, TestExecutor> executors;
+    private final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "test-run-watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public TestRunner(TestRunnerProperties properties, List<TestExecutor> executors) {
+        this.properties = properties;
+        this.executors = executors.stream()
+                .collect(Collectors.toMap(TestExecutor::mode, Function.identity()));
+        log.info("TestRunner using executor mode: {}", properties.getExecutor());
+    }
 
     /**
-     * Chạy Maven test command và trả về exit code.
+     * Chạy test và trả về kết quả thô (status theo exit code).
      * Method này blocking — gọi từ TestRunQueue (thread pool) để không block main thread.
      */
     public TestRunResult run(TestRunRequest request) {
+        return run(request, line -> { });
+    }
+
+    /**
+     * Như run(request), nhưng mỗi dòng output được đẩy qua outputListener ngay khi đọc được
+     * (ví dụ: RunProgressReporter hiện progress live trên Telegram).
+     */
+    public TestRunResult run(TestRunRequest request, Consumer<String> outputListener) {
+        return run(request, outputListener, process -> { });
+    }
+
+    /**
+     * Như run(request, outputListener), onStarted nhận Process ngay khi run bắt đầu
+     * → TestRunInfo giữ handle để cancel / fail-fast kill được giữa chừng.
+     */
+    public TestRunResult run(TestRunRequest request, Consumer<String> outputListener, Consumer<Process> onStarted) {
         Instant start = Instant.now();
         String runId = request.getRunId();
 
         try {
-            // Xóa results cũ để report không trộn lẫn kết quả từ lần chạy trước
-            cleanPreviousResults();
-
-            List<String> command = buildCommand(request);
-            log.info("[{}] Executing: {}", runId, String.join(" ", command));
-
-            ProcessBuilder processBuilder = new ProcessBuilder(command)
-                    .directory(new File(properties.getFrameworkPath()))
-                    .redirectErrorStream(true);
-
-            // Set JAVA_HOME, MAVEN_HOME nếu cần
-            processBuilder.environment().put("MAVEN_HOME", properties.getMavenHome());
-
-            Process process = processBuilder.start();
-
-            // Đọc output để tránh buffer đầy → process bị block (deadlock)
-            StringBuilder output = new StringBuilder();
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            // Mỗi run ghi vào workspace riêng → các run song song không xóa/trộn kết quả của nhau
+            RunWorkspace workspace = workspaceFor(request);
+            prepareWorkspace(workspace);
+
+            TestExecution execution = resolveExecutor().start(request, workspace);
+            onStarted.accept(execution.process());
+            AtomicBoolean timedOut = new AtomicBoolean(false);
+            ScheduledFuture<?> timeoutTask = watchdog.schedule(() -> {
+                timedOut.set(true);
+                execution.destroy();
+            }, properties.getTimeoutMinutes(), TimeUnit.MINUTES);
+
+            try {
+                // Đọc output để tránh buffer đầy → process bị block (deadlock)
                 String line;
-                while ((line = reader.readLine()) != null) {
-                    output.append(line).append("\n");
+                while ((line = execution.readLine()) != null) {
                     log.debug("[{}] {}", runId, line);
+                    try {
+                        outputListener.accept(line);
+                    } catch (Exception e) {
+                        log.warn("[{}] Output listener failed: {}", runId, e.getMessage());
+                    }
                 }
-            }
 
-            boolean finished = process.waitFor(properties.getTimeoutMinutes(), TimeUnit.MINUTES);
-            Duration duration = Duration.between(start, Instant.now());
+                boolean finished = !timedOut.get() && execution.waitFor(1, TimeUnit.MINUTES);
+                Duration duration = Duration.between(start, Instant.now());
+
+                if (!finished) {
+                    execution.destroy();
+                    log.error("[{}] Test run timed out after {} minutes", runId, properties.getTimeoutMinutes());
+                    return TestRunResult.builder()
+                            .runId(runId)
+                            .status(RunStatus.FAILED)
+                            .duration(duration)
+                            .errorMessage("Timeout after " + properties.getTimeoutMinutes() + " minutes")
+                            .incomplete(true)
+                            .build();
+                }
+
+                int exitCode = execution.exitCode();
+                log.info("[{}] Process exited with code={}, duration={}", runId, exitCode, duration);
 
-            if (!finished) {
-                process.destroyForcibly();
-                log.error("[{}] Test run timed out after {} minutes", runId, properties.getTimeoutMinutes());
+                // exitCode 0 = success, khác 0 = có test fail hoặc build error; < 0 = warm worker chết giữa chừng
                 return TestRunResult.builder()
                         .runId(runId)
-                        .status(RunStatus.FAILED)
+                        .status(exitCode == 0 ? RunStatus.COMPLETED : RunStatus.FAILED)
                         .duration(duration)
-                        .errorMessage("Timeout after " + properties.getTimeoutMinutes() + " minutes")
+                        .errorMessage(exitCode != 0 ? "Exit code: " + exitCode : null)
+                        .incomplete(exitCode < 0)
                         .build();
-            }
 
-            int exitCode = process.exitValue();
-            log.info("[{}] Process exited with code={}, duration={}", runId, exitCode, duration);
-
-            // exitCode 0 = success, khác 0 = có test fail hoặc build error
-            return TestRunResult.builder()
-                    .runId(runId)
-                    .status(exitCode == 0 ? RunStatus.COMPLETED : RunStatus.FAILED)
-                    .duration(duration)
-                    .errorMessage(exitCode != 0 ? "Exit code: " + exitCode : null)
-                    .build();
+            } finally {
+                timeoutTask.cancel(false);
+                execution.close();
+            }
 
         } catch (Exception e) {
             log.error("[{}] Failed to execute test run: {}", runId, e.getMessage(), e);
@@ -103,19 +142,41 @@ public class TestRunner {
                     .status(RunStatus.FAILED)
                     .duration(Duration.between(start, Instant.now()))
                     .errorMessage(e.getMessage())
+                    .incomplete(true)
                     .build();
         }
     }
 
+    private TestExecutor resolveExecutor() {
+        TestExecutor executor = executors.get(properties.getExecutor());
+        if (executor == null) {
+            throw new IllegalStateException("Unknown bot.runner.executor: " + properties.getExecutor()
+                    + ". Supported: " + executors.keySet());
+        }
+        return executor;
+    }
+
+    /**
+     * Workspace (output root) của một run: {workspace-dir}/{runId}/.
+     * Parser và AllureReportGenerator dùng method này để đọc đúng kết quả của run.
+     */
+    public RunWorkspace workspaceFor(TestRunRequest request) {
+        return new RunWorkspace(Path.of(properties.getWorkspaceDir()), request.getRunId());
+    }
+
+    /** Xóa workspace sau khi đã parse + generate report xong (gọi trong finally của command) */
+    public void cleanupWorkspace(TestRunRequest request) {
+        deleteDirectory(workspaceFor(request).getRoot());
+    }
+
     /**
-     * Xóa allure-results và surefire-reports trước mỗi lần chạy test.
-     * Tránh report bị trộn kết quả từ lần chạy trước (ví dụ: chạy LoginTest rồi CreateProductTest
-     * → cả Allure report lẫn Telegram notification vẫn hiển thị LoginTest cũ).
+     * Tạo workspace sạch trước khi chạy.
+     * runId là duy nhất nên thường chưa tồn tại — xóa phòng trường hợp còn sót từ lần crash trước.
      */
-    private void cleanPreviousResults() {
-        Path targetDir = Path.of(properties.getFrameworkPath(), "target");
-        deleteDirectory(targetDir.resolve("allure-results"));
-        deleteDirectory(targetDir.resolve("surefire-reports"));
+    private void prepareWorkspace(RunWorkspace workspace) throws IOException {
+        deleteDirectory(workspace.getRoot());
+        Files.createDirectories(workspace.getAllureResultsDir());
+        Files.createDirectories(workspace.getSurefireReportsDir());
     }
 
     private void deleteDirectory(Path dir) {
@@ -142,56 +203,8 @@ public class TestRunner {
         }
     }
 
-    /**
-     * Build Maven command: mvn.cmd test -Psmoke -Denv=dev -Dbrowser=chrome -Dheadless=true
-     */
-    private List<String> buildCommand(TestRunRequest request) {
-        List<String> command = new ArrayList<>();
-
-        // mvn.cmd trên Windows
-        String mvnExecutable = properties.getMavenHome() + "/bin/mvn.cmd";
-        command.add(mvnExecutable);
-        command.add("test");
-
-        // Maven profile (smoke, regression, api)
-        if (request.getProfile() != null && !request.getProfile().isEmpty()) {
-            command.add("-P" + request.getProfile());
-        }
-
-        // Specific test class — phải bỏ suiteXmlFile để Surefire chạy đúng class,
-        // không bị testng.xml override chạy cả suite (LoginTest, HomePageTest...)
-        if (request.getTestClass() != null && !request.getTestClass().isEmpty()) {
-            command.add("-Dtest=" + request.getTestClass());
-            command.add("-DfailIfNoTests=false");
-            command.add("-Dsurefire.suiteXmlFiles=");
-        } else if (request.getTestClasses() != null && !request.getTestClasses().isEmpty()) {
-            // Multiple test classes (grouped command): "LoginTest,DashboardTest"
-            command.add("-Dtest=" + request.getTestClasses());
-            command.add("-DfailIfNoTests=false");
-            command.add("-Dsurefire.suiteXmlFiles=");
-        }
-
-        // Environment, browser, headless
-        command.add("-Denv=" + request.getEnv());
-        command.add("-Dbrowser=" + request.getBrowser());
-        command.add("-Dheadless=" + request.isHeadless());
-
-        // Không cần build lại, chỉ chạy test
-        command.add("-Dsurefire.useFile=false");
-
-        return command;
-    }
-
-    /** Cho phép cancel bằng Process.destroyForcibly() từ bên ngoài */
-    public Process startProcess(TestRunRequest request) throws Exception {
-        List<String> command = buildCommand(request);
-        log.info("[{}] Starting process: {}", request.getRunId(), String.join(" ", command));
-
-        ProcessBuilder processBuilder = new ProcessBuilder(command)
-                .directory(new File(properties.getFrameworkPath()))
-                .redirectErrorStream(true);
-        processBuilder.environment().put("MAVEN_HOME", properties.getMavenHome());
-
-        return processBuilder.start();
+    @PreDestroy
+    public void shutdown() {
+        watchdog.shutdownNow();
     }
 }
@@ -0,0 +1,403 @@
+package com.automation.bot.runner;
+
+import com.automation.bot.config.TestRunnerProperties;
+import com.automation.bot.parser.ResultStreamReceiver;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Warm executor: giữ pool worker JVM (com.automation.runner.WarmTestWorker) đã load sẵn test classpath,
+ * mỗi run gửi 1 dòng JSON qua stdin → worker chạy TestNG programmatically.
+ *
+ * Tại sao nhanh hơn `mvn test`?
+ * → Bỏ qua JVM startup, Maven model resolution, compile up-to-date check và Surefire fork
+ *   (thường 20-40s trước khi test đầu tiên chạy). Những bước đó chỉ trả 1 lần khi worker khởi động.
+ *
+ * Isolation giữ thế nào?
+ * → Worker vẫn là process riêng: test crash (OOM, System.exit) chỉ chết worker,
+ *   bot server sống. Worker chết/timeout/cancel → bị loại khỏi pool, run sau tự start worker mới.
+ * → Mỗi worker chỉ chạy 1 run một lúc (env/browser là system properties toàn JVM),
+ *   pool size = AdmissionController.ceiling() = số worker thread của TestRunQueue → run được admit
+ *   (admission, Grid) luôn có worker JVM, không block trong lease().
+ * → Recycle sau max-runs-per-worker runs → load lại classes mới compile, dọn leak.
+ */
+@Slf4j
+@Component
+public class WarmWorkerTestExecutor implements TestExecutor {
+
+    static final String READY = "##WARM-WORKER READY";
+    static final String DONE = "##WARM-WORKER DONE ";
+    private static final String WORKER_MAIN_CLASS = "com.automation.runner.WarmTestWorker";
+
+    private final TestRunnerProperties properties;
+    private final ResultStreamReceiver resultStream;
+    private final QuarantineList quarantine;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final BlockingQueue<Worker> idleWorkers = new LinkedBlockingQueue<>();
+    private final Set<Worker> allWorkers = ConcurrentHashMap.newKeySet();
+    private final Semaphore slots;
+
+    public WarmWorkerTestExecutor(TestRunnerProperties properties, ResultStreamReceiver resultStream,
+                                  QuarantineList quarantine, AdmissionController admission) {
+        this.properties = properties;
+        this.resultStream = resultStream;
+        this.quarantine = quarantine;
+        this.slots = new Semaphore(admission.ceiling());
+    }
+
+    @Override
+    public String mode() {
+        return "warm";
+    }
+
+    @Override
+    public TestExecution start(TestRunRequest request, RunWorkspace workspace) throws Exception {
+        Worker worker = lease();
+        try {
+            worker.send(objectMapper.writeValueAsString(buildPayload(request, workspace)));
+        } catch (Exception e) {
+            release(worker, false);
+            throw e;
+        }
+        log.info("[{}] Dispatched to warm worker pid={} (run #{})",
+                request.getRunId(), worker.process.pid(), worker.runs);
+        return new WarmExecution(worker);
+    }
+
+    /** Lấy worker rảnh, hoặc start worker mới nếu pool chưa đủ / worker cũ đã chết */
+    private Worker lease() throws Exception {
+        slots.acquire();
+        try {
+            Worker worker = idleWorkers.poll();
+            if (worker != null && !worker.process.isAlive()) {
+                discard(worker);
+                worker = null;
+            }
+            if (worker == null) {
+                worker = startWorker();
+            }
+            worker.runs++;
+            return worker;
+        } catch (Exception e) {
+            slots.release();
+            throw e;
+        }
+    }
+
+    private void release(Worker worker, boolean healthy) {
+        try {
+            if (healthy && worker.process.isAlive()
+                    && worker.runs < properties.getWarm().getMaxRunsPerWorker()) {
+                idleWorkers.offer(worker);
+            } else {
+                discard(worker);
+            }
+        } finally {
+            slots.release();
+        }
+    }
+
+    private void discard(Worker worker) {
+        allWorkers.remove(worker);
+        worker.process.destroyForcibly();
+        log.info("Warm worker pid={} discarded after {} run(s)", worker.process.pid(), worker.runs);
+    }
+
+    private Worker startWorker() throws Exception {
+        String classpath = resolveClasspath();
+
+        // Classpath dài vượt giới hạn command line Windows (~32K) → truyền qua @argfile
+        Path argFile = Path.of(properties.getWorkspaceDir(), ".warm-worker.args");
+        Files.writeString(argFile, "-cp\n\"" + classpath.replace('\\', '/') + "\"\n");
+
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(properties.getWarm().getJvmArgs());
+        // Giống argLine của Surefire: AspectJ weaver cho Allure @Step
+        Arrays.stream(classpath.split(File.pathSeparator))
+                .filter(entry -> entry.contains("aspectjweaver"))
+                .findFirst()
+                .ifPresent(agent -> command.add("-javaagent:" + agent));
+        command.add("@" + argFile);
+        command.add(WORKER_MAIN_CLASS);
+
+        Process process = new ProcessBuilder(command)
+                .directory(new File(properties.getFrameworkPath()))
+                .redirectErrorStream(true)
+                .start();
+        Worker worker = new Worker(process);
+        allWorkers.add(worker);
+
+        int timeout = properties.getWarm().getStartupTimeoutSeconds();
+        CompletableFuture.delayedExecutor(timeout, TimeUnit.SECONDS).execute(() -> {
+            if (!worker.ready) {
+                process.destroyForcibly();
+            }
+        });
+
+        String line;
+        while ((line = worker.reader.readLine()) != null) {
+            if (READY.equals(line)) {
+                worker.ready = true;
+                break;
+            }
+            log.debug("[warm-worker] {}", line);
+        }
+
+        if (!worker.ready) {
+            allWorkers.remove(worker);
+            process.destroyForcibly();
+            throw new IOException("Warm worker failed to start within " + timeout + "s");
+        }
+
+        log.info("Warm worker started: pid={}", process.pid());
+        return worker;
+    }
+
+    /**
+     * mvn test-compile + dependency:build-classpath → classpath của framework (test scope).
+     * Chạy mỗi khi start worker → worker mới luôn load code mới nhất.
+     * synchronized: nhiều worker start cùng lúc không chạy song song test-compile trên cùng target/.
+     */
+    private synchronized String resolveClasspath() throws Exception {
+        Path classpathFile = Path.of(properties.getWorkspaceDir(), ".warm-classpath.txt");
+        Files.createDirectories(classpathFile.getParent());
+
+        Process process = new ProcessBuilder(
+                properties.getMavenExecutable(), "-q",
+                "test-compile", "dependency:build-classpath",
+                "-Dmdep.outputFile=" + classpathFile,
+                "-Dmdep.includeScope=test")
+                .directory(new File(properties.getFrameworkPath()))
+                .redirectErrorStream(true)
+                .start();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                log.debug("[warm-classpath] {}", line);
+            }
+        }
+
+        boolean finished = process.waitFor(properties.getWarm().getStartupTimeoutSeconds(), TimeUnit.SECONDS);
+        if (!finished || process.exitValue() != 0) {
+            process.destroyForcibly();
+            throw new IOException("Failed to resolve framework classpath (mvn dependency:build-classpath)");
+        }
+
+        Path frameworkPath = Path.of(properties.getFrameworkPath());
+        return frameworkPath.resolve("target/test-classes") + File.pathSeparator
+                + frameworkPath.resolve("target/classes") + File.pathSeparator
+                + Files.readString(classpathFile).trim();
+    }
+
+    private Map<String, Object> buildPayload(TestRunRequest request, RunWorkspace workspace) throws Exception {
+        List<String> testClasses = new ArrayList<>();
+        if (request.getTestClass() != null && !request.getTestClass().isEmpty()) {
+            testClasses.add(request.getTestClass());
+        } else if (request.getTestClasses() != null && !request.getTestClasses().isEmpty()) {
+            testClasses.addAll(Arrays.asList(request.getTestClasses().split(",")));
+        }
+
+        Map<String, String> systemProperties = new LinkedHashMap<>();
+        systemProperties.put("env", request.getEnv());
+        systemProperties.put("browser", request.getBrowser());
+        systemProperties.put("headless", String.valueOf(request.isHeadless()));
+        quarantine.activeFile().ifPresent(file -> systemProperties.put("quarantine.file", file.toString()));
+        if (properties.getGrid().isEnabled()) {
+            systemProperties.put("remote", "true");
+            systemProperties.put("remote.url", properties.getGrid().getUrl());
+        }
+        if (resultStream.endpoint() != null) {
+            systemProperties.put("bot.results.socket", resultStream.endpoint());
+            systemProperties.put("bot.runId", request.getRunId());
+        }
+
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("runId", request.getRunId());
+        payload.put("suiteFiles", testClasses.isEmpty() ? resolveSuiteFiles(request.getProfile()) : List.of());
+        payload.put("testClasses", testClasses);
+        payload.put("reportsDirectory", workspace.getSurefireReportsDir().toString());
+        payload.put("allureResultsDirectory", workspace.getAllureResultsDir().toString());
+        payload.put("systemProperties", systemProperties);
+        return payload;
+    }
+
+    /**
+     * Maven profile → suiteXmlFile(s) khai báo trong pom.xml của framework (giống Surefire resolve).
+     * Không có profile → suiteXmlFile của build mặc định (testng.xml).
+     */
+    private List<String> resolveSuiteFiles(String profile) throws Exception {
+        Document doc = DocumentBuilderFactory.newInstance()
+                .newDocumentBuilder()
+                .parse(Path.of(properties.getFrameworkPath(), "pom.xml").toFile());
+
+        Element scope = childElement(doc.getDocumentElement(), "build");
+        if (profile != null && !profile.isEmpty()) {
+            scope = null;
+            NodeList profiles = doc.getElementsByTagName("profile");
+            for (int i = 0; i < profiles.getLength(); i++) {
+                Element candidate = (Element) profiles.item(i);
+                Element id = childElement(candidate, "id");
+                if (id != null && profile.equals(id.getTextContent().trim())) {
+                    scope = candidate;
+                    break;
+                }
+            }
+        }
+
+        List<String> suiteFiles = new ArrayList<>();
+        if (scope != null) {
+            NodeList files = scope.getElementsByTagName("suiteXmlFile");
+            for (int i = 0; i < files.getLength(); i++) {
+                suiteFiles.add(files.item(i).getTextContent().trim());
+            }
+        }
+        if (suiteFiles.isEmpty()) {
+            throw new IllegalStateException("No suiteXmlFile found in pom.xml for profile: " + profile);
+        }
+        return suiteFiles;
+    }
+
+    private Element childElement(Element parent, String name) {
+        for (Node child = parent.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child instanceof Element element && name.equals(element.getTagName())) {
+                return element;
+            }
+        }
+        return null;
+    }
+
+    /** Graceful shutdown: đóng stdin → worker thoát vòng lặp; không thoát kịp thì kill */
+    @PreDestroy
+    public void shutdown() {
+        for (Worker worker : allWorkers) {
+            try {
+                worker.writer.close();
+                if (!worker.process.waitFor(5, TimeUnit.SECONDS)) {
+                    worker.process.destroyForcibly();
+                }
+            } catch (Exception e) {
+                worker.process.destroyForcibly();
+            }
+        }
+        allWorkers.clear();
+    }
+
+    private static class Worker {
+        private final Process process;
+        private final BufferedReader reader;
+        private final BufferedWriter writer;
+        private volatile boolean ready;
+        private int runs;
+
+        Worker(Process process) {
+            this.process = process;
+            this.reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+            this.writer = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+        }
+
+        void send(String line) throws IOException {
+            writer.write(line);
+            writer.newLine();
+            writer.flush();
+        }
+    }
+
+    /**
+     * Output của 1 run = các dòng worker in ra cho đến marker DONE.
+     * Worker JVM không thoát sau run → "run kết thúc" = readLine() gặp DONE hoặc EOF, waitFor() chờ latch đó.
+     */
+    private class WarmExecution implements TestExecution {
+
+        private final Worker worker;
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile boolean finished;
+        private volatile int exitCode = -1;
+
+        WarmExecution(Worker worker) {
+            this.worker = worker;
+        }
+
+        @Override
+        public String readLine() throws IOException {
+            if (finished) {
+                return null;
+            }
+            String line = worker.reader.readLine();
+            if (line == null) {
+                // Worker chết giữa chừng (crash/kill) → exitCode giữ -1
+                finish();
+                return null;
+            }
+            if (line.startsWith(DONE)) {
+                exitCode = Integer.parseInt(line.substring(DONE.length()).trim());
+                finish();
+                return null;
+            }
+            return line;
+        }
+
+        @Override
+        public boolean waitFor(long timeout, TimeUnit unit) throws InterruptedException {
+            return done.await(timeout, unit);
+        }
+
+        private void finish() {
+            finished = true;
+            done.countDown();
+        }
+
+        @Override
+        public int exitCode() {
+            return exitCode;
+        }
+
+        @Override
+        public Process process() {
+            return worker.process;
+        }
+
+        @Override
+        public void destroy() {
+            worker.process.destroyForcibly();
+        }
+
+        @Override
+        public void close() {
+            // exitCode < 0: worker crash hoặc lỗi nội bộ → không tái sử dụng
+            release(worker, finished && exitCode >= 0);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.automation.bot.allure;
+
+import com.automation.bot.config.AllureProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AllureReportStoreTest {
+
+    @TempDir
+    Path reportDir;
+
+    private AllureProperties properties;
+    private AllureReportStore store;
+
+    @BeforeEach
+    void setUp() {
+        properties = new AllureProperties();
+        properties.setReportDir(reportDir.toString());
+        store = new AllureReportStore(properties);
+    }
+
+    @Test
+    void evictsLeastRecentlyViewedRunWhenOverMaxRuns() throws Exception {
+        properties.getRetention().setMaxRuns(2);
+
+        addRun("run-a", 10);
+        Thread.sleep(5);
+        addRun("run-b", 10);
+        Thread.sleep(5);
+        store.touch("run-a");
+        addRun("run-c", 10);
+
+        List<String> runs = store.listRuns().stream().map(AllureReportStore.RunReport::runId).toList();
+        assertEquals(List.of("run-c", "run-a"), runs);
+        assertFalse(Files.exists(reportDir.resolve("run-b")));
+        assertTrue(Files.readString(reportDir.resolve("index.html")).contains("run-a/index.html"));
+    }
+
+    @Test
+    void evictsUntilUnderDiskBudgetButKeepsNewestRun() throws Exception {
+        properties.getRetention().setMaxTotalSizeMb(1);
+
+        addRun("run-a", 600 * 1024);
+        addRun("run-b", 600 * 1024);
+
+        assertEquals(1, store.listRuns().size());
+        assertTrue(Files.exists(reportDir.resolve("run-b")));
+        assertFalse(Files.exists(reportDir.resolve("run-a")));
+    }
+
+    @Test
+    void loadRestoresRunsFromDisk() throws Exception {
+        addRun("run-a", 10);
+
+        AllureReportStore reloaded = new AllureReportStore(properties);
+        reloaded.load();
+
+        assertEquals(1, reloaded.listRuns().size());
+        assertEquals(reportDir.resolve("run-a"), reloaded.latestReportDir().orElseThrow());
+    }
+
+    private void addRun(String runId, int sizeBytes) throws Exception {
+        Path dir = reportDir.resolve(runId);
+        Files.createDirectories(dir);
+        Files.write(dir.resolve("index.html"), new byte[sizeBytes]);
+        store.register(runId, "smoke");
+    }
+}
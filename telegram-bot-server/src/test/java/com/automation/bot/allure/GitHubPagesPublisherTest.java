@@ -0,0 +1,112 @@
+package com.automation.bot.allure;
+
+import com.automation.bot.config.AllureProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Remote là 1 bare repo local → test được cả commit + push mà không cần GitHub.
+ */
+class GitHubPagesPublisherTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path remote;
+    private Path reportDir;
+    private GitHubPagesPublisher publisher;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        remote = tempDir.resolve("remote.git");
+        Path repo = tempDir.resolve("repo");
+        reportDir = tempDir.resolve("allure-report");
+
+        git(tempDir, "init", "--bare", "-q", remote.toString());
+        git(tempDir, "clone", "-q", remote.toString(), repo.toString());
+        git(repo, "config", "user.email", "bot@example.com");
+        git(repo, "config", "user.name", "bot");
+        Files.writeString(repo.resolve("README.md"), "main");
+        git(repo, "add", ".");
+        git(repo, "commit", "-q", "-m", "init");
+        git(repo, "push", "-q", "origin", "HEAD");
+
+        Files.createDirectories(reportDir.resolve("data"));
+        Files.writeString(reportDir.resolve("index.html"), "<html>report</html>");
+        Files.writeString(reportDir.resolve("data/results.json"), "{\"passed\":1}");
+        Files.writeString(reportDir.resolve("data/stale.json"), "{}");
+
+        AllureProperties properties = new AllureProperties();
+        properties.setReportDir(reportDir.toString());
+        properties.getGithubPages().setEnabled(true);
+        properties.getGithubPages().setRepoPath(repo.toString());
+        publisher = new GitHubPagesPublisher(properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        publisher.shutdown();
+    }
+
+    @Test
+    void publishPushesReportToRemote() throws Exception {
+        assertTrue(publisher.requestPublish().get(1, TimeUnit.MINUTES));
+
+        assertEquals("<html>report</html>", git(remote, "show", "gh-pages:index.html"));
+        assertEquals(3, publisher.getMetrics().lastFilesChanged());
+    }
+
+    @Test
+    void secondPublishCopiesOnlyChangedFiles() throws Exception {
+        assertTrue(publisher.requestPublish().get(1, TimeUnit.MINUTES));
+
+        String changed = "{\"passed\":2}";
+        Files.writeString(reportDir.resolve("data/results.json"), changed);
+        Files.delete(reportDir.resolve("data/stale.json"));
+        assertTrue(publisher.requestPublish().get(1, TimeUnit.MINUTES));
+
+        GitHubPagesPublisher.PublishMetrics metrics = publisher.getMetrics();
+        assertEquals(2, metrics.publishCount());
+        assertEquals(2, metrics.lastFilesChanged());
+        assertEquals(changed.length(), metrics.lastBytesWritten());
+        assertEquals(changed, git(remote, "show", "gh-pages:data/results.json"));
+        assertFalse(git(remote, "ls-tree", "-r", "--name-only", "gh-pages").contains("stale.json"));
+    }
+
+    @Test
+    void requestsWhilePendingAreCoalesced() throws Exception {
+        CompletableFuture<Boolean> first = publisher.requestPublish();
+        CompletableFuture<Boolean> second = publisher.requestPublish();
+        CompletableFuture<Boolean> third = publisher.requestPublish();
+
+        // first có thể đã bắt đầu chạy → second mở 1 publish mới, third gộp vào second
+        assertSame(second, third);
+        assertTrue(first.get(1, TimeUnit.MINUTES));
+        assertTrue(third.get(1, TimeUnit.MINUTES));
+        assertTrue(publisher.getMetrics().coalescedCount() >= 1);
+    }
+
+    private static String git(Path workDir, String... args) throws Exception {
+        String[] command = new String[args.length + 1];
+        command[0] = "git";
+        System.arraycopy(args, 0, command, 1, args.length);
+        Process process = new ProcessBuilder(command)
+                .directory(new File(workDir.toString()))
+                .redirectErrorStream(true)
+                .start();
+        String output = new String(process.getInputStream().readAllBytes()).trim();
+        assertTrue(process.waitFor(1, TimeUnit.MINUTES));
+        assertEquals(0, process.exitValue(), output);
+        return output;
+    }
+}
@@ -54,4 +54,19 @@ class CommandParserTest {
         assertEquals("env", result.name());
         assertEquals("dev staging", result.args());
     }
+
+    @Test
+    void parseRunArgsSplitsOptionsFromPositional() {
+        CommandParser.RunArgs args = CommandParser.parseRunArgs("login stage failfast=5");
+        assertEquals("login stage", args.positional());
+        assertEquals("5", args.option("failfast"));
+
+        CommandParser.RunArgs flag = CommandParser.parseRunArgs("FailFast stage");
+        assertEquals("stage", flag.positional());
+        assertEquals("", flag.option("failfast"));
+
+        CommandParser.RunArgs none = CommandParser.parseRunArgs(null);
+        assertEquals("", none.positional());
+        assertNull(none.option("failfast"));
+    }
 }
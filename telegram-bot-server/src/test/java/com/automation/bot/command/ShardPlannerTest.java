@@ -0,0 +1,48 @@
+package com.automation.bot.command;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardPlannerTest {
+
+    @Test
+    void longestClassGetsItsOwnShard() {
+        Map<String, Long> durations = new LinkedHashMap<>();
+        durations.put("LoginTest", 60_000L);
+        durations.put("CheckoutTest", 600_000L);
+        durations.put("HomePageTest", 60_000L);
+        durations.put("DashboardTest", 120_000L);
+        durations.put("SearchTest", 60_000L);
+
+        List<List<String>> shards = ShardPlanner.balance(durations, 2);
+
+        assertEquals(2, shards.size());
+        assertEquals(List.of("CheckoutTest"), shards.get(0));
+        assertEquals(4, shards.get(1).size());
+    }
+
+    @Test
+    void balancesEqualDurationsEvenly() {
+        Map<String, Long> durations = new LinkedHashMap<>();
+        for (int i = 0; i < 6; i++) {
+            durations.put("Test" + i, 1000L);
+        }
+
+        List<List<String>> shards = ShardPlanner.balance(durations, 3);
+
+        assertEquals(3, shards.size());
+        shards.forEach(shard -> assertEquals(2, shard.size()));
+    }
+
+    @Test
+    void dropsEmptyShardsWhenFewerClassesThanShards() {
+        List<List<String>> shards = ShardPlanner.balance(Map.of("LoginTest", 1000L), 3);
+
+        assertEquals(List.of(List.of("LoginTest")), shards);
+    }
+}
@@ -0,0 +1,52 @@
+package com.automation.bot.command;
+
+import com.automation.bot.runner.RunStatus;
+import com.automation.bot.runner.TestRunResult;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestRunPipelineTest {
+
+    @Test
+    void timedOutRunWithOnlyPassingTestsIsReportedAsFailedAndIncomplete() {
+        TestRunResult raw = TestRunResult.builder()
+                .runId("r1").status(RunStatus.FAILED).duration(Duration.ofMinutes(30))
+                .errorMessage("Timeout after 30 minutes").incomplete(true).build();
+        // buildResult() từ 4 test đã chạy kịp, đều pass
+        TestRunResult parsed = TestRunResult.builder()
+                .runId("r1").status(RunStatus.COMPLETED).totalTests(4).passed(4).duration(Duration.ofMinutes(30)).build();
+
+        TestRunResult result = TestRunPipeline.withInterruption(parsed,
+                TestRunPipeline.interruptionReason(raw, false, null, true));
+
+        assertEquals(RunStatus.FAILED, result.getStatus());
+        assertEquals("Timeout after 30 minutes", result.getErrorMessage());
+        assertTrue(result.isIncomplete());
+        assertEquals(4, result.getPassed());
+    }
+
+    @Test
+    void cancelledRunIsIncompleteButFailingTestsAloneAreNot() {
+        TestRunResult testsFailed = TestRunResult.builder()
+                .runId("r1").status(RunStatus.FAILED).errorMessage("Exit code: 1").build();
+
+        assertEquals("Cancelled", TestRunPipeline.interruptionReason(testsFailed, true, null, false));
+        // Exit code khác 0 vì có test fail = run chạy hết, giữ status tính từ suites
+        assertNull(TestRunPipeline.interruptionReason(testsFailed, false, null, false));
+    }
+
+    @Test
+    void partialStreamedResultsOfANormallyEndedProcessAreIncomplete() {
+        // Process thoát (vd. Surefire fork bị OOM kill) mà không có runFinish lẫn Surefire XML
+        TestRunResult raw = TestRunResult.builder()
+                .runId("r1").status(RunStatus.FAILED).errorMessage("Exit code: 1").build();
+
+        String reason = TestRunPipeline.interruptionReason(raw, false, null, true);
+
+        assertTrue(reason.startsWith("Incomplete results"));
+        assertTrue(TestRunPipeline.withInterruption(raw, reason).isIncomplete());
+    }
+}
@@ -0,0 +1,133 @@
+package com.automation.bot.discovery;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestSuiteScannerTest {
+
+    @TempDir
+    Path framework;
+
+    private final TestSuiteScanner scanner = new TestSuiteScanner();
+    private Path tests;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Files.writeString(framework.resolve("pom.xml"), """
+                <project><profiles>
+                  <profile><id>smoke</id></profile>
+                  <profile><id>regression</id></profile>
+                </profiles></project>
+                """);
+        tests = framework.resolve("src/test/java/com/automation");
+        write("ui/LoginTest.java");
+        write("ui/DashboardTest.java");
+        write("api/AuthApiTest.java");
+        write("base/BaseTest.java");
+        write("dataproviders/LoginDataProvider.java");
+    }
+
+    @Test
+    void singlePassIndexesProfilesClassesAndGroups() {
+        TestSuiteScanner.Snapshot snapshot = scanner.index(framework.toString());
+
+        assertEquals(List.of("smoke", "regression"),
+                snapshot.profiles().stream().map(DiscoveredCommand::getProfile).toList());
+        assertEquals(3, snapshot.testClasses().size());
+        assertEquals(List.of("api", "ui"), List.copyOf(snapshot.groups().keySet()));
+        assertEquals(List.of("dashboard", "login"),
+                snapshot.groups().get("ui").stream().map(DiscoveredCommand::getCommandName).toList());
+    }
+
+    @Test
+    void incrementalChangesUpdateOnlyAffectedEntries() throws Exception {
+        TestSuiteScanner.Snapshot initial = scanner.index(framework.toString());
+
+        // Sửa nội dung test → index không đổi
+        Path login = tests.resolve("ui/LoginTest.java");
+        Files.writeString(login, "class LoginTest { void changed() {} }");
+        scanner.onChanged(login);
+        assertEquals(initial, scanner.snapshot());
+
+        // Thêm cả package mới
+        write("ui/checkout/CheckoutTest.java");
+        scanner.onChanged(tests.resolve("ui/checkout"));
+        assertEquals(List.of("api", "checkout", "ui"), List.copyOf(scanner.snapshot().groups().keySet()));
+
+        // Xóa file và thư mục
+        Files.delete(login);
+        scanner.onDeleted(login);
+        scanner.onDeleted(tests.resolve("api"));
+        TestSuiteScanner.Snapshot after = scanner.snapshot();
+        assertEquals(List.of("checkout", "ui"), List.copyOf(after.groups().keySet()));
+        assertEquals(List.of("dashboard"),
+                after.groups().get("ui").stream().map(DiscoveredCommand::getCommandName).toList());
+        assertNotEquals(initial, after);
+    }
+
+    @Test
+    void pomChangeReparsesProfiles() throws Exception {
+        scanner.index(framework.toString());
+
+        Files.writeString(framework.resolve("pom.xml"), "<project><profiles><profile><id>api</id></profile></profiles></project>");
+        scanner.onChanged(framework.resolve("pom.xml"));
+
+        assertEquals(List.of("api"),
+                scanner.snapshot().profiles().stream().map(DiscoveredCommand::getProfile).toList());
+    }
+
+    @Test
+    void indexesTestMethodsWithCategoriesAndDescriptions() throws Exception {
+        Files.writeString(tests.resolve("ui/CheckoutTest.java"), """
+                public class CheckoutTest extends BaseTest {
+                    @BeforeMethod(alwaysRun = true)
+                    public void navigateAndAddProduct() { }
+
+                    @Test(description = "Complete checkout with Cash on Delivery (COD)",
+                            dataProvider = "defaultCheckoutData", dataProviderClass = CheckoutDataProvider.class)
+                    @FrameworkAnnotation(category = {CategoryType.SMOKE, CategoryType.REGRESSION},
+                            author = "Framework", description = "Checkout end-to-end with COD payment")
+                    @Severity(SeverityLevel.BLOCKER)
+                    public void testCheckoutWithCashOnDelivery(Map<String, String> data) { }
+
+                    @Test
+                    public void testCheckoutWithCard() { }
+
+                    @Test(enabled = false)
+                    public void testDisabled() { }
+
+                    // @Test
+                    // public void testCommentedOut() { }
+                }
+                """);
+        scanner.index(framework.toString());
+
+        DiscoveredCommand checkout = scanner.snapshot().groups().get("ui").stream()
+                .filter(c -> c.getTestClass().equals("CheckoutTest")).findFirst().orElseThrow();
+        assertEquals(List.of(
+                new TestMethodInfo("testCheckoutWithCashOnDelivery", "Checkout end-to-end with COD payment",
+                        List.of("SMOKE", "REGRESSION")),
+                new TestMethodInfo("testCheckoutWithCard", null, List.of())), checkout.getMethods());
+
+        GroupCommand.SubCommandInfo sub = new GroupCommand.SubCommandInfo("checkout", "CheckoutTest",
+                "Run CheckoutTest", checkout.getMethods());
+        assertEquals(List.of("testCheckoutWithCashOnDelivery"), GroupCommand.resolveMethods(sub, "cashondelivery"));
+        assertEquals(List.of("testCheckoutWithCard", "testCheckoutWithCashOnDelivery"),
+                GroupCommand.resolveMethods(sub, "TESTCHECKOUTWITHCARD+cash"));
+        // "checkout" khớp cả 2 method → không đoán
+        assertNull(GroupCommand.resolveMethods(sub, "checkout"));
+    }
+
+    private void write(String relative) throws Exception {
+        Path file = tests.resolve(relative);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, "class " + file.getFileName().toString().replace(".java", "") + " {}");
+    }
+}
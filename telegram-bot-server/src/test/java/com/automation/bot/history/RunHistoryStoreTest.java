@@ -0,0 +1,206 @@
+package com.automation.bot.history;
+
+import com.automation.bot.config.HistoryProperties;
+import com.automation.bot.parser.model.TestCase;
+import com.automation.bot.parser.model.TestSuite;
+import com.automation.bot.runner.RunStatus;
+import com.automation.bot.runner.TestRunRequest;
+import com.automation.bot.runner.TestRunResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RunHistoryStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private HistoryProperties properties;
+    private RunHistoryStore store;
+
+    @BeforeEach
+    void setUp() {
+        properties = new HistoryProperties();
+        properties.setFile(tempDir.resolve("history/runs.jsonl").toString());
+        store = new RunHistoryStore(properties);
+    }
+
+    @Test
+    void statsForTestClassUsesPerRunClassDuration() throws Exception {
+        // LoginTest: 1s, 2s, ..., 10s qua 10 run
+        for (int i = 1; i <= 10; i++) {
+            record("run" + i, "smoke", i * 1000L, suite("com.automation.tests.LoginTest", "testLogin", i, false));
+        }
+
+        RunHistoryStore.DurationStats stats = store.durationStats("LoginTest", 30).orElseThrow();
+
+        assertEquals(10, stats.samples());
+        assertEquals(5000, stats.p50Millis());
+        assertEquals(10000, stats.p95Millis());
+        assertEquals(1.0, stats.passRate());
+    }
+
+    @Test
+    void statsForMethodAndLabelAreLimitedToLastRuns() throws Exception {
+        record("run1", "smoke", 9000, suite("com.automation.tests.LoginTest", "testLogin", 9, true));
+        record("run2", "smoke", 2000, suite("com.automation.tests.LoginTest", "testLogin", 2, false));
+        record("run3", "smoke", 3000, suite("com.automation.tests.LoginTest", "testLogin", 3, false));
+
+        RunHistoryStore.DurationStats method = store.durationStats("LoginTest#testLogin", 2).orElseThrow();
+        assertEquals(2, method.samples());
+        assertEquals(3000, method.maxMillis());
+
+        RunHistoryStore.DurationStats label = store.durationStats("smoke", 30).orElseThrow();
+        assertEquals(3, label.samples());
+        assertEquals(2.0 / 3, label.passRate(), 0.001);
+
+        assertTrue(store.durationStats("UnknownTest", 30).isEmpty());
+    }
+
+    @Test
+    void timedOutOrCancelledRunsDoNotSkewEstimates() throws Exception {
+        record("run1", "smoke", 60_000, suite("com.automation.tests.LoginTest", "testLogin", 60, false));
+        TestRunResult timedOut = result("run2", false).toBuilder()
+                .status(RunStatus.FAILED).errorMessage("Timeout after 30 minutes").incomplete(true).build();
+
+        assertNull(store.record(request("run2", "smoke"), "smoke", timedOut,
+                List.of(suite("com.automation.tests.LoginTest", "testLogin", 2, false))));
+
+        assertEquals(1, store.durationStats("LoginTest", 30).orElseThrow().samples());
+        assertEquals(1, store.recentRuns(42L, 10).size());
+    }
+
+    @Test
+    void methodSelectionRunsCountPerMethodButNotForTheClass() throws Exception {
+        TestSuite fullClass = suite("com.automation.tests.LoginTest", "testLogin", 10, false);
+        fullClass.setTestCases(List.of(fullClass.getTestCases().get(0),
+                suite("com.automation.tests.LoginTest", "testLogout", 20, false).getTestCases().get(0)));
+        record("run1", "ui/login", 30_000, fullClass);
+        TestRunRequest selection = TestRunRequest.builder()
+                .runId("run2").chatId(42L).userId(7L).env("dev").testClass("LoginTest#testLogin")
+                .browser("chrome").build();
+        store.record(selection, "ui/login#testLogin", result("run2", false),
+                List.of(suite("com.automation.tests.LoginTest", "testLogin", 12, false)));
+
+        // Run chỉ chạy testLogin không kéo p50 của cả class xuống
+        RunHistoryStore.DurationStats cls = store.durationStats("LoginTest", 30).orElseThrow();
+        assertEquals(1, cls.samples());
+        assertEquals(30_000, cls.p50Millis());
+        assertEquals(2, store.durationStats("LoginTest#testLogin", 30).orElseThrow().samples());
+
+        TestRunRequest methods = TestRunRequest.builder()
+                .runId("next").testClasses("LoginTest#testLogin+testLogout,UnknownTest").build();
+        assertEquals(10_000 + 20_000, store.estimateMillis(methods).orElseThrow());
+        TestRunRequest unseenMethod = TestRunRequest.builder().runId("next").testClass("LoginTest#testReset").build();
+        assertEquals(30_000, store.estimateMillis(unseenMethod).orElseThrow());
+    }
+
+    @Test
+    void historySurvivesReloadAndSkipsCorruptLine() throws Exception {
+        record("run1", "smoke", 1000, suite("com.automation.tests.LoginTest", "testLogin", 1, false));
+        Files.writeString(Path.of(properties.getFile()), "{\"runId\":\"trunc",
+                java.nio.file.StandardOpenOption.APPEND);
+
+        RunHistoryStore reloaded = new RunHistoryStore(properties);
+        reloaded.load();
+
+        List<RunRecord> runs = reloaded.recentRuns(42L, 10);
+        assertEquals(1, runs.size());
+        assertEquals("run1", runs.get(0).runId());
+        assertEquals(1, runs.get(0).tests().size());
+    }
+
+    @Test
+    void flakyTestsRankedByWastedRetryTimeFromSidecar() throws Exception {
+        // run1: testLogin fail lần đầu (4s), pass khi retry; testLogout retry 2 lần (1s + 1s) vẫn fail
+        Path results = Files.createDirectories(tempDir.resolve("run1/allure-results"));
+        Files.writeString(results.resolve(RetryOutcomeReader.SIDECAR_FILE), """
+                {"runId": "run1", "attempts": [
+                  {"className": "com.automation.tests.LoginTest", "method": "testLogin", "attempt": 1,
+                   "status": "RETRIED", "durationMillis": 4000, "errorType": "org.openqa.selenium.TimeoutException",
+                   "classification": "TRANSIENT"},
+                  {"className": "com.automation.tests.LoginTest", "method": "testLogin", "attempt": 2,
+                   "status": "PASSED", "durationMillis": 3000},
+                  {"className": "com.automation.tests.LoginTest", "method": "testLogout", "attempt": 1,
+                   "status": "RETRIED", "durationMillis": 1000},
+                  {"className": "com.automation.tests.LoginTest", "method": "testLogout", "attempt": 2,
+                   "status": "RETRIED", "durationMillis": 1000},
+                  {"className": "com.automation.tests.LoginTest", "method": "testLogout", "attempt": 3,
+                   "status": "FAILED", "durationMillis": 1000}
+                ]}
+                """);
+        List<RunRecord.RetryRecord> retries = new RetryOutcomeReader().read(results);
+        assertEquals(2, retries.size());
+        assertEquals(new RunRecord.RetryRecord("com.automation.tests.LoginTest", "testLogin", null, 2, 4000,
+                "PASSED", "org.openqa.selenium.TimeoutException", "TRANSIENT"), retries.get(0));
+
+        store.record(request("run1", "smoke"), "smoke", result("run1", false),
+                List.of(suite("com.automation.tests.LoginTest", "testLogin", 3, false)), retries);
+        // testHome: pass → fail → pass, không retry nhưng đổi trạng thái 2 lần
+        record("run2", "smoke", 1000, suite("com.automation.tests.HomeTest", "testHome", 1, false));
+        record("run3", "smoke", 1000, suite("com.automation.tests.HomeTest", "testHome", 1, true));
+        record("run4", "smoke", 1000, suite("com.automation.tests.HomeTest", "testHome", 1, false));
+        record("run5", "smoke", 1000, suite("com.automation.tests.StableTest", "testStable", 1, false));
+
+        List<RunHistoryStore.FlakyStats> flaky = store.flakyTests(50);
+
+        assertEquals(List.of("LoginTest#testLogin", "LoginTest#testLogout", "HomeTest#testHome"),
+                flaky.stream().map(RunHistoryStore.FlakyStats::test).toList());
+        assertEquals(new RunHistoryStore.FlakyStats("LoginTest#testLogin", 1, 1, 0, 1, 4000, 1.0), flaky.get(0));
+        assertEquals(2, flaky.get(1).retries());
+        assertEquals(0, flaky.get(1).flakyRuns());
+        assertEquals(2, flaky.get(2).flips());
+        assertEquals(2.0 / 3, flaky.get(2).score(), 0.001);
+        assertTrue(new RetryOutcomeReader().read(tempDir.resolve("missing")).isEmpty());
+    }
+
+    private static TestRunRequest request(String runId, String label) {
+        return TestRunRequest.builder()
+                .runId(runId).chatId(42L).userId(7L).env("dev").profile(label).browser("chrome").build();
+    }
+
+    private static TestRunResult result(String runId, boolean failed) {
+        return TestRunResult.builder()
+                .runId(runId)
+                .status(failed ? RunStatus.FAILED : RunStatus.COMPLETED)
+                .totalTests(1).passed(failed ? 0 : 1).failed(failed ? 1 : 0)
+                .duration(Duration.ofMillis(1000))
+                .build();
+    }
+
+    private void record(String runId, String label, long durationMillis, TestSuite suite) throws Exception {
+        TestRunRequest request = TestRunRequest.builder()
+                .runId(runId).chatId(42L).userId(7L).env("dev").profile(label).browser("chrome").build();
+        boolean failed = suite.getFailures() > 0;
+        TestRunResult result = TestRunResult.builder()
+                .runId(runId)
+                .status(failed ? RunStatus.FAILED : RunStatus.COMPLETED)
+                .totalTests(1).passed(failed ? 0 : 1).failed(failed ? 1 : 0)
+                .duration(Duration.ofMillis(durationMillis))
+                .build();
+        store.record(request, label, result, List.of(suite));
+    }
+
+    private static TestSuite suite(String className, String method, double seconds, boolean failed) {
+        TestCase testCase = new TestCase();
+        testCase.setClassname(className);
+        testCase.setName(method);
+        testCase.setTime(seconds);
+        if (failed) {
+            testCase.setFailure(new TestCase.Failure());
+        }
+        TestSuite suite = new TestSuite();
+        suite.setName(className);
+        suite.setTests(1);
+        suite.setFailures(failed ? 1 : 0);
+        suite.setTestCases(List.of(testCase));
+        return suite;
+    }
+}
@@ -0,0 +1,44 @@
+package com.automation.bot.parser;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsoleProgressParserTest {
+
+    private final ConsoleProgressParser parser = new ConsoleProgressParser();
+
+    @Test
+    void countsTestListenerMarkers() {
+        parser.accept("2025-01-01 10:00:00.000 [main] INFO  c.a.l.TestListener - ========== Suite started: UI Tests (3 tests) ==========");
+        parser.accept("2025-01-01 10:00:01.000 [main] INFO  c.a.l.TestListener - --- Test started: testLoginSuccess ---");
+        parser.accept("2025-01-01 10:00:05.000 [main] INFO  c.a.l.TestListener - --- Test PASSED: testLoginSuccess ---");
+        parser.accept("2025-01-01 10:00:06.000 [main] INFO  c.a.l.TestListener - --- Test started: testLoginFailed ---");
+        parser.accept("2025-01-01 10:00:09.000 [main] ERROR c.a.l.TestListener - --- Test FAILED: testLoginFailed ---");
+
+        assertEquals(3, parser.getExpectedTotal());
+        assertEquals(1, parser.getPassed());
+        assertEquals(1, parser.getFailed());
+        assertEquals(2, parser.getCompleted());
+        assertEquals("testLoginFailed", parser.getCurrentTest());
+    }
+
+    @Test
+    void surefireSummaryOverridesCounts() {
+        parser.accept("--- Test PASSED: a ---");
+        parser.accept("[ERROR] Tests run: 5, Failures: 1, Errors: 1, Skipped: 1, Time elapsed: 12.3 s <<< FAILURE!");
+
+        assertEquals(2, parser.getPassed());
+        assertEquals(2, parser.getFailed());
+        assertEquals(1, parser.getSkipped());
+        assertEquals(5, parser.getExpectedTotal());
+    }
+
+    @Test
+    void ignoresUnrelatedLines() {
+        assertFalse(parser.accept("[INFO] Building Enterprise Automation Framework 1.0.0"));
+        assertFalse(parser.accept(""));
+        assertFalse(parser.accept(null));
+        assertEquals(0, parser.getCompleted());
+    }
+}
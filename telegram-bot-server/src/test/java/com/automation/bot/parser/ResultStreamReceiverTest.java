@@ -0,0 +1,97 @@
+package com.automation.bot.parser;
+
+import com.automation.bot.config.TestRunnerProperties;
+import com.automation.bot.parser.model.TestSuite;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultStreamReceiverTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ResultStreamReceiver receiver;
+
+    @BeforeEach
+    void setUp() {
+        TestRunnerProperties properties = new TestRunnerProperties();
+        properties.setWorkspaceDir(tempDir.toString());
+        receiver = new ResultStreamReceiver(properties);
+        receiver.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        receiver.shutdown();
+    }
+
+    @Test
+    void buildsSuitesFromStreamedEventsAndRetryReplacesEarlierResult() throws Exception {
+        LiveRunResult live = receiver.register("run1");
+        List<LiveRunResult.TestEvent> events = new CopyOnWriteArrayList<>();
+        live.onEvent(events::add);
+
+        send("""
+                {"type":"runStart","runId":"run1"}
+                {"type":"expected","runId":"run1","count":3}
+                {"type":"testStart","runId":"run1","className":"com.automation.LoginTest","method":"testOk"}
+                {"type":"testFinish","runId":"run1","className":"com.automation.LoginTest","method":"testOk","status":"PASSED","durationMillis":1500}
+                {"type":"testFinish","runId":"run1","className":"com.automation.LoginTest","method":"testFlaky","status":"SKIPPED","durationMillis":100}
+                {"type":"testFinish","runId":"run1","className":"com.automation.LoginTest","method":"testFlaky","status":"FAILED","durationMillis":200,"message":"expected [200] but found [401]","errorType":"java.lang.AssertionError"}
+                {"type":"testFinish","runId":"run1","className":"com.automation.CartTest","method":"testAdd","status":"ERROR","durationMillis":300,"message":"no such element","errorType":"org.openqa.selenium.NoSuchElementException"}
+                {"type":"runFinish","runId":"run1"}
+                """);
+
+        assertTrue(live.awaitFinished(Duration.ofSeconds(5)));
+        assertEquals(3, live.getExpectedTotal());
+        assertEquals(5, events.size());
+        assertTrue(events.get(3).isFailure());
+
+        List<TestSuite> suites = live.toSuites();
+        assertEquals(2, suites.size());
+        TestSuite login = suites.get(0);
+        assertEquals("com.automation.LoginTest", login.getName());
+        assertEquals(2, login.getTests());
+        assertEquals(1, login.getFailures());
+        assertEquals(0, login.getSkipped());
+        assertEquals("expected [200] but found [401]", login.getTestCases().get(1).getFailure().getMessage());
+        assertEquals(1, suites.get(1).getErrors());
+    }
+
+    @Test
+    void runWithoutStreamFallsBackImmediately() throws Exception {
+        LiveRunResult live = receiver.register("silent");
+        send("""
+                {"type":"runStart","runId":"other"}
+                {"type":"runFinish","runId":"other"}
+                """);
+
+        assertFalse(live.awaitFinished(Duration.ofSeconds(5)));
+        assertTrue(live.toSuites().isEmpty());
+    }
+
+    private void send(String lines) throws Exception {
+        String endpoint = receiver.endpoint();
+        assertNotNull(endpoint);
+        String hostPort = endpoint.substring("tcp:".length());
+        int colon = hostPort.lastIndexOf(':');
+        try (Socket socket = new Socket(hostPort.substring(0, colon), Integer.parseInt(hostPort.substring(colon + 1)));
+             OutputStream out = socket.getOutputStream()) {
+            out.write(lines.getBytes(StandardCharsets.UTF_8));
+        }
+        // Chờ receiver xử lý connection (đọc tới EOF) trước khi assert
+        Thread.sleep(200);
+    }
+}
@@ -85,4 +85,73 @@ class SurefireReportParserTest {
         assertEquals(1, failedTests.size());
         assertEquals("testFail", failedTests.get(0).getName());
     }
+
+    @Test
+    void streamingParseMatchesJacksonAndSkipsSystemOut(@TempDir Path tempDir) throws Exception {
+        Path reportsDir = tempDir.resolve("target/surefire-reports");
+        Files.createDirectories(reportsDir);
+
+        String longMessage = "x".repeat(2000);
+        String xml = """
+                <?xml version="1.0" encoding="UTF-8"?>
+                <testsuite name="com.automation.CartTest" tests="4" failures="1" errors="1" skipped="1" time="12.5">
+                    <properties><property name="browser" value="chrome"/></properties>
+                    <testcase name="testAdd" classname="com.automation.CartTest" time="1.5">
+                        <system-out><![CDATA[%s]]></system-out>
+                    </testcase>
+                    <testcase name="testRemove" classname="com.automation.CartTest" time="2.0">
+                        <failure message="%s" type="AssertionError">at com.automation.CartTest.testRemove</failure>
+                        <system-err>noise</system-err>
+                    </testcase>
+                    <testcase name="testCheckout" classname="com.automation.CartTest" time="0.5">
+                        <error message="NoSuchElement" type="org.openqa.selenium.NoSuchElementException">trace</error>
+                    </testcase>
+                    <testcase name="testCoupon" classname="com.automation.CartTest" time="0">
+                        <skipped/>
+                    </testcase>
+                    <system-out>suite level output</system-out>
+                </testsuite>
+                """.formatted("selenium log line\n".repeat(10_000), longMessage);
+        Path file = reportsDir.resolve("TEST-com.automation.CartTest.xml");
+        Files.writeString(file, xml);
+
+        TestSuite stax = parser.parseReports(tempDir.toString()).get(0);
+        TestSuite jackson = new XmlMapper().readValue(file.toFile(), TestSuite.class);
+
+        assertEquals(jackson.getName(), stax.getName());
+        assertEquals(jackson.getTests(), stax.getTests());
+        assertEquals(jackson.getFailures(), stax.getFailures());
+        assertEquals(jackson.getErrors(), stax.getErrors());
+        assertEquals(jackson.getSkipped(), stax.getSkipped());
+        assertEquals(jackson.getTime(), stax.getTime());
+        assertEquals(4, stax.getTestCases().size());
+
+        var failed = stax.getTestCases().get(1);
+        assertTrue(failed.isFailed());
+        assertEquals(SurefireReportParser.MAX_MESSAGE_CHARS + 3, failed.getFailure().getMessage().length());
+        assertTrue(stax.getTestCases().get(2).isError());
+        assertTrue(stax.getTestCases().get(3).isSkipped());
+        assertTrue(stax.getTestCases().get(0).isPassed());
+    }
+
+    @Test
+    void parsesManyFilesInParallelInNameOrderAndSkipsBrokenFile(@TempDir Path tempDir) throws Exception {
+        Path reportsDir = tempDir.resolve("target/surefire-reports");
+        Files.createDirectories(reportsDir);
+        for (int i = 0; i < 20; i++) {
+            String name = "com.automation.Test%02d".formatted(i);
+            Files.writeString(reportsDir.resolve("TEST-" + name + ".xml"), """
+                    <testsuite name="%s" tests="1" failures="0" errors="0" skipped="0" time="1">
+                        <testcase name="test" classname="%s" time="1"/>
+                    </testsuite>
+                    """.formatted(name, name));
+        }
+        Files.writeString(reportsDir.resolve("TEST-zzz.Broken.xml"), "<testsuite name=\"broken\"><testcase");
+
+        List<TestSuite> suites = parser.parseReports(tempDir.toString());
+
+        assertEquals(20, suites.size());
+        assertEquals("com.automation.Test00", suites.get(0).getName());
+        assertEquals("com.automation.Test19", suites.get(19).getName());
+    }
 }
@@ -0,0 +1,142 @@
+package com.automation.bot.runner;
+
+import com.automation.bot.config.TestRunnerProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControllerTest {
+
+    private final Clock clock = Clock.fixed(Instant.parse("2026-01-01T00:00:00Z"), ZoneOffset.UTC);
+    private TestRunnerProperties properties;
+    private long freeMemoryMb;
+    private double cpuLoad;
+    private int browsers;
+
+    @BeforeEach
+    void setUp() {
+        properties = new TestRunnerProperties();
+        TestRunnerProperties.Admission admission = properties.getAdmission();
+        admission.setEnabled(true);
+        admission.setMinRuns(1);
+        admission.setMaxRuns(4);
+        admission.setMemoryPerRunMb(1000);
+        admission.setReserveMemoryMb(1000);
+        admission.setMaxCpuLoad(0.8);
+        freeMemoryMb = 10_000;
+        cpuLoad = 0.2;
+    }
+
+    @Test
+    void floorAdmitsEvenWithoutMemoryAndCeilingAlwaysDefers() {
+        freeMemoryMb = 100;
+        AdmissionController controller = controller();
+
+        assertTrue(controller.admit(0));
+        assertFalse(controller.admit(1));
+        assertTrue(controller.getLastDecision().reason().startsWith("free memory"));
+
+        freeMemoryMb = 100_000;
+        assertFalse(controller().admit(4));
+    }
+
+    @Test
+    void recentlyAdmittedRunsReserveMemoryUntilRampUpEnds() {
+        // 3500 MB free, reserve 1000 → đủ cho 2 run, run thứ 3 phải chờ dù free memory chưa giảm
+        freeMemoryMb = 3_500;
+        AdmissionController controller = controller();
+
+        assertTrue(controller.admit(1));
+        assertTrue(controller.admit(2));
+        assertFalse(controller.admit(3));
+        assertEquals(3, controller.capacity(3));
+    }
+
+    @Test
+    void highCpuOrTooManyBrowsersDefers() {
+        cpuLoad = 0.95;
+        assertFalse(controller().admit(1));
+
+        cpuLoad = 0.2;
+        browsers = 3;
+        properties.getAdmission().setMaxBrowsers(3);
+        AdmissionController controller = controller();
+        assertFalse(controller.admit(1));
+        assertEquals(1, controller.capacity(1));
+    }
+
+    @Test
+    void disabledFallsBackToStaticLimit() {
+        properties.getAdmission().setEnabled(false);
+        properties.setMaxConcurrentRuns(3);
+        freeMemoryMb = 0;
+        AdmissionController controller = controller();
+
+        assertEquals(3, controller.ceiling());
+        assertTrue(controller.admit(2));
+        assertFalse(controller.admit(3));
+    }
+
+    @Test
+    void gridModeAdmitsByFreeGridSlotsInsteadOfLocalMemory() {
+        properties.getGrid().setEnabled(true);
+        properties.getGrid().setSessionsPerRun(2);
+        properties.getGrid().setMaxRuns(5);
+        freeMemoryMb = 0;
+        AdmissionController controller = new AdmissionController(properties,
+                () -> new AdmissionController.Sample(freeMemoryMb, 16_000, cpuLoad, browsers, browsers, clock.instant()),
+                () -> Map.of("chrome", 5, "firefox", 1), clock);
+        assertEquals("grid status unavailable", decideBeforeFirstSample(controller));
+        controller.refresh();
+
+        // 5 slot Chrome trống, 2 slot/run → 2 run; run thứ 2 giữ chỗ trong ramp-up nên run thứ 3 phải chờ
+        assertTrue(controller.admit(1));
+        assertTrue(controller.admit(2));
+        assertFalse(controller.admit(3));
+        assertTrue(controller.getLastDecision().reason().startsWith("grid: 5 free chrome slots"));
+        assertEquals(5, controller.ceiling());
+
+        // Slot Firefox tính riêng: 1 slot trống không đủ cho 1 run 2 session
+        assertFalse(controller.admit(1, "firefox"));
+        assertEquals(1, controller.capacity(1, "firefox"));
+    }
+
+    @Test
+    void admitOnlyReadsTheBackgroundSample() {
+        int[] samples = {0};
+        AdmissionController controller = new AdmissionController(properties, () -> {
+            samples[0]++;
+            return new AdmissionController.Sample(freeMemoryMb, 16_000, cpuLoad, browsers, browsers, clock.instant());
+        }, clock);
+
+        // Chưa đo lần nào → chỉ floor được admit, admit không tự đo
+        assertTrue(controller.admit(0));
+        assertFalse(controller.admit(1));
+        assertEquals("waiting for first sample", controller.getLastDecision().reason());
+        assertEquals(1, controller.capacity(1));
+        assertEquals(0, samples[0]);
+
+        controller.refresh();
+        assertTrue(controller.admit(1));
+        assertEquals(1, samples[0]);
+    }
+
+    private String decideBeforeFirstSample(AdmissionController controller) {
+        controller.admit(1);
+        return controller.getLastDecision().reason();
+    }
+
+    private AdmissionController controller() {
+        AdmissionController controller = new AdmissionController(properties,
+                () -> new AdmissionController.Sample(freeMemoryMb, 16_000, cpuLoad, browsers, browsers, clock.instant()),
+                clock);
+        controller.refresh();
+        return controller;
+    }
+}
@@ -0,0 +1,84 @@
+package com.automation.bot.runner;
+
+import com.automation.bot.parser.LiveRunResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FailFastMonitorTest {
+
+    private final List<String> aborts = new ArrayList<>();
+
+    @Test
+    void abortsOnceWhenFailureLimitReached() {
+        FailFastMonitor monitor = new FailFastMonitor(3, 0, aborts::add);
+
+        monitor.accept(finish("a", "PASSED", null, null));
+        monitor.accept(finish("b", "FAILED", "AssertionError", "expected 1"));
+        monitor.accept(finish("c", "ERROR", "NullPointerException", "boom"));
+        assertFalse(monitor.isTriggered());
+
+        monitor.accept(finish("d", "FAILED", "AssertionError", "expected 2 but was 3"));
+        monitor.accept(finish("e", "FAILED", "AssertionError", "again"));
+
+        assertTrue(monitor.isTriggered());
+        assertEquals(1, aborts.size());
+        assertEquals("3 failed tests (limit 3)", monitor.getReason());
+    }
+
+    @Test
+    void sameRootCauseTriggersBeforeLimit() {
+        FailFastMonitor monitor = new FailFastMonitor(10, 3, aborts::add);
+
+        // Số khác nhau (timeout, id) vẫn là cùng 1 nguyên nhân
+        monitor.accept(finish("a", "FAILED", "org.openqa.selenium.TimeoutException",
+                "Expected condition failed: waiting for #login (tried for 10 second(s))\nBuild info: ..."));
+        monitor.accept(finish("b", "FAILED", "org.openqa.selenium.TimeoutException",
+                "Expected condition failed: waiting for #login (tried for 15 second(s))"));
+        monitor.accept(finish("c", "FAILED", "AssertionError", "other"));
+        assertFalse(monitor.isTriggered());
+
+        monitor.accept(finish("d", "FAILED", "org.openqa.selenium.TimeoutException",
+                "Expected condition failed: waiting for #login (tried for 20 second(s))"));
+
+        assertTrue(monitor.isTriggered());
+        assertEquals(List.of("3 failures with the same cause: TimeoutException: "
+                + "expected condition failed: waiting for #login (tried for # second(s))"), aborts);
+    }
+
+    @Test
+    void ignoresStartEventsAndSkippedTests() {
+        FailFastMonitor monitor = new FailFastMonitor(1, 0, aborts::add);
+
+        monitor.accept(new LiveRunResult.TestEvent("testStart", "Cls", "a", null, null, 0, null, null));
+        monitor.accept(finish("b", "SKIPPED", null, "depends on a"));
+
+        assertFalse(monitor.isTriggered());
+        assertNull(monitor.getReason());
+    }
+
+    @Test
+    void countsConsoleFailedMarkersWhenStreamIsOff() {
+        FailFastMonitor monitor = new FailFastMonitor(2, 0, aborts::add);
+        var console = monitor.consoleFailures();
+
+        console.accept("--- Test started: LoginTest.validLogin ---");
+        console.accept("--- Test PASSED: LoginTest.validLogin ---");
+        console.accept("--- Test FAILED: LoginTest.invalidLogin ---");
+        console.accept("[INFO] Tests run: 2, Failures: 1, Errors: 0, Skipped: 0");
+        assertFalse(monitor.isTriggered());
+
+        console.accept("--- Test FAILED: LoginTest.lockedUser ---");
+
+        assertTrue(monitor.isTriggered());
+        assertEquals(List.of("2 failed tests (limit 2)"), aborts);
+    }
+
+    private static LiveRunResult.TestEvent finish(String method, String status, String errorType, String message) {
+        return new LiveRunResult.TestEvent("testFinish", "com.example.LoginTest", method, null, status,
+                100, message, errorType);
+    }
+}
@@ -0,0 +1,52 @@
+package com.automation.bot.runner;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GridStatusClientTest {
+
+    @Test
+    void countsFreeSlotsPerBrowserOnNodesThatAreUp() throws Exception {
+        // Node 1: 2 Chrome (1 bận) + 1 Firefox trống; node 2: Edge trống; node 3 DRAINING không tính
+        JsonNode status = new ObjectMapper().readTree("""
+                {"value": {"ready": true, "nodes": [
+                  {"availability": "UP", "slots": [
+                    {"stereotype": {"browserName": "chrome"}, "session": null},
+                    {"stereotype": {"browserName": "chrome"}, "session": {"sessionId": "abc"}},
+                    {"stereotype": {"browserName": "firefox"}, "session": null}
+                  ]},
+                  {"availability": "UP", "slots": [
+                    {"stereotype": {"browserName": "MicrosoftEdge"}}
+                  ]},
+                  {"availability": "DRAINING", "slots": [
+                    {"stereotype": {"browserName": "chrome"}, "session": null}
+                  ]}
+                ]}}
+                """);
+
+        Map<String, Integer> free = GridStatusClient.freeSlots(status);
+
+        assertEquals(1, free.get(GridStatusClient.browserKey("chrome")));
+        assertEquals(1, free.get(GridStatusClient.browserKey("firefox")));
+        assertEquals(1, free.get(GridStatusClient.browserKey("edge")));
+        assertNull(free.get(GridStatusClient.browserKey("safari")));
+    }
+
+    @Test
+    void browserWithOnlyBusySlotsHasZeroFree() throws Exception {
+        JsonNode status = new ObjectMapper().readTree("""
+                {"value": {"nodes": [
+                  {"availability": "UP", "slots": [
+                    {"stereotype": {"browserName": "firefox"}, "session": {"sessionId": "x"}}
+                  ]}
+                ]}}
+                """);
+
+        assertEquals(Map.of("firefox", 0), GridStatusClient.freeSlots(status));
+    }
+}
@@ -0,0 +1,133 @@
+package com.automation.bot.runner;
+
+import com.automation.bot.config.TestRunnerProperties;
+import com.automation.bot.parser.model.TestCase;
+import com.automation.bot.parser.model.TestSuite;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RerunStoreTest {
+
+    private static final String LOGIN = "com.automation.ui.LoginTest";
+    private static final String CART = "com.automation.ui.CartTest";
+
+    private TestRunnerProperties properties;
+    private Instant now;
+
+    @BeforeEach
+    void setUp() {
+        properties = new TestRunnerProperties();
+        properties.getRerun().setTtlMinutes(60);
+        now = Instant.parse("2026-01-01T00:00:00Z");
+    }
+
+    @Test
+    void selectionGroupsFailedMethodsByClassInSurefireSyntax() {
+        List<TestSuite> suites = List.of(
+                suite(LOGIN, passed(LOGIN, "testValid"), failed(LOGIN, "testLocked"),
+                        failed(LOGIN, "testWrongPassword[0](a, b)"), failed(LOGIN, "testWrongPassword[1](c, d)")),
+                suite(CART, error(CART, "testAddItem")));
+
+        RerunStore store = store();
+        assertTrue(store.remember("r1", request("r1"), "smoke", suites));
+
+        assertEquals(LOGIN + "#testLocked+testWrongPassword," + CART + "#testAddItem",
+                store.find("r1").orElseThrow().selection());
+    }
+
+    @Test
+    void onlyRunsWithFailuresAreKeptAndTheyExpire() {
+        RerunStore store = store();
+        assertFalse(store.remember("green", request("green"), "smoke",
+                List.of(suite(LOGIN, passed(LOGIN, "testValid")))));
+        assertTrue(store.find("green").isEmpty());
+
+        store.remember("red", request("red"), "smoke", List.of(suite(LOGIN, failed(LOGIN, "testLocked"))));
+        assertTrue(store.find("red").isPresent());
+
+        now = now.plus(Duration.ofMinutes(61));
+        assertTrue(store.find("red").isEmpty());
+    }
+
+    @Test
+    void mergeReplacesRerunMethodsAndKeepsOriginalPasses() {
+        List<TestSuite> original = List.of(
+                suite(LOGIN, passed(LOGIN, "testValid"), failed(LOGIN, "testLocked"), failed(LOGIN, "testExpired")),
+                suite(CART, passed(CART, "testAddItem")));
+        List<TestSuite> rerun = List.of(
+                suite(LOGIN, passed(LOGIN, "testLocked"), failed(LOGIN, "testExpired")));
+
+        List<TestSuite> merged = RerunStore.merge(original, rerun);
+
+        TestSuite login = merged.get(0);
+        assertEquals(3, login.getTests());
+        assertEquals(1, login.getFailures());
+        assertEquals(List.of("testValid", "testLocked", "testExpired"),
+                login.getTestCases().stream().map(TestCase::getName).toList());
+        assertTrue(login.getTestCases().get(1).isPassed());
+        assertEquals(1, merged.get(1).getTests());
+        assertEquals(2, merged.size());
+    }
+
+    private RerunStore store() {
+        Clock clock = new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return now;
+            }
+        };
+        return new RerunStore(properties, clock);
+    }
+
+    private static TestRunRequest request(String runId) {
+        return TestRunRequest.builder().runId(runId).chatId(1).env("dev").profile("smoke").build();
+    }
+
+    private static TestSuite suite(String name, TestCase... cases) {
+        TestSuite suite = new TestSuite();
+        suite.setName(name);
+        suite.getTestCases().addAll(List.of(cases));
+        suite.setTests(cases.length);
+        return suite;
+    }
+
+    private static TestCase passed(String classname, String name) {
+        TestCase tc = new TestCase();
+        tc.setClassname(classname);
+        tc.setName(name);
+        return tc;
+    }
+
+    private static TestCase failed(String classname, String name) {
+        TestCase tc = passed(classname, name);
+        TestCase.Failure failure = new TestCase.Failure();
+        failure.setMessage("expected true");
+        tc.setFailure(failure);
+        return tc;
+    }
+
+    private static TestCase error(String classname, String name) {
+        TestCase tc = passed(classname, name);
+        tc.setError(new TestCase.Failure());
+        return tc;
+    }
+}
@@ -0,0 +1,129 @@
+package com.automation.bot.runner;
+
+import com.automation.bot.config.TestRunnerProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RunResultCacheTest {
+
+    private TestRunnerProperties properties;
+    private RunResultCache.Revision revision;
+    private Instant now;
+
+    @BeforeEach
+    void setUp() {
+        properties = new TestRunnerProperties();
+        properties.getResultCache().setTtlMinutes(30);
+        revision = new RunResultCache.Revision("abc1234def", "");
+        now = Instant.parse("2026-01-01T00:00:00Z");
+    }
+
+    @Test
+    void hitForSameRevisionAndSpecFromAnotherChat() {
+        RunResultCache cache = cache();
+        TestRunRequest first = request("r1", 1, "dev");
+        cache.put(cache.keyFor(first), first, "smoke", result(RunStatus.COMPLETED), List.of());
+        cache.attachReport(cache.keyFor(first), "https://reports/r1");
+
+        RunResultCache.Entry entry = cache.lookup(request("r2", 2, "dev"), false).orElseThrow();
+
+        assertEquals("r1", entry.getRunId());
+        assertEquals("https://reports/r1", entry.getAllureUrl());
+        assertTrue(cache.lookup(request("r3", 1, "stage"), false).isEmpty());
+        assertEquals(new RunResultCache.Stats(1, 1, 0, 1), cache.getStats());
+    }
+
+    @Test
+    void dirtyTreeOrNewCommitMisses() {
+        RunResultCache cache = cache();
+        TestRunRequest first = request("r1", 1, "dev");
+        cache.put(cache.keyFor(first), first, "smoke", result(RunStatus.COMPLETED), List.of());
+
+        revision = new RunResultCache.Revision("abc1234def", "0f0f0f0f");
+        assertTrue(cache.lookup(request("r2", 1, "dev"), false).isEmpty());
+
+        revision = null;
+        assertTrue(cache.lookup(request("r3", 1, "dev"), false).isEmpty());
+        assertEquals(2, cache.getStats().misses());
+    }
+
+    @Test
+    void expiresAfterTtlAndForceBypasses() {
+        RunResultCache cache = cache();
+        TestRunRequest first = request("r1", 1, "dev");
+        cache.put(cache.keyFor(first), first, "smoke", result(RunStatus.COMPLETED), List.of());
+
+        assertTrue(cache.lookup(request("r2", 1, "dev"), true).isEmpty());
+        assertEquals(1, cache.getStats().bypassed());
+
+        now = now.plus(Duration.ofMinutes(31));
+        assertTrue(cache.lookup(request("r3", 1, "dev"), false).isEmpty());
+        assertEquals(0, cache.getStats().entries());
+    }
+
+    @Test
+    void skipsFailedAndAbortedRunsByDefault() {
+        RunResultCache cache = cache();
+        TestRunRequest request = request("r1", 1, "dev");
+        cache.put(cache.keyFor(request), request, "smoke", result(RunStatus.FAILED), List.of());
+        cache.put(cache.keyFor(request), request, "smoke",
+                result(RunStatus.COMPLETED).toBuilder().errorMessage("Aborted by fail-fast").build(), List.of());
+        assertEquals(0, cache.getStats().entries());
+
+        properties.getResultCache().setCacheFailed(true);
+        cache.put(cache.keyFor(request), request, "smoke", result(RunStatus.FAILED), List.of());
+        assertEquals(1, cache.getStats().entries());
+    }
+
+    @Test
+    void skipsIncompleteRunEvenWhenEveryTestThatRanPassed() {
+        properties.getResultCache().setCacheFailed(true);
+        RunResultCache cache = cache();
+        TestRunRequest request = request("r1", 1, "dev");
+        cache.put(cache.keyFor(request), request, "smoke",
+                result(RunStatus.COMPLETED).toBuilder().incomplete(true).build(), List.of());
+
+        assertEquals(0, cache.getStats().entries());
+    }
+
+    private RunResultCache cache() {
+        Clock clock = new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return now;
+            }
+        };
+        return new RunResultCache(properties, () -> revision, clock);
+    }
+
+    private static TestRunRequest request(String runId, long chatId, String env) {
+        return TestRunRequest.builder()
+                .runId(runId).chatId(chatId).userId(chatId).env(env).profile("smoke")
+                .browser("chrome").headless(true).build();
+    }
+
+    private static TestRunResult result(RunStatus status) {
+        return TestRunResult.builder()
+                .runId("r1").status(status).totalTests(3).passed(status == RunStatus.COMPLETED ? 3 : 2)
+                .failed(status == RunStatus.COMPLETED ? 0 : 1).duration(Duration.ofSeconds(40)).build();
+    }
+}
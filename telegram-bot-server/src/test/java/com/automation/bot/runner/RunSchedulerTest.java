@@ -0,0 +1,89 @@
+package com.automation.bot.runner;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RunSchedulerTest {
+
+    private final RunScheduler scheduler = new RunScheduler(Duration.ofMinutes(30));
+
+    @Test
+    void userWithFewerRunningSlotsGoesFirst() throws Exception {
+        scheduler.add(run("a1", 1, 1, 60));
+        scheduler.add(run("a2", 1, 1, 60));
+        scheduler.add(run("a3", 1, 1, 60));
+        scheduler.add(run("b1", 2, 1, 60));
+
+        assertEquals("a1", scheduler.take().getRequest().getRunId());
+        // User 1 đang chạy 1 run → run của user 2 đi trước dù submit sau
+        assertEquals("b1", scheduler.take().getRequest().getRunId());
+        assertEquals("a2", scheduler.take().getRequest().getRunId());
+    }
+
+    @Test
+    void priorityThenShortestJobThenFifo() throws Exception {
+        scheduler.add(run("regression", 1, 2, 60));
+        scheduler.add(run("long", 2, 1, 600));
+        scheduler.add(run("short", 3, 1, 30));
+        scheduler.add(run("short-later", 4, 1, 30));
+        scheduler.add(run("smoke", 5, 0, 900));
+
+        List<String> order = scheduler.pendingInOrder().stream()
+                .map(info -> info.getRequest().getRunId())
+                .toList();
+
+        assertEquals(List.of("smoke", "short", "short-later", "long", "regression"), order);
+    }
+
+    @Test
+    void agedRunOvertakesHigherPriority() throws Exception {
+        RunScheduler shortWait = new RunScheduler(Duration.ofMillis(50));
+        shortWait.add(run("old-regression", 1, 2, 600));
+        Thread.sleep(100);
+        shortWait.add(run("smoke", 2, 0, 30));
+
+        // Regression đã chờ quá maxWait → đi trước smoke vừa submit
+        assertEquals("old-regression", shortWait.take().getRequest().getRunId());
+    }
+
+    @Test
+    void runForDeferredBrowserDoesNotBlockOtherBrowsers() throws Exception {
+        scheduler.add(run("firefox-smoke", 1, 0, 60, "firefox"));
+        scheduler.add(run("chrome-regression", 2, 2, 60, "chrome"));
+
+        // Grid hết slot Firefox → run Chrome đứng sau vẫn được lấy
+        TestRunQueue.TestRunInfo next = scheduler.take((running, browser) -> !"firefox".equals(browser),
+                Duration.ofMillis(10));
+
+        assertEquals("chrome-regression", next.getRequest().getRunId());
+    }
+
+    @Test
+    void findPendingAndRemove() throws Exception {
+        TestRunQueue.TestRunInfo info = run("x", 1, 1, 60);
+        scheduler.add(info);
+
+        assertTrue(scheduler.findPending("key-x").isPresent());
+        assertTrue(scheduler.remove(info));
+        assertTrue(scheduler.findPending("key-x").isEmpty());
+
+        scheduler.close();
+        assertNull(scheduler.take());
+    }
+
+    private static TestRunQueue.TestRunInfo run(String runId, long userId, int priority, long estimateSeconds) {
+        return run(runId, userId, priority, estimateSeconds, "chrome");
+    }
+
+    private static TestRunQueue.TestRunInfo run(String runId, long userId, int priority, long estimateSeconds,
+                                                String browser) {
+        TestRunRequest request = TestRunRequest.builder()
+                .runId(runId).chatId(userId).userId(userId).env("dev").browser(browser).build();
+        return new TestRunQueue.TestRunInfo(request, null, priority,
+                Duration.ofSeconds(estimateSeconds), "key-" + runId);
+    }
+}